@@ -0,0 +1,64 @@
+package benchmarks;
+
+import dataStructures.ConcurrentHashTable;
+import dataStructures.HashTableOpen;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Measures how the throughput of ConcurrentHashTable scales with the number of threads sharing it,
+ * compared to a HashTableOpen guarded by a lock. Each thread repeatedly looks up a random key, and
+ * one operation in ten is an insertion instead, which is the access pattern of a shared cache or
+ * registry. The total number of operations completed in a fixed interval is reported for each
+ * thread count.
+ */
+public class ConcurrentHashTableBenchmark {
+  private static final int KEYS = 100_000, WRITE_PERCENT = 10;
+
+  /**
+   * A table operation performed by each benchmark thread.
+   */
+  private interface TableOp { void run(Integer key, boolean write); }
+
+  /**
+   * Runs the benchmark for 1, 2, 4, ... threads, up to twice the number of available processors.
+   * @param args unused
+   * @throws InterruptedException if the benchmark is interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    String[] contenders = {"ConcurrentHashTable", "locked HashTableOpen"};
+    ThroughputHarness.run(contenders, threads -> {
+      ConcurrentHashTable<Integer, Integer> concurrent = new ConcurrentHashTable<>();
+      HashTableOpen locked = new HashTableOpen();
+      for (int i = 0; i < KEYS; i += 2) {
+        concurrent.put(i, i);
+        locked.put(i, i);
+      }
+      long concurrentOps = ThroughputHarness.measure(threads, randomOp((key, write) -> {
+        if (write) concurrent.put(key, key);
+        else concurrent.get(key);
+      }));
+      long lockedOps = ThroughputHarness.measure(threads, randomOp((key, write) -> {
+        synchronized (locked) {
+          if (write) locked.put(key, key);
+          else locked.get(key);
+        }
+      }));
+      return new long[] {concurrentOps, lockedOps};
+    });
+  }
+
+  /**
+   * Wraps the given table operation in a benchmark operation that runs it on a random key, as a
+   * write WRITE_PERCENT percent of the time.
+   * @param op the table operation
+   * @return the benchmark operation
+   */
+  private static IntConsumer randomOp(TableOp op) {
+    return threadId -> {
+      ThreadLocalRandom rand = ThreadLocalRandom.current();
+      op.run(rand.nextInt(KEYS), rand.nextInt(100) < WRITE_PERCENT);
+    };
+  }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import dataStructures.ConcurrentStack;
+import dataStructures.Stack;
+
+/**
+ * Measures how the throughput of ConcurrentStack scales with the number of threads sharing it,
+ * compared to a Stack guarded by a lock. Each thread repeatedly pushes an element and pops an
+ * element, which is the access pattern of a shared free-list or work pool, and the total number
+ * of operations completed in a fixed interval is reported for each thread count.
+ */
+public class ConcurrentStackBenchmark {
+  private static final int PREFILL = 1000;
+
+  /**
+   * Runs the benchmark for 1, 2, 4, ... threads, up to twice the number of available processors.
+   * @param args unused
+   * @throws InterruptedException if the benchmark is interrupted
+   */
+  public static void main(String[] args) throws InterruptedException {
+    ThroughputHarness.run(new String[] {"ConcurrentStack", "locked Stack"}, threads -> {
+      ConcurrentStack<Integer> concurrent = new ConcurrentStack<>();
+      Stack<Integer> locked = new Stack<>();
+      for (int i = 0; i < PREFILL; i++) {
+        concurrent.push(i);
+        locked.push(i);
+      }
+      // Each run of an operation is a push and a pop, so counts as two operations.
+      long concurrentOps = ThroughputHarness.measure(threads, threadId -> {
+        concurrent.push(threadId);
+        concurrent.pop();
+      });
+      long lockedOps = ThroughputHarness.measure(threads, threadId -> {
+        synchronized (locked) { locked.push(threadId); }
+        synchronized (locked) { locked.pop(); }
+      });
+      return new long[] {2 * concurrentOps, 2 * lockedOps};
+    });
+  }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Harness for benchmarks that measure how the throughput of a data structure scales with the
+ * number of threads sharing it. A benchmark supplies a trial, which measures each contender (the
+ * data structure and the alternatives it is compared to) at a given thread count, and the harness
+ * runs the trial for 1, 2, 4, ... threads and prints a table of operations per second.
+ */
+final class ThroughputHarness {
+  static final long WARMUP_MILLIS = 500, MEASURE_MILLIS = 2000;
+
+  /**
+   * A measurement of every contender at one thread count.
+   */
+  interface Trial {
+    /**
+     * Measures every contender with the given number of threads.
+     * @param threadCount the number of threads
+     * @return the number of operations each contender completed during the measured interval
+     * @throws InterruptedException if the benchmark is interrupted
+     */
+    long[] run(int threadCount) throws InterruptedException;
+  }
+
+  private ThroughputHarness() {}
+
+  /**
+   * Runs the given trial for 1, 2, 4, ... threads, up to twice the number of available
+   * processors, and prints the throughput of each contender.
+   * @param contenders the names of the contenders, in the order the trial measures them
+   * @param trial the trial
+   * @throws InterruptedException if the benchmark is interrupted
+   */
+  static void run(String[] contenders, Trial trial) throws InterruptedException {
+    int maxThreads = 2 * Runtime.getRuntime().availableProcessors();
+    StringBuilder header = new StringBuilder(String.format("%8s", "threads"));
+    for (String name : contenders) header.append(String.format(" %26s", name + " ops/s"));
+    System.out.println(header);
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      long[] ops = trial.run(threads);
+      StringBuilder row = new StringBuilder(String.format("%8d", threads));
+      for (long count : ops) row.append(String.format(" %26d", count * 1000 / MEASURE_MILLIS));
+      System.out.println(row);
+    }
+  }
+
+  /**
+   * Runs the given operation repeatedly on the given number of threads, first for a warmup
+   * interval and then for a measured interval.
+   * @param threadCount the number of threads to run the operation on
+   * @param op the operation, which is passed the index of the thread running it
+   * @return the number of times the operation completed during the measured interval
+   * @throws InterruptedException if the benchmark is interrupted
+   */
+  static long measure(int threadCount, IntConsumer op) throws InterruptedException {
+    long[] counts = new long[threadCount];
+    Thread[] threads = new Thread[threadCount];
+    long measureStart = System.nanoTime() + WARMUP_MILLIS * 1_000_000;
+    long measureEnd = measureStart + MEASURE_MILLIS * 1_000_000;
+    for (int t = 0; t < threadCount; t++) {
+      int threadId = t;
+      threads[t] = new Thread(() -> {
+        long count = 0, now;
+        while ((now = System.nanoTime()) < measureEnd) {
+          op.accept(threadId);
+          if (now >= measureStart) count++;
+        }
+        counts[threadId] = count;
+      });
+    }
+    for (Thread thread : threads) thread.start();
+    long total = 0;
+    for (int t = 0; t < threadCount; t++) {
+      threads[t].join();
+      total += counts[t];
+    }
+    return total;
+  }
+}
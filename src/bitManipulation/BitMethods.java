@@ -124,4 +124,74 @@ public class BitMethods {
    * @return an integer with one bit set, corresponding to the lowest set bit in the given integer
    */
   public static int lowestBit(int num) { return num & -num; }
+
+  /**
+   * Clears the least significant bit of the given long.
+   * @param num a long
+   * @return the given long with the least significant bit cleared
+   */
+  public static long clearLSB(long num) { return num & (num - 1); }
+
+  /**
+   * Determines whether the specified bit of the given long is 1 or 0.
+   * @param num a long
+   * @param bit the bit to get, from 0 to 63
+   * @return true if the specified bit of the given long is 1, false if not
+   */
+  public static boolean getBit(long num, int bit) { return (num & (1L << bit)) != 0; }
+
+  /**
+   * Sets a specific bit of a long to 1.
+   * @param num a long
+   * @param bit the bit to set, from 0 to 63
+   * @return the given long with the specified bit set to 1
+   */
+  public static long setBit(long num, int bit) { return num | (1L << bit); }
+
+  /**
+   * Copies the given byte into each of the 8 bytes of a long. Together with the methods below,
+   * this allows 8 bytes packed into a long to be examined at once ("SIMD within a register").
+   * @param b a byte, in the lowest 8 bits of an integer
+   * @return a long whose every byte is equal to the given byte
+   */
+  public static long broadcastByte(int b) { return (b & 0xFFL) * 0x0101010101010101L; }
+
+  /**
+   * Finds the bytes of the given long that are zero. Adding 0x7F to the low 7 bits of a byte
+   * carries into its high bit unless those bits are all 0, and OR-ing in the byte itself accounts
+   * for its high bit, so the high bit of the sum is clear only for zero bytes. No carry crosses
+   * into the next byte, so the result is exact.
+   * @param word a long holding 8 bytes
+   * @return a long with the high bit set in each byte that is zero in the given long, and all
+   * other bits clear
+   */
+  public static long zeroBytes(long word) {
+    long low7 = 0x7F7F7F7F7F7F7F7FL;
+    return ~(((word & low7) + low7) | word | low7);
+  }
+
+  /**
+   * Finds the bytes of the given long that are equal to the given byte.
+   * @param word a long holding 8 bytes
+   * @param b a byte, in the lowest 8 bits of an integer
+   * @return a long with the high bit set in each byte that is equal to the given byte, and all
+   * other bits clear
+   */
+  public static long matchBytes(long word, int b) { return zeroBytes(word ^ broadcastByte(b)); }
+
+  /**
+   * Finds the bytes of the given long whose high bit is set.
+   * @param word a long holding 8 bytes
+   * @return a long with the high bit set in each byte whose high bit is set in the given long, and
+   * all other bits clear
+   */
+  public static long highBitBytes(long word) { return word & 0x8080808080808080L; }
+
+  /**
+   * Finds the lowest byte marked in a mask produced by zeroBytes, matchBytes, or highBitBytes.
+   * Bytes are numbered from 0 (the least significant) to 7.
+   * @param mask a mask with the high bit set in each marked byte
+   * @return the index of the lowest marked byte, or 8 if no byte is marked
+   */
+  public static int firstMarkedByte(long mask) { return Long.numberOfTrailingZeros(mask) >>> 3; }
 }
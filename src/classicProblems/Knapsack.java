@@ -1,5 +1,7 @@
 package classicProblems;
 
+import dataStructures.WorkStealingExecutor;
+
 /**
  * An implementation of an exponential-time brute-force solution, and a pseudo-polynomial-time
  * dynamic programming solution to the Knapsack problem. In both solutions below, weights[] and
@@ -7,6 +9,9 @@ package classicProblems;
  * invalid.
  */
 public class Knapsack {
+  // Subproblems with at most this many remaining items are solved sequentially by
+  // parallelBruteForceSolution, since forking tasks for them would cost more than it saves.
+  private static final int SEQUENTIAL_ITEMS = 16;
 
   /**
    * A brute-force solution to the Knapsack problem.
@@ -40,6 +45,49 @@ public class Knapsack {
             bruteForceSolutionHelper(weightLimit, weights, values, item + 1));
   }
 
+  /**
+   * A brute-force solution to the Knapsack problem, which explores the choices of including or
+   * excluding each of the first items in parallel on the given executor.
+   * @param weightLimit the weight limit of the knapsack
+   * @param weights the weights of the items
+   * @param values the values of the items
+   * @param executor the executor on which to search for the solution
+   * @return the maximum value of items that can fit in the knapsack without exceeding the weight
+   * limit
+   */
+  public static int parallelBruteForceSolution(int weightLimit, int[] weights, int[] values,
+                                               WorkStealingExecutor executor) {
+    if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+    return executor.invoke(() -> parallelBruteForceSolutionHelper(weightLimit, weights, values,
+            0, executor));
+  }
+
+  /**
+   * A helper method for parallelBruteForceSolution. Forks the choice of including the given item,
+   * while the current task explores the choice of excluding it.
+   * @param weightLimit the weight limit of the knapsack
+   * @param weights the weights of the items
+   * @param values the values of the items
+   * @param item an index in the given Arrays that corresponds to an item
+   * @param executor the executor on which to fork tasks
+   * @return the maximum value of items that can fit in the knapsack without exceeding the weight
+   * limit
+   */
+  private static int parallelBruteForceSolutionHelper(int weightLimit, int[] weights, int[] values,
+                                                      int item, WorkStealingExecutor executor) {
+    if (weights.length - item <= SEQUENTIAL_ITEMS)
+      return bruteForceSolutionHelper(weightLimit, weights, values, item);
+    if (weightLimit <= 0) return 0;
+    if (weights[item] > weightLimit)
+      return parallelBruteForceSolutionHelper(weightLimit, weights, values, item + 1, executor);
+    WorkStealingExecutor.Task<Integer> including = executor.fork(() ->
+            parallelBruteForceSolutionHelper(weightLimit - weights[item], weights, values,
+            item + 1, executor) + values[item]);
+    int excluding =
+            parallelBruteForceSolutionHelper(weightLimit, weights, values, item + 1, executor);
+    return Math.max(including.join(), excluding);
+  }
+
   // ------------------------------------------------------------------------------------------- //
 
   /**
@@ -1,5 +1,7 @@
 package classicProblems;
 
+import dataStructures.WorkStealingExecutor;
+
 import java.util.LinkedList;
 import java.util.List;
 
@@ -7,6 +9,9 @@ import java.util.List;
  * Implementations of solutions to the generic N-Queens problem.
  */
 public class NQueens {
+  // The number of rows whose queen placements are explored in parallel by parallelSolve. Each
+  // placement in the remaining rows is explored sequentially by the task for its prefix.
+  private static final int PARALLEL_ROWS = 2;
 
   /**
    * A typical recursive algorithm to solve the N-Queens problem. Each solution is represented by
@@ -33,11 +38,7 @@ public class NQueens {
    * @param solutions the list of solutions
    */
   private static void solveHelper(int n, int row, char[][] board, List<char[][]> solutions) {
-    if (row == n) {
-      char[][] boardCopy = new char[n][n];
-      for (int r = 0; r < n; r++) System.arraycopy(board[r], 0, boardCopy[r], 0, n);
-      solutions.add(boardCopy);
-    }
+    if (row == n) solutions.add(copyBoard(n, board));
     else {
       for (int col = 0; col < n; col++) {
         if (validPlacement(n, row, col, board)) {
@@ -49,6 +50,64 @@ public class NQueens {
     }
   }
 
+  /**
+   * Solves the N-Queens problem in the same way as solve, but explores the placements of the
+   * queens in the first few rows in parallel on the given executor. The solutions are returned in
+   * the same order as by solve.
+   * @param n the number of rows and columns in the chessboard
+   * @param executor the executor on which to search for solutions
+   * @return a list of placements of N queens such that no two are in the same row, column, or
+   * diagonal
+   */
+  public static List<char[][]> parallelSolve(int n, WorkStealingExecutor executor) {
+    if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+    if (n <= 0 || n == 2 || n == 3) return new LinkedList<>(); // No solutions possible.
+    char[][] board = new char[n][n];
+    for (int row = 0; row < n; row++) for (int col = 0; col < n; col++) board[row][col] = '-';
+    return executor.invoke(() -> parallelSolveHelper(n, 0, board, executor));
+  }
+
+  /**
+   * A helper method that forks a task for each valid queen placement in the given row, each with
+   * its own copy of the board, until PARALLEL_ROWS rows have been filled.
+   * @param n the number of rows and columns in the chessboard
+   * @param row the current row to examine for possible valid queen placements
+   * @param board a 2D Array representing an NxN chessboard, owned by the current task
+   * @param executor the executor on which to fork tasks
+   * @return the list of solutions that extend the given board
+   */
+  private static List<char[][]> parallelSolveHelper(int n, int row, char[][] board,
+                                                    WorkStealingExecutor executor) {
+    List<char[][]> solutions = new LinkedList<>();
+    if (row >= PARALLEL_ROWS || row == n) {
+      solveHelper(n, row, board, solutions);
+      return solutions;
+    }
+    List<WorkStealingExecutor.Task<List<char[][]>>> subtasks = new LinkedList<>();
+    for (int col = 0; col < n; col++) {
+      if (validPlacement(n, row, col, board)) {
+        char[][] boardCopy = copyBoard(n, board);
+        boardCopy[row][col] = 'Q';
+        subtasks.add(executor.fork(() -> parallelSolveHelper(n, row + 1, boardCopy, executor)));
+      }
+    }
+    for (WorkStealingExecutor.Task<List<char[][]>> subtask : subtasks)
+      solutions.addAll(subtask.join());
+    return solutions;
+  }
+
+  /**
+   * Copies the given chessboard.
+   * @param n the number of rows and columns in the chessboard
+   * @param board a 2D Array representing an NxN chessboard
+   * @return a copy of the given board
+   */
+  private static char[][] copyBoard(int n, char[][] board) {
+    char[][] boardCopy = new char[n][n];
+    for (int r = 0; r < n; r++) System.arraycopy(board[r], 0, boardCopy[r], 0, n);
+    return boardCopy;
+  }
+
   /**
    * Determines whether a queen can be placed at the given row and column, based on the locations
    * of all existing queens.
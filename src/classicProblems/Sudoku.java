@@ -1,11 +1,20 @@
 package classicProblems;
 
+import dataStructures.WorkStealingExecutor;
+
+import java.util.LinkedList;
+import java.util.List;
+
 /**
  * An implementation of an algorithm to solve a Sudoku puzzle. The puzzle is represented by a 9x9
  * 2D char array, where each cell is either a single-digit number or a period (which represents a
  * blank cell to be filled in).
  */
 public class Sudoku {
+    // The number of blank cells whose candidate digits are explored in parallel by
+    // parallelSolveSudoku. The remaining blank cells are filled in sequentially by each task.
+    private static final int PARALLEL_CELLS = 2;
+
     /**
      * Validates the input board and populates the blank spaces with numbers that satisfy the
      * constraints of Sudoku.
@@ -40,6 +49,73 @@ public class Sudoku {
         return solve(board, row, col + 1);
     }
 
+    /**
+     * Validates the input board and populates the blank spaces in the same way as solveSudoku,
+     * but explores the candidate digits for the first few blank cells in parallel on the given
+     * executor. If the puzzle has more than one solution, the same solution as solveSudoku is
+     * chosen.
+     * @param board the Sudoku board
+     * @param executor the executor on which to search for a solution
+     */
+    public static void parallelSolveSudoku(char[][] board, WorkStealingExecutor executor) {
+        if (board.length != 9 || board[0].length != 9)
+            throw new IllegalArgumentException("Invalid Sudoku");
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        char[][] boardCopy = copyBoard(board);
+        char[][] solution =
+                executor.invoke(() -> parallelSolve(boardCopy, 0, 0, PARALLEL_CELLS, executor));
+        if (solution != null) for (int row = 0; row < board.length; row++)
+            System.arraycopy(solution[row], 0, board[row], 0, board[row].length);
+    }
+
+    /**
+     * Finds the next blank cell at or after the given row and column, and forks a task to solve a
+     * copy of the board for each digit that can be placed there.
+     * @param board the Sudoku board, owned by the current task
+     * @param row the row
+     * @param col the column
+     * @param parallelCells the number of further blank cells to explore in parallel
+     * @param executor the executor on which to fork tasks
+     * @return a solved board, or null if it is not possible to find a solution from the given board
+     */
+    private static char[][] parallelSolve(char[][] board, int row, int col, int parallelCells,
+                                          WorkStealingExecutor executor) {
+        for (; row < board.length; row++, col = 0) {
+            while (col < board[row].length && board[row][col] != '.') col++;
+            if (col < board[row].length) break;
+        }
+        if (row == board.length) return board;
+        if (parallelCells == 0) return solve(board, row, col) ? board : null;
+        int blankRow = row, blankCol = col;
+        List<WorkStealingExecutor.Task<char[][]>> subtasks = new LinkedList<>();
+        for (char c = '1'; c <= '9'; c++) {
+            if (isValid(board, row, col, c)) {
+                char[][] boardCopy = copyBoard(board);
+                boardCopy[row][col] = c;
+                subtasks.add(executor.fork(() -> parallelSolve(boardCopy, blankRow, blankCol + 1,
+                        parallelCells - 1, executor)));
+            }
+        }
+        // Join every subtask, but keep the solution for the smallest digit, as solve would.
+        char[][] solution = null;
+        for (WorkStealingExecutor.Task<char[][]> subtask : subtasks) {
+            char[][] subSolution = subtask.join();
+            if (solution == null) solution = subSolution;
+        }
+        return solution;
+    }
+
+    /**
+     * Copies the given Sudoku board.
+     * @param board the Sudoku board
+     * @return a copy of the given board
+     */
+    private static char[][] copyBoard(char[][] board) {
+        char[][] boardCopy = new char[board.length][];
+        for (int row = 0; row < board.length; row++) boardCopy[row] = board[row].clone();
+        return boardCopy;
+    }
+
     /**
      * Determines if it is possible to place the given digit at the given row and column in the
      * board.
@@ -0,0 +1,213 @@
+package dataStructures;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of a generic double-ended queue backed by a circular array, which can be used
+ * as either a stack or a queue. Unlike the node-based Stack and Queue, which allocate a new node
+ * for every element added, the deque stores its elements directly in an array, so adding and
+ * removing elements does not allocate at all once the array has grown large enough. The capacity
+ * of the array is always a power of two, so that indices can wrap around the end of the array
+ * with a bit mask rather than a (much slower) modulo operation.
+ * @param <E> the type of data contained in the deque
+ */
+public class ArrayDeque<E> implements Iterable<E> {
+  private static final int MIN_CAPACITY = 16;
+  static final int MAX_CAPACITY = 1 << 30;
+  private E[] elements;
+  private int head = 0, size = 0;
+
+  /**
+   * Constructor for an ArrayDeque initialized with MIN_CAPACITY.
+   */
+  public ArrayDeque() { this(MIN_CAPACITY); }
+
+  /**
+   * Constructor for an ArrayDeque initialized with the smallest power of two that is at least the
+   * given capacity, or MIN_CAPACITY, whichever is greater.
+   * @param capacity the initial capacity of the ArrayDeque
+   */
+  @SuppressWarnings("unchecked")
+  public ArrayDeque(int capacity) { elements = (E[]) new Object[roundUpCapacity(capacity)]; }
+
+  /**
+   * Rounds the given capacity up to the nearest power of two that is at least MIN_CAPACITY.
+   * @param capacity the requested capacity
+   * @return a valid capacity for the backing array
+   */
+  static int roundUpCapacity(int capacity) {
+    if (capacity > MAX_CAPACITY) throw new IllegalArgumentException("Capacity too large");
+    return Integer.highestOneBit(Math.max(capacity, MIN_CAPACITY) - 1) << 1;
+  }
+
+  /**
+   * Adds an element containing the given data to the front of the deque.
+   * @param data the data to add to the deque
+   */
+  public void addFirst(E data) {
+    if (size == elements.length) grow();
+    head = (head - 1) & (elements.length - 1);
+    elements[head] = data;
+    size++;
+  }
+
+  /**
+   * Adds an element containing the given data to the back of the deque.
+   * @param data the data to add to the deque
+   */
+  public void addLast(E data) {
+    if (size == elements.length) grow();
+    elements[(head + size) & (elements.length - 1)] = data;
+    size++;
+  }
+
+  /**
+   * Gets and removes the data contained in the element at the front of the deque.
+   * @return the data at the front of the deque
+   */
+  public E removeFirst() {
+    if (size == 0) throw new NoSuchElementException("No element to remove");
+    E data = elements[head];
+    elements[head] = null; // Allow the removed element to be garbage collected.
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return data;
+  }
+
+  /**
+   * Gets and removes the data contained in the element at the back of the deque.
+   * @return the data at the back of the deque
+   */
+  public E removeLast() {
+    if (size == 0) throw new NoSuchElementException("No element to remove");
+    int tail = (head + size - 1) & (elements.length - 1);
+    E data = elements[tail];
+    elements[tail] = null; // Allow the removed element to be garbage collected.
+    size--;
+    return data;
+  }
+
+  /**
+   * Gets, but does not remove, the data contained in the element at the front of the deque.
+   * @return the data at the front of the deque
+   */
+  public E peekFirst() {
+    if (size == 0) throw new NoSuchElementException("No element to peek");
+    return elements[head];
+  }
+
+  /**
+   * Gets, but does not remove, the data contained in the element at the back of the deque.
+   * @return the data at the back of the deque
+   */
+  public E peekLast() {
+    if (size == 0) throw new NoSuchElementException("No element to peek");
+    return elements[(head + size - 1) & (elements.length - 1)];
+  }
+
+  /**
+   * Adds an element containing the given data to the top of the deque, when used as a stack.
+   * @param data the data to add to the deque
+   */
+  public void push(E data) { addFirst(data); }
+
+  /**
+   * Gets and removes the data contained in the element at the top of the deque, when used as a
+   * stack.
+   * @return the data at the top of the deque
+   */
+  public E pop() {
+    if (size == 0) throw new NoSuchElementException("No element to pop");
+    return removeFirst();
+  }
+
+  /**
+   * Adds an element containing the given data to the tail of the deque, when used as a queue.
+   * @param data the data to add to the deque
+   */
+  public void add(E data) { addLast(data); }
+
+  /**
+   * Gets and removes the data contained in the element at the head of the deque, when used as a
+   * queue.
+   * @return the data at the head of the deque
+   */
+  public E remove() { return removeFirst(); }
+
+  /**
+   * Gets, but does not remove, the data contained in the element at the top of the deque (when
+   * used as a stack) or the head of the deque (when used as a queue).
+   * @return the data at the front of the deque
+   */
+  public E peek() { return peekFirst(); }
+
+  /**
+   * Determines whether the deque is empty.
+   * @return true if the deque is empty, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Gets the number of elements in the deque.
+   * @return the number of elements in the deque
+   */
+  public int size() { return size; }
+
+  /**
+   * Removes all elements from the deque, keeping the current capacity.
+   */
+  public void clear() {
+    for (int i = 0; i < size; i++) elements[(head + i) & (elements.length - 1)] = null;
+    head = size = 0;
+  }
+
+  /**
+   * Doubles the capacity of the backing array, unwrapping the elements so that the front of the
+   * deque is at index 0 of the new array.
+   */
+  private void grow() {
+    if (elements.length == MAX_CAPACITY) throw new IllegalStateException("Deque full");
+    @SuppressWarnings("unchecked")
+    E[] newArray = (E[]) new Object[elements.length * 2];
+    int frontLen = elements.length - head; // Elements from head to the end of the old array.
+    System.arraycopy(elements, head, newArray, 0, frontLen);
+    System.arraycopy(elements, 0, newArray, frontLen, head);
+    elements = newArray;
+    head = 0;
+  }
+
+  /**
+   * Gets an iterator over the elements of the deque, from front to back.
+   * @return an iterator over the deque
+   */
+  @Override
+  public Iterator<E> iterator() { return new ArrayDequeIterator(); }
+
+  /**
+   * An iterator over the elements of the deque, from front to back.
+   */
+  private class ArrayDequeIterator implements Iterator<E> {
+    private int nextIdx = 0;
+    private final int expectedHead = head, expectedSize = size;
+
+    /**
+     * Determines whether the iterator has more elements to iterate over.
+     * @return true if there are more elements, false otherwise
+     */
+    @Override
+    public boolean hasNext() { return nextIdx < size; }
+
+    /**
+     * Gets the next element in the iteration.
+     * @return the next element
+     */
+    @Override
+    public E next() {
+      if (head != expectedHead || size != expectedSize) throw new ConcurrentModificationException();
+      if (nextIdx >= size) throw new NoSuchElementException("No more elements");
+      return elements[(head + nextIdx++) & (elements.length - 1)];
+    }
+  }
+}
@@ -1,7 +1,14 @@
 package dataStructures;
 
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An implementation of a generic ArrayList - an array-backed dynamically-resizing list with
@@ -12,6 +19,9 @@ public class ArrayList<E> implements Iterable<E> {
   private static final int MIN_CAPACITY = 16;
   private E[] elements;
   private int size = 0;
+  // Counts structural modifications (those that change the size of the list), so that iterators
+  // and spliterators can fail fast if the list is modified while they are in use.
+  private int modCount = 0;
 
   /**
    * Constructor for an ArrayList initialized with MIN_CAPACITY.
@@ -30,8 +40,38 @@ public class ArrayList<E> implements Iterable<E> {
    * @param elem the element to add
    */
   public void add(E elem) {
+    if (size + 1 > (elements.length * 0.75)) resize(2);
     elements[size++] = elem;
-    if (size > (elements.length * 0.75)) resize(2);
+    modCount++;
+  }
+
+  /**
+   * Adds all elements of the given ArrayList to the end of this ArrayList, growing the backing
+   * array at most once.
+   * @param other the ArrayList containing the elements to add
+   */
+  public void addAll(ArrayList<? extends E> other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    Object[] otherElements = other.elements; // Read once in case other == this.
+    int otherSize = other.size;
+    ensureCapacity(size + otherSize);
+    System.arraycopy(otherElements, 0, elements, size, otherSize);
+    size += otherSize;
+    modCount++;
+  }
+
+  /**
+   * Adds all elements of the given collection to the end of the ArrayList, growing the backing
+   * array at most once.
+   * @param c the collection containing the elements to add
+   */
+  public void addAll(Collection<? extends E> c) {
+    if (c == null) throw new IllegalArgumentException("Argument cannot be null");
+    Object[] cElements = c.toArray();
+    ensureCapacity(size + cElements.length);
+    System.arraycopy(cElements, 0, elements, size, cElements.length);
+    size += cElements.length;
+    modCount++;
   }
 
   /**
@@ -73,12 +113,86 @@ public class ArrayList<E> implements Iterable<E> {
   public E remove(int idx) {
     if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
     E element = elements[idx];
-    for (int j = idx + 1; j < size; j++) elements[j - 1] = elements[j];
-    size--;
+    System.arraycopy(elements, idx + 1, elements, idx, size - idx - 1);
+    elements[--size] = null; // Allow the removed element to be garbage collected.
+    modCount++;
     if ((elements.length > MIN_CAPACITY) && (size < (elements.length * 0.25))) resize(0.5);
     return element;
   }
 
+  /**
+   * Removes all elements of the ArrayList that satisfy the given predicate. Rather than removing
+   * matching elements one at a time, which would shift the remainder of the list once per removal
+   * for O(n^2) total work, the surviving elements are compacted toward the front in a single O(n)
+   * pass. The elements to remove are first marked in a bit mask, and the list is only compacted
+   * once the predicate has been tested on every element, so a predicate that throws leaves the
+   * list unchanged.
+   * @param filter the predicate that elements to be removed satisfy
+   * @return true if any elements were removed, false otherwise
+   */
+  public boolean removeIf(Predicate<? super E> filter) {
+    if (filter == null) throw new IllegalArgumentException("Argument cannot be null");
+    int expectedModCount = modCount, first = 0;
+    while (first < size && !filter.test(elements[first])) first++;
+    if (first == size) {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      return false;
+    }
+    // Bit i of the mask is set if the element at index first + i is to be removed.
+    long[] removed = new long[((size - first - 1) >> 6) + 1];
+    removed[0] = 1L;
+    for (int i = first + 1; i < size; i++)
+      if (filter.test(elements[i])) removed[(i - first) >> 6] |= 1L << (i - first);
+    if (modCount != expectedModCount) throw new ConcurrentModificationException();
+    int keepCount = first;
+    for (int i = first; i < size; i++) {
+      if ((removed[(i - first) >> 6] & (1L << (i - first))) == 0)
+        elements[keepCount++] = elements[i];
+    }
+    for (int i = keepCount; i < size; i++) elements[i] = null;
+    size = keepCount;
+    modCount++;
+    shrinkToFit();
+    return true;
+  }
+
+  /**
+   * Removes all elements of the ArrayList that are not contained in the given collection, in a
+   * single O(n) pass (assuming the collection offers constant-time lookups).
+   * @param c the collection containing the elements to retain
+   * @return true if any elements were removed, false otherwise
+   */
+  public boolean retainAll(Collection<?> c) {
+    if (c == null) throw new IllegalArgumentException("Argument cannot be null");
+    return removeIf(element -> !c.contains(element));
+  }
+
+  /**
+   * Shrinks the backing array after a bulk removal until it is at least a quarter full, as if
+   * the elements had been removed one at a time.
+   */
+  private void shrinkToFit() {
+    int newArrayLen = elements.length;
+    while (newArrayLen > MIN_CAPACITY && size < newArrayLen * 0.25) newArrayLen /= 2;
+    setCapacity(newArrayLen);
+  }
+
+  /**
+   * Ensures that the ArrayList can hold at least the given number of elements without resizing.
+   * @param minCapacity the minimum number of elements to accommodate
+   */
+  public void ensureCapacity(int minCapacity) {
+    int newArrayLen = Math.max(elements.length, MIN_CAPACITY);
+    while (minCapacity > (newArrayLen * 0.75)) newArrayLen *= 2;
+    setCapacity(newArrayLen);
+  }
+
+  /**
+   * Shrinks the backing array so that its length is exactly the size of the ArrayList, releasing
+   * any unused capacity. The next insertion will resize the ArrayList.
+   */
+  public void trimToSize() { setCapacity(size); }
+
   /**
    * Modifies the capacity of the ArrayList by the given factor.
    * @param factor the factor to which the capacity of the ArrayList should be modified
@@ -86,6 +200,14 @@ public class ArrayList<E> implements Iterable<E> {
   private void resize(double factor) {
     int newArrayLen = (int) (elements.length * factor);
     if (newArrayLen < MIN_CAPACITY) newArrayLen = MIN_CAPACITY;
+    setCapacity(newArrayLen);
+  }
+
+  /**
+   * Replaces the backing array with one of the given length.
+   * @param newArrayLen the length of the new backing array
+   */
+  private void setCapacity(int newArrayLen) {
     if (newArrayLen == elements.length) return; // Avoid unnecessarily copying elements.
     E[] newArray = (E[]) new Object[newArrayLen];
     System.arraycopy(elements, 0, newArray, 0, size);
@@ -103,17 +225,34 @@ public class ArrayList<E> implements Iterable<E> {
    * @return an iterator for the ArrayList
    */
   @Override
-  public Iterator<E> iterator() { return new ArrayListIterator<>(elements); }
+  public Iterator<E> iterator() { return new ArrayListIterator(); }
 
   /**
-   * An iterator for the elements of the ArrayList.
-   * @param <F> the type of data contained in the ArrayList
+   * Gets a spliterator for the elements of the ArrayList, which splits the list in half by index
+   * and reports exact sizes, so that parallel streams can divide the work evenly.
+   * @return a spliterator for the ArrayList
    */
-  private class ArrayListIterator<F> implements Iterator<F> {
-    private int nextIdx = 0;
-    private final F[] elements;
+  @Override
+  public Spliterator<E> spliterator() { return new ArrayListSpliterator(0, -1, 0); }
+
+  /**
+   * Gets a sequential stream over the elements of the ArrayList.
+   * @return a stream over the ArrayList
+   */
+  public Stream<E> stream() { return StreamSupport.stream(spliterator(), false); }
 
-    private ArrayListIterator(F[] arr) { elements = arr; }
+  /**
+   * Gets a parallel stream over the elements of the ArrayList.
+   * @return a parallel stream over the ArrayList
+   */
+  public Stream<E> parallelStream() { return StreamSupport.stream(spliterator(), true); }
+
+  /**
+   * A fail-fast iterator for the elements of the ArrayList.
+   */
+  private class ArrayListIterator implements Iterator<E> {
+    private int nextIdx = 0;
+    private final int expectedModCount = modCount;
 
     /**
      * Determines whether the iterator has more elements to iterate over.
@@ -127,6 +266,103 @@ public class ArrayList<E> implements Iterable<E> {
      * @return the next element
      */
     @Override
-    public F next() { return elements[nextIdx++]; }
+    public E next() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      if (nextIdx >= size) throw new NoSuchElementException("No more elements");
+      return elements[nextIdx++];
+    }
+  }
+
+  /**
+   * A fail-fast spliterator for the elements of the ArrayList. The fence (the index one past the
+   * last element to traverse) and the expected modification count are bound lazily, when the
+   * spliterator is first used, so that the list may be modified between creating a stream and
+   * running it.
+   */
+  private class ArrayListSpliterator implements Spliterator<E> {
+    private int idx, fence, expectedModCount;
+
+    /**
+     * Constructor for ArrayListSpliterator.
+     * @param origin the index of the first element to traverse
+     * @param fence the index one past the last element to traverse, or -1 if not yet bound
+     * @param expectedModCount the expected modification count, if the fence has been bound
+     */
+    private ArrayListSpliterator(int origin, int fence, int expectedModCount) {
+      idx = origin;
+      this.fence = fence;
+      this.expectedModCount = expectedModCount;
+    }
+
+    /**
+     * Binds the fence and the expected modification count on first use.
+     * @return the fence
+     */
+    private int getFence() {
+      if (fence < 0) {
+        expectedModCount = modCount;
+        fence = size;
+      }
+      return fence;
+    }
+
+    /**
+     * Splits off the first half of the remaining elements into a new spliterator.
+     * @return a spliterator covering the first half of the remaining elements, or null if there
+     * are too few elements to split
+     */
+    @Override
+    public Spliterator<E> trySplit() {
+      int lo = idx, hi = getFence(), mid = (lo + hi) >>> 1;
+      if (lo >= mid) return null; // Too small to split.
+      idx = mid;
+      return new ArrayListSpliterator(lo, mid, expectedModCount);
+    }
+
+    /**
+     * Performs the given action on the next element, if one exists.
+     * @param action the action to perform
+     * @return true if an element was processed, false if no elements remained
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+      if (action == null) throw new NullPointerException();
+      int hi = getFence();
+      if (idx >= hi) return false;
+      E element = elements[idx++];
+      action.accept(element);
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+      return true;
+    }
+
+    /**
+     * Performs the given action on each remaining element.
+     * @param action the action to perform
+     */
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+      if (action == null) throw new NullPointerException();
+      int hi = getFence();
+      E[] arr = elements;
+      for (; idx < hi; idx++) action.accept(arr[idx]);
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+
+    /**
+     * Gets the exact number of elements remaining to be traversed.
+     * @return the number of remaining elements
+     */
+    @Override
+    public long estimateSize() { return getFence() - idx; }
+
+    /**
+     * Gets the characteristics of the spliterator.
+     * @return the characteristics, which indicate that the elements are ordered and that this
+     * spliterator and any spliterators split from it report exact sizes
+     */
+    @Override
+    public int characteristics() {
+      return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+    }
   }
 }
\ No newline at end of file
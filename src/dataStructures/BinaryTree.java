@@ -3,6 +3,10 @@ package dataStructures;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * An example of a generic Binary Tree implementation. A Binary Tree is simply a data structure
@@ -11,6 +15,9 @@ import java.util.Stack;
  * @param <E> the type of data contained in the Binary Tree
  */
 public class BinaryTree<E> {
+  // Subtrees shorter than this are searched sequentially by a single fork/join task, so that each
+  // task covers on the order of a thousand nodes.
+  private static final int SEQUENTIAL_HEIGHT_THRESHOLD = 10;
   private Node root, lastNodeParent, lastNode;
 
   /**
@@ -111,6 +118,100 @@ public class BinaryTree<E> {
     return false;
   }
 
+  /**
+   * Determines whether any node in the tree contains the given data, using a parallel search.
+   * @param data the data to search for
+   * @return true if the given data exists in the tree, false otherwise
+   */
+  public boolean parallelFind(E data) {
+    if (data == null) throw new IllegalArgumentException("Data cannot be null");
+    return parallelSearch(data::equals) != null;
+  }
+
+  /**
+   * Finds data in the tree that satisfies the given predicate, by splitting the tree into subtrees
+   * that are searched in parallel in the common ForkJoinPool. Since the tree is filled in level
+   * order, the height of a subtree is a good estimate of its size, so subtrees are split until
+   * they fall below a height threshold and are then searched sequentially. As soon as any subtree
+   * finds a match, all remaining tasks stop searching and unstarted tasks are cancelled. If
+   * multiple nodes satisfy the predicate, no guarantee is made about which one is returned.
+   * @param predicate the condition that the data being searched for must satisfy
+   * @return data in the tree that satisfies the predicate, or null if there is none
+   */
+  public E parallelSearch(Predicate<E> predicate) {
+    if (predicate == null) throw new IllegalArgumentException("Predicate cannot be null");
+    if (root == null) return null;
+    int height = 0;
+    for (Node n = root; n != null; n = n.getLeftChild()) height++;
+    AtomicReference<E> result = new AtomicReference<>();
+    ForkJoinPool.commonPool().invoke(new SearchTask(root, height, predicate, result));
+    return result.get();
+  }
+
+  /**
+   * A fork/join task that searches the subtree rooted at a given node.
+   */
+  private class SearchTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Node subtreeRoot;
+    private final int height;
+    private final Predicate<E> predicate;
+    private final AtomicReference<E> result;
+
+    private SearchTask(Node subtreeRoot, int height, Predicate<E> predicate,
+                       AtomicReference<E> result) {
+      this.subtreeRoot = subtreeRoot;
+      this.height = height;
+      this.predicate = predicate;
+      this.result = result;
+    }
+
+    /**
+     * Searches the subtree, splitting the search between the left and right subtrees if the
+     * subtree is above the height threshold.
+     */
+    @Override
+    protected void compute() {
+      if (result.get() != null) return; // Another task has already found a match.
+      if (height <= SEQUENTIAL_HEIGHT_THRESHOLD) {
+        searchSequentially(subtreeRoot);
+        return;
+      }
+      if (predicate.test(subtreeRoot.getData())) {
+        result.compareAndSet(null, subtreeRoot.getData());
+        return;
+      }
+      SearchTask left = null;
+      if (subtreeRoot.hasLeftChild()) {
+        left = new SearchTask(subtreeRoot.getLeftChild(), height - 1, predicate, result);
+        left.fork();
+      }
+      if (subtreeRoot.hasRightChild())
+        new SearchTask(subtreeRoot.getRightChild(), height - 1, predicate, result).compute();
+      if (left != null) {
+        // If a match has been found, there is no need to wait for the left subtree.
+        if (result.get() != null) left.cancel(false);
+        else left.join();
+      }
+    }
+
+    /**
+     * Runs a preorder DFS on the subtree rooted at the given node, stopping early if any task
+     * finds a match.
+     * @param node the node currently being examined
+     * @return true if the search should stop, false otherwise
+     */
+    private boolean searchSequentially(Node node) {
+      if (node == null) return false;
+      if (result.get() != null) return true;
+      if (predicate.test(node.getData())) {
+        result.compareAndSet(null, node.getData());
+        return true;
+      }
+      return searchSequentially(node.getLeftChild()) || searchSequentially(node.getRightChild());
+    }
+  }
+
   /**
    * Inserts the data into the next available spot in the tree using level-order insertion.
    * @param data the data to insert
@@ -0,0 +1,261 @@
+package dataStructures;
+
+import bitManipulation.BitMethods;
+
+/**
+ * Implementation of a Bloom filter, a compact set that answers membership queries with no false
+ * negatives and a tunable rate of false positives. Adding a key sets k bits of a bit array, and a
+ * key might be present only if all k of its bits are set. Since a query never calls equals and
+ * touches only a few words of memory, a filter can screen out lookups of absent keys before they
+ * reach a hash table or trie: if mightContain returns false, the key is certainly absent, and the
+ * lookup can be skipped. Keys cannot be removed, so a filter in front of a table whose keys are
+ * deleted must be rebuilt from time to time.
+ *
+ * The bits are stored in a long array, and the k bit positions come from double hashing: the
+ * key's hash code is scrambled into a 64-bit hash, whose two halves h1 and h2 give the positions
+ * h1 + i * h2 for i = 0 to k - 1, which works nearly as well as k independent hash functions. The
+ * size of the array and k are chosen from the expected number of keys and the desired false
+ * positive rate. The filter is only as good as the keys' hash codes: keys with equal hash codes
+ * are indistinguishable.
+ *
+ * In a standard filter, the k bits of a key are spread over the whole array, so a query can miss
+ * the cache k times. A blocked filter instead uses h1 to choose one block of 512 bits (a 64-byte
+ * cache line), and puts all k bits in that block, so a query misses the cache at most once. The
+ * positions within the block come from successive states of a 64-bit linear congruential
+ * generator seeded with the whole hash, since the 9-bit halves of a double hash would give only
+ * 2^17 distinct sets of positions, and keys sharing a block would often share all k bits. The
+ * blocks fill unevenly (the number of keys in a block is roughly Poisson distributed), and a
+ * query for a key in a crowded block is much more likely to be a false positive, so a blocked
+ * filter needs more bits than a standard filter for the same false positive rate. Its number of
+ * blocks is the smallest whose expected false positive rate, averaged over the distribution of
+ * keys per block, meets the desired rate.
+ */
+public class BloomFilter {
+  private static final int BLOCK_BITS = 512, BLOCK_WORDS = BLOCK_BITS / 64, MAX_HASHES = 16;
+  private final long[] words;
+  private final long bitCount;
+  private final int hashCount;
+  private final boolean blocked;
+
+  /**
+   * Constructor for a standard BloomFilter.
+   * @param expectedKeys the number of keys expected to be added
+   * @param falsePositiveRate the desired probability that mightContain returns true for a key that
+   * was not added, once the expected number of keys have been added
+   */
+  public BloomFilter(long expectedKeys, double falsePositiveRate) {
+    this(expectedKeys, falsePositiveRate, false);
+  }
+
+  /**
+   * Constructor for BloomFilter. The optimal number of bits for n keys and a false positive rate
+   * p is m = -n ln(p) / (ln 2)^2, and the optimal number of hashes is k = (m / n) ln 2.
+   * @param expectedKeys the number of keys expected to be added
+   * @param falsePositiveRate the desired probability that mightContain returns true for a key that
+   * was not added, once the expected number of keys have been added
+   * @param blocked whether to keep all of a key's bits in one cache line
+   */
+  public BloomFilter(long expectedKeys, double falsePositiveRate, boolean blocked) {
+    if (expectedKeys < 1) throw new IllegalArgumentException("Invalid number of keys");
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+      throw new IllegalArgumentException("Invalid false positive rate");
+    double bits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    long k = Math.round(bits / expectedKeys * Math.log(2));
+    hashCount = (int) Math.max(1, Math.min(MAX_HASHES, k));
+    long wordCount = blocked ?
+        blocksFor(expectedKeys, falsePositiveRate, hashCount) * BLOCK_WORDS :
+        (long) Math.ceil(bits / 64);
+    if (wordCount > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Filter too large");
+    words = new long[(int) wordCount];
+    bitCount = (long) words.length * 64;
+    this.blocked = blocked;
+  }
+
+  /**
+   * Adds the given key to the filter.
+   * @param key the key
+   */
+  public void add(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    long hash = hash(key);
+    int h1 = (int) hash, h2 = (int) (hash >>> 32);
+    if (blocked) {
+      int base = block(h1) * BLOCK_WORDS;
+      for (int i = 0; i < hashCount; i++) {
+        hash = nextBlockHash(hash);
+        int bit = (int) (hash >>> 55);
+        words[base + (bit >>> 6)] = BitMethods.setBit(words[base + (bit >>> 6)], bit & 63);
+      }
+      return;
+    }
+    for (int i = 0; i < hashCount; i++) {
+      long bit = position(h1, h2, i);
+      int word = (int) (bit >>> 6);
+      words[word] = BitMethods.setBit(words[word], (int) bit & 63);
+    }
+  }
+
+  /**
+   * Determines whether the given key might have been added to the filter.
+   * @param key the key
+   * @return false if the key has certainly not been added, true if it probably has
+   */
+  public boolean mightContain(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    long hash = hash(key);
+    int h1 = (int) hash, h2 = (int) (hash >>> 32);
+    if (blocked) {
+      int base = block(h1) * BLOCK_WORDS;
+      for (int i = 0; i < hashCount; i++) {
+        hash = nextBlockHash(hash);
+        int bit = (int) (hash >>> 55);
+        if (!BitMethods.getBit(words[base + (bit >>> 6)], bit & 63)) return false;
+      }
+      return true;
+    }
+    for (int i = 0; i < hashCount; i++) {
+      long bit = position(h1, h2, i);
+      if (!BitMethods.getBit(words[(int) (bit >>> 6)], (int) bit & 63)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Adds every key of the given filter to this filter, by OR-ing its bits into this filter's
+   * bits. The result is the filter that would have been built by adding the keys of both.
+   * @param other a filter created with the same arguments as this one
+   */
+  public void merge(BloomFilter other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (other.bitCount != bitCount || other.hashCount != hashCount || other.blocked != blocked)
+      throw new IllegalArgumentException("Incompatible filters");
+    for (int i = 0; i < words.length; i++) words[i] |= other.words[i];
+  }
+
+  /**
+   * Estimates the current false positive rate, from the fraction of bits that are set. A key that
+   * was not added is reported present if all k of its bits happen to be set. In a blocked filter,
+   * all k bits are in one block, so the estimate is the average over the blocks of the fraction
+   * of the block's bits that are set, raised to the power k.
+   * @return the estimated probability that mightContain returns true for a key that was not added
+   */
+  public double estimatedFalsePositiveRate() {
+    if (!blocked) {
+      long set = 0;
+      for (long word : words) set += Long.bitCount(word);
+      return Math.pow((double) set / bitCount, hashCount);
+    }
+    double sum = 0;
+    for (int base = 0; base < words.length; base += BLOCK_WORDS) {
+      int set = 0;
+      for (int i = base; i < base + BLOCK_WORDS; i++) set += Long.bitCount(words[i]);
+      sum += Math.pow((double) set / BLOCK_BITS, hashCount);
+    }
+    return sum / (words.length / BLOCK_WORDS);
+  }
+
+  /**
+   * Gets the number of bits in the filter.
+   * @return the number of bits
+   */
+  public long bitSize() { return bitCount; }
+
+  /**
+   * Gets the number of bits set for each key.
+   * @return the number of hashes, k
+   */
+  public int hashCount() { return hashCount; }
+
+  /**
+   * Computes the 64-bit hash of the given key, by scrambling its hash code with the finalizer of
+   * MurmurHash3, so that both halves of the hash depend on every bit of the hash code.
+   * @param key the key
+   * @return the hash of the key
+   */
+  private static long hash(Object key) {
+    long h = key.hashCode();
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+
+  /**
+   * Calculates the position of the given bit of a key in a standard filter.
+   * @param h1 the low half of the key's hash
+   * @param h2 the high half of the key's hash
+   * @param i the index of the bit, from 0 to k - 1
+   * @return the position of the bit in the filter
+   */
+  private long position(int h1, int h2, int i) {
+    long combined = (h1 & 0xFFFFFFFFL) + i * ((h2 & 0xFFFFFFFFL) | 1);
+    return combined % bitCount;
+  }
+
+  /**
+   * Advances the linear congruential generator that gives the positions of a key's bits within
+   * its block. Each position is taken from the top 9 bits of the state, which have the longest
+   * period.
+   * @param state the current state
+   * @return the next state
+   */
+  private static long nextBlockHash(long state) {
+    return state * 0x5851F42D4C957F2DL + 0x14057B7EF767814FL;
+  }
+
+  /**
+   * Finds the smallest number of blocks for which a blocked filter holding the given number of
+   * keys has at most the given false positive rate.
+   * @param keys the expected number of keys
+   * @param falsePositiveRate the desired false positive rate
+   * @param k the number of bits set for each key
+   * @return the number of blocks
+   */
+  private static long blocksFor(long keys, double falsePositiveRate, int k) {
+    long low = 1, high = 1;
+    // Double the number of blocks until it is large enough, then binary search below it.
+    while (blockedFalsePositiveRate((double) keys / high, k) > falsePositiveRate) {
+      low = high + 1;
+      high *= 2;
+      if (high * BLOCK_WORDS > Integer.MAX_VALUE)
+        throw new IllegalArgumentException("Filter too large");
+    }
+    while (low < high) {
+      long mid = (low + high) >>> 1;
+      if (blockedFalsePositiveRate((double) keys / mid, k) > falsePositiveRate) low = mid + 1;
+      else high = mid;
+    }
+    return high;
+  }
+
+  /**
+   * Calculates the expected false positive rate of a blocked filter. The number of keys in the
+   * block of a query is Poisson distributed, and a block holding i keys has had k * i bits set
+   * at random, so each of its bits is set with probability 1 - (1 - 1/512)^(k * i).
+   * @param keysPerBlock the mean number of keys in a block
+   * @param k the number of bits set for each key
+   * @return the expected false positive rate
+   */
+  private static double blockedFalsePositiveRate(double keysPerBlock, int k) {
+    double rate = 0, logKeep = Math.log1p(-1.0 / BLOCK_BITS);
+    // The Poisson probabilities are computed as logarithms, since e^-keysPerBlock underflows
+    // when blocks are crowded.
+    double logPoisson = -keysPerBlock, logMean = Math.log(keysPerBlock);
+    int max = (int) (keysPerBlock + 12 * Math.sqrt(keysPerBlock) + 12);
+    for (int i = 0; i <= max; i++) {
+      rate += Math.exp(logPoisson) * Math.pow(-Math.expm1(logKeep * k * i), k);
+      logPoisson += logMean - Math.log(i + 1);
+    }
+    return rate;
+  }
+
+  /**
+   * Calculates the block of a key in a blocked filter.
+   * @param h1 the low half of the key's hash
+   * @return the index of the block
+   */
+  private int block(int h1) {
+    return (int) ((h1 & 0xFFFFFFFFL) * (words.length / BLOCK_WORDS) >>> 32);
+  }
+}
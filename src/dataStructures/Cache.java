@@ -0,0 +1,463 @@
+package dataStructures;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Implementation of a bounded in-process cache, for keeping the results of expensive computations
+ * (such as the distance maps computed by Dijkstra, or LevenshteinDistance scores) without letting
+ * them grow without limit. Each entry has a weight (1 by default), and once the total weight
+ * exceeds the cache's maximum weight, entries are evicted. Entries are found through a
+ * HashTableOpen, and are also linked into intrusive doubly-linked lists ordered by recency of
+ * access (each entry holds its own prev and next pointers, so moving an entry to the back of its
+ * list on access, or unlinking it on eviction, takes O(1) time and allocates nothing).
+ *
+ * The cache has two eviction policies. LRU keeps all entries in one list, and evicts the least
+ * recently used. It is simple, but a single scan over more keys than fit in the cache flushes
+ * every entry, however often the entries were used. TINY_LFU (W-TinyLFU) guards against this by
+ * estimating how often every key has been requested recently, in a small count-min sketch of 4-bit
+ * counters that are halved periodically so that old popularity fades. New entries go into a
+ * window LRU that holds 1% of the maximum weight. Entries that fall out of the window become
+ * candidates for the main space, which is a segmented LRU: entries start in a probation segment,
+ * and are promoted to a protected segment (80% of the main space) when accessed again. When the
+ * main space is full, a candidate is only admitted if its key has been requested more often than
+ * the key of the entry it would evict, so one-off keys pass through the window without displacing
+ * popular ones.
+ *
+ * Entries can optionally expire a fixed time after they were written. Expired entries are removed
+ * when they are next looked up, and otherwise are evicted as usual. The cache counts hits, misses,
+ * and evictions. It is not thread-safe.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class Cache<K, V> {
+  private static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+  private static final double WINDOW_FRACTION = 0.01, PROTECTED_FRACTION = 0.8;
+  private final long maximumWeight, windowMax, protectedMax, expireAfterWriteNanos;
+  private final ToLongBiFunction<? super K, ? super V> weigher;
+  private final Policy policy;
+  private final LongSupplier clock;
+  private final HashTableOpen table = new HashTableOpen();
+  // In LRU mode, only the window list is used, and it holds every entry.
+  private final AccessList<K, V> window = new AccessList<>(), probation = new AccessList<>(),
+      protectedList = new AccessList<>();
+  private final FrequencySketch sketch;
+  private long windowWeight = 0, probationWeight = 0, protectedWeight = 0;
+  private long hits = 0, misses = 0, evictions = 0;
+  private int size = 0;
+
+  /**
+   * Eviction policies.
+   */
+  public enum Policy {
+    /**
+     * Evict the least recently used entry.
+     */
+    LRU,
+    /**
+     * Window TinyLFU: admit entries to the main space only if their keys are requested more often
+     * than the keys of the entries they would evict.
+     */
+    TINY_LFU
+  }
+
+  /**
+   * Class representing an entry of the cache, which is also a node of an access list.
+   */
+  private static final class Entry<K, V> {
+    private final K key;
+    private V value;
+    private long weight, expiresAt;
+    private int list;
+    private Entry<K, V> prev, next;
+
+    private Entry(K key) { this.key = key; }
+  }
+
+  /**
+   * Class representing a doubly-linked list of entries, from least to most recently accessed.
+   * The list is circular, with a sentinel node, so linking and unlinking need no special cases.
+   */
+  private static final class AccessList<K, V> {
+    private final Entry<K, V> sentinel = new Entry<>(null);
+
+    private AccessList() { sentinel.prev = sentinel.next = sentinel; }
+
+    private Entry<K, V> first() { return (sentinel.next == sentinel) ? null : sentinel.next; }
+
+    private Entry<K, V> last() { return (sentinel.prev == sentinel) ? null : sentinel.prev; }
+
+    private void addLast(Entry<K, V> e) {
+      e.prev = sentinel.prev;
+      e.next = sentinel;
+      sentinel.prev.next = e;
+      sentinel.prev = e;
+    }
+
+    private void remove(Entry<K, V> e) {
+      e.prev.next = e.next;
+      e.next.prev = e.prev;
+      e.prev = e.next = null;
+    }
+
+    private void moveToLast(Entry<K, V> e) {
+      remove(e);
+      addLast(e);
+    }
+  }
+
+  /**
+   * Class representing a count-min sketch of 4-bit counters, which estimates how often each key
+   * has been requested. Each key increments one counter in each of 4 rows (chosen by 4 hashes of
+   * its hash code), and its estimate is the smallest of those counters, which is at least its true
+   * count (capped at 15) and rarely much more. Counters are packed 16 to a long. After a number of
+   * increments proportional to the number of counters, every counter is halved, so that the
+   * estimates reflect recent requests.
+   */
+  private static final class FrequencySketch {
+    private static final long[] SEEDS =
+        {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    private final long[] counters;
+    private final int mask, sampleSize;
+    private int additions = 0;
+
+    private FrequencySketch(long maximumEntries) {
+      int n = (int) Math.min(1 << 22, Math.max(64, Long.highestOneBit(maximumEntries - 1) << 1));
+      counters = new long[n / 16];
+      mask = n - 1;
+      sampleSize = 10 * n;
+    }
+
+    /**
+     * Calculates the index of the counter for the given hash code in the given row.
+     * @param hash the hash code of a key
+     * @param row the row, from 0 to 3
+     * @return the index of the counter
+     */
+    private int index(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Estimates how often the key with the given hash code has been requested recently.
+     * @param hash the hash code of the key
+     * @return the estimated number of requests, at most 15
+     */
+    private int frequency(int hash) {
+      int min = 15;
+      for (int row = 0; row < 4; row++) {
+        int i = index(hash, row);
+        min = Math.min(min, (int) (counters[i >>> 4] >>> ((i & 15) * 4)) & 15);
+      }
+      return min;
+    }
+
+    /**
+     * Records a request for the key with the given hash code, halving every counter once enough
+     * requests have been recorded.
+     * @param hash the hash code of the key
+     */
+    private void increment(int hash) {
+      for (int row = 0; row < 4; row++) {
+        int i = index(hash, row), shift = (i & 15) * 4;
+        if (((counters[i >>> 4] >>> shift) & 15) != 15) counters[i >>> 4] += 1L << shift;
+      }
+      if (++additions == sampleSize) {
+        // Halve every counter, discarding the bit shifted in from the counter above.
+        for (int j = 0; j < counters.length; j++)
+          counters[j] = (counters[j] >>> 1) & 0x7777777777777777L;
+        additions /= 2;
+      }
+    }
+  }
+
+  /**
+   * Constructor for a Cache that holds up to the given number of entries, evicting the least
+   * recently used, with no expiry.
+   * @param maximumSize the maximum number of entries
+   */
+  public Cache(int maximumSize) { this(maximumSize, null, Policy.LRU, 0, System::nanoTime); }
+
+  /**
+   * Constructor for a Cache that holds up to the given number of entries, with no expiry.
+   * @param maximumSize the maximum number of entries
+   * @param policy the eviction policy
+   */
+  public Cache(int maximumSize, Policy policy) {
+    this(maximumSize, null, policy, 0, System::nanoTime);
+  }
+
+  /**
+   * Constructor for Cache.
+   * @param maximumWeight the maximum total weight of the entries
+   * @param weigher the function that computes the weight of an entry from its key and value, or
+   * null to give every entry a weight of 1. Weights must not be negative.
+   * @param policy the eviction policy
+   * @param expireAfterWriteNanos the time after which an entry expires, counted from when its
+   * value was last written, or 0 for no expiry
+   * @param clock the source of the current time in nanoseconds, such as System::nanoTime
+   */
+  public Cache(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher, Policy policy,
+      long expireAfterWriteNanos, LongSupplier clock) {
+    if (maximumWeight < 1) throw new IllegalArgumentException("Invalid maximum weight");
+    if (expireAfterWriteNanos < 0) throw new IllegalArgumentException("Invalid expiry time");
+    if (policy == null || clock == null)
+      throw new IllegalArgumentException("Arguments cannot be null");
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+    this.policy = policy;
+    this.expireAfterWriteNanos = expireAfterWriteNanos;
+    this.clock = clock;
+    windowMax = Math.max(1, (long) (maximumWeight * WINDOW_FRACTION));
+    protectedMax = (long) ((maximumWeight - windowMax) * PROTECTED_FRACTION);
+    sketch = (policy == Policy.TINY_LFU) ? new FrequencySketch(maximumWeight) : null;
+  }
+
+  /**
+   * Gets the value cached for the given key, and records an access to it.
+   * @param key the key
+   * @return the value cached for the given key, or null if the key is not cached (or has expired)
+   */
+  public V get(K key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    if (sketch != null) sketch.increment(key.hashCode());
+    Entry<K, V> e = find(key);
+    if (e == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    onAccess(e);
+    return e.value;
+  }
+
+  /**
+   * Caches the given value for the given key, replacing any value already cached for it, and
+   * evicts entries if the cache has become too heavy. An entry heavier than the maximum weight
+   * is not cached.
+   * @param key the key
+   * @param value the value
+   */
+  public void put(K key, V value) {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    if (sketch != null) sketch.increment(key.hashCode());
+    putEntry(key, value);
+  }
+
+  /**
+   * Caches the given value for the given key, without recording a request for the key.
+   * @param key the key
+   * @param value the value
+   */
+  private void putEntry(K key, V value) {
+    long weight = (weigher == null) ? 1 : weigher.applyAsLong(key, value);
+    if (weight < 0) throw new IllegalArgumentException("Invalid weight");
+    Entry<K, V> e = find(key);
+    if (weight > maximumWeight) {
+      if (e != null) remove(e);
+      return;
+    }
+    if (e == null) {
+      e = new Entry<>(key);
+      e.list = WINDOW;
+      window.addLast(e);
+      table.put(key, e);
+      size++;
+    }
+    else onAccess(e);
+    addWeight(e, weight - e.weight);
+    e.weight = weight;
+    e.value = value;
+    if (expireAfterWriteNanos > 0) e.expiresAt = clock.getAsLong() + expireAfterWriteNanos;
+    evict();
+  }
+
+  /**
+   * Gets the value cached for the given key. If the key is not cached, computes a value with the
+   * given function and caches it first.
+   * @param key the key
+   * @param loader the function that computes the value of a key that is not cached
+   * @return the value cached for the given key, or null if the key was not cached and the
+   * function returned null (in which case nothing is cached)
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+    if (loader == null) throw new IllegalArgumentException("Loader cannot be null");
+    V value = get(key);
+    if (value != null) return value;
+    value = loader.apply(key);
+    if (value != null) putEntry(key, value); // The request was recorded by get.
+    return value;
+  }
+
+  /**
+   * Removes the entry for the given key from the cache.
+   * @param key the key
+   * @return the value that was cached for the given key, or null if the key was not cached
+   */
+  public V invalidate(K key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    Entry<K, V> e = find(key);
+    if (e == null) return null;
+    remove(e);
+    return e.value;
+  }
+
+  /**
+   * Gets the number of entries in the cache, including expired entries that have not yet been
+   * removed.
+   * @return the number of entries
+   */
+  public int size() { return size; }
+
+  /**
+   * Gets the total weight of the entries in the cache.
+   * @return the total weight
+   */
+  public long weight() { return windowWeight + probationWeight + protectedWeight; }
+
+  /**
+   * Gets the number of lookups (by get or computeIfAbsent) that found a cached value.
+   * @return the number of hits
+   */
+  public long hitCount() { return hits; }
+
+  /**
+   * Gets the number of lookups (by get or computeIfAbsent) that did not find a cached value.
+   * @return the number of misses
+   */
+  public long missCount() { return misses; }
+
+  /**
+   * Gets the fraction of lookups that found a cached value.
+   * @return the hit rate, or 0 if there have been no lookups
+   */
+  public double hitRate() { return (hits + misses == 0) ? 0 : (double) hits / (hits + misses); }
+
+  /**
+   * Gets the number of entries evicted to keep the cache within its maximum weight, or rejected
+   * by admission. Expired and invalidated entries are not counted.
+   * @return the number of evictions
+   */
+  public long evictionCount() { return evictions; }
+
+  /**
+   * Finds the entry for the given key, removing it if it has expired.
+   * @param key the key
+   * @return the entry, or null if the key is not cached
+   */
+  @SuppressWarnings("unchecked")
+  private Entry<K, V> find(K key) {
+    Entry<K, V> e = (Entry<K, V>) table.get(key);
+    if (e != null && expireAfterWriteNanos > 0 && clock.getAsLong() - e.expiresAt >= 0) {
+      remove(e);
+      return null;
+    }
+    return e;
+  }
+
+  /**
+   * Records an access to the given entry, moving it to the back of its list. In TINY_LFU mode, an
+   * entry on probation is promoted to the protected segment, which demotes the least recently
+   * used protected entries to probation if the segment has become too heavy.
+   * @param e the entry
+   */
+  private void onAccess(Entry<K, V> e) {
+    if (e.list != PROBATION) {
+      listOf(e).moveToLast(e);
+      return;
+    }
+    probation.remove(e);
+    probationWeight -= e.weight;
+    e.list = PROTECTED;
+    protectedList.addLast(e);
+    protectedWeight += e.weight;
+    while (protectedWeight > protectedMax) {
+      Entry<K, V> demoted = protectedList.first();
+      if (demoted == e) break;
+      move(demoted, PROBATION);
+    }
+  }
+
+  /**
+   * Evicts entries until the cache is within its maximum weight. In TINY_LFU mode, entries that
+   * overflow the window first become candidates at the back of the probation segment. While the
+   * cache is too heavy, the candidate is compared with the entry at the front of probation (the
+   * victim), and whichever key has been requested less often is evicted.
+   */
+  private void evict() {
+    if (policy == Policy.LRU) {
+      while (windowWeight > maximumWeight) evict(window.first());
+      return;
+    }
+    while (windowWeight > windowMax) move(window.first(), PROBATION);
+    while (weight() > maximumWeight) {
+      if (probation.first() == null) {
+        if (protectedList.first() != null) move(protectedList.first(), PROBATION);
+        else evict(window.first());
+        continue;
+      }
+      Entry<K, V> victim = probation.first(), candidate = probation.last();
+      if (candidate == victim
+          || sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+        evict(victim);
+      }
+      else evict(candidate);
+    }
+  }
+
+  /**
+   * Moves the given entry to the back of the given list.
+   * @param e the entry
+   * @param list the list: WINDOW, PROBATION, or PROTECTED
+   */
+  private void move(Entry<K, V> e, int list) {
+    listOf(e).remove(e);
+    addWeight(e, -e.weight);
+    e.list = list;
+    listOf(e).addLast(e);
+    addWeight(e, e.weight);
+  }
+
+  /**
+   * Evicts the given entry, counting the eviction.
+   * @param e the entry
+   */
+  private void evict(Entry<K, V> e) {
+    remove(e);
+    evictions++;
+  }
+
+  /**
+   * Removes the given entry from the cache.
+   * @param e the entry
+   */
+  private void remove(Entry<K, V> e) {
+    listOf(e).remove(e);
+    addWeight(e, -e.weight);
+    table.delete(e.key);
+    size--;
+  }
+
+  /**
+   * Gets the list that holds the given entry.
+   * @param e the entry
+   * @return the list
+   */
+  private AccessList<K, V> listOf(Entry<K, V> e) {
+    return (e.list == WINDOW) ? window : (e.list == PROBATION) ? probation : protectedList;
+  }
+
+  /**
+   * Adds the given amount to the weight of the list that holds the given entry.
+   * @param e the entry
+   * @param delta the amount to add
+   */
+  private void addWeight(Entry<K, V> e, long delta) {
+    if (e.list == WINDOW) windowWeight += delta;
+    else if (e.list == PROBATION) probationWeight += delta;
+    else protectedWeight += delta;
+  }
+}
@@ -0,0 +1,294 @@
+package dataStructures;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Implementation of a streaming string builder, which encodes the characters appended to it and
+ * writes them to a channel as it goes, rather than holding the whole string in memory. Characters
+ * are appended to a StringBuilder of bounded capacity (so they get the same compact storage and
+ * number formatting). Whenever it fills, its buffer is encoded in place by a CharsetEncoder into a
+ * reusable direct ByteBuffer, which is written to the channel, and the StringBuilder is reset.
+ * Peak memory use therefore depends only on the buffer size, not on the length of the output, and
+ * no intermediate String is ever created.
+ *
+ * When the buffer holds only Latin-1 characters and they can be written as they are (because the
+ * charset is ISO-8859-1, or because they are all ASCII and the charset is UTF-8 or US-ASCII), the
+ * bytes are copied straight into the ByteBuffer without going through the encoder.
+ */
+public class ChannelWriter implements Flushable, Closeable {
+  private static final int DEFAULT_BUFFER_SIZE = 8192, MIN_BUFFER_SIZE = 64;
+  // The longest string that append(long) or append(double) can produce.
+  private static final int MAX_NUMBER_LENGTH = 24;
+  private final WritableByteChannel channel;
+  private final CharsetEncoder encoder;
+  private final boolean latin1Direct, asciiDirect;
+  private final StringBuilder chars;
+  private final int bufferSize;
+  private final ByteBuffer bytes;
+  // Used to widen Latin-1 bytes to chars when they must go through the encoder.
+  private char[] scratch;
+  private boolean closed = false;
+
+  /**
+   * Constructor for a ChannelWriter that encodes characters as UTF-8, with a buffer of 8192
+   * characters.
+   * @param channel the channel to write to
+   */
+  public ChannelWriter(WritableByteChannel channel) {
+    this(channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Constructor for ChannelWriter. Characters that cannot be encoded in the given charset (and
+   * unpaired surrogates) are replaced with the charset's replacement bytes.
+   * @param channel the channel to write to
+   * @param charset the charset in which to encode characters
+   * @param bufferSize the number of characters to buffer before encoding and writing them
+   */
+  public ChannelWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+    if (channel == null || charset == null)
+      throw new IllegalArgumentException("Arguments cannot be null");
+    if (bufferSize < MIN_BUFFER_SIZE) throw new IllegalArgumentException("Buffer size too small");
+    this.channel = channel;
+    encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    latin1Direct = charset.equals(StandardCharsets.ISO_8859_1);
+    asciiDirect =
+        charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII);
+    this.bufferSize = bufferSize;
+    chars = new StringBuilder(bufferSize);
+    // Large enough to encode a full buffer of characters in one pass.
+    bytes = ByteBuffer.allocateDirect((int) Math.ceil(bufferSize * encoder.maxBytesPerChar()));
+  }
+
+  /**
+   * Appends a single character.
+   * @param c the character to append
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(char c) throws IOException {
+    ensureRoom(1);
+    chars.append(c);
+  }
+
+  /**
+   * Appends the given array of characters.
+   * @param str the characters to append
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(char[] str) throws IOException {
+    if (str == null) throw new IllegalArgumentException("Argument cannot be null");
+    ensureOpen();
+    for (int i = 0; i < str.length; ) {
+      int n = Math.min(str.length - i, bufferSize - chars.length());
+      chars.append(str, i, n);
+      i += n;
+      if (chars.length() == bufferSize) drain();
+    }
+  }
+
+  /**
+   * Appends the given string.
+   * @param str the string to append
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(String str) throws IOException {
+    if (str == null) throw new IllegalArgumentException("Argument cannot be null");
+    append(str, 0, str.length());
+  }
+
+  /**
+   * Appends the given range of the given character sequence. A range longer than the buffer is
+   * appended (and written) one buffer at a time.
+   * @param s the character sequence containing the characters to append
+   * @param start the index of the first character to append (inclusive)
+   * @param end the index of the last character to append (exclusive)
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(CharSequence s, int start, int end) throws IOException {
+    if (s == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (start < 0 || end > s.length() || start > end)
+      throw new IndexOutOfBoundsException("Invalid range");
+    ensureOpen();
+    for (int i = start; i < end; ) {
+      int n = Math.min(end - i, bufferSize - chars.length());
+      chars.append(s, i, i + n);
+      i += n;
+      if (chars.length() == bufferSize) drain();
+    }
+  }
+
+  /**
+   * Appends the decimal representation of the given int.
+   * @param i the int to append
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(int i) throws IOException { append((long) i); }
+
+  /**
+   * Appends the decimal representation of the given long.
+   * @param l the long to append
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(long l) throws IOException {
+    ensureRoom(MAX_NUMBER_LENGTH);
+    chars.append(l);
+  }
+
+  /**
+   * Appends the decimal representation of the given double, in the same format as
+   * Double.toString.
+   * @param d the double to append
+   * @throws IOException if writing to the channel fails
+   */
+  public void append(double d) throws IOException {
+    ensureRoom(MAX_NUMBER_LENGTH);
+    chars.append(d);
+  }
+
+  /**
+   * Encodes all buffered characters and writes them to the channel.
+   * @throws IOException if writing to the channel fails
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    drain();
+    writeBytes();
+  }
+
+  /**
+   * Encodes and writes all buffered characters, finishes the encoding (for charsets that need to
+   * write closing bytes), and closes the channel. Has no effect if the writer is already closed.
+   * @throws IOException if writing to or closing the channel fails
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) return;
+    try {
+      drain();
+      // Anything left over is an unpaired high surrogate, which is encoded as a replacement.
+      CharBuffer leftover = chars.isLatin1() ? CharBuffer.allocate(0) :
+          CharBuffer.wrap(chars.utf16Buffer(), 0, chars.length());
+      encode(leftover, true);
+      chars.reset();
+      while (encoder.flush(bytes).isOverflow()) writeBytes();
+      writeBytes();
+    }
+    finally {
+      closed = true;
+      channel.close();
+    }
+  }
+
+  /**
+   * Ensures that the buffer has room for the given number of characters, encoding and writing
+   * its contents first if it does not.
+   * @param length the number of characters to make room for
+   * @throws IOException if writing to the channel fails
+   */
+  private void ensureRoom(int length) throws IOException {
+    ensureOpen();
+    if (chars.length() + length > bufferSize) drain();
+  }
+
+  /**
+   * Encodes the buffered characters into the byte buffer, writing the byte buffer to the channel
+   * whenever it fills, and resets the character buffer. A high surrogate at the end of the buffer
+   * is kept, so that it can be encoded together with the low surrogate that follows it.
+   * @throws IOException if writing to the channel fails
+   */
+  private void drain() throws IOException {
+    int length = chars.length();
+    if (length == 0) return;
+    if (chars.isLatin1()) {
+      byte[] latin1 = chars.latin1Buffer();
+      if (latin1Direct || (asciiDirect && isAscii(latin1, length))) putBytes(latin1, length);
+      else {
+        if (scratch == null) scratch = new char[bufferSize];
+        for (int i = 0; i < length; i++) scratch[i] = (char) (latin1[i] & 0xFF);
+        encode(CharBuffer.wrap(scratch, 0, length), false);
+      }
+      chars.reset();
+    }
+    else {
+      char[] utf16 = chars.utf16Buffer();
+      CharBuffer in = CharBuffer.wrap(utf16, 0, length);
+      encode(in, false);
+      int leftover = in.remaining();
+      System.arraycopy(utf16, in.position(), utf16, 0, leftover);
+      chars.setLength(leftover);
+    }
+  }
+
+  /**
+   * Encodes the given characters into the byte buffer, writing the byte buffer to the channel
+   * whenever it fills.
+   * @param in the characters to encode
+   * @param endOfInput whether no more characters will follow
+   * @throws IOException if writing to the channel fails
+   */
+  private void encode(CharBuffer in, boolean endOfInput) throws IOException {
+    while (true) {
+      CoderResult result = encoder.encode(in, bytes, endOfInput);
+      if (result.isOverflow()) writeBytes();
+      else if (result.isUnderflow()) return;
+      else result.throwException(); // Not reached, since errors are replaced.
+    }
+  }
+
+  /**
+   * Copies the given bytes into the byte buffer, writing the byte buffer to the channel whenever
+   * it fills.
+   * @param src the bytes to copy
+   * @param length the number of bytes to copy
+   * @throws IOException if writing to the channel fails
+   */
+  private void putBytes(byte[] src, int length) throws IOException {
+    for (int i = 0; i < length; ) {
+      if (!bytes.hasRemaining()) writeBytes();
+      int n = Math.min(length - i, bytes.remaining());
+      bytes.put(src, i, n);
+      i += n;
+    }
+  }
+
+  /**
+   * Writes the contents of the byte buffer to the channel, and clears the byte buffer.
+   * @throws IOException if writing to the channel fails
+   */
+  private void writeBytes() throws IOException {
+    bytes.flip();
+    while (bytes.hasRemaining()) channel.write(bytes);
+    bytes.clear();
+  }
+
+  /**
+   * Determines whether the given bytes are all ASCII.
+   * @param latin1 the bytes to check
+   * @param length the number of bytes to check
+   * @return true if every byte is ASCII, false otherwise
+   */
+  private static boolean isAscii(byte[] latin1, int length) {
+    for (int i = 0; i < length; i++) if (latin1[i] < 0) return false;
+    return true;
+  }
+
+  /**
+   * Ensures that the writer has not been closed.
+   * @throws IOException if the writer has been closed
+   */
+  private void ensureOpen() throws IOException {
+    if (closed) throw new IOException("Writer closed");
+  }
+}
@@ -0,0 +1,599 @@
+package dataStructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Implementation of a hash table that can be shared between any number of threads. Like
+ * HashTableOpen, it uses separate chaining, but the chains are built from immutable nodes, and the
+ * head of each chain is read and written with volatile semantics. A reader therefore never locks:
+ * it reads a bucket's head and walks a chain that no writer will ever modify. A writer locks one
+ * of STRIPES locks (chosen by bucket index, so writers to different buckets rarely contend), and
+ * publishes a new chain: a new node is prepended, and replacing or deleting a node copies the
+ * nodes in front of it and shares the rest.
+ *
+ * Keys that collide on their bucket (by chance, or because an attacker chose them) would make a
+ * chain long, and every write to it slow. So once a chain holds more than TREEIFY_THRESHOLD
+ * records, the bucket's head is replaced by a TreeBin, which holds the records in an immutable
+ * treap ordered as HashTableOpen orders its tree buckets. A writer publishes a new TreeBin whose
+ * treap copies only the path to the changed node, in O(log n) expected time, and readers search
+ * it without locking, as they walk chains. Records whose keys compare equal (keys of the same
+ * class that are not Comparable, and have equal hash codes) share a chain in one treap node.
+ *
+ * When the table grows, the resize is cooperative. The thread that starts it allocates a table of
+ * twice the size, and threads claim strides of TRANSFER_STRIDE buckets to move. A moved bucket's
+ * head is replaced by a forwarding node pointing at the new table, so readers follow it, and a
+ * writer that meets one helps move the remaining buckets before retrying in the new table. So
+ * the work of a resize is spread across every thread writing during it.
+ *
+ * The number of records is kept in a sharded counter: each thread adds to one of several counter
+ * cells (chosen by its thread ID, and padded to separate cache lines), and the size is the sum of
+ * the cells, so that writers do not all contend on a single counter.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class ConcurrentHashTable<K, V> {
+  private static final VarHandle RESIZE;
+  private static final double LOAD_FACTOR_MAX = 0.75;
+  private static final int MIN_CAPACITY = 16, MAX_CAPACITY = 1 << 30;
+  private static final int STRIPES = 64, TRANSFER_STRIDE = 16;
+  private static final int TREEIFY_THRESHOLD = 8, UNTREEIFY_THRESHOLD = 6;
+  // Counter cells are spaced 8 longs (64 bytes) apart, so that each occupies its own cache line.
+  private static final int CELL_SPACING = 8;
+  private static final int PUT = 0, PUT_IF_ABSENT = 1, COMPUTE_IF_ABSENT = 2, DELETE = 3;
+  private final Object[] locks = new Object[STRIPES];
+  private final AtomicLongArray counterCells;
+  private final int cellMask;
+  private volatile AtomicReferenceArray<Node<K, V>> table;
+  private volatile Resize<K, V> resize;
+
+  static {
+    try {
+      RESIZE = MethodHandles.lookup().findVarHandle(ConcurrentHashTable.class, "resize",
+          Resize.class);
+    }
+    catch (ReflectiveOperationException e) { throw new ExceptionInInitializerError(e); }
+  }
+
+  /**
+   * Class representing the immutable nodes of a chain.
+   */
+  private static class Node<K, V> {
+    private final int hash;
+    private final K key;
+    private final V value;
+    private final Node<K, V> next;
+
+    private Node(int hash, K key, V value, Node<K, V> next) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /**
+   * Class representing the head of a bucket that has been moved to a resized table.
+   */
+  private static final class ForwardingNode<K, V> extends Node<K, V> {
+    private final Resize<K, V> resize;
+
+    private ForwardingNode(Resize<K, V> resize) {
+      super(0, null, null, null);
+      this.resize = resize;
+    }
+  }
+
+  /**
+   * Class representing the head of a bucket whose records are held in a treap.
+   */
+  private static final class TreeBin<K, V> extends Node<K, V> {
+    private final TreeNode<K, V> root;
+    private final int size;
+
+    private TreeBin(TreeNode<K, V> root, int size) {
+      super(0, null, null, null);
+      this.root = root;
+      this.size = size;
+    }
+  }
+
+  /**
+   * Class representing the immutable nodes of a treap. Each node holds a chain of records whose
+   * keys compare equal (usually just one record), and a random priority that is at least the
+   * priorities of its children, which keeps the expected depth of the treap logarithmic.
+   */
+  private static final class TreeNode<K, V> {
+    private final Node<K, V> chain;
+    private final int priority;
+    private final TreeNode<K, V> left, right;
+
+    private TreeNode(Node<K, V> chain, int priority, TreeNode<K, V> left, TreeNode<K, V> right) {
+      this.chain = chain;
+      this.priority = priority;
+      this.left = left;
+      this.right = right;
+    }
+  }
+
+  /**
+   * Class representing the state of a resize in progress.
+   */
+  private static final class Resize<K, V> {
+    private final AtomicReferenceArray<Node<K, V>> from, to;
+    private final ForwardingNode<K, V> forwarding = new ForwardingNode<>(this);
+    private final AtomicInteger nextBucket = new AtomicInteger();
+    private final AtomicInteger bucketsMoved = new AtomicInteger();
+
+    private Resize(AtomicReferenceArray<Node<K, V>> from) {
+      this.from = from;
+      to = new AtomicReferenceArray<>(from.length() * 2);
+    }
+  }
+
+  /**
+   * Constructor for ConcurrentHashTable.
+   */
+  public ConcurrentHashTable() {
+    for (int i = 0; i < STRIPES; i++) locks[i] = new Object();
+    int cells = Math.min(STRIPES, Integer.highestOneBit(
+        Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+    counterCells = new AtomicLongArray(cells * CELL_SPACING);
+    cellMask = cells - 1;
+    table = new AtomicReferenceArray<>(MIN_CAPACITY);
+  }
+
+  /**
+   * Gets the value associated with the given key, without locking.
+   * @param key the key
+   * @return the value associated with the given key, or null if the key is not present
+   */
+  public V get(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    int hash = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    while (true) {
+      Node<K, V> n = tab.get(hash & (tab.length() - 1));
+      if (n instanceof ForwardingNode) {
+        tab = ((ForwardingNode<K, V>) n).resize.to;
+        continue;
+      }
+      if (n instanceof TreeBin) {
+        TreeNode<K, V> t = findTreeNode(((TreeBin<K, V>) n).root, hash, key);
+        n = (t == null) ? null : t.chain;
+      }
+      Node<K, V> found = findInChain(n, hash, key);
+      return (found == null) ? null : found.value;
+    }
+  }
+
+  /**
+   * Determines whether the table contains the given key, without locking.
+   * @param key the key
+   * @return true if the key is present, false otherwise
+   */
+  public boolean containsKey(Object key) { return get(key) != null; }
+
+  /**
+   * Associates the given value with the given key.
+   * @param key the key
+   * @param value the value
+   * @return the value previously associated with the given key, or null if the key was not present
+   */
+  public V put(K key, V value) {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    return write(key, value, null, PUT);
+  }
+
+  /**
+   * Atomically associates the given value with the given key, if the key is not present.
+   * @param key the key
+   * @param value the value
+   * @return the value already associated with the given key, or null if the key was not present
+   * (in which case the given value was associated with it)
+   */
+  public V putIfAbsent(K key, V value) {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    return write(key, value, null, PUT_IF_ABSENT);
+  }
+
+  /**
+   * Gets the value associated with the given key. If the key is not present, atomically computes
+   * a value with the given function and associates it with the key, so that the function is
+   * called at most once per key, however many threads ask for it at once. The function is called
+   * while holding a lock, so it should be short, and must not modify this table.
+   * @param key the key
+   * @param mappingFunction the function that computes the value of an absent key
+   * @return the value associated with the given key, or null if the key was not present and the
+   * function returned null (in which case nothing is associated with the key)
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    if (key == null || mappingFunction == null)
+      throw new IllegalArgumentException("Arguments cannot be null");
+    V value = get(key); // Most calls find the key, and need no lock.
+    return (value != null) ? value : write(key, null, mappingFunction, COMPUTE_IF_ABSENT);
+  }
+
+  /**
+   * Deletes the given key and its value from the table.
+   * @param key the key
+   * @return the value previously associated with the given key, or null if the key was not present
+   */
+  public V delete(K key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    return write(key, null, null, DELETE);
+  }
+
+  /**
+   * Gets the number of records in the table. While other threads are writing, this is an
+   * estimate, since the counter cells are summed one at a time.
+   * @return the number of records in the table
+   */
+  public int size() {
+    long sum = 0;
+    for (int i = 0; i <= cellMask; i++) sum += counterCells.get(i * CELL_SPACING);
+    return (int) Math.max(0, Math.min(Integer.MAX_VALUE, sum));
+  }
+
+  /**
+   * Determines whether the table is empty.
+   * @return true if the table contains no records, false otherwise
+   */
+  public boolean isEmpty() { return size() == 0; }
+
+  /**
+   * Performs a write operation on the bucket of the given key, under the bucket's lock.
+   * @param key the key
+   * @param value the value to put, or null
+   * @param mappingFunction the function that computes the value of an absent key, or null
+   * @param mode the operation: PUT, PUT_IF_ABSENT, COMPUTE_IF_ABSENT, or DELETE
+   * @return the result of the operation, as described by the public method that performs it
+   */
+  private V write(K key, V value, Function<? super K, ? extends V> mappingFunction, int mode) {
+    int hash = spread(key.hashCode());
+    AtomicReferenceArray<Node<K, V>> tab = table;
+    while (true) {
+      int bucket = hash & (tab.length() - 1);
+      Node<K, V> head = tab.get(bucket);
+      if (head instanceof ForwardingNode) {
+        Resize<K, V> r = ((ForwardingNode<K, V>) head).resize;
+        helpResize(r);
+        tab = r.to;
+        continue;
+      }
+      V result = null;
+      int delta = 0;
+      boolean collided = false;
+      synchronized (locks[bucket & (STRIPES - 1)]) {
+        if (tab.get(bucket) != head) continue; // Changed before the lock was acquired.
+        // Find the chain that holds the key if it is present: the bucket's chain, or the chain
+        // of the treap node whose records compare equal to the key.
+        TreeBin<K, V> bin = (head instanceof TreeBin) ? (TreeBin<K, V>) head : null;
+        TreeNode<K, V> treeNode = (bin == null) ? null : findTreeNode(bin.root, hash, key);
+        Node<K, V> chain = (bin == null) ? head : (treeNode == null) ? null : treeNode.chain;
+        Node<K, V> found = findInChain(chain, hash, key), newChain = chain;
+        if (found != null) {
+          result = found.value;
+          if (mode == PUT)
+            newChain = replace(chain, found, new Node<>(hash, key, value, found.next));
+          else if (mode == DELETE) {
+            newChain = replace(chain, found, found.next);
+            delta = -1;
+          }
+        }
+        else if (mode != DELETE) {
+          V newValue = (mode == COMPUTE_IF_ABSENT) ? mappingFunction.apply(key) : value;
+          if (newValue != null) {
+            newChain = new Node<>(hash, key, newValue, chain);
+            delta = 1;
+            collided = head != null;
+            if (mode == COMPUTE_IF_ABSENT) result = newValue;
+          }
+        }
+        if (bin != null && newChain != chain)
+          tab.set(bucket, updateTreeBin(bin, treeNode, hash, key, newChain, delta));
+        else if (newChain != chain)
+          tab.set(bucket, (delta == 1 && longerThan(newChain, TREEIFY_THRESHOLD)) ?
+              treeify(newChain) : newChain);
+      }
+      if (delta != 0) addCount(delta);
+      // Only check the load when a bucket already held a record, to avoid summing the counter
+      // cells on every insertion.
+      if (collided) maybeResize(tab);
+      return result;
+    }
+  }
+
+  /**
+   * Creates a copy of the given chain with the given node replaced. The nodes in front of the
+   * replaced node are copied, and the nodes behind it are shared. The copies are linked from the
+   * back, so a long chain does not need a deep recursion.
+   * @param head the head of the chain
+   * @param target the node to replace
+   * @param replacement the chain to put in place of the node (its successor, to delete it)
+   * @return the head of the new chain
+   */
+  private static <K, V> Node<K, V> replace(Node<K, V> head, Node<K, V> target,
+      Node<K, V> replacement) {
+    int prefixLength = 0;
+    for (Node<K, V> n = head; n != target; n = n.next) prefixLength++;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Node<K, V>[] prefix = (Node<K, V>[]) new Node[prefixLength];
+    Node<K, V> n = head;
+    for (int i = 0; i < prefixLength; i++, n = n.next) prefix[i] = n;
+    Node<K, V> result = replacement;
+    for (int i = prefixLength - 1; i >= 0; i--)
+      result = new Node<>(prefix[i].hash, prefix[i].key, prefix[i].value, result);
+    return result;
+  }
+
+  /**
+   * Finds the record with the given key in a chain.
+   * @param n the head of the chain
+   * @param hash the spread hash of the key
+   * @param key the key
+   * @return the record with the given key, or null if the key is not in the chain
+   */
+  private static <K, V> Node<K, V> findInChain(Node<K, V> n, int hash, Object key) {
+    for (; n != null; n = n.next) if (n.hash == hash && n.key.equals(key)) return n;
+    return null;
+  }
+
+  /**
+   * Determines whether the given chain holds more than the given number of records.
+   * @param n the head of the chain
+   * @param length the number of records
+   * @return true if the chain is longer than the given length, false otherwise
+   */
+  private static boolean longerThan(Node<?, ?> n, int length) {
+    for (; n != null; n = n.next) if (length-- == 0) return true;
+    return false;
+  }
+
+  /**
+   * Creates a TreeBin holding the records of the given chain.
+   * @param chain the head of the chain
+   * @return the TreeBin
+   */
+  private static <K, V> TreeBin<K, V> treeify(Node<K, V> chain) {
+    TreeNode<K, V> root = null;
+    int size = 0;
+    for (Node<K, V> n = chain; n != null; n = n.next, size++) {
+      TreeNode<K, V> t = findTreeNode(root, n.hash, n.key);
+      if (t == null) root = insert(root, new Node<>(n.hash, n.key, n.value, null));
+      else root = setChain(root, n.hash, n.key, new Node<>(n.hash, n.key, n.value, t.chain));
+    }
+    return new TreeBin<>(root, size);
+  }
+
+  /**
+   * Creates a copy of the given TreeBin in which the chain of the records that compare equal to
+   * the given key has been replaced, converting the bin back to a chain if it has become short.
+   * @param bin the TreeBin
+   * @param treeNode the treap node whose records compare equal to the key, or null if there is
+   * none
+   * @param hash the spread hash of the key
+   * @param key the key
+   * @param chain the new chain of the records that compare equal to the key, or null if there are
+   * none left
+   * @param delta the change in the number of records
+   * @return the new head of the bucket
+   */
+  private static <K, V> Node<K, V> updateTreeBin(TreeBin<K, V> bin, TreeNode<K, V> treeNode,
+      int hash, Object key, Node<K, V> chain, int delta) {
+    TreeNode<K, V> root = (treeNode == null) ?
+        insert(bin.root, chain) : setChain(bin.root, hash, key, chain);
+    int size = bin.size + delta;
+    return (size <= UNTREEIFY_THRESHOLD) ? toChain(root, null) : new TreeBin<>(root, size);
+  }
+
+  /**
+   * Finds the treap node whose records compare equal to the given key.
+   * @param t the root of the treap
+   * @param hash the spread hash of the key
+   * @param key the key
+   * @return the node, or null if there is none
+   */
+  private static <K, V> TreeNode<K, V> findTreeNode(TreeNode<K, V> t, int hash, Object key) {
+    while (t != null) {
+      int cmp = HashTableOpen.compareKeys(hash, key, t.chain.hash, t.chain.key);
+      if (cmp == 0) return t;
+      t = (cmp < 0) ? t.left : t.right;
+    }
+    return null;
+  }
+
+  /**
+   * Creates a copy of the given treap with a new node holding the given chain, whose records
+   * compare equal to each other and to no node of the treap. The new node gets a random
+   * priority, and is placed above every node of lower priority on its path, which are split
+   * between its subtrees.
+   * @param t the root of the treap
+   * @param chain the chain
+   * @return the root of the new treap
+   */
+  private static <K, V> TreeNode<K, V> insert(TreeNode<K, V> t, Node<K, V> chain) {
+    return insert(t, chain, ThreadLocalRandom.current().nextInt());
+  }
+
+  /**
+   * Creates a copy of the given treap with a new node holding the given chain, with the given
+   * priority.
+   * @param t the root of the treap
+   * @param chain the chain
+   * @param priority the priority of the new node
+   * @return the root of the new treap
+   */
+  private static <K, V> TreeNode<K, V> insert(TreeNode<K, V> t, Node<K, V> chain, int priority) {
+    if (t == null || priority > t.priority) {
+      return new TreeNode<>(chain, priority, lessThan(t, chain.hash, chain.key),
+          greaterThan(t, chain.hash, chain.key));
+    }
+    if (HashTableOpen.compareKeys(chain.hash, chain.key, t.chain.hash, t.chain.key) < 0)
+      return new TreeNode<>(t.chain, t.priority, insert(t.left, chain, priority), t.right);
+    return new TreeNode<>(t.chain, t.priority, t.left, insert(t.right, chain, priority));
+  }
+
+  /**
+   * Creates a treap of the nodes of the given treap whose records order before the given key.
+   * @param t the root of the treap
+   * @param hash the spread hash of the key
+   * @param key the key, which compares equal to no node of the treap
+   * @return the root of the new treap
+   */
+  private static <K, V> TreeNode<K, V> lessThan(TreeNode<K, V> t, int hash, Object key) {
+    if (t == null) return null;
+    if (HashTableOpen.compareKeys(hash, key, t.chain.hash, t.chain.key) < 0)
+      return lessThan(t.left, hash, key);
+    return new TreeNode<>(t.chain, t.priority, t.left, lessThan(t.right, hash, key));
+  }
+
+  /**
+   * Creates a treap of the nodes of the given treap whose records order after the given key.
+   * @param t the root of the treap
+   * @param hash the spread hash of the key
+   * @param key the key, which compares equal to no node of the treap
+   * @return the root of the new treap
+   */
+  private static <K, V> TreeNode<K, V> greaterThan(TreeNode<K, V> t, int hash, Object key) {
+    if (t == null) return null;
+    if (HashTableOpen.compareKeys(hash, key, t.chain.hash, t.chain.key) > 0)
+      return greaterThan(t.right, hash, key);
+    return new TreeNode<>(t.chain, t.priority, greaterThan(t.left, hash, key), t.right);
+  }
+
+  /**
+   * Creates a copy of the given treap in which the node whose records compare equal to the given
+   * key holds the given chain instead, or is removed if the chain is null.
+   * @param t the root of the treap, which has a node comparing equal to the key
+   * @param hash the spread hash of the key
+   * @param key the key
+   * @param chain the new chain, or null
+   * @return the root of the new treap
+   */
+  private static <K, V> TreeNode<K, V> setChain(TreeNode<K, V> t, int hash, Object key,
+      Node<K, V> chain) {
+    int cmp = HashTableOpen.compareKeys(hash, key, t.chain.hash, t.chain.key);
+    if (cmp < 0)
+      return new TreeNode<>(t.chain, t.priority, setChain(t.left, hash, key, chain), t.right);
+    if (cmp > 0)
+      return new TreeNode<>(t.chain, t.priority, t.left, setChain(t.right, hash, key, chain));
+    return (chain != null) ? new TreeNode<>(chain, t.priority, t.left, t.right) :
+        merge(t.left, t.right);
+  }
+
+  /**
+   * Merges two treaps, every node of the first ordering before every node of the second.
+   * @param a the root of the first treap
+   * @param b the root of the second treap
+   * @return the root of the merged treap
+   */
+  private static <K, V> TreeNode<K, V> merge(TreeNode<K, V> a, TreeNode<K, V> b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    if (a.priority > b.priority)
+      return new TreeNode<>(a.chain, a.priority, a.left, merge(a.right, b));
+    return new TreeNode<>(b.chain, b.priority, merge(a, b.left), b.right);
+  }
+
+  /**
+   * Copies the records of the given treap into a chain, in order.
+   * @param t the root of the treap
+   * @param tail the chain to append the records to
+   * @return the head of the chain
+   */
+  private static <K, V> Node<K, V> toChain(TreeNode<K, V> t, Node<K, V> tail) {
+    if (t == null) return tail;
+    tail = toChain(t.right, tail);
+    for (Node<K, V> n = t.chain; n != null; n = n.next)
+      tail = new Node<>(n.hash, n.key, n.value, tail);
+    return toChain(t.left, tail);
+  }
+
+  /**
+   * Starts a resize if the given table is the current table and has become too full.
+   * @param tab the table that was written to
+   */
+  private void maybeResize(AtomicReferenceArray<Node<K, V>> tab) {
+    if (resize != null || tab != table || tab.length() >= MAX_CAPACITY) return;
+    if (size() < (long) (tab.length() * LOAD_FACTOR_MAX)) return;
+    Resize<K, V> r = new Resize<>(tab);
+    if (!RESIZE.compareAndSet(this, null, r)) return; // Another thread started a resize.
+    // A resize may have finished between the check above and the compare-and-set, in which case
+    // the table is stale and must not be resized again.
+    if (table != tab) resize = null;
+    else helpResize(r);
+  }
+
+  /**
+   * Helps the given resize by moving strides of buckets until none are left to claim. The thread
+   * that moves the last bucket installs the new table.
+   * @param r the resize to help
+   */
+  private void helpResize(Resize<K, V> r) {
+    int length = r.from.length();
+    while (true) {
+      int start = r.nextBucket.getAndAdd(TRANSFER_STRIDE);
+      if (start >= length) return;
+      int end = Math.min(length, start + TRANSFER_STRIDE);
+      for (int bucket = start; bucket < end; bucket++) moveBucket(r, bucket);
+      if (r.bucketsMoved.addAndGet(end - start) == length) {
+        table = r.to;
+        resize = null;
+      }
+    }
+  }
+
+  /**
+   * Moves the given bucket of the old table to the new table. Since the new table is twice the
+   * size, each record goes either to the same index or to that index plus the old length,
+   * depending on one more bit of its hash.
+   * @param r the resize in progress
+   * @param bucket the index of the bucket to move
+   */
+  private void moveBucket(Resize<K, V> r, int bucket) {
+    int length = r.from.length();
+    synchronized (locks[bucket & (STRIPES - 1)]) {
+      Node<K, V> low = null, high = null, n = r.from.get(bucket);
+      if (n instanceof TreeBin) n = toChain(((TreeBin<K, V>) n).root, null);
+      int lowCount = 0, highCount = 0;
+      for (; n != null; n = n.next) {
+        if ((n.hash & length) == 0) {
+          low = new Node<>(n.hash, n.key, n.value, low);
+          lowCount++;
+        }
+        else {
+          high = new Node<>(n.hash, n.key, n.value, high);
+          highCount++;
+        }
+      }
+      r.to.set(bucket, (lowCount > TREEIFY_THRESHOLD) ? treeify(low) : low);
+      r.to.set(bucket + length, (highCount > TREEIFY_THRESHOLD) ? treeify(high) : high);
+      r.from.set(bucket, r.forwarding);
+    }
+  }
+
+  /**
+   * Adds the given amount to the current thread's counter cell.
+   * @param delta the amount to add
+   */
+  private void addCount(int delta) {
+    long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+    counterCells.getAndAdd(((int) (h >>> 32) & cellMask) * CELL_SPACING, delta);
+  }
+
+  /**
+   * Spreads the high bits of the given hash code into the low bits, which select the bucket, and
+   * clears the sign bit.
+   * @param h a hash code
+   * @return the spread hash
+   */
+  private static int spread(int h) { return (h ^ (h >>> 16)) & Integer.MAX_VALUE; }
+}
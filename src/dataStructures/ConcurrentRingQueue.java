@@ -0,0 +1,229 @@
+package dataStructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of a bounded, lock-free, multi-producer/multi-consumer queue, based on Dmitry
+ * Vyukov's array-based design. Unlike Queue, it can be shared between any number of threads that
+ * add and remove elements concurrently, without the serialization of a lock.
+ *
+ * The queue is a ring of slots whose length is a power of two, so positions wrap around the ring
+ * with a bit mask. Each slot has a sequence number that tells producers and consumers whose turn
+ * it is to use the slot: a producer claiming position p waits for the slot's sequence to equal p,
+ * and a consumer claiming position p waits for it to equal p + 1. Producers and consumers claim
+ * positions by incrementing one of two counters with compare-and-set, after which each thread has
+ * exclusive use of its slot, so threads contend with each other only on the counters. The two
+ * counters are padded out to separate cache lines, so that producers updating one counter do not
+ * repeatedly invalidate the cache line holding the other counter (false sharing).
+ *
+ * offer and poll never block. put and take wait according to the queue's WaitStrategy when the
+ * queue is full or empty, respectively.
+ * @param <E> the type of data contained in the queue
+ */
+public class ConcurrentRingQueue<E> {
+  private static final int MIN_CAPACITY = 2, MAX_CAPACITY = 1 << 30;
+  private final Object[] buffer;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final PaddedCounter enqueuePos = new PaddedCounter(), dequeuePos = new PaddedCounter();
+  private final WaitStrategy waitStrategy;
+
+  /**
+   * Strategies for waiting in put and take while the queue is full or empty.
+   */
+  public enum WaitStrategy {
+    /**
+     * Spin continuously. Offers the lowest latency, but occupies a CPU core while waiting, and
+     * pins the carrier thread of a virtual thread.
+     */
+    BUSY_SPIN,
+    /**
+     * Spin briefly, then yield the processor to other threads between attempts.
+     */
+    YIELD,
+    /**
+     * Spin briefly, then park the thread for increasing lengths of time (up to a millisecond)
+     * between attempts. Parking releases the carrier thread of a virtual thread, so this strategy
+     * is appropriate when many virtual threads may wait on the queue.
+     */
+    PARK
+  }
+
+  // Counters are padded on both sides with unused fields, so that each counter occupies its own
+  // cache line. Padding is split across a class hierarchy because the JVM lays out superclass
+  // fields before subclass fields, but may reorder fields within a single class.
+  private static class LeftPadding { long p01, p02, p03, p04, p05, p06, p07; }
+
+  private static class CounterValue extends LeftPadding { volatile long value; }
+
+  private static final class PaddedCounter extends CounterValue {
+    private static final VarHandle VALUE;
+    long p09, p10, p11, p12, p13, p14, p15;
+
+    static {
+      try {
+        VALUE = MethodHandles.lookup().findVarHandle(CounterValue.class, "value", long.class);
+      }
+      catch (ReflectiveOperationException e) { throw new ExceptionInInitializerError(e); }
+    }
+
+    private long get() { return value; }
+
+    private boolean compareAndSet(long expected, long newValue) {
+      return VALUE.compareAndSet(this, expected, newValue);
+    }
+  }
+
+  /**
+   * Constructor for a ConcurrentRingQueue that parks threads waiting in put and take.
+   * @param capacity the maximum number of elements in the queue, which will be rounded up to the
+   * nearest power of two
+   */
+  public ConcurrentRingQueue(int capacity) { this(capacity, WaitStrategy.PARK); }
+
+  /**
+   * Constructor for a ConcurrentRingQueue.
+   * @param capacity the maximum number of elements in the queue, which will be rounded up to the
+   * nearest power of two
+   * @param waitStrategy the strategy for waiting in put and take
+   */
+  public ConcurrentRingQueue(int capacity, WaitStrategy waitStrategy) {
+    if (capacity < 1 || capacity > MAX_CAPACITY)
+      throw new IllegalArgumentException("Invalid capacity");
+    if (waitStrategy == null) throw new IllegalArgumentException("Wait strategy cannot be null");
+    int ringSize = Math.max(MIN_CAPACITY, Integer.highestOneBit(capacity - 1) << 1);
+    buffer = new Object[ringSize];
+    sequences = new AtomicLongArray(ringSize);
+    for (int i = 0; i < ringSize; i++) sequences.set(i, i);
+    mask = ringSize - 1;
+    this.waitStrategy = waitStrategy;
+  }
+
+  /**
+   * Adds the given data to the tail of the queue, if the queue is not full.
+   * @param data the data to add to the queue
+   * @return true if the data was added, false if the queue was full
+   */
+  public boolean offer(E data) {
+    if (data == null) throw new IllegalArgumentException("Data cannot be null");
+    long pos = enqueuePos.get();
+    while (true) {
+      int slot = (int) pos & mask;
+      long diff = sequences.getAcquire(slot) - pos;
+      if (diff == 0) { // The slot is free for this position, so try to claim the position.
+        if (enqueuePos.compareAndSet(pos, pos + 1)) {
+          buffer[slot] = data;
+          sequences.setRelease(slot, pos + 1); // Publish the data to consumers.
+          return true;
+        }
+        pos = enqueuePos.get();
+      }
+      else if (diff < 0) return false; // The slot still holds data from one lap ago.
+      else pos = enqueuePos.get(); // Another producer claimed this position first.
+    }
+  }
+
+  /**
+   * Gets and removes the data at the head of the queue, if the queue is not empty.
+   * @return the data at the head of the queue, or null if the queue was empty
+   */
+  public E poll() {
+    long pos = dequeuePos.get();
+    while (true) {
+      int slot = (int) pos & mask;
+      long diff = sequences.getAcquire(slot) - (pos + 1);
+      if (diff == 0) { // The slot holds data for this position, so try to claim the position.
+        if (dequeuePos.compareAndSet(pos, pos + 1)) {
+          @SuppressWarnings("unchecked")
+          E data = (E) buffer[slot];
+          buffer[slot] = null;
+          sequences.setRelease(slot, pos + mask + 1); // Free the slot for the next lap.
+          return data;
+        }
+        pos = dequeuePos.get();
+      }
+      else if (diff < 0) return null; // No data has been published to this slot yet.
+      else pos = dequeuePos.get(); // Another consumer claimed this position first.
+    }
+  }
+
+  /**
+   * Removes up to the given number of elements from the head of the queue, passing each one to
+   * the given consumer in order, without blocking.
+   * @param consumer the consumer of the removed elements
+   * @param max the maximum number of elements to remove
+   * @return the number of elements removed
+   */
+  public int drainTo(Consumer<? super E> consumer, int max) {
+    if (consumer == null) throw new IllegalArgumentException("Consumer cannot be null");
+    int drained = 0;
+    E data;
+    while (drained < max && (data = poll()) != null) {
+      consumer.accept(data);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Adds the given data to the tail of the queue, waiting for space to become available if the
+   * queue is full.
+   * @param data the data to add to the queue
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public void put(E data) throws InterruptedException {
+    for (int attempt = 0; !offer(data); attempt++) idle(attempt);
+  }
+
+  /**
+   * Gets and removes the data at the head of the queue, waiting for data to become available if
+   * the queue is empty.
+   * @return the data at the head of the queue
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public E take() throws InterruptedException {
+    E data;
+    for (int attempt = 0; (data = poll()) == null; attempt++) idle(attempt);
+    return data;
+  }
+
+  /**
+   * Waits between attempts to add or remove an element, according to the wait strategy.
+   * @param attempt the number of failed attempts so far
+   * @throws InterruptedException if the thread has been interrupted
+   */
+  private void idle(int attempt) throws InterruptedException {
+    if (Thread.interrupted()) throw new InterruptedException();
+    if (waitStrategy == WaitStrategy.BUSY_SPIN || attempt < 100) Thread.onSpinWait();
+    else if (waitStrategy == WaitStrategy.YIELD || attempt < 200) Thread.yield();
+    else LockSupport.parkNanos(1000L << Math.min(attempt - 200, 10));
+  }
+
+  /**
+   * Gets the number of elements in the queue. If other threads are modifying the queue, the
+   * result is only an estimate.
+   * @return the number of elements in the queue
+   */
+  public int size() {
+    // Read the consumer position first, so that the result cannot be negative.
+    long head = dequeuePos.get(), tail = enqueuePos.get();
+    return (int) Math.min(Math.max(tail - head, 0), buffer.length);
+  }
+
+  /**
+   * Determines whether the queue is empty. If other threads are modifying the queue, the result
+   * is only an estimate.
+   * @return true if the queue is empty, false otherwise
+   */
+  public boolean isEmpty() { return size() == 0; }
+
+  /**
+   * Gets the maximum number of elements the queue can hold.
+   * @return the capacity of the queue
+   */
+  public int capacity() { return buffer.length; }
+}
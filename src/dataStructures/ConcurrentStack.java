@@ -0,0 +1,131 @@
+package dataStructures;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Implementation of a generic lock-free stack that can be shared between threads, based on
+ * Treiber's algorithm with elimination backoff (as described by Hendler, Shavit, and Yerushalmi).
+ *
+ * Like Stack, the stack is a chain of nodes, but the top of the stack is updated with
+ * compare-and-set rather than a plain assignment, so that threads never block each other. When
+ * many threads push and pop at once, however, most compare-and-set attempts on the top fail and
+ * must be retried. To relieve this contention, a thread whose attempt fails visits a random slot
+ * in an "elimination array" instead of retrying immediately. A push and a pop that meet in the
+ * same slot cancel each other out: the pop takes the pushed element directly, and neither thread
+ * touches the top of the stack. The more contended the stack, the more often such pairs meet, so
+ * throughput continues to scale as threads are added.
+ * @param <E> the type of data contained in the stack
+ */
+public class ConcurrentStack<E> {
+  private static final int ELIMINATION_SPINS = 64;
+  // Placed in an elimination slot by a popping thread to signal that it took the offered node.
+  private static final Object TAKEN = new Object();
+  private final AtomicReference<StackNode<E>> top = new AtomicReference<>();
+  private final AtomicReferenceArray<Object> eliminationSlots;
+
+  private static class StackNode<E> {
+    private final E data;
+    private StackNode<E> next;
+
+    private StackNode(E data) { this.data = data; }
+  }
+
+  /**
+   * Constructor for ConcurrentStack, with one elimination slot for each available processor.
+   */
+  public ConcurrentStack() { this(Runtime.getRuntime().availableProcessors()); }
+
+  /**
+   * Constructor for ConcurrentStack.
+   * @param eliminationSlots the number of slots in the elimination array
+   */
+  public ConcurrentStack(int eliminationSlots) {
+    if (eliminationSlots < 1) throw new IllegalArgumentException("Invalid number of slots");
+    this.eliminationSlots = new AtomicReferenceArray<>(eliminationSlots);
+  }
+
+  /**
+   * Adds an element containing the given data to the top of the stack.
+   * @param data the data to add to the stack
+   */
+  public void push(E data) {
+    StackNode<E> node = new StackNode<>(data);
+    while (true) {
+      StackNode<E> oldTop = top.get();
+      node.next = oldTop;
+      if (top.compareAndSet(oldTop, node)) return;
+      if (offerToPopper(node)) return; // The top is contended, so try to eliminate instead.
+    }
+  }
+
+  /**
+   * Gets and removes the data contained in the element at the top of the stack.
+   * @return the data at the top of the stack
+   */
+  public E pop() {
+    while (true) {
+      StackNode<E> oldTop = top.get();
+      if (oldTop == null) throw new NoSuchElementException("No element to pop");
+      if (top.compareAndSet(oldTop, oldTop.next)) return oldTop.data;
+      StackNode<E> eliminated = takeFromPusher(); // The top is contended, so try to eliminate.
+      if (eliminated != null) return eliminated.data;
+    }
+  }
+
+  /**
+   * Gets, but does not remove, the data contained in the element at the top of the stack.
+   * @return the data at the top of the stack
+   */
+  public E peek() {
+    StackNode<E> currTop = top.get();
+    if (currTop == null) throw new NoSuchElementException("No element to peek");
+    return currTop.data;
+  }
+
+  /**
+   * Determines whether the stack is empty. If other threads are modifying the stack, the result
+   * may be out of date by the time it is returned.
+   * @return true if the stack is empty, false otherwise
+   */
+  public boolean isEmpty() { return top.get() == null; }
+
+  /**
+   * Offers the given node in a random elimination slot, and waits briefly for a popping thread
+   * to take it.
+   * @param node the node being pushed
+   * @return true if a popping thread took the node, false if the push must be retried
+   */
+  private boolean offerToPopper(StackNode<E> node) {
+    int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length());
+    if (!eliminationSlots.compareAndSet(slot, null, node)) return false; // The slot is in use.
+    for (int i = 0; i < ELIMINATION_SPINS; i++) {
+      if (eliminationSlots.get(slot) == TAKEN) {
+        eliminationSlots.set(slot, null);
+        return true;
+      }
+      Thread.onSpinWait();
+    }
+    // No popping thread arrived in time, so withdraw the offer, unless one arrived at the last
+    // moment.
+    if (eliminationSlots.compareAndSet(slot, node, null)) return false;
+    eliminationSlots.set(slot, null);
+    return true;
+  }
+
+  /**
+   * Checks a random elimination slot for a node offered by a pushing thread, and takes it if
+   * there is one.
+   * @return the node taken from the pushing thread, or null if the pop must be retried
+   */
+  @SuppressWarnings("unchecked")
+  private StackNode<E> takeFromPusher() {
+    int slot = ThreadLocalRandom.current().nextInt(eliminationSlots.length());
+    Object offered = eliminationSlots.get(slot);
+    if (offered instanceof StackNode && eliminationSlots.compareAndSet(slot, offered, TAKEN))
+      return (StackNode<E>) offered;
+    return null;
+  }
+}
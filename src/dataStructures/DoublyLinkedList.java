@@ -0,0 +1,400 @@
+package dataStructures;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of a doubly-linked list. Since each node has a pointer to its predecessor as well
+ * as its successor, a node can be unlinked in O(1) time once it has been reached, which allows the
+ * list's iterators to remove and insert elements in place, and allows entire lists to be spliced
+ * together in O(1) time. Indexed operations walk from whichever end of the list is closer.
+ *
+ * The list can optionally recycle its nodes: removed nodes are kept on a free list (up to a given
+ * limit) and reused by later insertions, so a list that is used as a high-churn buffer (for
+ * example, by a producer that adds to the tail and a consumer that removes from the head) stops
+ * allocating once it reaches a steady state.
+ * @param <E> the type of data contained in the list
+ */
+public class DoublyLinkedList<E> implements Iterable<E> {
+  private ListNode<E> head, tail;
+  private int size = 0, modCount = 0;
+  // Removed nodes available for reuse, linked through their "next" pointers.
+  private ListNode<E> freeList;
+  private int freeCount = 0;
+  private final int maxFreeNodes;
+
+  private static class ListNode<E> {
+    E data;
+    ListNode<E> prev, next;
+  }
+
+  /**
+   * Constructor for a DoublyLinkedList that does not recycle its nodes.
+   */
+  public DoublyLinkedList() { this(0); }
+
+  /**
+   * Constructor for a DoublyLinkedList that keeps up to the given number of removed nodes for
+   * reuse by later insertions.
+   * @param maxFreeNodes the maximum number of removed nodes to keep for reuse
+   */
+  public DoublyLinkedList(int maxFreeNodes) {
+    if (maxFreeNodes < 0) throw new IllegalArgumentException("Invalid free list size");
+    this.maxFreeNodes = maxFreeNodes;
+  }
+
+  /**
+   * Adds an element containing the given data to the end of the list.
+   * @param data the data to add to the list
+   */
+  public void add(E data) { linkBefore(data, null); }
+
+  /**
+   * Adds an element containing the given data to the front of the list.
+   * @param data the data to add to the list
+   */
+  public void addFirst(E data) { linkBefore(data, head); }
+
+  /**
+   * Inserts an element containing the given data at the given index in the list.
+   * @param idx the index at which to insert the data
+   * @param data the data to insert
+   */
+  public void add(int idx, E data) {
+    if (idx < 0 || idx > size) throw new IndexOutOfBoundsException("Invalid index");
+    linkBefore(data, (idx == size) ? null : nodeAt(idx));
+  }
+
+  /**
+   * Gets the data at the given index in the list.
+   * @param idx the index of the data to get
+   * @return the data at the given index
+   */
+  public E get(int idx) {
+    if (idx < 0 || idx > (size - 1)) throw new IndexOutOfBoundsException("Invalid index");
+    return nodeAt(idx).data;
+  }
+
+  /**
+   * Gets the data at the head of the list.
+   * @return the data at the head of the list
+   */
+  public E getFirst() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return head.data;
+  }
+
+  /**
+   * Gets the data at the tail of the list.
+   * @return the data at the tail of the list
+   */
+  public E getLast() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return tail.data;
+  }
+
+  /**
+   * Removes the given data from the list.
+   * @param data the data to remove
+   * @return true if data was removed from the list, false otherwise
+   */
+  public boolean remove(E data) {
+    for (ListNode<E> node = head; node != null; node = node.next) {
+      if (node.data.equals(data)) {
+        unlink(node);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes the data at the given index.
+   * @param idx the index of the data to remove
+   * @return the data removed from the list
+   */
+  public E remove(int idx) {
+    if (idx < 0 || idx > (size - 1)) throw new IndexOutOfBoundsException("Invalid index");
+    return unlink(nodeAt(idx));
+  }
+
+  /**
+   * Removes the data at the head of the list.
+   * @return the data removed from the list
+   */
+  public E removeFirst() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return unlink(head);
+  }
+
+  /**
+   * Removes the data at the tail of the list.
+   * @return the data removed from the list
+   */
+  public E removeLast() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return unlink(tail);
+  }
+
+  /**
+   * Moves all elements of the given list into this list, so that they begin at the given index.
+   * The nodes of the given list are relinked rather than copied, so apart from locating the
+   * given index, this takes O(1) time regardless of the length of either list. The given list is
+   * left empty.
+   * @param idx the index in this list at which the elements of the given list should begin
+   * @param other the list whose elements should be moved into this list
+   */
+  public void splice(int idx, DoublyLinkedList<E> other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (other == this) throw new IllegalArgumentException("Cannot splice a list into itself");
+    if (idx < 0 || idx > size) throw new IndexOutOfBoundsException("Invalid index");
+    if (other.size == 0) return;
+    ListNode<E> succ = (idx == size) ? null : nodeAt(idx);
+    ListNode<E> pred = (succ == null) ? tail : succ.prev;
+    other.head.prev = pred;
+    other.tail.next = succ;
+    if (pred == null) head = other.head;
+    else pred.next = other.head;
+    if (succ == null) tail = other.tail;
+    else succ.prev = other.tail;
+    size += other.size;
+    modCount++;
+    other.head = other.tail = null;
+    other.size = 0;
+    other.modCount++;
+  }
+
+  /**
+   * Moves all elements of the given list to the end of this list in O(1) time. The given list is
+   * left empty.
+   * @param other the list whose elements should be moved to the end of this list
+   */
+  public void concat(DoublyLinkedList<E> other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    splice(size, other);
+  }
+
+  /**
+   * Gets the size of the list.
+   * @return the number of elements in the list
+   */
+  public int size() { return size; }
+
+  /**
+   * Determines whether the list is empty
+   * @return true if the list contains no elements, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Finds the node at the given index, walking from whichever end of the list is closer.
+   * @param idx a valid index in the list
+   * @return the node at the given index
+   */
+  private ListNode<E> nodeAt(int idx) {
+    ListNode<E> node;
+    if (idx < size / 2) {
+      node = head;
+      for (int i = 0; i < idx; i++) node = node.next;
+    }
+    else {
+      node = tail;
+      for (int i = size - 1; i > idx; i--) node = node.prev;
+    }
+    return node;
+  }
+
+  /**
+   * Inserts a node containing the given data directly before the given node.
+   * @param data the data to insert
+   * @param succ the node before which the data should be inserted, or null to insert at the end
+   */
+  private void linkBefore(E data, ListNode<E> succ) {
+    ListNode<E> newNode;
+    if (freeList != null) { // Reuse a previously removed node.
+      newNode = freeList;
+      freeList = newNode.next;
+      freeCount--;
+    }
+    else newNode = new ListNode<>();
+    ListNode<E> pred = (succ == null) ? tail : succ.prev;
+    newNode.data = data;
+    newNode.prev = pred;
+    newNode.next = succ;
+    if (pred == null) head = newNode;
+    else pred.next = newNode;
+    if (succ == null) tail = newNode;
+    else succ.prev = newNode;
+    size++;
+    modCount++;
+  }
+
+  /**
+   * Removes the given node from the list, and keeps it for reuse if the free list has room.
+   * @param node a node in the list
+   * @return the data contained in the removed node
+   */
+  private E unlink(ListNode<E> node) {
+    E data = node.data;
+    if (node.prev == null) head = node.next;
+    else node.prev.next = node.next;
+    if (node.next == null) tail = node.prev;
+    else node.next.prev = node.prev;
+    size--;
+    modCount++;
+    node.data = null; // Allow the removed data to be garbage collected.
+    node.prev = null;
+    if (freeCount < maxFreeNodes) {
+      node.next = freeList;
+      freeList = node;
+      freeCount++;
+    }
+    else node.next = null;
+    return data;
+  }
+
+  /**
+   * Provides an iterator over the elements of the list.
+   * @return an iterator over the elements of the list
+   */
+  @Override
+  public Iterator<E> iterator() { return new DoublyLinkedListIterator(0); }
+
+  /**
+   * Provides a list iterator over the elements of the list, starting at the head.
+   * @return a list iterator over the elements of the list
+   */
+  public ListIterator<E> listIterator() { return new DoublyLinkedListIterator(0); }
+
+  /**
+   * Provides a list iterator over the elements of the list, starting at the given index.
+   * @param idx the index of the first element to be returned by next()
+   * @return a list iterator over the elements of the list
+   */
+  public ListIterator<E> listIterator(int idx) {
+    if (idx < 0 || idx > size) throw new IndexOutOfBoundsException("Invalid index");
+    return new DoublyLinkedListIterator(idx);
+  }
+
+  /**
+   * Implements a fail-fast list iterator over the elements of the list. Elements can be removed,
+   * replaced, and inserted through the iterator in O(1) time.
+   */
+  private class DoublyLinkedListIterator implements ListIterator<E> {
+    private ListNode<E> nextNode, lastReturned;
+    private int nextIdx, expectedModCount = modCount;
+
+    /**
+     * Constructor for DoublyLinkedListIterator.
+     * @param idx the index of the first element to be returned by next()
+     */
+    private DoublyLinkedListIterator(int idx) {
+      nextNode = (idx == size) ? null : nodeAt(idx);
+      nextIdx = idx;
+    }
+
+    /**
+     * Determines if the iterator has more elements to iterate over in the forward direction.
+     * @return true if there are more elements, false otherwise
+     */
+    @Override
+    public boolean hasNext() { return nextIdx < size; }
+
+    /**
+     * Gets the next element in the iteration.
+     * @return the next element
+     */
+    @Override
+    public E next() {
+      checkForComodification();
+      if (!hasNext()) throw new NoSuchElementException("No more elements");
+      lastReturned = nextNode;
+      nextNode = nextNode.next;
+      nextIdx++;
+      return lastReturned.data;
+    }
+
+    /**
+     * Determines if the iterator has more elements to iterate over in the reverse direction.
+     * @return true if there are more elements, false otherwise
+     */
+    @Override
+    public boolean hasPrevious() { return nextIdx > 0; }
+
+    /**
+     * Gets the previous element in the iteration.
+     * @return the previous element
+     */
+    @Override
+    public E previous() {
+      checkForComodification();
+      if (!hasPrevious()) throw new NoSuchElementException("No more elements");
+      nextNode = lastReturned = (nextNode == null) ? tail : nextNode.prev;
+      nextIdx--;
+      return lastReturned.data;
+    }
+
+    /**
+     * Gets the index of the element that would be returned by next().
+     * @return the index of the next element
+     */
+    @Override
+    public int nextIndex() { return nextIdx; }
+
+    /**
+     * Gets the index of the element that would be returned by previous().
+     * @return the index of the previous element
+     */
+    @Override
+    public int previousIndex() { return nextIdx - 1; }
+
+    /**
+     * Removes the element most recently returned by next() or previous() in O(1) time.
+     */
+    @Override
+    public void remove() {
+      checkForComodification();
+      if (lastReturned == null) throw new IllegalStateException("No element to remove");
+      ListNode<E> lastNext = lastReturned.next;
+      if (nextNode == lastReturned) nextNode = lastNext; // The last call was previous().
+      else nextIdx--; // The last call was next().
+      unlink(lastReturned);
+      lastReturned = null;
+      expectedModCount = modCount;
+    }
+
+    /**
+     * Replaces the element most recently returned by next() or previous().
+     * @param data the replacement data
+     */
+    @Override
+    public void set(E data) {
+      checkForComodification();
+      if (lastReturned == null) throw new IllegalStateException("No element to replace");
+      lastReturned.data = data;
+    }
+
+    /**
+     * Inserts an element containing the given data directly before the element that would be
+     * returned by next(), in O(1) time.
+     * @param data the data to insert
+     */
+    @Override
+    public void add(E data) {
+      checkForComodification();
+      lastReturned = null;
+      linkBefore(data, nextNode);
+      nextIdx++;
+      expectedModCount = modCount;
+    }
+
+    /**
+     * Ensures that the list has not been modified other than through this iterator.
+     */
+    private void checkForComodification() {
+      if (modCount != expectedModCount) throw new ConcurrentModificationException();
+    }
+  }
+}
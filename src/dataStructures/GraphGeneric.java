@@ -144,6 +144,12 @@ public class GraphGeneric<E> {
             adjMap.get(node1).get(node2) : -1;
   }
 
+  /**
+   * Determines whether the graph is directed.
+   * @return true if the graph is directed, false otherwise
+   */
+  public boolean isDirected() { return directed; }
+
   /**
    * Gets the number of nodes in the graph.
    * @return the number of nodes in the graph
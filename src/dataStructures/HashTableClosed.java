@@ -1,29 +1,68 @@
 package dataStructures;
 
-import java.util.Arrays;
-
 /**
  * Implementation of a hash table where keys and values can be any type of object, the hash
  * function is a simple modulo operation, and the collision resolution policy employs closed
  * hashing with linear probing by steps.
+ *
+ * By default, deleted records are marked with tombstones, which lengthen the probe sequences of
+ * later lookups until the table is next rehashed. A table can instead be created in Robin Hood
+ * mode, where each record stores its probe distance (the number of steps from its home slot to the
+ * slot it occupies). When an insertion probes past a record that is closer to its home slot than
+ * the new record is to its own, the two are swapped, and insertion continues with the displaced
+ * record. This keeps probe distances close to the average, and lets a lookup stop as soon as it
+ * meets a record closer to home than the key being sought would be. Deletion shifts the records
+ * that follow back by one step, rather than leaving a tombstone. In both modes, records cache the
+ * hash code of their key, so that rehashing never calls hashCode() again.
+ *
+ * A table can also be created in incremental resize mode. Rather than moving every record to the
+ * resized table at once, the old table is kept alongside the new one, and each operation moves the
+ * records in the next MIGRATE_SLOTS slots of the old table, so that no single operation pays for
+ * a full rehash. Until the move is finished, lookups check both tables and new records go into the
+ * new table. A moved record leaves a tombstone behind, so that the probe sequences of the records
+ * still in the old table stay intact. Since the table grows to twice its size at a load factor of
+ * 0.75 and shrinks to half its size at 0.25, it lands at a load factor of 0.375 or 0.5 after a
+ * resize, far enough from both thresholds that alternating insertions and deletions cannot make
+ * it resize back and forth.
+ *
+ * Calling enableStats() starts collecting the statistics described in HashTableStats: a probe
+ * length for each operation (the number of occupied slots it examined), and the duration and
+ * number of records moved for each rehash. Until then, collection costs one null check per
+ * operation.
  */
 public class HashTableClosed {
   private static final double LOAD_FACTOR_MAX = 0.75, LOAD_FACTOR_MIN = 0.25;
-  private static final int INITIAL_CAPACITY = 10;
+  private static final int INITIAL_CAPACITY = 10, MIGRATE_SLOTS = 16;
+  private final boolean robinHood, incremental;
   private Record[] table = new Record[INITIAL_CAPACITY];
-  private int count = 0, stepSize = calculateStepSize();
+  private int count = 0, tombstones = 0, stepSize = calculateStepSize(INITIAL_CAPACITY);
+  // While an incremental resize is in progress, the table whose records are being moved, and the
+  // index of the next slot to move.
+  private Record[] oldTable;
+  private int oldStepSize, migrateIdx;
+  // Null unless statistics are enabled, and the number of slots examined by the current operation.
+  private HashTableStats stats;
+  private int probes;
+  // The JFR event of the rehash in progress, committed once an incremental resize has moved all of
+  // its records. Null unless statistics are enabled.
+  private HashTableStats.RehashEvent rehashEvent;
 
   private class Record {
     private final Object key;
+    private final int hash;
     private Object value;
+    private int probeDistance; // Only maintained in Robin Hood mode.
     boolean isTombstone;
 
-    private Record(Object key, Object value) {
+    private Record(Object key, int hash, Object value) {
       this.key = key;
+      this.hash = hash;
       this.value = value;
     }
 
-    private Object getKey() { return key; }
+    private boolean hasKey(Object key, int hash) {
+      return this.hash == hash && this.key.equals(key);
+    }
 
     private Object getValue() { return value; }
 
@@ -34,14 +73,39 @@ public class HashTableClosed {
     private void setTombstone(boolean isTombstone) { this.isTombstone = isTombstone; }
   }
 
+  /**
+   * Constructor for a HashTableClosed that marks deleted records with tombstones.
+   */
+  public HashTableClosed() { this(false); }
+
+  /**
+   * Constructor for a HashTableClosed that resizes all at once.
+   * @param robinHood whether to use Robin Hood hashing with backward-shift deletion, rather than
+   * tombstones
+   */
+  public HashTableClosed(boolean robinHood) { this(robinHood, false); }
+
+  /**
+   * Constructor for HashTableClosed.
+   * @param robinHood whether to use Robin Hood hashing with backward-shift deletion, rather than
+   * tombstones
+   * @param incremental whether to move records to a resized table a few at a time, rather than
+   * all at once
+   */
+  public HashTableClosed(boolean robinHood, boolean incremental) {
+    this.robinHood = robinHood;
+    this.incremental = incremental;
+  }
+
   /**
    * Calculates the step size for linear probing by steps. The step size must be relatively prime
    * with respect to the length of the hash table, so that the probe sequence can reach every slot
    * in the table.
+   * @param length the length of the hash table
    * @return the step size
    */
-  private int calculateStepSize() {
-    for (int i = 2; i < table.length; i++) if (gcd(i, table.length) == 1) return i;
+  private int calculateStepSize(int length) {
+    for (int i = 2; i < length; i++) if (gcd(i, length) == 1) return i;
     return 1;
   }
 
@@ -53,9 +117,13 @@ public class HashTableClosed {
    */
   private int gcd(int a, int b) {
     if (a == 0 || b == 0) return 0;
-    if (a == 1 || b == 1) return 1; // Not a required base case, but we can short-circuit here.
-    if (a == b) return a;
-    return (a > b) ? gcd(a - b, b) : gcd(a, b - a);
+    // Euclid's algorithm. Repeated subtraction would take (and recurse) up to max(a, b) times.
+    while (b != 0) {
+      int remainder = a % b;
+      a = b;
+      b = remainder;
+    }
+    return a;
   }
 
   /**
@@ -68,17 +136,47 @@ public class HashTableClosed {
   public Object put(Object key, Object value) {
     if (key == null || value == null)
       throw new IllegalArgumentException("Neither key nor value can be null");
-    // If table has become too full, expand table size and rehash.
-    if (count == (int) (table.length * LOAD_FACTOR_MAX)) rehash(2);
-    int slot = Math.abs(key.hashCode()) % table.length;
+    probes = 0;
+    try { return putRecord(key, value); }
+    finally { if (stats != null) stats.recordProbes(HashTableStats.Operation.PUT, probes); }
+  }
+
+  /**
+   * Inserts a new key/value pair, whose key and value are not null, into the hash table.
+   * @param key the key to insert
+   * @param value the value to insert
+   * @return the value previously associated with the given key, or null if the key was not
+   * present in the hash table
+   */
+  private Object putRecord(Object key, Object value) {
+    if (oldTable != null) migrate();
+    // If table has become too full, expand table size and rehash. If it is only full of
+    // tombstones, rehashing at the same size is enough to clear them.
+    if (count + tombstones >= (int) (table.length * LOAD_FACTOR_MAX)) {
+      if (oldTable != null) finishMigration(); // Not reached, since migration outpaces growth.
+      rehash((count >= (int) (table.length * LOAD_FACTOR_MAX)) ? 2 : 1);
+    }
+    int hash = key.hashCode();
+    if (oldTable != null) { // The key may not have been moved to the new table yet.
+      int oldSlot = find(oldTable, oldStepSize, key, hash);
+      if (oldSlot != -1) {
+        Object oldValue = oldTable[oldSlot].getValue();
+        oldTable[oldSlot].setValue(value);
+        return oldValue;
+      }
+    }
+    if (robinHood) return robinHoodPut(key, hash, value);
+    int slot = homeSlot(hash, table.length);
     int firstTombstoneIdx = -1;
     // Iterate until an empty slot is found to ensure that no duplicates will be inserted.
     while (table[slot] != null) {
-      if (table[slot].getKey().equals(key)) { // Record with given key was in table at some point.
+      probes++;
+      if (table[slot].hasKey(key, hash)) { // Record with given key was in table at some point.
         if (table[slot].isTombstone()) { // Record with given key had previously been deleted.
           table[slot].setValue(value);
           table[slot].setTombstone(false);
           count++;
+          tombstones--;
           return null;
         }
         else { // Record with given key exists in table.
@@ -94,21 +192,190 @@ public class HashTableClosed {
     // If the given key did not already exist in the table, insert a new record into the hash
     // table in the appropriate slot.
     int insertSlot = (firstTombstoneIdx == -1) ? slot : firstTombstoneIdx;
-    table[insertSlot] = new Record(key, value);
+    if (firstTombstoneIdx != -1) tombstones--;
+    table[insertSlot] = new Record(key, hash, value);
+    count++;
+    return null;
+  }
+
+  /**
+   * Inserts a new key/value pair into the hash table in Robin Hood mode. The probe stops at the
+   * first empty slot or record that is closer to its home slot than the key would be, since the
+   * key cannot lie beyond either.
+   * @param key the key to insert
+   * @param hash the hash code of the key
+   * @param value the value to insert
+   * @return the value previously associated with the given key, or null if the key was not
+   * present in the hash table
+   */
+  private Object robinHoodPut(Object key, int hash, Object value) {
+    int slot = homeSlot(hash, table.length), distance = 0;
+    while (table[slot] != null && table[slot].probeDistance >= distance) {
+      probes++;
+      if (table[slot].hasKey(key, hash)) {
+        Object oldValue = table[slot].getValue();
+        table[slot].setValue(value);
+        return oldValue;
+      }
+      slot = (slot + stepSize) % table.length;
+      distance++;
+    }
+    Record r = new Record(key, hash, value);
+    r.probeDistance = distance;
+    robinHoodInsert(r, slot);
     count++;
     return null;
   }
 
   /**
-   * Resizes the capacity of the hash table by the given factor.
+   * Places the given record, whose key is not in the table, at the given slot of its probe
+   * sequence. Whenever the slot is occupied by a record that is closer to its home slot, the two
+   * records are swapped, and the displaced record continues along the probe sequence.
+   * @param r the record to insert, with its probe distance set for the given slot
+   * @param slot the slot at which to start placing the record
+   */
+  private void robinHoodInsert(Record r, int slot) {
+    while (table[slot] != null) {
+      if (table[slot].probeDistance < r.probeDistance) {
+        Record displaced = table[slot];
+        table[slot] = r;
+        r = displaced;
+      }
+      slot = (slot + stepSize) % table.length;
+      r.probeDistance++;
+    }
+    table[slot] = r;
+  }
+
+  /**
+   * Places the given record, whose key is not in the table, in the first free slot of its probe
+   * sequence (or, in Robin Hood mode, wherever its probe distance entitles it to be).
+   * @param r the record to place
+   */
+  private void place(Record r) {
+    int slot = homeSlot(r.hash, table.length);
+    if (robinHood) {
+      r.probeDistance = 0;
+      robinHoodInsert(r, slot);
+      return;
+    }
+    while (table[slot] != null && !table[slot].isTombstone())
+      slot = (slot + stepSize) % table.length;
+    if (table[slot] != null) tombstones--;
+    table[slot] = r;
+  }
+
+  /**
+   * Resizes the capacity of the hash table by the given factor. Records are reinserted using
+   * their cached hash codes, and tombstones are discarded. In incremental resize mode, this only
+   * allocates the new table, and the records are moved by later operations.
    * @param resizeFactor the factor by which the capacity of the hash table should be resized
    */
   private void rehash(double resizeFactor) {
-    Record[] tableCopy = Arrays.copyOf(table, table.length);
+    long start = (stats == null) ? 0 : System.nanoTime();
+    if (stats != null) rehashEvent = stats.beginRehash(this, table.length);
+    Record[] tableCopy = table;
+    int tableCopyStepSize = stepSize;
     table = new Record[Math.max(INITIAL_CAPACITY, (int)(table.length * resizeFactor))];
-    stepSize = calculateStepSize();
-    count = 0;
-    for (Record r : tableCopy) if (!(r == null || r.isTombstone())) put(r.getKey(), r.getValue());
+    stepSize = calculateStepSize(table.length);
+    tombstones = 0;
+    if (incremental) {
+      oldTable = tableCopy;
+      oldStepSize = tableCopyStepSize;
+      migrateIdx = 0;
+    }
+    else for (Record r : tableCopy) if (!(r == null || r.isTombstone())) place(r);
+    if (stats != null) recordRehash(start, incremental ? 0 : count);
+  }
+
+  /**
+   * Moves the records in the next MIGRATE_SLOTS slots of the old table to the new table. Each
+   * moved record is replaced by a tombstone, so that the records after it in the old table can
+   * still be found.
+   */
+  private void migrate() {
+    long start = (stats == null) ? 0 : System.nanoTime();
+    int end = Math.min(oldTable.length, migrateIdx + MIGRATE_SLOTS), moved = 0;
+    for (; migrateIdx < end; migrateIdx++) {
+      Record r = oldTable[migrateIdx];
+      if (r == null || r.isTombstone()) continue;
+      moved++;
+      Record tombstone = new Record(r.key, r.hash, null);
+      tombstone.probeDistance = r.probeDistance;
+      tombstone.setTombstone(true);
+      oldTable[migrateIdx] = tombstone;
+      place(r);
+    }
+    if (migrateIdx == oldTable.length) oldTable = null;
+    if (stats != null) recordRehash(start, moved);
+  }
+
+  /**
+   * Records a rehash, or a step of an incremental rehash, in the statistics, and ends its JFR
+   * event once all of its records have been moved.
+   * @param start the value of System.nanoTime() when the rehash or step started
+   * @param moved the number of records moved by the rehash or step
+   */
+  private void recordRehash(long start, long moved) {
+    stats.recordRehash(rehashEvent, start, table.length, moved, oldTable == null);
+    if (oldTable == null) rehashEvent = null;
+  }
+
+  /**
+   * Moves all of the remaining records in the old table to the new table.
+   */
+  private void finishMigration() { while (oldTable != null) migrate(); }
+
+  /**
+   * Calculates the home slot of a key with the given hash code. The sign bit is masked off rather
+   * than taking the absolute value, since Math.abs(Integer.MIN_VALUE) is negative.
+   * @param hash the hash code of the key
+   * @param length the length of the hash table
+   * @return the home slot
+   */
+  private static int homeSlot(int hash, int length) { return (hash & Integer.MAX_VALUE) % length; }
+
+  /**
+   * Finds the slot of the given table holding the record with the given key. In Robin Hood mode,
+   * the probe stops early at the first record that is closer to its home slot than the key would
+   * be.
+   * @param t the table to search
+   * @param step the step size of the table
+   * @param key the key
+   * @param hash the hash code of the key
+   * @return the slot holding the record with the given key, or -1 if the key is not present in
+   * the table
+   */
+  private int find(Record[] t, int step, Object key, int hash) {
+    int slot, homeSlot;
+    slot = homeSlot = homeSlot(hash, t.length);
+    for (int distance = 0; t[slot] != null; distance++) {
+      probes++;
+      if (robinHood && t[slot].probeDistance < distance) break;
+      if ((!t[slot].isTombstone()) && t[slot].hasKey(key, hash)) return slot;
+      slot = (slot + step) % t.length;
+      // Check to see if we have searched through all slots in the table and returned to the home
+      // slot. This corner case may come about if, through a series of insertions and deletions,
+      // all slots that do not hold an existing record are still occupied by a tombstone.
+      if (slot == homeSlot) break;
+    }
+    return -1;
+  }
+
+  /**
+   * Empties the given slot in Robin Hood mode by shifting each following record in the probe
+   * sequence back by one step, until reaching an empty slot or a record in its home slot.
+   * @param slot the slot to empty
+   */
+  private void shiftBack(int slot) {
+    int next = (slot + stepSize) % table.length;
+    while (table[next] != null && table[next].probeDistance > 0) {
+      table[slot] = table[next];
+      table[slot].probeDistance--;
+      slot = next;
+      next = (next + stepSize) % table.length;
+    }
+    table[slot] = null;
   }
 
   /**
@@ -119,13 +386,18 @@ public class HashTableClosed {
    */
   public Object get(Object key) {
     if (key == null) throw new IllegalArgumentException("Key cannot be null");
-    int slot = Math.abs(key.hashCode()) % table.length;
-    while (table[slot] != null) {
-      if ((!table[slot].isTombstone()) && table[slot].getKey().equals(key))
-        return table[slot].getValue();
-      slot = (slot + stepSize) % table.length;
+    if (oldTable != null) migrate();
+    probes = 0;
+    int hash = key.hashCode();
+    Object value = null;
+    int slot = find(table, stepSize, key, hash);
+    if (slot != -1) value = table[slot].getValue();
+    else if (oldTable != null) {
+      slot = find(oldTable, oldStepSize, key, hash);
+      if (slot != -1) value = oldTable[slot].getValue();
     }
-    return null;
+    if (stats != null) stats.recordProbes(HashTableStats.Operation.GET, probes);
+    return value;
   }
 
   /**
@@ -136,23 +408,45 @@ public class HashTableClosed {
    */
   public Object delete(Object key) {
     if (key == null) throw new IllegalArgumentException("Key cannot be null");
-    int slot, homeSlot;
-    slot = homeSlot = Math.abs(key.hashCode()) % table.length;
-    while (table[slot] != null) {
-      if ((!table[slot].isTombstone()) && table[slot].getKey().equals(key)) {
-        Object oldValue = table[slot].getValue();
+    probes = 0;
+    try { return deleteRecord(key); }
+    finally { if (stats != null) stats.recordProbes(HashTableStats.Operation.DELETE, probes); }
+  }
+
+  /**
+   * Deletes the record associated with the given non-null key from the hash table.
+   * @param key the key
+   * @return the value previously associated with the given key, or null if the key is not present
+   * in the hash table
+   */
+  private Object deleteRecord(Object key) {
+    if (oldTable != null) migrate();
+    int hash = key.hashCode();
+    Object oldValue;
+    int slot = find(table, stepSize, key, hash);
+    if (slot != -1) {
+      oldValue = table[slot].getValue();
+      if (robinHood) shiftBack(slot);
+      else {
         table[slot].setTombstone(true);
-        count--;
-        if (count == (int) (table.length * LOAD_FACTOR_MIN)) rehash(0.5);
-        return oldValue;
+        tombstones++;
       }
-      slot = (slot + stepSize) % table.length;
-      // Check to see if we have searched through all slots in the table and returned to the home
-      // slot. This corner case may come about if, through a series of insertions and deletions,
-      // all slots that do not hold an existing record are still occupied by a tombstone.
-      if (slot == homeSlot) break;
     }
-    return null;
+    else {
+      slot = (oldTable == null) ? -1 : find(oldTable, oldStepSize, key, hash);
+      if (slot == -1) return null;
+      // Records are never shifted within the old table, since that could move a record into a
+      // slot that has already been migrated.
+      oldValue = oldTable[slot].getValue();
+      oldTable[slot].setTombstone(true);
+    }
+    count--;
+    // If table has become too empty, reduce table size and rehash.
+    if (oldTable == null && count <= (int) (table.length * LOAD_FACTOR_MIN)
+        && table.length > INITIAL_CAPACITY) {
+      rehash(0.5);
+    }
+    return oldValue;
   }
 
   /**
@@ -162,16 +456,28 @@ public class HashTableClosed {
    */
   public boolean containsKey(Object key) {
     if (key == null) throw new IllegalArgumentException("Key cannot be null");
-    int slot, homeSlot;
-    slot = homeSlot = Math.abs(key.hashCode()) % table.length;
-    while (table[slot] != null) {
-      if ((!table[slot].isTombstone()) && table[slot].getKey().equals(key)) return true;
-      slot = (slot + stepSize) % table.length;
-      // Check to see if we have searched through all slots in the table and returned to the home
-      // slot. This corner case may come about if, through a series of insertions and deletions,
-      // all slots that do not hold an existing record are still occupied by a tombstone.
-      if (slot == homeSlot) break;
-    }
-    return false;
+    if (oldTable != null) migrate();
+    probes = 0;
+    int hash = key.hashCode();
+    boolean found = find(table, stepSize, key, hash) != -1
+        || (oldTable != null && find(oldTable, oldStepSize, key, hash) != -1);
+    if (stats != null) stats.recordProbes(HashTableStats.Operation.GET, probes);
+    return found;
+  }
+
+  /**
+   * Starts collecting statistics about the hash table's operations. Has no effect if statistics
+   * are already being collected.
+   */
+  public void enableStats() { if (stats == null) stats = new HashTableStats(); }
+
+  /**
+   * Gets a snapshot of the statistics collected since enableStats() was called, along with the
+   * current size, capacity, and tombstone count of the hash table.
+   * @return the snapshot
+   */
+  public HashTableStats.Snapshot stats() {
+    if (stats == null) throw new IllegalStateException("Statistics not enabled");
+    return stats.snapshot(count, table.length, tombstones);
   }
 }
@@ -0,0 +1,324 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a hash table where keys and values can be any type of object, and the
+ * collision resolution policy is bucketized cuckoo hashing. The table is divided into buckets of
+ * BUCKET_SIZE slots, and two hash functions give each key two candidate buckets, so a key is
+ * always in one of 8 slots (or in a small stash, described below). A lookup therefore does a
+ * constant amount of work in the worst case, however unlucky the keys, unlike linear probing,
+ * whose probe sequences can grow long. The slots of a bucket cache the hash codes of their keys in
+ * 16 contiguous bytes, so a lookup reads at most two cache lines of hash codes, and only calls
+ * equals on keys whose hash codes match.
+ *
+ * When both of a new key's buckets are full, a record is evicted from one of them to make room,
+ * and moved to its own other bucket, which may evict another record, and so on. If a record is
+ * still homeless after MAX_DISPLACEMENTS moves, it is put in the stash, a tiny array that every
+ * lookup also checks when it is not empty. Once the stash is full too, the table is rehashed at
+ * twice the size with new hash functions. Since a bucket of 4 slots rarely overflows, the table
+ * stays fast at a load factor of 0.9. Keys with equal hash codes share the same two buckets
+ * whatever the hash functions, so if the stash overflows again before it has emptied since the
+ * last such rehash, rehashing will not help, and the stash grows instead.
+ */
+public class HashTableCuckoo {
+  private static final int BUCKET_SIZE = 4, MIN_BUCKETS = 4, MAX_BUCKETS = 1 << 27;
+  private static final int MAX_DISPLACEMENTS = 128, STASH_SIZE = 4;
+  private static final double LOAD_FACTOR_MAX = 0.9, LOAD_FACTOR_MIN = 0.25;
+  private Object[] keys, values;
+  private int[] hashes;
+  private Object[] stashKeys = new Object[STASH_SIZE], stashValues = new Object[STASH_SIZE];
+  private int[] stashHashes = new int[STASH_SIZE];
+  private int bucketMask, count = 0, stashCount = 0;
+  // Whether the table has been rehashed because the stash overflowed, and the stash has not
+  // emptied since.
+  private boolean stashRehashed = false;
+  // The seed of the hash functions, which changes on every rehash, and the state of the random
+  // number generator that picks records to evict.
+  private int seed = 0x2545F491, random = 0x6C078965;
+
+  /**
+   * Constructor for HashTableCuckoo.
+   */
+  public HashTableCuckoo() { allocate(MIN_BUCKETS); }
+
+  /**
+   * Inserts a new key/value pair into the hash table.
+   * @param key the key to insert
+   * @param value the value to insert
+   * @return the value previously associated with the given key, or null if the key was not
+   * present in the hash table
+   */
+  public Object put(Object key, Object value) {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    int hash = key.hashCode();
+    int slot = find(key, hash);
+    if (slot >= 0) {
+      Object oldValue = values[slot];
+      values[slot] = value;
+      return oldValue;
+    }
+    if (slot != -1) {
+      int i = ~slot - 1;
+      Object oldValue = stashValues[i];
+      stashValues[i] = value;
+      return oldValue;
+    }
+    // If table has become too full, expand table size and rehash.
+    if (count >= (int) (keys.length * LOAD_FACTOR_MAX)) rehash((bucketMask + 1) * 2);
+    insert(key, hash, value);
+    count++;
+    return null;
+  }
+
+  /**
+   * Gets the value in the hash table associated with the given key.
+   * @param key the key
+   * @return the value associated with the given key, or null if the key is not present in the hash
+   * table
+   */
+  public Object get(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    int slot = find(key, key.hashCode());
+    if (slot >= 0) return values[slot];
+    return (slot == -1) ? null : stashValues[~slot - 1];
+  }
+
+  /**
+   * Deletes the record (key and value) associated with the given key from the hash table.
+   * @param key the key
+   * @return the value previously associated with the given key, or null if the key is not present
+   * in the hash table
+   */
+  public Object delete(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    int slot = find(key, key.hashCode());
+    if (slot == -1) return null;
+    Object oldValue;
+    if (slot >= 0) {
+      oldValue = values[slot];
+      keys[slot] = values[slot] = null;
+      // The freed slot may let a stashed record return to the table.
+      if (stashCount > 0) unstash();
+    }
+    else {
+      int i = ~slot - 1;
+      oldValue = stashValues[i];
+      removeFromStash(i);
+    }
+    count--;
+    // If table has become too empty, reduce table size and rehash.
+    if (count < (int) (keys.length * LOAD_FACTOR_MIN) && bucketMask + 1 > MIN_BUCKETS)
+      rehash((bucketMask + 1) / 2);
+    return oldValue;
+  }
+
+  /**
+   * Determines whether the hash table contains the given key.
+   * @param key the key
+   * @return true if the key is present in the hash table, false otherwise
+   */
+  public boolean containsKey(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    return find(key, key.hashCode()) != -1;
+  }
+
+  /**
+   * Gets the number of records in the hash table.
+   * @return the number of records in the hash table
+   */
+  public int size() { return count; }
+
+  /**
+   * Gets the capacity of the hash table.
+   * @return the number of slots in the table, not counting the stash
+   */
+  public int capacity() { return keys.length; }
+
+  /**
+   * Gets the number of records in the stash. A stash that rarely empties indicates many keys with
+   * equal hash codes.
+   * @return the number of records in the stash
+   */
+  public int stashSize() { return stashCount; }
+
+  /**
+   * Finds the slot holding the given key.
+   * @param key the key
+   * @param hash the hash code of the key
+   * @return the slot holding the key if it is in the table, the bitwise complement of one more
+   * than its index in the stash (a number less than -1) if it is in the stash, or -1 if the key is
+   * not present in the hash table
+   */
+  private int find(Object key, int hash) {
+    int slot = findInBucket(bucket1(hash), key, hash);
+    if (slot == -1) slot = findInBucket(bucket2(hash), key, hash);
+    if (slot != -1 || stashCount == 0) return slot;
+    for (int i = 0; i < stashCount; i++)
+      if (stashHashes[i] == hash && stashKeys[i].equals(key)) return ~(i + 1);
+    return -1;
+  }
+
+  /**
+   * Finds the slot of the given bucket holding the given key.
+   * @param bucket the bucket
+   * @param key the key
+   * @param hash the hash code of the key
+   * @return the slot holding the key, or -1 if the key is not in the bucket
+   */
+  private int findInBucket(int bucket, Object key, int hash) {
+    for (int slot = bucket * BUCKET_SIZE; slot < (bucket + 1) * BUCKET_SIZE; slot++)
+      if (hashes[slot] == hash && keys[slot] != null && keys[slot].equals(key)) return slot;
+    return -1;
+  }
+
+  /**
+   * Finds an empty slot in the given bucket.
+   * @param bucket the bucket
+   * @return an empty slot, or -1 if the bucket is full
+   */
+  private int freeSlot(int bucket) {
+    for (int slot = bucket * BUCKET_SIZE; slot < (bucket + 1) * BUCKET_SIZE; slot++)
+      if (keys[slot] == null) return slot;
+    return -1;
+  }
+
+  /**
+   * Inserts a record whose key is not present, evicting other records to their other buckets if
+   * both of its buckets are full. A record left homeless after MAX_DISPLACEMENTS evictions goes in
+   * the stash, and if the stash is full, the table is rehashed at twice the size.
+   * @param key the key
+   * @param hash the hash code of the key
+   * @param value the value
+   */
+  private void insert(Object key, int hash, Object value) {
+    int bucket = bucket1(hash);
+    int slot = freeSlot(bucket);
+    if (slot == -1) slot = freeSlot(bucket = bucket2(hash));
+    for (int moves = 0; slot == -1 && moves < MAX_DISPLACEMENTS; moves++) {
+      // Evict a random record from the current bucket, put the homeless record in its place, and
+      // try the evicted record's other bucket.
+      random ^= random << 13;
+      random ^= random >>> 17;
+      random ^= random << 5;
+      int victim = bucket * BUCKET_SIZE + (random & (BUCKET_SIZE - 1));
+      Object evictedKey = keys[victim], evictedValue = values[victim];
+      int evictedHash = hashes[victim];
+      keys[victim] = key;
+      values[victim] = value;
+      hashes[victim] = hash;
+      key = evictedKey;
+      value = evictedValue;
+      hash = evictedHash;
+      int b1 = bucket1(hash);
+      bucket = (b1 != bucket) ? b1 : bucket2(hash);
+      slot = freeSlot(bucket);
+    }
+    if (slot != -1) {
+      keys[slot] = key;
+      values[slot] = value;
+      hashes[slot] = hash;
+    }
+    else if (stashCount == stashKeys.length && !stashRehashed) {
+      rehash((bucketMask + 1) * 2);
+      stashRehashed = true;
+      insert(key, hash, value);
+    }
+    else {
+      if (stashCount == stashKeys.length) {
+        stashKeys = Arrays.copyOf(stashKeys, stashCount * 2);
+        stashValues = Arrays.copyOf(stashValues, stashCount * 2);
+        stashHashes = Arrays.copyOf(stashHashes, stashCount * 2);
+      }
+      stashKeys[stashCount] = key;
+      stashValues[stashCount] = value;
+      stashHashes[stashCount++] = hash;
+    }
+  }
+
+  /**
+   * Moves every stashed record that has a free slot in one of its buckets back into the table.
+   */
+  private void unstash() {
+    for (int i = stashCount - 1; i >= 0; i--) {
+      int hash = stashHashes[i];
+      int slot = freeSlot(bucket1(hash));
+      if (slot == -1) slot = freeSlot(bucket2(hash));
+      if (slot == -1) continue;
+      keys[slot] = stashKeys[i];
+      values[slot] = stashValues[i];
+      hashes[slot] = hash;
+      removeFromStash(i);
+    }
+  }
+
+  /**
+   * Removes the record at the given index of the stash, filling the gap with the last record.
+   * @param i the index of the record
+   */
+  private void removeFromStash(int i) {
+    stashCount--;
+    stashKeys[i] = stashKeys[stashCount];
+    stashValues[i] = stashValues[stashCount];
+    stashHashes[i] = stashHashes[stashCount];
+    stashKeys[stashCount] = stashValues[stashCount] = null;
+    if (stashCount == 0) stashRehashed = false;
+  }
+
+  /**
+   * Calculates the first bucket of a key with the given hash code.
+   * @param hash the hash code of the key
+   * @return the first bucket of the key
+   */
+  private int bucket1(int hash) {
+    int h = (hash ^ seed) * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & bucketMask;
+  }
+
+  /**
+   * Calculates the second bucket of a key with the given hash code. It is computed with a
+   * different multiplier than the first, so the two buckets are independent.
+   * @param hash the hash code of the key
+   * @return the second bucket of the key
+   */
+  private int bucket2(int hash) {
+    int h = (hash ^ seed) * 0x85EBCA6B;
+    return (h ^ (h >>> 15)) & bucketMask;
+  }
+
+  /**
+   * Resizes the hash table to the given number of buckets, changes the hash functions, and
+   * reinserts every record, including the stashed ones.
+   * @param buckets the new number of buckets, a power of two
+   */
+  private void rehash(int buckets) {
+    if (buckets > MAX_BUCKETS) throw new IllegalStateException("Hash table full");
+    Object[] oldKeys = keys, oldValues = values;
+    int[] oldHashes = hashes;
+    Object[] oldStashKeys = stashKeys, oldStashValues = stashValues;
+    int[] oldStashHashes = stashHashes;
+    int oldStashCount = stashCount;
+    stashKeys = new Object[STASH_SIZE];
+    stashValues = new Object[STASH_SIZE];
+    stashHashes = new int[STASH_SIZE];
+    stashCount = 0;
+    allocate(buckets);
+    seed = seed * 0x9E3779B9 + 1;
+    for (int i = 0; i < oldKeys.length; i++)
+      if (oldKeys[i] != null) insert(oldKeys[i], oldHashes[i], oldValues[i]);
+    for (int i = 0; i < oldStashCount; i++)
+      insert(oldStashKeys[i], oldStashHashes[i], oldStashValues[i]);
+  }
+
+  /**
+   * Allocates an empty table with the given number of buckets.
+   * @param buckets the number of buckets, a power of two
+   */
+  private void allocate(int buckets) {
+    keys = new Object[buckets * BUCKET_SIZE];
+    values = new Object[buckets * BUCKET_SIZE];
+    hashes = new int[buckets * BUCKET_SIZE];
+    bucketMask = buckets - 1;
+  }
+}
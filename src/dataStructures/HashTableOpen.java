@@ -7,36 +7,257 @@ import java.util.List;
  * Implementation of a hash table where keys and values can be any type of object, the hash
  * function is a simple modulo operation, and the collision resolution policy employs open
  * hashing (storing records in a list).
+ *
+ * A skewed or adversarial set of keys can put many records in the same bucket, which would make
+ * lookups in that bucket take linear time. So once a bucket holds more than TREEIFY_THRESHOLD
+ * records, its list is converted to a RedBlackTree, which bounds lookups to O(log n). Records in a
+ * tree are ordered by hash code, then by the class of their keys, and then by their keys'
+ * compareTo if the keys are Comparable. Records that still compare equal (keys of the same class
+ * that are not Comparable and have equal hash codes) share a tree node, chained in a list. When
+ * deletions shrink a tree to UNTREEIFY_THRESHOLD records, it is converted back to a list.
+ *
+ * A table can also be created in incremental resize mode. Rather than moving every record to the
+ * resized table at once, the old table is kept alongside the new one, and each operation moves the
+ * records in the next MIGRATE_BUCKETS buckets of the old table, so that no single operation pays
+ * for a full rehash. Until the move is finished, lookups check both tables and new records go into
+ * the new table. Since the table grows to twice its size at a load factor of 0.75 and shrinks to
+ * half its size at 0.25, it lands at a load factor of 0.375 or 0.5 after a resize, far enough from
+ * both thresholds that alternating insertions and deletions cannot make it resize back and forth.
+ *
+ * Calling enableStats() starts collecting the statistics described in HashTableStats: a probe
+ * length for each operation (the number of records it compared, plus one for each tree lookup),
+ * and the duration and number of records moved for each rehash. Until then, collection costs one
+ * null check per operation.
  */
 public class HashTableOpen {
   private static final double LOAD_FACTOR_MAX = 0.75, LOAD_FACTOR_MIN = 0.25;
   private static final int INITIAL_CAPACITY = 10;
-  private ArrayList<ArrayList<Record>> table;
+  private static final int TREEIFY_THRESHOLD = 8, UNTREEIFY_THRESHOLD = 6, MIGRATE_BUCKETS = 4;
+  private final boolean incremental;
+  private ArrayList<Bucket> table;
   private int count;
+  // While an incremental resize is in progress, the table whose records are being moved, and the
+  // index of the next bucket to move.
+  private ArrayList<Bucket> oldTable;
+  private int migrateIdx;
+  // Null unless statistics are enabled, and the number of records compared by the current
+  // operation.
+  private HashTableStats stats;
+  private int probes;
+  // The JFR event of the rehash in progress, committed once an incremental resize has moved all of
+  // its records. Null unless statistics are enabled.
+  private HashTableStats.RehashEvent rehashEvent;
+
+  /**
+   * Constructor for a HashTableOpen that resizes all at once.
+   */
+  public HashTableOpen() { this(false); }
 
   /**
    * Constructor for HashTableOpen.
+   * @param incremental whether to move records to a resized table a few buckets at a time, rather
+   * than all at once
    */
-  public HashTableOpen() {
-    table = new ArrayList<>(INITIAL_CAPACITY);
-    for (int i = 0; i < INITIAL_CAPACITY; i++) table.add(new ArrayList<>());
+  public HashTableOpen(boolean incremental) {
+    this.incremental = incremental;
+    table = newTable(INITIAL_CAPACITY);
     count = 0;
   }
 
-  private class Record {
+  private class Record implements Comparable<Record> {
     private final Object key;
+    private final int hash;
     private Object value;
+    private Record next; // The next record sharing this record's tree node.
 
-    private Record(Object key, Object value) {
+    private Record(Object key, int hash, Object value) {
       this.key = key;
+      this.hash = hash;
       this.value = value;
     }
 
-    private Object getKey() { return key; }
-
     private Object getValue() { return value; }
 
     private void setValue(Object value) { this.value = value; }
+
+    private boolean hasKey(Object key, int hash) {
+      return this.hash == hash && this.key.equals(key);
+    }
+
+    /**
+     * Compares this record to the given record by their keys, as described by compareKeys.
+     * Ordering by class before key keeps the order transitive: otherwise a key of another class,
+     * comparing equal to two keys that compare unequal to each other, would make the tree lose
+     * records.
+     * @param other the record to compare to
+     * @return a negative number, zero, or a positive number as this record orders before, the
+     * same as, or after the given record
+     */
+    @Override
+    public int compareTo(Record other) { return compareKeys(hash, key, other.hash, other.key); }
+  }
+
+  /**
+   * Compares two keys by hash code, then by class, and then by compareTo if the keys are
+   * Comparable instances of the same class. This is a total order on the equivalence classes of
+   * keys, which lets a tree hold keys that collide on their hash codes.
+   * @param hash the hash code of the first key
+   * @param key the first key
+   * @param otherHash the hash code of the second key
+   * @param otherKey the second key
+   * @return a negative number, zero, or a positive number as the first key orders before, the
+   * same as, or after the second key
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static int compareKeys(int hash, Object key, int otherHash, Object otherKey) {
+    if (hash != otherHash) return Integer.compare(hash, otherHash);
+    Class<?> c = key.getClass(), otherC = otherKey.getClass();
+    if (c != otherC) {
+      int cmp = c.getName().compareTo(otherC.getName());
+      // Distinct classes of the same name, from different class loaders.
+      return (cmp != 0) ? cmp : Integer.compare(System.identityHashCode(c),
+          System.identityHashCode(otherC));
+    }
+    return (key instanceof Comparable) ? ((Comparable) key).compareTo(otherKey) : 0;
+  }
+
+  /**
+   * Class representing a bucket of the hash table, which holds its records in a list, or in a
+   * tree once it has grown too long.
+   */
+  private class Bucket {
+    private ArrayList<Record> list = new ArrayList<>();
+    private RedBlackTree<Record> tree; // Non-null if and only if list is null.
+    private int size = 0;
+
+    /**
+     * Finds the record with the given key in the bucket.
+     * @param key the key
+     * @param hash the hash code of the key
+     * @return the record with the given key, or null if the key is not present in the bucket
+     */
+    private Record find(Object key, int hash) {
+      if (list != null) {
+        for (Record r : list) {
+          probes++;
+          if (r.hasKey(key, hash)) return r;
+        }
+        return null;
+      }
+      probes++;
+      for (Record r = tree.get(new Record(key, hash, null)); r != null; r = r.next) {
+        probes++;
+        if (r.hasKey(key, hash)) return r;
+      }
+      return null;
+    }
+
+    /**
+     * Adds the given record, whose key is not present in the bucket, converting the bucket to a
+     * tree if it has become too long.
+     * @param r the record to add
+     */
+    private void add(Record r) {
+      size++;
+      if (list != null) {
+        list.add(r);
+        if (size > TREEIFY_THRESHOLD) treeify();
+        return;
+      }
+      link(r);
+    }
+
+    /**
+     * Links the given chain of records, which compare equal to each other, into the tree: as a
+     * new tree node if no node compares equal to them, or else after that node's record, since
+     * RedBlackTree.insert ignores data equal to data already in the tree.
+     * @param r the first record of the chain
+     */
+    private void link(Record r) {
+      Record head = tree.get(r);
+      if (head == null) {
+        tree.insert(r);
+        return;
+      }
+      Record last = r;
+      while (last.next != null) last = last.next;
+      last.next = head.next;
+      head.next = r;
+    }
+
+    /**
+     * Removes the record with the given key from the bucket, converting the bucket back to a list
+     * if it has become short enough.
+     * @param key the key
+     * @param hash the hash code of the key
+     * @return the removed record, or null if the key is not present in the bucket
+     */
+    private Record remove(Object key, int hash) {
+      Record removed = null;
+      if (list != null) {
+        for (int i = 0; i < list.size() && removed == null; i++) {
+          probes++;
+          if (list.get(i).hasKey(key, hash)) removed = list.remove(i);
+        }
+      }
+      else {
+        Record head = tree.get(new Record(key, hash, null));
+        probes++;
+        if (head != null && head.hasKey(key, hash)) {
+          removed = head;
+          tree.delete(head);
+          if (head.next != null) link(head.next);
+        }
+        else if (head != null) {
+          for (Record prev = head; removed == null && prev.next != null; prev = prev.next) {
+            probes++;
+            if (prev.next.hasKey(key, hash)) {
+              removed = prev.next;
+              prev.next = removed.next;
+            }
+          }
+        }
+        if (removed != null && size - 1 <= UNTREEIFY_THRESHOLD) untreeify();
+      }
+      if (removed != null) {
+        removed.next = null;
+        size--;
+      }
+      return removed;
+    }
+
+    /**
+     * Gets all of the records in the bucket.
+     * @return the records in the bucket
+     */
+    private List<Record> records() {
+      if (list != null) return list;
+      List<Record> records = new ArrayList<>(size);
+      for (Record head : tree.inOrderTraversal())
+        for (Record r = head; r != null; r = r.next) records.add(r);
+      return records;
+    }
+
+    /**
+     * Converts the bucket's list to a tree.
+     */
+    private void treeify() {
+      List<Record> records = list;
+      list = null;
+      tree = new RedBlackTree<>();
+      size = 0;
+      for (Record r : records) add(r);
+    }
+
+    /**
+     * Converts the bucket's tree to a list.
+     */
+    private void untreeify() {
+      List<Record> records = records();
+      tree = null;
+      list = new ArrayList<>(records);
+      for (Record r : list) r.next = null;
+    }
   }
 
   /**
@@ -49,31 +270,123 @@ public class HashTableOpen {
   public Object put(Object key, Object value) {
     if (key == null || value == null)
       throw new IllegalArgumentException("Neither key nor value can be null");
-    // If table has become too full, expand table size and rehash.
-    if (count == (int)(table.size() * LOAD_FACTOR_MAX)) rehash(2);
-    int slot = Math.abs(key.hashCode()) % table.size();
-    for (Record r : table.get(slot)) {
-      if (r.getKey().equals(key)) {
-        Object oldValue = r.getValue();
-        r.setValue(value);
-        return oldValue;
-      }
+    probes = 0;
+    try { return putRecord(key, value); }
+    finally { if (stats != null) stats.recordProbes(HashTableStats.Operation.PUT, probes); }
+  }
+
+  /**
+   * Inserts a new key/value pair, whose key and value are not null, into the hash table.
+   * @param key the key to insert
+   * @param value the value to insert
+   * @return the value previously associated with the given key, or null if the key was not
+   * present in the hash table
+   */
+  private Object putRecord(Object key, Object value) {
+    // If table has become too full, expand table size and rehash. During an incremental resize,
+    // the buckets just grow longer until the move is finished.
+    if (oldTable != null) migrate();
+    else if (count >= (int)(table.size() * LOAD_FACTOR_MAX)) rehash(2);
+    int hash = key.hashCode();
+    Record r = find(key, hash);
+    if (r != null) {
+      Object oldValue = r.getValue();
+      r.setValue(value);
+      return oldValue;
     }
-    table.get(slot).add(new Record(key, value));
+    table.get(slot(hash, table.size())).add(new Record(key, hash, value));
     count++;
     return null;
   }
 
   /**
-   * Resizes the capacity of the hash table by the given factor.
+   * Resizes the capacity of the hash table by the given factor. Records are moved to their new
+   * buckets using their cached hash codes. In incremental resize mode, this only allocates the new
+   * table, and the records are moved by later operations.
    * @param resizeFactor the factor by which the capacity of the hash table should be resized
    */
   private void rehash(double resizeFactor) {
-    ArrayList<ArrayList<Record>> oldTable = table;
-    int newSize = Math.max(INITIAL_CAPACITY, (int)(table.size() * resizeFactor));
-    table = new ArrayList<>(newSize);
-    for (int i = 0; i < newSize; i++) table.add(new ArrayList<>());
-    for (List<Record> l : oldTable) for (Record r : l) put(r.getKey(), r.getValue());
+    long start = (stats == null) ? 0 : System.nanoTime();
+    if (stats != null) rehashEvent = stats.beginRehash(this, table.size());
+    ArrayList<Bucket> tableCopy = table;
+    table = newTable(Math.max(INITIAL_CAPACITY, (int)(table.size() * resizeFactor)));
+    if (incremental) {
+      oldTable = tableCopy;
+      migrateIdx = 0;
+    }
+    else for (Bucket b : tableCopy) moveRecords(b);
+    if (stats != null) recordRehash(start, incremental ? 0 : count);
+  }
+
+  /**
+   * Moves the records in the next MIGRATE_BUCKETS buckets of the old table to the new table.
+   */
+  private void migrate() {
+    long start = (stats == null) ? 0 : System.nanoTime();
+    int end = Math.min(oldTable.size(), migrateIdx + MIGRATE_BUCKETS), moved = 0;
+    for (; migrateIdx < end; migrateIdx++) {
+      moved += oldTable.get(migrateIdx).size;
+      moveRecords(oldTable.get(migrateIdx));
+      oldTable.set(migrateIdx, new Bucket());
+    }
+    if (migrateIdx == oldTable.size()) oldTable = null;
+    if (stats != null) recordRehash(start, moved);
+  }
+
+  /**
+   * Records a rehash, or a step of an incremental rehash, in the statistics, and ends its JFR
+   * event once all of its records have been moved.
+   * @param start the value of System.nanoTime() when the rehash or step started
+   * @param moved the number of records moved by the rehash or step
+   */
+  private void recordRehash(long start, long moved) {
+    stats.recordRehash(rehashEvent, start, table.size(), moved, oldTable == null);
+    if (oldTable == null) rehashEvent = null;
+  }
+
+  /**
+   * Moves the records in the given bucket to their buckets in the current table.
+   * @param b the bucket whose records to move
+   */
+  private void moveRecords(Bucket b) {
+    for (Record r : b.records()) {
+      r.next = null;
+      table.get(slot(r.hash, table.size())).add(r);
+    }
+  }
+
+  /**
+   * Creates a table of the given number of empty buckets.
+   * @param size the number of buckets
+   * @return the table
+   */
+  private ArrayList<Bucket> newTable(int size) {
+    ArrayList<Bucket> newTable = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) newTable.add(new Bucket());
+    return newTable;
+  }
+
+  /**
+   * Calculates the slot of a key with the given hash code. The sign bit is masked off rather than
+   * taking the absolute value, since Math.abs(Integer.MIN_VALUE) is negative.
+   * @param hash the hash code of the key
+   * @param size the number of buckets in the table
+   * @return the slot of the key
+   */
+  private static int slot(int hash, int size) { return (hash & Integer.MAX_VALUE) % size; }
+
+  /**
+   * Finds the record with the given key, in the old table as well as the current one if an
+   * incremental resize is in progress.
+   * @param key the key
+   * @param hash the hash code of the key
+   * @return the record with the given key, or null if the key is not present in the hash table
+   */
+  private Record find(Object key, int hash) {
+    Record r = table.get(slot(hash, table.size())).find(key, hash);
+    if (r == null && oldTable != null)
+      r = oldTable.get(slot(hash, oldTable.size())).find(key, hash);
+    return r;
   }
 
   /**
@@ -84,9 +397,11 @@ public class HashTableOpen {
    */
   public Object get(Object key) {
     if (key == null) throw new IllegalArgumentException("Key cannot be null");
-    for (Record r : table.get(Math.abs(key.hashCode()) % table.size()))
-      if (r.getKey().equals(key)) return r.getValue();
-    return null;
+    if (oldTable != null) migrate();
+    probes = 0;
+    Record r = find(key, key.hashCode());
+    if (stats != null) stats.recordProbes(HashTableStats.Operation.GET, probes);
+    return (r == null) ? null : r.getValue();
   }
 
   /**
@@ -97,17 +412,21 @@ public class HashTableOpen {
    */
   public Object delete(Object key) {
     if (key == null) throw new IllegalArgumentException("Key cannot be null");
-    ArrayList<Record> l = table.get(Math.abs(key.hashCode()) % table.size());
-    int deleteIdx = -1;
-    for (int i = 0; i < l.size() && deleteIdx == -1; i++)
-      if (l.get(i).getKey().equals(key)) deleteIdx = i;
-    if (deleteIdx == -1) return null;
-    Object deleteValue = l.get(deleteIdx).getValue();
-    l.remove(deleteIdx);
+    if (oldTable != null) migrate();
+    probes = 0;
+    int hash = key.hashCode();
+    Record r = table.get(slot(hash, table.size())).remove(key, hash);
+    if (r == null && oldTable != null)
+      r = oldTable.get(slot(hash, oldTable.size())).remove(key, hash);
+    if (stats != null) stats.recordProbes(HashTableStats.Operation.DELETE, probes);
+    if (r == null) return null;
     count--;
     // If table has become too empty, reduce table size and rehash.
-    if (count == (int)(table.size() * LOAD_FACTOR_MIN)) rehash(0.5);
-    return deleteValue;
+    if (oldTable == null && count <= (int)(table.size() * LOAD_FACTOR_MIN)
+        && table.size() > INITIAL_CAPACITY) {
+      rehash(0.5);
+    }
+    return r.getValue();
   }
 
   /**
@@ -117,8 +436,26 @@ public class HashTableOpen {
    */
   public boolean containsKey(Object key) {
     if (key == null) throw new IllegalArgumentException("Key cannot be null");
-    for (Record r : table.get(Math.abs(key.hashCode()) % table.size()))
-      if (r.getKey().equals(key)) return true;
-    return false;
+    if (oldTable != null) migrate();
+    probes = 0;
+    boolean found = find(key, key.hashCode()) != null;
+    if (stats != null) stats.recordProbes(HashTableStats.Operation.GET, probes);
+    return found;
+  }
+
+  /**
+   * Starts collecting statistics about the hash table's operations. Has no effect if statistics
+   * are already being collected.
+   */
+  public void enableStats() { if (stats == null) stats = new HashTableStats(); }
+
+  /**
+   * Gets a snapshot of the statistics collected since enableStats() was called, along with the
+   * current size and number of buckets of the hash table.
+   * @return the snapshot
+   */
+  public HashTableStats.Snapshot stats() {
+    if (stats == null) throw new IllegalStateException("Statistics not enabled");
+    return stats.snapshot(count, table.size(), 0);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,252 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Collector of statistics about the operations of a hash table, for finding out why a table is
+ * slow. Statistics are opt-in: a table only creates a collector when enableStats() is called on
+ * it, and until then, each operation pays for a single null check. Once enabled, each operation
+ * records its probe length (the number of slots or records examined) in a histogram for its
+ * operation type, and each rehash records its duration and the number of records it moved. Each
+ * rehash is also reported as a JFR event, which a running Java Flight Recorder captures along
+ * with the rest of the process's events.
+ *
+ * A table's stats() method combines the collected statistics with its current size, capacity,
+ * and tombstone count into an immutable Snapshot, which can be logged or exported.
+ */
+public final class HashTableStats {
+  /**
+   * The largest probe length counted exactly. Longer probes are counted together in the last
+   * bucket of the histogram.
+   */
+  public static final int MAX_EXACT_PROBES = 31;
+  private final long[][] histograms = new long[Operation.values().length][MAX_EXACT_PROBES + 2];
+  private final long[] totalProbes = new long[Operation.values().length];
+  private final long[] maxProbes = new long[Operation.values().length];
+  private long rehashes, rehashNanos, recordsMoved;
+
+  /**
+   * Types of hash table operations.
+   */
+  public enum Operation {
+    /**
+     * A lookup, by get or containsKey.
+     */
+    GET,
+    /**
+     * An insertion or replacement, by put.
+     */
+    PUT,
+    /**
+     * A deletion, by delete.
+     */
+    DELETE
+  }
+
+  /**
+   * JFR event reporting a rehash.
+   */
+  @Name("dataStructures.Rehash")
+  @Label("Hash Table Rehash")
+  @Category("Data Structures")
+  static final class RehashEvent extends Event {
+    @Label("Table Class")
+    String tableClass;
+    @Label("Old Capacity")
+    int oldCapacity;
+    @Label("New Capacity")
+    int newCapacity;
+    @Label("Records Moved")
+    long recordsMoved;
+  }
+
+  /**
+   * Records the probe length of an operation.
+   * @param op the type of the operation
+   * @param probes the number of slots or records the operation examined
+   */
+  void recordProbes(Operation op, int probes) {
+    int i = op.ordinal();
+    histograms[i][Math.min(probes, MAX_EXACT_PROBES + 1)]++;
+    totalProbes[i] += probes;
+    maxProbes[i] = Math.max(maxProbes[i], probes);
+  }
+
+  /**
+   * Records the start of a rehash, and begins a JFR event for it. The event of an incremental
+   * rehash spans its whole migration, and is committed by the recordRehash call for its last step.
+   * @param table the table being rehashed
+   * @param oldCapacity the capacity of the table before the rehash
+   * @return the event, to be completed by recordRehash
+   */
+  RehashEvent beginRehash(Object table, int oldCapacity) {
+    rehashes++;
+    RehashEvent event = new RehashEvent();
+    event.begin();
+    event.tableClass = table.getClass().getSimpleName();
+    event.oldCapacity = oldCapacity;
+    return event;
+  }
+
+  /**
+   * Records a rehash, or a step of an incremental rehash, and adds the records it moved to its
+   * JFR event, which is committed once the rehash is complete.
+   * @param event the event begun when the rehash started, or null if statistics were enabled
+   * after it started
+   * @param startNanos the value of System.nanoTime() when the rehash or step started
+   * @param newCapacity the capacity of the table after the rehash
+   * @param moved the number of records moved by the rehash or step
+   * @param complete whether all of the records have now been moved
+   */
+  void recordRehash(RehashEvent event, long startNanos, int newCapacity, long moved,
+      boolean complete) {
+    rehashNanos += System.nanoTime() - startNanos;
+    recordsMoved += moved;
+    if (event == null) return;
+    event.recordsMoved += moved;
+    if (!complete) return;
+    event.newCapacity = newCapacity;
+    event.commit();
+  }
+
+  /**
+   * Creates a snapshot of the statistics collected so far, along with the given table state.
+   * @param size the number of records in the table
+   * @param capacity the number of slots or buckets in the table
+   * @param tombstones the number of tombstones in the table
+   * @return the snapshot
+   */
+  Snapshot snapshot(int size, int capacity, int tombstones) {
+    long[][] histogramsCopy = new long[histograms.length][];
+    for (int i = 0; i < histograms.length; i++) histogramsCopy[i] = histograms[i].clone();
+    return new Snapshot(size, capacity, tombstones, histogramsCopy, totalProbes.clone(),
+        maxProbes.clone(), rehashes, rehashNanos, recordsMoved);
+  }
+
+  /**
+   * Immutable snapshot of the statistics of a hash table.
+   */
+  public static final class Snapshot {
+    private final int size, capacity, tombstones;
+    private final long[][] histograms;
+    private final long[] totalProbes, maxProbes;
+    private final long rehashes, rehashNanos, recordsMoved;
+
+    private Snapshot(int size, int capacity, int tombstones, long[][] histograms,
+        long[] totalProbes, long[] maxProbes, long rehashes, long rehashNanos, long recordsMoved) {
+      this.size = size;
+      this.capacity = capacity;
+      this.tombstones = tombstones;
+      this.histograms = histograms;
+      this.totalProbes = totalProbes;
+      this.maxProbes = maxProbes;
+      this.rehashes = rehashes;
+      this.rehashNanos = rehashNanos;
+      this.recordsMoved = recordsMoved;
+    }
+
+    /**
+     * Gets the number of records in the table.
+     * @return the number of records
+     */
+    public int size() { return size; }
+
+    /**
+     * Gets the capacity of the table.
+     * @return the number of slots (for closed hashing) or buckets (for open hashing)
+     */
+    public int capacity() { return capacity; }
+
+    /**
+     * Gets the number of tombstones in the table.
+     * @return the number of tombstones, always 0 for tables that do not use them
+     */
+    public int tombstones() { return tombstones; }
+
+    /**
+     * Gets the load factor of the table.
+     * @return the number of records divided by the capacity
+     */
+    public double loadFactor() { return (double) size / capacity; }
+
+    /**
+     * Gets the tombstone ratio of the table.
+     * @return the number of tombstones divided by the capacity
+     */
+    public double tombstoneRatio() { return (double) tombstones / capacity; }
+
+    /**
+     * Gets the histogram of the probe lengths of the given type of operation.
+     * @param op the type of operation
+     * @return an array whose element i is the number of operations that examined i slots or
+     * records, except for the last element, which counts all operations that examined more than
+     * MAX_EXACT_PROBES
+     */
+    public long[] probeHistogram(Operation op) { return histograms[op.ordinal()].clone(); }
+
+    /**
+     * Gets the number of operations of the given type.
+     * @param op the type of operation
+     * @return the number of operations
+     */
+    public long operations(Operation op) { return Arrays.stream(histograms[op.ordinal()]).sum(); }
+
+    /**
+     * Gets the mean probe length of the given type of operation.
+     * @param op the type of operation
+     * @return the mean number of slots or records examined, or 0 if there were no operations
+     */
+    public double meanProbes(Operation op) {
+      long n = operations(op);
+      return (n == 0) ? 0 : (double) totalProbes[op.ordinal()] / n;
+    }
+
+    /**
+     * Gets the longest probe of the given type of operation.
+     * @param op the type of operation
+     * @return the largest number of slots or records examined by one operation
+     */
+    public long maxProbes(Operation op) { return maxProbes[op.ordinal()]; }
+
+    /**
+     * Gets the number of rehashes (resizes, or rebuilds that clear tombstones).
+     * @return the number of rehashes
+     */
+    public long rehashes() { return rehashes; }
+
+    /**
+     * Gets the total time spent rehashing, including the steps of incremental rehashes.
+     * @return the total time in nanoseconds
+     */
+    public long rehashNanos() { return rehashNanos; }
+
+    /**
+     * Gets the total number of records moved by rehashes.
+     * @return the number of records moved
+     */
+    public long recordsMoved() { return recordsMoved; }
+
+    /**
+     * Gets a one-line summary of the snapshot, for logging.
+     * @return the summary
+     */
+    @Override
+    public String toString() {
+      java.lang.StringBuilder sb = new java.lang.StringBuilder();
+      sb.append(String.format("size=%d capacity=%d load=%.3f tombstones=%.3f", size, capacity,
+          loadFactor(), tombstoneRatio()));
+      for (Operation op : Operation.values()) {
+        sb.append(String.format(" %s(n=%d mean=%.2f max=%d)", op, operations(op), meanProbes(op),
+            maxProbes(op)));
+      }
+      sb.append(String.format(" rehashes=%d rehashMillis=%.3f recordsMoved=%d", rehashes,
+          rehashNanos / 1e6, recordsMoved));
+      return sb.toString();
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package dataStructures;
+
+import bitManipulation.BitMethods;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a hash table where keys and values can be any type of object, modeled on
+ * Google's SwissTable. Like HashTableClosed, it uses closed hashing, but alongside the arrays of
+ * keys and values it keeps an array of 1-byte control tags, one per slot. A tag is EMPTY, DELETED,
+ * or (for a full slot) the low 7 bits of the hash of the slot's key. The tags are packed 8 to a
+ * long, and each long is a group of 8 slots that is probed at once: SWAR ("SIMD within a
+ * register") bit tricks from BitMethods find every slot in the group whose tag matches the key's
+ * 7 hash bits, and equals is only called on those slots, so a probe rarely touches a key that
+ * turns out not to match (a false match happens for about 1 in 128 full slots). A probe ends at
+ * the first group that contains an EMPTY slot.
+ *
+ * The number of groups is a power of two, so the first group to probe is taken from the remaining
+ * hash bits with a mask rather than a modulo, and the hash is never negative. Groups are probed in
+ * triangular order (1, 2, 3, ... groups apart), which visits every group. Since whole groups are
+ * scanned at once, the table stays fast at a load factor of 7/8.
+ */
+public class HashTableSwiss {
+  private static final int GROUP_SIZE = 8, MIN_GROUPS = 2, MAX_GROUPS = 1 << 27;
+  private static final double LOAD_FACTOR_MAX = 0.875, LOAD_FACTOR_MIN = 0.25;
+  // Tags of full slots have a clear high bit, so they never equal EMPTY or DELETED.
+  private static final int EMPTY = 0x80, DELETED = 0xFE;
+  private long[] control;
+  private Object[] keys, values;
+  private int groupMask, count = 0, deleted = 0;
+
+  /**
+   * Constructor for HashTableSwiss.
+   */
+  public HashTableSwiss() { allocate(MIN_GROUPS); }
+
+  /**
+   * Inserts a new key/value pair into the hash table.
+   * @param key the key to insert
+   * @param value the value to insert
+   * @return the value previously associated with the given key, or null if the key was not
+   * present in the hash table
+   */
+  public Object put(Object key, Object value) {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    int hash = hash(key);
+    int slot = find(key, hash);
+    if (slot != -1) {
+      Object oldValue = values[slot];
+      values[slot] = value;
+      return oldValue;
+    }
+    // If the table has run out of EMPTY slots to spare, rehash. The capacity is only doubled if
+    // the doubled table would still be loaded above LOAD_FACTOR_MIN, so that the next delete does
+    // not halve it again. Otherwise, enough of the used slots are DELETED that rehashing at the
+    // same capacity reclaims the space.
+    if (count + deleted >= (int) (keys.length * LOAD_FACTOR_MAX)) {
+      int groups = groupMask + 1;
+      rehash((count >= 2 * LOAD_FACTOR_MIN * keys.length) ? groups * 2 : groups);
+    }
+    slot = findInsertSlot(hash);
+    if (getTag(slot) == DELETED) deleted--;
+    setTag(slot, hash & 0x7F);
+    keys[slot] = key;
+    values[slot] = value;
+    count++;
+    return null;
+  }
+
+  /**
+   * Gets the value in the hash table associated with the given key.
+   * @param key the key
+   * @return the value associated with the given key, or null if the key is not present in the hash
+   * table
+   */
+  public Object get(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    int slot = find(key, hash(key));
+    return (slot == -1) ? null : values[slot];
+  }
+
+  /**
+   * Deletes the record (key and value) associated with the given key from the hash table.
+   * @param key the key
+   * @return the value previously associated with the given key, or null if the key is not present
+   * in the hash table
+   */
+  public Object delete(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    int slot = find(key, hash(key));
+    if (slot == -1) return null;
+    Object oldValue = values[slot];
+    keys[slot] = values[slot] = null;
+    // If the group still has an EMPTY slot, every probe ends at this group, so no key beyond it
+    // depends on the slot being used, and it can become EMPTY. Otherwise, it must become DELETED.
+    if (BitMethods.matchBytes(control[slot / GROUP_SIZE], EMPTY) != 0) setTag(slot, EMPTY);
+    else {
+      setTag(slot, DELETED);
+      deleted++;
+    }
+    count--;
+    // If table has become too empty, reduce table size and rehash.
+    if (count < (int) (keys.length * LOAD_FACTOR_MIN) && groupMask + 1 > MIN_GROUPS)
+      rehash((groupMask + 1) / 2);
+    return oldValue;
+  }
+
+  /**
+   * Determines whether the hash table contains the given key.
+   * @param key the key
+   * @return true if the key is present in the hash table, false otherwise
+   */
+  public boolean containsKey(Object key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    return find(key, hash(key)) != -1;
+  }
+
+  /**
+   * Gets the number of records in the hash table.
+   * @return the number of records in the hash table
+   */
+  public int size() { return count; }
+
+  /**
+   * Gets the capacity of the hash table.
+   * @return the number of slots in the table
+   */
+  public int capacity() { return keys.length; }
+
+  /**
+   * Computes the hash of the given key. The key's hash code is scrambled by multiplying by an odd
+   * constant derived from the golden ratio, so that its low 7 bits (the tag) and the bits above
+   * them (which select the group) both depend on all of its bits.
+   * @param key the key
+   * @return the hash of the key
+   */
+  private static int hash(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Finds the slot holding the given key.
+   * @param key the key
+   * @param hash the hash of the key
+   * @return the slot holding the key, or -1 if the key is not present in the hash table
+   */
+  private int find(Object key, int hash) {
+    int tag = hash & 0x7F;
+    for (int group = (hash >>> 7) & groupMask, step = 1; ; group = (group + step++) & groupMask) {
+      long word = control[group];
+      for (long m = BitMethods.matchBytes(word, tag); m != 0; m = BitMethods.clearLSB(m)) {
+        int slot = group * GROUP_SIZE + BitMethods.firstMarkedByte(m);
+        if (keys[slot].equals(key)) return slot;
+      }
+      if (BitMethods.matchBytes(word, EMPTY) != 0) return -1;
+    }
+  }
+
+  /**
+   * Finds the first EMPTY or DELETED slot in the probe sequence for the given hash.
+   * @param hash the hash of a key
+   * @return the slot at which to insert the key
+   */
+  private int findInsertSlot(int hash) {
+    for (int group = (hash >>> 7) & groupMask, step = 1; ; group = (group + step++) & groupMask) {
+      // Only EMPTY and DELETED tags have their high bit set.
+      long free = BitMethods.highBitBytes(control[group]);
+      if (free != 0) return group * GROUP_SIZE + BitMethods.firstMarkedByte(free);
+    }
+  }
+
+  /**
+   * Gets the tag of the given slot.
+   * @param slot the slot
+   * @return the tag, in the lowest 8 bits of an integer
+   */
+  private int getTag(int slot) {
+    return (int) (control[slot / GROUP_SIZE] >>> (slot % GROUP_SIZE * 8)) & 0xFF;
+  }
+
+  /**
+   * Sets the tag of the given slot.
+   * @param slot the slot
+   * @param tag the tag, in the lowest 8 bits of an integer
+   */
+  private void setTag(int slot, int tag) {
+    int shift = slot % GROUP_SIZE * 8;
+    int group = slot / GROUP_SIZE;
+    control[group] = (control[group] & ~(0xFFL << shift)) | ((tag & 0xFFL) << shift);
+  }
+
+  /**
+   * Resizes the hash table to the given number of groups, and reinserts every record. DELETED
+   * slots are discarded.
+   * @param groups the new number of groups, a power of two
+   */
+  private void rehash(int groups) {
+    if (groups > MAX_GROUPS) throw new IllegalStateException("Hash table full");
+    long[] oldControl = control;
+    Object[] oldKeys = keys, oldValues = values;
+    allocate(groups);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if ((oldControl[i / GROUP_SIZE] >>> (i % GROUP_SIZE * 8) & 0x80) != 0) continue;
+      int hash = hash(oldKeys[i]);
+      int slot = findInsertSlot(hash);
+      setTag(slot, hash & 0x7F);
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+    deleted = 0;
+  }
+
+  /**
+   * Allocates an empty table with the given number of groups.
+   * @param groups the number of groups, a power of two
+   */
+  private void allocate(int groups) {
+    control = new long[groups];
+    Arrays.fill(control, BitMethods.broadcastByte(EMPTY));
+    keys = new Object[groups * GROUP_SIZE];
+    values = new Object[groups * GROUP_SIZE];
+    groupMask = groups - 1;
+  }
+}
@@ -0,0 +1,210 @@
+package dataStructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * An implementation of an ArrayList of primitive ints. Follows the same resizing policy as
+ * ArrayList, but stores its elements in an int[] rather than an Object[], so that no element is
+ * ever boxed into an Integer, and iterating over the list reads contiguous memory rather than
+ * following a pointer to each element.
+ */
+public class IntArrayList {
+  private static final int MIN_CAPACITY = 16;
+  private int[] elements;
+  private int size = 0;
+
+  /**
+   * Constructor for an IntArrayList initialized with MIN_CAPACITY.
+   */
+  public IntArrayList() { elements = new int[MIN_CAPACITY]; }
+
+  /**
+   * Constructor for an IntArrayList initialized with either the given capacity, or MIN_CAPACITY,
+   * whichever is greater.
+   * @param capacity the initial capacity of the IntArrayList
+   */
+  public IntArrayList(int capacity) { elements = new int[Math.max(capacity, MIN_CAPACITY)]; }
+
+  /**
+   * Adds an element to the end of the IntArrayList.
+   * @param elem the element to add
+   */
+  public void add(int elem) {
+    if (size + 1 > (elements.length * 0.75)) resize(2);
+    elements[size++] = elem;
+  }
+
+  /**
+   * Adds a range of elements from the given array to the end of the IntArrayList, growing the
+   * backing array at most once.
+   * @param src the array containing the elements to add
+   * @param off the index in the given array of the first element to add
+   * @param len the number of elements to add
+   */
+  public void addAll(int[] src, int off, int len) {
+    if (src == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (off < 0 || len < 0 || off > src.length - len)
+      throw new IndexOutOfBoundsException("Invalid range");
+    int newArrayLen = Math.max(elements.length, MIN_CAPACITY);
+    while (size + len > (newArrayLen * 0.75)) newArrayLen *= 2;
+    if (newArrayLen != elements.length) elements = Arrays.copyOf(elements, newArrayLen);
+    System.arraycopy(src, off, elements, size, len);
+    size += len;
+  }
+
+  /**
+   * Gets the element at the given index, if the index is valid.
+   * @param idx the index of the element to get
+   * @return the element at the given index
+   */
+  public int get(int idx) {
+    if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
+    return elements[idx];
+  }
+
+  /**
+   * Replaces the element at the given index, if the index is valid.
+   * @param idx the index of the element to replace
+   * @param elem the new element
+   * @return the element previously at the given index
+   */
+  public int set(int idx, int elem) {
+    if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
+    int oldElem = elements[idx];
+    elements[idx] = elem;
+    return oldElem;
+  }
+
+  /**
+   * Gets the first element of the IntArrayList, if one exists.
+   * @return the first element
+   */
+  public int getFirst() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return elements[0];
+  }
+
+  /**
+   * Removes the element at the given index from the IntArrayList, if the index is valid.
+   * @param idx the index of the element to remove
+   * @return the removed element
+   */
+  public int remove(int idx) {
+    if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
+    int element = elements[idx];
+    System.arraycopy(elements, idx + 1, elements, idx, size - idx - 1);
+    size--;
+    if ((elements.length > MIN_CAPACITY) && (size < (elements.length * 0.25))) resize(0.5);
+    return element;
+  }
+
+  /**
+   * Removes all elements from the IntArrayList, and returns it to MIN_CAPACITY.
+   */
+  public void clear() {
+    elements = new int[MIN_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Modifies the capacity of the IntArrayList by the given factor.
+   * @param factor the factor to which the capacity of the IntArrayList should be modified
+   */
+  private void resize(double factor) {
+    int newArrayLen = (int) (elements.length * factor);
+    if (newArrayLen < MIN_CAPACITY) newArrayLen = MIN_CAPACITY;
+    if (newArrayLen == elements.length) return; // Avoid unnecessarily copying elements.
+    elements = Arrays.copyOf(elements, newArrayLen);
+  }
+
+  /**
+   * Shrinks the backing array so that its length is exactly the size of the IntArrayList. After
+   * this call, elements() returns an array that can be passed to routines that operate on an
+   * entire int[], such as those in the sorting and searching packages.
+   */
+  public void trimToSize() {
+    if (elements.length != size) elements = Arrays.copyOf(elements, size);
+  }
+
+  /**
+   * Gets the current size of the IntArrayList.
+   * @return the number of elements contained in the IntArrayList
+   */
+  public int size() { return size; }
+
+  /**
+   * Determines whether the IntArrayList is empty.
+   * @return true if the IntArrayList contains no elements, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Gets the array that backs the IntArrayList, without copying it. Only the first size()
+   * elements of the array belong to the list. The array may be modified in place (for example,
+   * sorted with QuickSort.sort(list.elements(), 0, list.size())), but it is replaced whenever the
+   * IntArrayList resizes, so it should not be held across calls that add or remove elements.
+   * @return the backing array
+   */
+  public int[] elements() { return elements; }
+
+  /**
+   * Copies the elements of the IntArrayList into a new array.
+   * @return an array containing the elements of the IntArrayList, in order
+   */
+  public int[] toArray() { return Arrays.copyOf(elements, size); }
+
+  /**
+   * Sorts the elements of the IntArrayList in ascending order, in place.
+   */
+  public void sort() { Arrays.sort(elements, 0, size); }
+
+  /**
+   * Runs a binary search for the given element. The IntArrayList must be sorted.
+   * @param elem the element to search for
+   * @return the index of the element if it is present; otherwise, (-(insertion point) - 1), where
+   * the insertion point is the index at which the element would be inserted in sorted order
+   */
+  public int binarySearch(int elem) { return Arrays.binarySearch(elements, 0, size, elem); }
+
+  /**
+   * Performs the given action on each element of the IntArrayList, in order.
+   * @param action the action to perform
+   */
+  public void forEach(IntConsumer action) {
+    if (action == null) throw new IllegalArgumentException("Argument cannot be null");
+    for (int i = 0; i < size; i++) action.accept(elements[i]);
+  }
+
+  /**
+   * Gets an iterator for the elements of the IntArrayList that does not box elements.
+   * @return an iterator for the IntArrayList
+   */
+  public PrimitiveIterator.OfInt iterator() { return new IntArrayListIterator(); }
+
+  /**
+   * An iterator for the elements of the IntArrayList.
+   */
+  private class IntArrayListIterator implements PrimitiveIterator.OfInt {
+    private int nextIdx = 0;
+
+    /**
+     * Determines whether the iterator has more elements to iterate over.
+     * @return true if there are more elements to iterate over, false otherwise
+     */
+    @Override
+    public boolean hasNext() { return nextIdx < size; }
+
+    /**
+     * Gets the next element in the iteration.
+     * @return the next element
+     */
+    @Override
+    public int nextInt() {
+      if (nextIdx >= size) throw new NoSuchElementException("No more elements");
+      return elements[nextIdx++];
+    }
+  }
+}
@@ -0,0 +1,305 @@
+package dataStructures;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Implementation of a hash map from primitive int keys to primitive int values. Like
+ * HashTableClosed, it uses closed hashing with linear probing, but it stores keys and values in
+ * two parallel int arrays rather than in Record objects, so no operation boxes a key or value or
+ * allocates (other than to resize the arrays).
+ *
+ * The capacity is always a power of two, so the home slot of a key is found with a bit mask. Since
+ * the low bits of many int keys (sequential IDs, for example) follow a regular pattern, keys are
+ * first scrambled by a mixing function, so that they spread evenly over the table. The key 0 marks
+ * an empty slot, so if 0 is used as a key, its value is kept in a separate field. Deleted keys do
+ * not leave tombstones: the keys that follow in the same run are shifted back to fill the gap.
+ */
+public class IntIntHashMap {
+  private static final double LOAD_FACTOR_MAX = 0.75, LOAD_FACTOR_MIN = 0.25;
+  private static final int MIN_CAPACITY = 16, MAX_CAPACITY = 1 << 30;
+  private static final int EMPTY = 0;
+  private int[] keys, values;
+  private int mask, size = 0;
+  private boolean hasZeroKey = false;
+  private int zeroValue;
+
+  /**
+   * Functional interface for consuming the entries of the map.
+   */
+  public interface IntIntConsumer {
+    /**
+     * Consumes an entry of the map.
+     * @param key the key of the entry
+     * @param value the value of the entry
+     */
+    void accept(int key, int value);
+  }
+
+  /**
+   * Constructor for an IntIntHashMap initialized with the minimum capacity.
+   */
+  public IntIntHashMap() { this(0); }
+
+  /**
+   * Constructor for an IntIntHashMap with enough capacity to hold the given number of entries
+   * without resizing.
+   * @param expectedSize the expected number of entries
+   */
+  public IntIntHashMap(int expectedSize) {
+    if (expectedSize < 0) throw new IllegalArgumentException("Invalid size");
+    allocate(capacityFor(expectedSize));
+  }
+
+  /**
+   * Associates the given value with the given key.
+   * @param key the key
+   * @param value the value
+   * @return the value previously associated with the given key, or 0 if the key was not present
+   */
+  public int put(int key, int value) {
+    if (key == EMPTY) {
+      int oldValue = hasZeroKey ? zeroValue : 0;
+      if (!hasZeroKey) addZeroKey();
+      zeroValue = value;
+      return oldValue;
+    }
+    int slot = find(key);
+    if (slot >= 0) {
+      int oldValue = values[slot];
+      values[slot] = value;
+      return oldValue;
+    }
+    insert(~slot, key, value);
+    return 0;
+  }
+
+  /**
+   * Adds the given amount to the value associated with the given key, treating an absent key as
+   * being associated with 0. Useful for maintaining counters.
+   * @param key the key
+   * @param delta the amount to add
+   * @return the new value associated with the given key
+   */
+  public int addTo(int key, int delta) {
+    if (key == EMPTY) {
+      if (!hasZeroKey) addZeroKey();
+      return zeroValue += delta;
+    }
+    int slot = find(key);
+    if (slot >= 0) return values[slot] += delta;
+    insert(~slot, key, delta);
+    return delta;
+  }
+
+  /**
+   * Gets the value associated with the given key, or the given default value if the key is not
+   * present.
+   * @param key the key
+   * @param defaultValue the value to return if the key is not present
+   * @return the value associated with the given key, or the default value
+   */
+  public int getOrDefault(int key, int defaultValue) {
+    if (key == EMPTY) return hasZeroKey ? zeroValue : defaultValue;
+    int slot = find(key);
+    return (slot >= 0) ? values[slot] : defaultValue;
+  }
+
+  /**
+   * Gets the value associated with the given key. If the key is not present, computes a value
+   * with the given function and associates it with the key first.
+   * @param key the key
+   * @param mappingFunction the function that computes the value of an absent key
+   * @return the value associated with the given key
+   */
+  public int computeIfAbsent(int key, IntUnaryOperator mappingFunction) {
+    if (mappingFunction == null) throw new IllegalArgumentException("Function cannot be null");
+    if (key == EMPTY) {
+      if (!hasZeroKey) {
+        int value = mappingFunction.applyAsInt(key);
+        // The function may have added the key itself, in which case its value is overwritten.
+        if (!hasZeroKey) addZeroKey();
+        zeroValue = value;
+      }
+      return zeroValue;
+    }
+    int slot = find(key);
+    if (slot >= 0) return values[slot];
+    int value = mappingFunction.applyAsInt(key);
+    // Probe again, in case the function modified the map. If it added the key itself, its value
+    // is overwritten.
+    slot = find(key);
+    if (slot >= 0) values[slot] = value;
+    else insert(~slot, key, value);
+    return value;
+  }
+
+  /**
+   * Determines whether the map contains the given key.
+   * @param key the key
+   * @return true if the key is present in the map, false otherwise
+   */
+  public boolean containsKey(int key) { return (key == EMPTY) ? hasZeroKey : find(key) >= 0; }
+
+  /**
+   * Removes the given key and its value from the map.
+   * @param key the key
+   * @return true if the key was removed, false if it was not present
+   */
+  public boolean remove(int key) {
+    if (key == EMPTY) {
+      if (!hasZeroKey) return false;
+      hasZeroKey = false;
+      size--;
+      return true;
+    }
+    int slot = find(key);
+    if (slot < 0) return false;
+    shiftBack(slot);
+    size--;
+    if (size < (int) (keys.length * LOAD_FACTOR_MIN) && keys.length > MIN_CAPACITY)
+      rehash(keys.length / 2);
+    return true;
+  }
+
+  /**
+   * Passes each entry of the map to the given consumer, in no particular order.
+   * @param action the consumer of the entries
+   */
+  public void forEach(IntIntConsumer action) {
+    if (action == null) throw new IllegalArgumentException("Action cannot be null");
+    if (hasZeroKey) action.accept(EMPTY, zeroValue);
+    for (int i = 0; i < keys.length; i++) if (keys[i] != EMPTY) action.accept(keys[i], values[i]);
+  }
+
+  /**
+   * Gets the number of entries in the map.
+   * @return the number of entries in the map
+   */
+  public int size() { return size; }
+
+  /**
+   * Determines whether the map is empty.
+   * @return true if the map contains no entries, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Removes all entries from the map, keeping the current capacity.
+   */
+  public void clear() {
+    Arrays.fill(keys, EMPTY);
+    hasZeroKey = false;
+    size = 0;
+  }
+
+  /**
+   * Scrambles the bits of the given key, so that keys with regular low bits are spread evenly over
+   * the table. Multiplying by an odd constant derived from the golden ratio carries the low bits of
+   * the key into its high bits, and the shift folds the high bits back into the low bits.
+   * @param key the key
+   * @return the mixed hash of the key
+   */
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Finds the slot containing the given non-zero key.
+   * @param key the key
+   * @return the slot containing the key if it is present, or otherwise the bitwise complement of
+   * the empty slot at which the probe sequence ended (a negative number)
+   */
+  private int find(int key) {
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY) {
+      if (keys[slot] == key) return slot;
+      slot = (slot + 1) & mask;
+    }
+    return ~slot;
+  }
+
+  /**
+   * Inserts the given non-zero key and value into the given empty slot, and expands the table if
+   * it has become too full.
+   * @param slot an empty slot at the end of the key's probe sequence
+   * @param key the key
+   * @param value the value
+   */
+  private void insert(int slot, int key, int value) {
+    keys[slot] = key;
+    values[slot] = value;
+    if (++size > (int) (keys.length * LOAD_FACTOR_MAX)) rehash(keys.length * 2);
+  }
+
+  /**
+   * Counts the zero key as present, with the value 0, and expands the table if it has become too
+   * full.
+   */
+  private void addZeroKey() {
+    hasZeroKey = true;
+    zeroValue = 0;
+    if (++size > (int) (keys.length * LOAD_FACTOR_MAX)) rehash(keys.length * 2);
+  }
+
+  /**
+   * Empties the given slot by shifting back later keys in the same run that are allowed to occupy
+   * it, until an empty slot is reached. A key may move back to a slot only if that slot does not
+   * come before the key's home slot, so that the key can still be found by probing from home.
+   * @param gap the slot to empty
+   */
+  private void shiftBack(int gap) {
+    for (int slot = (gap + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+      int home = mix(keys[slot]) & mask;
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        keys[gap] = keys[slot];
+        values[gap] = values[slot];
+        gap = slot;
+      }
+    }
+    keys[gap] = EMPTY;
+  }
+
+  /**
+   * Resizes the table to the given capacity, and reinserts every non-zero key.
+   * @param newCapacity the new capacity, a power of two
+   */
+  private void rehash(int newCapacity) {
+    if (newCapacity > MAX_CAPACITY) throw new IllegalStateException("Map full");
+    int[] oldKeys = keys, oldValues = values;
+    allocate(newCapacity);
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = ~find(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Allocates empty arrays of the given capacity.
+   * @param capacity the capacity, a power of two
+   */
+  private void allocate(int capacity) {
+    keys = new int[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  /**
+   * Finds the smallest power of two capacity that can hold the given number of entries without
+   * exceeding the maximum load factor.
+   * @param expectedSize the expected number of entries
+   * @return the capacity
+   */
+  static int capacityFor(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (expectedSize > (int) (capacity * LOAD_FACTOR_MAX)) {
+      if (capacity == MAX_CAPACITY) throw new IllegalArgumentException("Size too large");
+      capacity *= 2;
+    }
+    return capacity;
+  }
+}
@@ -0,0 +1,210 @@
+package dataStructures;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+/**
+ * An implementation of an ArrayList of primitive longs. Follows the same resizing policy as
+ * ArrayList, but stores its elements in a long[] rather than an Object[], so that no element is
+ * ever boxed into a Long, and iterating over the list reads contiguous memory rather than
+ * following a pointer to each element.
+ */
+public class LongArrayList {
+  private static final int MIN_CAPACITY = 16;
+  private long[] elements;
+  private int size = 0;
+
+  /**
+   * Constructor for a LongArrayList initialized with MIN_CAPACITY.
+   */
+  public LongArrayList() { elements = new long[MIN_CAPACITY]; }
+
+  /**
+   * Constructor for a LongArrayList initialized with either the given capacity, or MIN_CAPACITY,
+   * whichever is greater.
+   * @param capacity the initial capacity of the LongArrayList
+   */
+  public LongArrayList(int capacity) { elements = new long[Math.max(capacity, MIN_CAPACITY)]; }
+
+  /**
+   * Adds an element to the end of the LongArrayList.
+   * @param elem the element to add
+   */
+  public void add(long elem) {
+    if (size + 1 > (elements.length * 0.75)) resize(2);
+    elements[size++] = elem;
+  }
+
+  /**
+   * Adds a range of elements from the given array to the end of the LongArrayList, growing the
+   * backing array at most once.
+   * @param src the array containing the elements to add
+   * @param off the index in the given array of the first element to add
+   * @param len the number of elements to add
+   */
+  public void addAll(long[] src, int off, int len) {
+    if (src == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (off < 0 || len < 0 || off > src.length - len)
+      throw new IndexOutOfBoundsException("Invalid range");
+    int newArrayLen = Math.max(elements.length, MIN_CAPACITY);
+    while (size + len > (newArrayLen * 0.75)) newArrayLen *= 2;
+    if (newArrayLen != elements.length) elements = Arrays.copyOf(elements, newArrayLen);
+    System.arraycopy(src, off, elements, size, len);
+    size += len;
+  }
+
+  /**
+   * Gets the element at the given index, if the index is valid.
+   * @param idx the index of the element to get
+   * @return the element at the given index
+   */
+  public long get(int idx) {
+    if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
+    return elements[idx];
+  }
+
+  /**
+   * Replaces the element at the given index, if the index is valid.
+   * @param idx the index of the element to replace
+   * @param elem the new element
+   * @return the element previously at the given index
+   */
+  public long set(int idx, long elem) {
+    if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
+    long oldElem = elements[idx];
+    elements[idx] = elem;
+    return oldElem;
+  }
+
+  /**
+   * Gets the first element of the LongArrayList, if one exists.
+   * @return the first element
+   */
+  public long getFirst() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return elements[0];
+  }
+
+  /**
+   * Removes the element at the given index from the LongArrayList, if the index is valid.
+   * @param idx the index of the element to remove
+   * @return the removed element
+   */
+  public long remove(int idx) {
+    if (idx < 0 || idx > size - 1) throw new IndexOutOfBoundsException("Invalid index");
+    long element = elements[idx];
+    System.arraycopy(elements, idx + 1, elements, idx, size - idx - 1);
+    size--;
+    if ((elements.length > MIN_CAPACITY) && (size < (elements.length * 0.25))) resize(0.5);
+    return element;
+  }
+
+  /**
+   * Removes all elements from the LongArrayList, and returns it to MIN_CAPACITY.
+   */
+  public void clear() {
+    elements = new long[MIN_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Modifies the capacity of the LongArrayList by the given factor.
+   * @param factor the factor to which the capacity of the LongArrayList should be modified
+   */
+  private void resize(double factor) {
+    int newArrayLen = (int) (elements.length * factor);
+    if (newArrayLen < MIN_CAPACITY) newArrayLen = MIN_CAPACITY;
+    if (newArrayLen == elements.length) return; // Avoid unnecessarily copying elements.
+    elements = Arrays.copyOf(elements, newArrayLen);
+  }
+
+  /**
+   * Shrinks the backing array so that its length is exactly the size of the LongArrayList. After
+   * this call, elements() returns an array that can be passed to routines that operate on an
+   * entire long[].
+   */
+  public void trimToSize() {
+    if (elements.length != size) elements = Arrays.copyOf(elements, size);
+  }
+
+  /**
+   * Gets the current size of the LongArrayList.
+   * @return the number of elements contained in the LongArrayList
+   */
+  public int size() { return size; }
+
+  /**
+   * Determines whether the LongArrayList is empty.
+   * @return true if the LongArrayList contains no elements, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Gets the array that backs the LongArrayList, without copying it. Only the first size()
+   * elements of the array belong to the list. The array may be modified in place, but it is
+   * replaced whenever the LongArrayList resizes, so it should not be held across calls that add or
+   * remove elements.
+   * @return the backing array
+   */
+  public long[] elements() { return elements; }
+
+  /**
+   * Copies the elements of the LongArrayList into a new array.
+   * @return an array containing the elements of the LongArrayList, in order
+   */
+  public long[] toArray() { return Arrays.copyOf(elements, size); }
+
+  /**
+   * Sorts the elements of the LongArrayList in ascending order, in place.
+   */
+  public void sort() { Arrays.sort(elements, 0, size); }
+
+  /**
+   * Runs a binary search for the given element. The LongArrayList must be sorted.
+   * @param elem the element to search for
+   * @return the index of the element if it is present; otherwise, (-(insertion point) - 1), where
+   * the insertion point is the index at which the element would be inserted in sorted order
+   */
+  public int binarySearch(long elem) { return Arrays.binarySearch(elements, 0, size, elem); }
+
+  /**
+   * Performs the given action on each element of the LongArrayList, in order.
+   * @param action the action to perform
+   */
+  public void forEach(LongConsumer action) {
+    if (action == null) throw new IllegalArgumentException("Argument cannot be null");
+    for (int i = 0; i < size; i++) action.accept(elements[i]);
+  }
+
+  /**
+   * Gets an iterator for the elements of the LongArrayList that does not box elements.
+   * @return an iterator for the LongArrayList
+   */
+  public PrimitiveIterator.OfLong iterator() { return new LongArrayListIterator(); }
+
+  /**
+   * An iterator for the elements of the LongArrayList.
+   */
+  private class LongArrayListIterator implements PrimitiveIterator.OfLong {
+    private int nextIdx = 0;
+
+    /**
+     * Determines whether the iterator has more elements to iterate over.
+     * @return true if there are more elements to iterate over, false otherwise
+     */
+    @Override
+    public boolean hasNext() { return nextIdx < size; }
+
+    /**
+     * Gets the next element in the iteration.
+     * @return the next element
+     */
+    @Override
+    public long nextLong() {
+      if (nextIdx >= size) throw new NoSuchElementException("No more elements");
+      return elements[nextIdx++];
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package dataStructures;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of a double-ended queue of primitive longs backed by a circular array, which can
+ * be used as either a stack or a queue. Follows the same design as ArrayDeque, but stores its
+ * elements in a long[], so that no element is boxed into a Long and adding and removing
+ * elements never allocates once the array has grown large enough.
+ */
+public class LongDeque {
+  private long[] elements;
+  private int head = 0, size = 0;
+
+  /**
+   * Constructor for a LongDeque initialized with the minimum capacity.
+   */
+  public LongDeque() { this(0); }
+
+  /**
+   * Constructor for a LongDeque initialized with the smallest power of two that is at least the
+   * given capacity, or the minimum capacity, whichever is greater.
+   * @param capacity the initial capacity of the LongDeque
+   */
+  public LongDeque(int capacity) { elements = new long[ArrayDeque.roundUpCapacity(capacity)]; }
+
+  /**
+   * Adds the given element to the front of the deque.
+   * @param elem the element to add to the deque
+   */
+  public void addFirst(long elem) {
+    if (size == elements.length) grow();
+    head = (head - 1) & (elements.length - 1);
+    elements[head] = elem;
+    size++;
+  }
+
+  /**
+   * Adds the given element to the back of the deque.
+   * @param elem the element to add to the deque
+   */
+  public void addLast(long elem) {
+    if (size == elements.length) grow();
+    elements[(head + size) & (elements.length - 1)] = elem;
+    size++;
+  }
+
+  /**
+   * Gets and removes the element at the front of the deque.
+   * @return the element at the front of the deque
+   */
+  public long removeFirst() {
+    if (size == 0) throw new NoSuchElementException("No element to remove");
+    long elem = elements[head];
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return elem;
+  }
+
+  /**
+   * Gets and removes the element at the back of the deque.
+   * @return the element at the back of the deque
+   */
+  public long removeLast() {
+    if (size == 0) throw new NoSuchElementException("No element to remove");
+    return elements[(head + --size) & (elements.length - 1)];
+  }
+
+  /**
+   * Gets, but does not remove, the element at the front of the deque.
+   * @return the element at the front of the deque
+   */
+  public long peekFirst() {
+    if (size == 0) throw new NoSuchElementException("No element to peek");
+    return elements[head];
+  }
+
+  /**
+   * Gets, but does not remove, the element at the back of the deque.
+   * @return the element at the back of the deque
+   */
+  public long peekLast() {
+    if (size == 0) throw new NoSuchElementException("No element to peek");
+    return elements[(head + size - 1) & (elements.length - 1)];
+  }
+
+  /**
+   * Adds the given element to the top of the deque, when used as a stack.
+   * @param elem the element to add to the deque
+   */
+  public void push(long elem) { addFirst(elem); }
+
+  /**
+   * Gets and removes the element at the top of the deque, when used as a stack.
+   * @return the element at the top of the deque
+   */
+  public long pop() {
+    if (size == 0) throw new NoSuchElementException("No element to pop");
+    return removeFirst();
+  }
+
+  /**
+   * Adds the given element to the tail of the deque, when used as a queue.
+   * @param elem the element to add to the deque
+   */
+  public void add(long elem) { addLast(elem); }
+
+  /**
+   * Gets and removes the element at the head of the deque, when used as a queue.
+   * @return the element at the head of the deque
+   */
+  public long remove() { return removeFirst(); }
+
+  /**
+   * Gets, but does not remove, the element at the top of the deque (when used as a stack) or the
+   * head of the deque (when used as a queue).
+   * @return the element at the front of the deque
+   */
+  public long peek() { return peekFirst(); }
+
+  /**
+   * Determines whether the deque is empty.
+   * @return true if the deque is empty, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Gets the number of elements in the deque.
+   * @return the number of elements in the deque
+   */
+  public int size() { return size; }
+
+  /**
+   * Removes all elements from the deque, keeping the current capacity.
+   */
+  public void clear() { head = size = 0; }
+
+  /**
+   * Doubles the capacity of the backing array, unwrapping the elements so that the front of the
+   * deque is at index 0 of the new array.
+   */
+  private void grow() {
+    if (elements.length == ArrayDeque.MAX_CAPACITY) throw new IllegalStateException("Deque full");
+    long[] newArray = new long[elements.length * 2];
+    int frontLen = elements.length - head; // Elements from head to the end of the old array.
+    System.arraycopy(elements, head, newArray, 0, frontLen);
+    System.arraycopy(elements, 0, newArray, frontLen, head);
+    elements = newArray;
+    head = 0;
+  }
+}
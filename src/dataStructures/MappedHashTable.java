@@ -0,0 +1,462 @@
+package dataStructures;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Implementation of a hash table from binary keys to binary values, stored in a memory-mapped
+ * file, so that it outlives the process. Opening an existing table only maps the file and checks
+ * its header, without reading any records, so it takes constant time however large the table is,
+ * and the operating system pages the file in as lookups touch it. Many processes can map the same
+ * file read-only at once, and share the same physical pages.
+ *
+ * The file starts with a HEADER_BYTES header: a magic number, the format version, the number of
+ * slots and the step size, the record and tombstone counts, the end of the data region, the number
+ * of bytes in it taken by deleted or replaced records, and a CRC32 checksum of the preceding
+ * fields, which is verified on opening. Then come the slots, and
+ * then the data region. Like HashTableClosed, the slots use linear probing by steps, with deleted
+ * records marked by tombstones. Each slot is 8 bytes: the file offset of the record (0 for an
+ * empty slot, -1 for a tombstone) and the hash of its key. A record in the data region is a 4-byte
+ * key length, a 4-byte value length, the key bytes, and the value bytes. The hash function is
+ * fixed, so a file written by one process can be read by any other.
+ *
+ * When the data region fills up, the file is extended and remapped. When the slots become too
+ * full, or at least half of a full data region is garbage, the table is rehashed: a new file is
+ * written with only the live records (and twice as many slots, if the table has grown), and then
+ * atomically renamed over the old one, so a crash during the rehash leaves the old file intact.
+ * Writes reach the file when the operating system writes back the mapped pages, which survives a
+ * crash of the process but not of the machine, unless flush() is called. A writable table must
+ * not be shared with other processes. Since a single mapping is limited to 2 GB, so is the file.
+ */
+public class MappedHashTable implements Flushable, Closeable {
+  private static final long MAGIC = 0x4D48415348544231L; // "MHASHTB1"
+  private static final int VERSION = 1, HEADER_BYTES = 64, SLOT_BYTES = 8, RECORD_HEADER_BYTES = 8;
+  private static final int INITIAL_CAPACITY = 16, INITIAL_DATA_BYTES = 4096;
+  private static final double LOAD_FACTOR_MAX = 0.75;
+  private static final int EMPTY = 0, TOMBSTONE = -1;
+  // Offsets of the header fields.
+  private static final int CAPACITY = 12, STEP_SIZE = 16, COUNT = 20, TOMBSTONES = 24,
+      DATA_END = 28, GARBAGE = 32, CHECKSUM = HEADER_BYTES - 8;
+  private final Path path;
+  private final boolean readOnly;
+  private FileChannel channel;
+  private MappedByteBuffer map;
+  private int capacity, stepSize, count, tombstones, dataEnd, garbage;
+
+  /**
+   * Constructor for MappedHashTable. Opens the table in the given file, or if the file does not
+   * exist and the table is writable, creates an empty table in it.
+   * @param path the file holding the table
+   * @param readOnly whether to open the table for reading only
+   * @throws IOException if the file cannot be opened or created, or does not hold a valid table
+   */
+  public MappedHashTable(Path path, boolean readOnly) throws IOException {
+    if (path == null) throw new IllegalArgumentException("Argument cannot be null");
+    this.path = path;
+    this.readOnly = readOnly;
+    if (!readOnly && !Files.exists(path)) {
+      writeTable(path, INITIAL_CAPACITY, INITIAL_DATA_BYTES, null);
+    }
+    open();
+  }
+
+  /**
+   * Inserts a new key/value pair into the hash table. A value replaced by one of the same length
+   * is overwritten in place, and otherwise the new record is appended.
+   * @param key the key to insert
+   * @param value the value to insert
+   * @return true if the key was already present (and its value was replaced), false otherwise
+   * @throws IOException if the file cannot be grown
+   */
+  public boolean put(byte[] key, byte[] value) throws IOException {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    checkWritable();
+    int hash = hash(key);
+    int slot = find(key, hash);
+    if (slot != -1) {
+      int offset = map.getInt(slotOffset(slot));
+      if (map.getInt(offset + 4) == value.length) {
+        map.put(offset + RECORD_HEADER_BYTES + key.length, value);
+        return true;
+      }
+      int oldBytes = recordBytes(offset);
+      offset = append(key, value);
+      // Appending may have rehashed the table, which moves the old record but does not free it.
+      map.putInt(slotOffset(find(key, hash)), offset);
+      garbage += oldBytes;
+      writeHeader();
+      return true;
+    }
+    // If the table has become too full, rehash. If most of the used slots are tombstones,
+    // rehashing at the same capacity is enough to reclaim them.
+    if (count + tombstones + 1 > (int) (capacity * LOAD_FACTOR_MAX))
+      rehash((count + 1 > capacity * LOAD_FACTOR_MAX / 2) ? capacity * 2 : capacity);
+    int offset = append(key, value);
+    slot = findInsertSlot(hash);
+    if (map.getInt(slotOffset(slot)) == TOMBSTONE) tombstones--;
+    map.putInt(slotOffset(slot) + 4, hash);
+    map.putInt(slotOffset(slot), offset);
+    count++;
+    writeHeader();
+    return false;
+  }
+
+  /**
+   * Gets the value in the hash table associated with the given key.
+   * @param key the key
+   * @return a copy of the value associated with the given key, or null if the key is not present
+   * in the hash table
+   */
+  public byte[] get(byte[] key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    checkOpen();
+    int slot = find(key, hash(key));
+    if (slot == -1) return null;
+    int offset = map.getInt(slotOffset(slot));
+    byte[] value = new byte[map.getInt(offset + 4)];
+    map.get(offset + RECORD_HEADER_BYTES + key.length, value);
+    return value;
+  }
+
+  /**
+   * Deletes the record (key and value) associated with the given key from the hash table. The
+   * record's bytes are reclaimed at the next rehash.
+   * @param key the key
+   * @return true if the key was deleted, false if it was not present in the hash table
+   */
+  public boolean delete(byte[] key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    checkWritable();
+    int slot = find(key, hash(key));
+    if (slot == -1) return false;
+    garbage += recordBytes(map.getInt(slotOffset(slot)));
+    map.putInt(slotOffset(slot), TOMBSTONE);
+    count--;
+    tombstones++;
+    writeHeader();
+    return true;
+  }
+
+  /**
+   * Determines whether the hash table contains the given key.
+   * @param key the key
+   * @return true if the key is present in the hash table, false otherwise
+   */
+  public boolean containsKey(byte[] key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    checkOpen();
+    return find(key, hash(key)) != -1;
+  }
+
+  /**
+   * Gets the number of records in the hash table.
+   * @return the number of records in the hash table
+   */
+  public int size() { return count; }
+
+  /**
+   * Forces every change to the table to be written to the storage device.
+   */
+  @Override
+  public void flush() {
+    checkOpen();
+    if (!readOnly) map.force();
+  }
+
+  /**
+   * Flushes the table if it is writable, and closes its file. Has no effect if the table is
+   * already closed.
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel == null) return;
+    flush();
+    channel.close();
+    channel = null;
+    map = null;
+  }
+
+  /**
+   * Maps the file, and reads and verifies its header.
+   * @throws IOException if the file cannot be mapped, or does not hold a valid table
+   */
+  private void open() throws IOException {
+    channel = readOnly ? FileChannel.open(path, StandardOpenOption.READ)
+        : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      long size = channel.size();
+      if (size < HEADER_BYTES || size > Integer.MAX_VALUE) throw new IOException("Invalid file");
+      map = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE,
+          0, size);
+      if (map.getLong(0) != MAGIC || map.getInt(8) != VERSION)
+        throw new IOException("Invalid file");
+      if (map.getLong(CHECKSUM) != checksum(map)) throw new IOException("Corrupt header");
+      capacity = map.getInt(CAPACITY);
+      stepSize = map.getInt(STEP_SIZE);
+      count = map.getInt(COUNT);
+      tombstones = map.getInt(TOMBSTONES);
+      dataEnd = map.getInt(DATA_END);
+      garbage = map.getInt(GARBAGE);
+      if (capacity <= 0 || dataEnd < dataStart(capacity) || dataEnd > size)
+        throw new IOException("Corrupt header");
+    }
+    catch (IOException e) {
+      channel.close();
+      channel = null;
+      map = null;
+      throw e;
+    }
+  }
+
+  /**
+   * Writes the counts to the header, along with a new checksum.
+   */
+  private void writeHeader() {
+    map.putInt(COUNT, count);
+    map.putInt(TOMBSTONES, tombstones);
+    map.putInt(DATA_END, dataEnd);
+    map.putInt(GARBAGE, garbage);
+    map.putLong(CHECKSUM, checksum(map));
+  }
+
+  /**
+   * Computes the checksum of the header fields in the given buffer.
+   * @param buffer the buffer starting with a header
+   * @return the CRC32 of the header fields before the checksum
+   */
+  private static long checksum(ByteBuffer buffer) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(0, CHECKSUM));
+    return crc.getValue();
+  }
+
+  /**
+   * Writes a table with the given number of slots to the given file, holding the live records of
+   * the given table if there is one, and forces it to the storage device.
+   * @param file the file to write
+   * @param slots the number of slots
+   * @param dataBytes the number of bytes to reserve for the data region beyond the live records
+   * @param from the table whose records to copy, or null
+   * @throws IOException if the file cannot be written
+   */
+  private static void writeTable(Path file, int slots, int dataBytes, MappedHashTable from)
+      throws IOException {
+    long size = (long) dataStart(slots) + dataBytes;
+    if (from != null) size += from.dataEnd - dataStart(from.capacity) - from.garbage;
+    if (size > Integer.MAX_VALUE) throw new IllegalStateException("Hash table full");
+    try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      MappedByteBuffer m = out.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      int step = calculateStepSize(slots), end = dataStart(slots), count = 0;
+      for (int i = 0; from != null && i < from.capacity; i++) {
+        int offset = from.map.getInt(from.slotOffset(i));
+        if (offset == EMPTY || offset == TOMBSTONE) continue;
+        int hash = from.map.getInt(from.slotOffset(i) + 4);
+        int length = from.recordBytes(offset);
+        m.put(end, from.map, offset, length);
+        int slot = homeSlot(hash, slots);
+        while (m.getInt(HEADER_BYTES + slot * SLOT_BYTES) != EMPTY) slot = (slot + step) % slots;
+        m.putInt(HEADER_BYTES + slot * SLOT_BYTES, end);
+        m.putInt(HEADER_BYTES + slot * SLOT_BYTES + 4, hash);
+        end += length;
+        count++;
+      }
+      m.putLong(0, MAGIC);
+      m.putInt(8, VERSION);
+      m.putInt(CAPACITY, slots);
+      m.putInt(STEP_SIZE, step);
+      m.putInt(COUNT, count);
+      m.putInt(TOMBSTONES, 0);
+      m.putInt(DATA_END, end);
+      m.putInt(GARBAGE, 0);
+      m.putLong(CHECKSUM, checksum(m));
+      m.force();
+    }
+  }
+
+  /**
+   * Rewrites the table with the given number of slots, discarding tombstones and the bytes of
+   * deleted or replaced records. The new table is written to a temporary file, which then
+   * atomically replaces the old one.
+   * @param slots the new number of slots
+   * @throws IOException if the file cannot be rewritten
+   */
+  private void rehash(int slots) throws IOException {
+    Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+    int live = dataEnd - dataStart(capacity) - garbage;
+    writeTable(tmp, slots, Math.max(INITIAL_DATA_BYTES, live / 2), this);
+    channel.close();
+    map = null;
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    open();
+  }
+
+  /**
+   * Appends a record to the data region. If the record does not fit, the table is first rehashed
+   * if at least half of the data region is garbage, and otherwise the file is extended and
+   * remapped.
+   * @param key the key of the record
+   * @param value the value of the record
+   * @return the file offset of the new record
+   * @throws IOException if the file cannot be extended
+   */
+  private int append(byte[] key, byte[] value) throws IOException {
+    long needed = (long) RECORD_HEADER_BYTES + key.length + value.length;
+    if (dataEnd + needed > map.capacity() && garbage >= (dataEnd - dataStart(capacity)) / 2)
+      rehash(capacity);
+    if (dataEnd + needed > map.capacity()) {
+      long size = Math.min(Integer.MAX_VALUE, Math.max(map.capacity() * 2L, dataEnd + needed));
+      if (dataEnd + needed > size) throw new IllegalStateException("Hash table full");
+      map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // Extends the file.
+    }
+    int offset = dataEnd;
+    map.putInt(offset, key.length);
+    map.putInt(offset + 4, value.length);
+    map.put(offset + RECORD_HEADER_BYTES, key);
+    map.put(offset + RECORD_HEADER_BYTES + key.length, value);
+    dataEnd += (int) needed;
+    return offset;
+  }
+
+  /**
+   * Finds the slot holding the given key.
+   * @param key the key
+   * @param hash the hash of the key
+   * @return the slot holding the key, or -1 if the key is not present in the hash table
+   */
+  private int find(byte[] key, int hash) {
+    int slot, homeSlot;
+    slot = homeSlot = homeSlot(hash, capacity);
+    while (true) {
+      int offset = map.getInt(slotOffset(slot));
+      if (offset == EMPTY) return -1;
+      if (offset != TOMBSTONE && map.getInt(slotOffset(slot) + 4) == hash
+          && keyEquals(offset, key)) {
+        return slot;
+      }
+      slot = (slot + stepSize) % capacity;
+      if (slot == homeSlot) return -1;
+    }
+  }
+
+  /**
+   * Finds the first empty slot or tombstone in the probe sequence for the given hash.
+   * @param hash the hash of a key
+   * @return the slot at which to insert the key
+   */
+  private int findInsertSlot(int hash) {
+    int slot = homeSlot(hash, capacity);
+    while (map.getInt(slotOffset(slot)) > 0) slot = (slot + stepSize) % capacity;
+    return slot;
+  }
+
+  /**
+   * Determines whether the record at the given file offset has the given key.
+   * @param offset the offset of the record
+   * @param key the key
+   * @return true if the record's key equals the given key, false otherwise
+   */
+  private boolean keyEquals(int offset, byte[] key) {
+    if (map.getInt(offset) != key.length) return false;
+    for (int i = 0; i < key.length; i++)
+      if (map.get(offset + RECORD_HEADER_BYTES + i) != key[i]) return false;
+    return true;
+  }
+
+  /**
+   * Gets the number of bytes occupied by the record at the given file offset.
+   * @param offset the offset of the record
+   * @return the size of the record in bytes
+   */
+  private int recordBytes(int offset) {
+    return RECORD_HEADER_BYTES + map.getInt(offset) + map.getInt(offset + 4);
+  }
+
+  /**
+   * Gets the file offset of the given slot.
+   * @param slot the slot
+   * @return the offset of the slot
+   */
+  private int slotOffset(int slot) { return HEADER_BYTES + slot * SLOT_BYTES; }
+
+  /**
+   * Gets the file offset of the data region of a table with the given number of slots.
+   * @param slots the number of slots
+   * @return the offset of the data region
+   */
+  private static int dataStart(int slots) { return HEADER_BYTES + slots * SLOT_BYTES; }
+
+  /**
+   * Calculates the home slot of a key with the given hash.
+   * @param hash the hash of the key
+   * @param slots the number of slots
+   * @return the home slot of the key
+   */
+  private static int homeSlot(int hash, int slots) { return (hash & Integer.MAX_VALUE) % slots; }
+
+  /**
+   * Computes the hash of the given key. It depends only on the key's bytes, so it is the same in
+   * every process.
+   * @param key the key
+   * @return the hash of the key
+   */
+  private static int hash(byte[] key) {
+    int h = 1;
+    for (byte b : key) h = 31 * h + b;
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Calculates the step size for linear probing by steps, which must be relatively prime to the
+   * number of slots so that every slot is probed.
+   * @param slots the number of slots
+   * @return the step size
+   */
+  private static int calculateStepSize(int slots) {
+    int step = 2;
+    while (step < slots && gcd(step, slots) != 1) step++;
+    return (step < slots) ? step : 1;
+  }
+
+  /**
+   * Calculates the greatest common divisor of two positive integers with Euclid's algorithm.
+   * @param a the first integer
+   * @param b the second integer
+   * @return the greatest common divisor
+   */
+  private static int gcd(int a, int b) {
+    while (b != 0) {
+      int t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+
+  /**
+   * Throws IllegalStateException if the hash table has been closed.
+   */
+  private void checkOpen() {
+    if (channel == null) throw new IllegalStateException("Hash table closed");
+  }
+
+  /**
+   * Throws IllegalStateException if the hash table has been closed or is read-only.
+   */
+  private void checkWritable() {
+    checkOpen();
+    if (readOnly) throw new IllegalStateException("Hash table is read-only");
+  }
+}
@@ -0,0 +1,304 @@
+package dataStructures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implementation of a hash table from binary keys to binary values, stored outside the Java heap.
+ * A table of millions of HashTableClosed records is millions of objects that the garbage collector
+ * must trace and copy, while this table is a handful of objects however many entries it holds: two
+ * direct ByteBuffers, an index and a data arena, whose contents the garbage collector never looks
+ * at.
+ *
+ * The data arena is a log of entries, each a 4-byte key length, a 4-byte value length, the key
+ * bytes, and the value bytes. The index is an open addressing table with linear probing, whose
+ * slots are 8 bytes each: the key's hash, and the offset of the key's entry in the arena plus one
+ * (so that the zero bytes of a new buffer mark empty slots). Probing compares the cached hashes,
+ * and only reads a key from the arena when they match. Like IntIntHashMap, deletions shift later
+ * slots back rather than leaving tombstones.
+ *
+ * A value replaced by one of the same length is overwritten in place; otherwise the new entry is
+ * appended and the old one becomes garbage. When the arena fills up, it is compacted if at least
+ * half of it is garbage, and otherwise doubled, up to the byte limit given to the constructor. A
+ * put that would exceed the limit throws IllegalStateException. Since Java cannot free a direct
+ * buffer on demand, close() releases the table's references to its buffers, so that the memory is
+ * freed when the buffers are next collected, and any later operation throws IllegalStateException.
+ */
+public class OffHeapHashTable implements AutoCloseable {
+  private static final double LOAD_FACTOR_MAX = 0.75, LOAD_FACTOR_MIN = 0.25;
+  private static final int MIN_SLOTS = 16, SLOT_BYTES = 8, HEADER_BYTES = 8;
+  private static final int MIN_ARENA_BYTES = 4096;
+  private final long maxBytes;
+  private ByteBuffer index, data;
+  private int mask, count = 0, dataEnd = 0, garbage = 0;
+
+  /**
+   * Constructor for OffHeapHashTable.
+   * @param maxBytes the maximum number of bytes of direct memory that the index and the data
+   * arena may occupy together
+   */
+  public OffHeapHashTable(long maxBytes) {
+    if (maxBytes < MIN_SLOTS * SLOT_BYTES + MIN_ARENA_BYTES)
+      throw new IllegalArgumentException("Invalid size");
+    this.maxBytes = maxBytes;
+    index = ByteBuffer.allocateDirect(MIN_SLOTS * SLOT_BYTES);
+    data = ByteBuffer.allocateDirect(MIN_ARENA_BYTES);
+    mask = MIN_SLOTS - 1;
+  }
+
+  /**
+   * Inserts a new key/value pair into the hash table. The bytes are copied, so the arrays may be
+   * reused afterwards.
+   * @param key the key to insert
+   * @param value the value to insert
+   * @return true if the key was already present (and its value was replaced), false otherwise
+   * @throws IllegalStateException if the entry does not fit within the byte limit
+   */
+  public boolean put(byte[] key, byte[] value) {
+    if (key == null || value == null)
+      throw new IllegalArgumentException("Neither key nor value can be null");
+    checkOpen();
+    int hash = hash(key);
+    int slot = find(key, hash);
+    if (slot >= 0) {
+      int offset = offset(slot);
+      if (data.getInt(offset + 4) == value.length) {
+        data.put(offset + HEADER_BYTES + key.length, value);
+        return true;
+      }
+      int oldBytes = entryBytes(offset);
+      index.putInt(slot * SLOT_BYTES + 4, append(key, value) + 1);
+      garbage += oldBytes; // The old entry may have been moved by compaction, but not freed.
+      return true;
+    }
+    if (count + 1 > (int) ((mask + 1) * LOAD_FACTOR_MAX)) {
+      resizeIndex((mask + 1) * 2);
+      slot = find(key, hash);
+    }
+    int offset = append(key, value);
+    index.putInt(~slot * SLOT_BYTES, hash);
+    index.putInt(~slot * SLOT_BYTES + 4, offset + 1);
+    count++;
+    return false;
+  }
+
+  /**
+   * Gets the value in the hash table associated with the given key.
+   * @param key the key
+   * @return a copy of the value associated with the given key, or null if the key is not present
+   * in the hash table
+   */
+  public byte[] get(byte[] key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    checkOpen();
+    int slot = find(key, hash(key));
+    if (slot < 0) return null;
+    int offset = offset(slot);
+    byte[] value = new byte[data.getInt(offset + 4)];
+    data.get(offset + HEADER_BYTES + key.length, value);
+    return value;
+  }
+
+  /**
+   * Deletes the record (key and value) associated with the given key from the hash table.
+   * @param key the key
+   * @return true if the key was deleted, false if it was not present in the hash table
+   */
+  public boolean delete(byte[] key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    checkOpen();
+    int slot = find(key, hash(key));
+    if (slot < 0) return false;
+    garbage += entryBytes(offset(slot));
+    shiftBack(slot);
+    count--;
+    // If the index has become too empty, reduce its size.
+    if (count < (int) ((mask + 1) * LOAD_FACTOR_MIN) && mask + 1 > MIN_SLOTS)
+      resizeIndex((mask + 1) / 2);
+    return true;
+  }
+
+  /**
+   * Determines whether the hash table contains the given key.
+   * @param key the key
+   * @return true if the key is present in the hash table, false otherwise
+   */
+  public boolean containsKey(byte[] key) {
+    if (key == null) throw new IllegalArgumentException("Key cannot be null");
+    checkOpen();
+    return find(key, hash(key)) >= 0;
+  }
+
+  /**
+   * Gets the number of records in the hash table.
+   * @return the number of records in the hash table
+   */
+  public int size() { return count; }
+
+  /**
+   * Gets the number of bytes of direct memory that the hash table occupies.
+   * @return the combined capacity of the index and the data arena, in bytes
+   */
+  public long memoryBytes() {
+    checkOpen();
+    return (long) index.capacity() + data.capacity();
+  }
+
+  /**
+   * Releases the hash table's buffers. Any later operation other than size throws
+   * IllegalStateException.
+   */
+  @Override
+  public void close() {
+    index = data = null;
+    count = 0;
+  }
+
+  /**
+   * Throws IllegalStateException if the hash table has been closed.
+   */
+  private void checkOpen() {
+    if (data == null) throw new IllegalStateException("Hash table closed");
+  }
+
+  /**
+   * Computes the hash of the given key. The bytes are combined as in Arrays.hashCode, and the
+   * result is scrambled by multiplying by an odd constant derived from the golden ratio, so that
+   * the low bits that select the slot depend on every byte.
+   * @param key the key
+   * @return the hash of the key
+   */
+  private static int hash(byte[] key) {
+    int h = 1;
+    for (byte b : key) h = 31 * h + b;
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Finds the slot of the index holding the given key.
+   * @param key the key
+   * @param hash the hash of the key
+   * @return the slot holding the key if it is present, or otherwise the bitwise complement of the
+   * empty slot at which the probe sequence ended (a negative number)
+   */
+  private int find(byte[] key, int hash) {
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      int offset = index.getInt(slot * SLOT_BYTES + 4) - 1;
+      if (offset < 0) return ~slot;
+      if (index.getInt(slot * SLOT_BYTES) == hash && keyEquals(offset, key)) return slot;
+    }
+  }
+
+  /**
+   * Determines whether the entry at the given offset of the arena has the given key.
+   * @param offset the offset of the entry
+   * @param key the key
+   * @return true if the entry's key equals the given key, false otherwise
+   */
+  private boolean keyEquals(int offset, byte[] key) {
+    if (data.getInt(offset) != key.length) return false;
+    for (int i = 0; i < key.length; i++)
+      if (data.get(offset + HEADER_BYTES + i) != key[i]) return false;
+    return true;
+  }
+
+  /**
+   * Gets the arena offset of the entry referenced by the given full slot.
+   * @param slot the slot
+   * @return the offset of the entry
+   */
+  private int offset(int slot) { return index.getInt(slot * SLOT_BYTES + 4) - 1; }
+
+  /**
+   * Gets the number of arena bytes occupied by the entry at the given offset.
+   * @param offset the offset of the entry
+   * @return the size of the entry in bytes
+   */
+  private int entryBytes(int offset) {
+    return HEADER_BYTES + data.getInt(offset) + data.getInt(offset + 4);
+  }
+
+  /**
+   * Appends an entry to the arena, first compacting or growing the arena if it is too full.
+   * @param key the key of the entry
+   * @param value the value of the entry
+   * @return the offset of the new entry
+   * @throws IllegalStateException if the entry does not fit within the byte limit
+   */
+  private int append(byte[] key, byte[] value) {
+    long needed = (long) HEADER_BYTES + key.length + value.length;
+    if (dataEnd + needed > data.capacity()) {
+      // Size the new arena so that the live entries fill at most half of it, which bounds the
+      // amortized cost of compaction. Near the byte limit, the arena can only be compacted.
+      long live = dataEnd - garbage, capacity = data.capacity();
+      while (live + needed > capacity / 2) capacity *= 2;
+      capacity = Math.min(capacity, Math.min(Integer.MAX_VALUE, maxBytes - index.capacity()));
+      if (live + needed > capacity) throw new IllegalStateException("Hash table full");
+      compact((int) capacity);
+    }
+    int offset = dataEnd;
+    data.putInt(offset, key.length);
+    data.putInt(offset + 4, value.length);
+    data.put(offset + HEADER_BYTES, key);
+    data.put(offset + HEADER_BYTES + key.length, value);
+    dataEnd += (int) needed;
+    return offset;
+  }
+
+  /**
+   * Copies every live entry to a new arena of the given capacity, discarding the garbage, and
+   * updates the index to point at the copies.
+   * @param capacity the capacity of the new arena, in bytes
+   */
+  private void compact(int capacity) {
+    ByteBuffer newData = ByteBuffer.allocateDirect(capacity);
+    int end = 0;
+    for (int slot = 0; slot <= mask; slot++) {
+      int offset = offset(slot);
+      if (offset < 0) continue;
+      int length = entryBytes(offset);
+      newData.put(end, data, offset, length);
+      index.putInt(slot * SLOT_BYTES + 4, end + 1);
+      end += length;
+    }
+    data = newData;
+    dataEnd = end;
+    garbage = 0;
+  }
+
+  /**
+   * Empties the given slot by shifting back later slots in the same run that are allowed to
+   * occupy it, until an empty slot is reached.
+   * @param gap the slot to empty
+   */
+  private void shiftBack(int gap) {
+    for (int slot = (gap + 1) & mask; offset(slot) >= 0; slot = (slot + 1) & mask) {
+      int home = index.getInt(slot * SLOT_BYTES) & mask;
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        index.putLong(gap * SLOT_BYTES, index.getLong(slot * SLOT_BYTES));
+        gap = slot;
+      }
+    }
+    index.putLong(gap * SLOT_BYTES, 0);
+  }
+
+  /**
+   * Resizes the index to the given number of slots, and reinserts every slot. The arena is
+   * unchanged, since its entries are found through the cached hashes.
+   * @param slots the new number of slots, a power of two
+   * @throws IllegalStateException if the index does not fit within the byte limit
+   */
+  private void resizeIndex(int slots) {
+    if ((long) slots * SLOT_BYTES + data.capacity() > maxBytes || slots > (1 << 28))
+      throw new IllegalStateException("Hash table full");
+    ByteBuffer oldIndex = index;
+    index = ByteBuffer.allocateDirect(slots * SLOT_BYTES);
+    mask = slots - 1;
+    for (int i = 0; i < oldIndex.capacity(); i += SLOT_BYTES) {
+      if (oldIndex.getInt(i + 4) == 0) continue;
+      int slot = oldIndex.getInt(i) & mask;
+      while (index.getInt(slot * SLOT_BYTES + 4) != 0) slot = (slot + 1) & mask;
+      index.putLong(slot * SLOT_BYTES, oldIndex.getLong(i));
+    }
+  }
+}
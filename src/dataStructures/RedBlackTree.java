@@ -1,6 +1,8 @@
 package dataStructures;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 
@@ -239,6 +241,30 @@ public class RedBlackTree<E extends Comparable<? super E>> {
     return false;
   }
 
+  /**
+   * Gets the data stored in the tree that compares equal to the given data. This allows the tree
+   * to be used as a map, by storing entries that are compared by their keys alone.
+   * @param searchData the data to search for
+   * @return the data in the tree for which compareTo returns 0, or null if there is none
+   */
+  public E get(E searchData) {
+    if (searchData == null) throw new IllegalArgumentException("Data cannot be null");
+    TreeNode currNode = root;
+    while (currNode.isDataNode()) {
+      DataNode currDataNode = (DataNode) currNode;
+      int cmp = currDataNode.getData().compareTo(searchData);
+      if (cmp == 0) return currDataNode.getData();
+      currNode = (cmp > 0) ? currDataNode.getLeftChild() : currDataNode.getRightChild();
+    }
+    return null;
+  }
+
+  /**
+   * Gets the number of data values stored in the tree.
+   * @return the number of data values stored in the tree
+   */
+  public int size() { return size; }
+
   /**
    * Finds and deletes the given data from the tree, if it exists.
    * @param deleteData the data to delete
@@ -259,6 +285,7 @@ public class RedBlackTree<E extends Comparable<? super E>> {
         TreeNode leftChild = deleteNode.getLeftChild();
         root = (leftChild.isDataNode()) ? leftChild : deleteNode.getRightChild();
         root.setColor(Color.BLACK);
+        root.setParent(null);
         size--;
         return;
       }
@@ -396,7 +423,7 @@ public class RedBlackTree<E extends Comparable<? super E>> {
    */
   private DataNode findLeftMostNode(DataNode n) {
     DataNode successor = n;
-    while (n.getLeftChild().isDataNode()) successor = (DataNode) n.getLeftChild();
+    while (successor.getLeftChild().isDataNode()) successor = (DataNode) successor.getLeftChild();
     return successor;
   }
 
@@ -428,6 +455,29 @@ public class RedBlackTree<E extends Comparable<? super E>> {
     throw new NoSuchElementException("Tree empty");
   }
 
+  /**
+   * Performs an in-order traversal of the tree.
+   * @return a list of the data in the tree, in ascending order
+   */
+  public List<E> inOrderTraversal() {
+    List<E> nodeData = new ArrayList<>(size);
+    inOrderHelper(root, nodeData);
+    return nodeData;
+  }
+
+  /**
+   * Appends the data in the Subtree rooted at the given node to the given list, in order.
+   * @param n the root of the current Subtree
+   * @param nodeData the list to append to
+   */
+  private void inOrderHelper(TreeNode n, List<E> nodeData) {
+    if (!n.isDataNode()) return;
+    DataNode dataNode = (DataNode) n;
+    inOrderHelper(dataNode.getLeftChild(), nodeData);
+    nodeData.add(dataNode.getData());
+    inOrderHelper(dataNode.getRightChild(), nodeData);
+  }
+
   /**
    * Performs a level-order traversal of the tree, and casts the data at each node to an Integer.
    * @return an array of Integers containing a level-order traversal of the tree
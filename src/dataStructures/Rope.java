@@ -0,0 +1,353 @@
+package dataStructures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of an immutable rope, a string representation suited to editing large texts. A
+ * rope is a binary tree whose leaves hold consecutive chunks of the text (of up to MAX_CHUNK
+ * characters each), and whose internal nodes cache the total length of the chunks beneath them,
+ * so that the chunk containing a given index can be found by descending the tree.
+ *
+ * The tree is kept balanced like an AVL tree: the heights of the two children of every node
+ * differ by at most 1. Two ropes are concatenated by walking down the spine of the taller tree to
+ * a subtree of matching height and rebalancing on the way back up, and a rope is split at an index
+ * by descending to that index and concatenating the pieces on either side of the path. Both take
+ * O(log n) time, and insert, delete, substring, and concat are built from them. Since ropes are
+ * immutable, every operation returns a new rope, which shares all but O(log n) of its nodes with
+ * the rope it was derived from.
+ */
+public class Rope implements CharSequence {
+  private static final int MAX_CHUNK = 512;
+  private final Node root;
+
+  /**
+   * Class representing the nodes of the rope. A leaf holds a chunk of text, and an internal node
+   * holds two children.
+   */
+  private static final class Node {
+    private final String chunk;
+    private final Node left, right;
+    private final int length, height;
+
+    private Node(String chunk) {
+      this.chunk = chunk;
+      left = right = null;
+      length = chunk.length();
+      height = 0;
+    }
+
+    private Node(Node left, Node right) {
+      chunk = null;
+      this.left = left;
+      this.right = right;
+      length = left.length + right.length;
+      height = 1 + Math.max(left.height, right.height);
+    }
+
+    private boolean isLeaf() { return chunk != null; }
+  }
+
+  /**
+   * Constructor for an empty Rope.
+   */
+  public Rope() { root = null; }
+
+  /**
+   * Constructor for Rope. Creates a balanced rope containing the given characters.
+   * @param s the characters to store in the rope
+   */
+  public Rope(CharSequence s) {
+    if (s == null) throw new IllegalArgumentException("Argument cannot be null");
+    root = build(s, 0, s.length());
+  }
+
+  /**
+   * Constructor for Rope, which wraps the given tree.
+   * @param root the root of the tree
+   */
+  private Rope(Node root) { this.root = root; }
+
+  /**
+   * Gets the number of characters in the rope.
+   * @return the number of characters in the rope
+   */
+  @Override
+  public int length() { return length(root); }
+
+  /**
+   * Determines whether the rope is empty.
+   * @return true if the rope contains no characters, false otherwise
+   */
+  public boolean isEmpty() { return root == null; }
+
+  /**
+   * Gets the character at the given index in O(log n) time.
+   * @param idx the index of the character to get
+   * @return the character at the given index
+   */
+  @Override
+  public char charAt(int idx) {
+    if (idx < 0 || idx > (length() - 1)) throw new IndexOutOfBoundsException("Invalid index");
+    Node node = root;
+    while (!node.isLeaf()) {
+      if (idx < node.left.length) node = node.left;
+      else {
+        idx -= node.left.length;
+        node = node.right;
+      }
+    }
+    return node.chunk.charAt(idx);
+  }
+
+  /**
+   * Creates a rope with the given characters inserted at the given index.
+   * @param idx the index at which to insert the characters
+   * @param s the characters to insert
+   * @return the new rope
+   */
+  public Rope insert(int idx, CharSequence s) {
+    if (s == null) throw new IllegalArgumentException("Argument cannot be null");
+    return insert(idx, (s instanceof Rope) ? (Rope) s : new Rope(s));
+  }
+
+  /**
+   * Creates a rope with the given rope inserted at the given index, sharing the nodes of both.
+   * @param idx the index at which to insert the rope
+   * @param other the rope to insert
+   * @return the new rope
+   */
+  public Rope insert(int idx, Rope other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (idx < 0 || idx > length()) throw new IndexOutOfBoundsException("Invalid index");
+    checkLength((long) length() + other.length());
+    Node[] parts = split(root, idx);
+    return new Rope(concat(concat(parts[0], other.root), parts[1]));
+  }
+
+  /**
+   * Creates a rope with the given range of characters removed.
+   * @param start the index of the first character to remove (inclusive)
+   * @param end the index of the last character to remove (exclusive)
+   * @return the new rope
+   */
+  public Rope delete(int start, int end) {
+    checkRange(start, end);
+    Node[] tail = split(root, end);
+    Node[] head = split(tail[0], start);
+    return new Rope(concat(head[0], tail[1]));
+  }
+
+  /**
+   * Creates a rope containing the given range of characters, sharing the nodes of this rope.
+   * @param start the index of the first character to include (inclusive)
+   * @param end the index of the last character to include (exclusive)
+   * @return the new rope
+   */
+  public Rope substring(int start, int end) {
+    checkRange(start, end);
+    return new Rope(split(split(root, end)[0], start)[1]);
+  }
+
+  /**
+   * Creates a rope containing the given range of characters, sharing the nodes of this rope.
+   * @param start the index of the first character to include (inclusive)
+   * @param end the index of the last character to include (exclusive)
+   * @return the new rope
+   */
+  @Override
+  public CharSequence subSequence(int start, int end) { return substring(start, end); }
+
+  /**
+   * Creates a rope containing the characters of this rope followed by those of the given rope,
+   * sharing the nodes of both.
+   * @param other the rope to concatenate to the end of this rope
+   * @return the new rope
+   */
+  public Rope concat(Rope other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    checkLength((long) length() + other.length());
+    return new Rope(concat(root, other.root));
+  }
+
+  /**
+   * Gets the height of the tree, which is O(log n) in the number of chunks.
+   * @return the height of the tree, or -1 if the rope is empty
+   */
+  public int height() { return (root == null) ? -1 : root.height; }
+
+  /**
+   * Provides the chunks of text in the rope, in order. The chunks are the rope's own strings, so
+   * iterating over them does not copy any characters.
+   * @return the chunks of text in the rope
+   */
+  public Iterable<String> chunks() { return ChunkIterator::new; }
+
+  /**
+   * Appends the characters of the rope to the given StringBuilder, one chunk at a time.
+   * @param sb the StringBuilder to append to
+   */
+  public void appendTo(StringBuilder sb) {
+    if (sb == null) throw new IllegalArgumentException("Argument cannot be null");
+    for (String chunk : chunks()) sb.append(chunk);
+  }
+
+  /**
+   * Gets the string represented by the rope.
+   * @return the string represented by the rope
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(length());
+    appendTo(sb);
+    return sb.toString();
+  }
+
+  /**
+   * Builds a balanced tree holding the given range of characters, cut into chunks of MAX_CHUNK
+   * characters (except for the last). Each node's subtrees hold equal numbers of chunks, or differ
+   * by one, so their heights differ by at most 1.
+   * @param s the characters to store
+   * @param start the index of the first character to store (inclusive)
+   * @param end the index of the last character to store (exclusive)
+   * @return the root of the tree, or null if the range is empty
+   */
+  private static Node build(CharSequence s, int start, int end) {
+    if (start == end) return null;
+    if (end - start <= MAX_CHUNK) return new Node(s.subSequence(start, end).toString());
+    int chunkCount = (end - start + MAX_CHUNK - 1) / MAX_CHUNK;
+    int mid = start + (chunkCount / 2) * MAX_CHUNK;
+    return new Node(build(s, start, mid), build(s, mid, end));
+  }
+
+  /**
+   * Splits the given tree into two trees at the given index.
+   * @param node the root of the tree to split
+   * @param idx the index at which to split, between 0 and the length of the tree (inclusive)
+   * @return the roots of the trees holding the characters before and after the index
+   */
+  private static Node[] split(Node node, int idx) {
+    if (idx == 0) return new Node[] {null, node};
+    if (idx == node.length) return new Node[] {node, null};
+    if (node.isLeaf()) {
+      return new Node[] {new Node(node.chunk.substring(0, idx)),
+          new Node(node.chunk.substring(idx))};
+    }
+    if (idx < node.left.length) {
+      Node[] parts = split(node.left, idx);
+      parts[1] = concat(parts[1], node.right);
+      return parts;
+    }
+    Node[] parts = split(node.right, idx - node.left.length);
+    parts[0] = concat(node.left, parts[0]);
+    return parts;
+  }
+
+  /**
+   * Concatenates the given trees. If one tree is more than one level taller than the other, the
+   * shorter tree is joined to the nearest subtree of similar height along the taller tree's inner
+   * spine, and the tree is rebalanced on the way back up.
+   * @param left the root of the tree holding the first characters, or null
+   * @param right the root of the tree holding the last characters, or null
+   * @return the root of the concatenated tree
+   */
+  private static Node concat(Node left, Node right) {
+    if (left == null) return right;
+    if (right == null) return left;
+    if (left.height > right.height + 1) return balance(left.left, concat(left.right, right));
+    if (right.height > left.height + 1) return balance(concat(left, right.left), right.right);
+    if (left.isLeaf() && right.isLeaf() && left.length + right.length <= MAX_CHUNK)
+      return new Node(left.chunk + right.chunk); // Merge small chunks to avoid fragmentation.
+    return new Node(left, right);
+  }
+
+  /**
+   * Creates a node with the given children, whose heights may differ by up to 2, performing a
+   * single or double rotation (as in an AVL tree) if needed to restore balance.
+   * @param left the left child
+   * @param right the right child
+   * @return the root of the balanced subtree
+   */
+  private static Node balance(Node left, Node right) {
+    if (right.height > left.height + 1) {
+      if (right.left.height > right.right.height) { // Double rotation.
+        Node mid = right.left;
+        return new Node(new Node(left, mid.left), new Node(mid.right, right.right));
+      }
+      return new Node(new Node(left, right.left), right.right);
+    }
+    if (left.height > right.height + 1) {
+      if (left.right.height > left.left.height) { // Double rotation.
+        Node mid = left.right;
+        return new Node(new Node(left.left, mid.left), new Node(mid.right, right));
+      }
+      return new Node(left.left, new Node(left.right, right));
+    }
+    return new Node(left, right);
+  }
+
+  /**
+   * Gets the length of the given tree.
+   * @param node the root of the tree, or null
+   * @return the number of characters in the tree
+   */
+  private static int length(Node node) { return (node == null) ? 0 : node.length; }
+
+  /**
+   * Ensures that a rope of the given length can be represented.
+   * @param newLength the length of the rope to create
+   */
+  private static void checkLength(long newLength) {
+    if (newLength > Integer.MAX_VALUE) throw new IllegalArgumentException("Rope too long");
+  }
+
+  /**
+   * Ensures that the given range of indices is valid for this rope.
+   * @param start the index of the start of the range (inclusive)
+   * @param end the index of the end of the range (exclusive)
+   */
+  private void checkRange(int start, int end) {
+    if (start < 0 || end > length() || start > end)
+      throw new IndexOutOfBoundsException("Invalid range");
+  }
+
+  /**
+   * Implements an iterator over the chunks of the rope, which performs an in-order traversal of
+   * the leaves using a stack of the nodes whose right subtrees have yet to be visited.
+   */
+  private class ChunkIterator implements Iterator<String> {
+    private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+    /**
+     * Constructor for ChunkIterator.
+     */
+    private ChunkIterator() { pushLeftSpine(root); }
+
+    /**
+     * Determines if the iterator has more chunks to iterate over.
+     * @return true if there are more chunks, false otherwise
+     */
+    @Override
+    public boolean hasNext() { return !stack.isEmpty(); }
+
+    /**
+     * Gets the next chunk in the iteration.
+     * @return the next chunk
+     */
+    @Override
+    public String next() {
+      if (!hasNext()) throw new NoSuchElementException("No more elements");
+      Node leaf = stack.pop();
+      if (!stack.isEmpty()) pushLeftSpine(stack.pop().right);
+      return leaf.chunk;
+    }
+
+    /**
+     * Pushes the given node and its chain of left descendants onto the stack.
+     * @param node the node at the top of the chain, or null
+     */
+    private void pushLeftSpine(Node node) {
+      for (; node != null; node = node.left) stack.push(node);
+    }
+  }
+}
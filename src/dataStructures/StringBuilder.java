@@ -1,25 +1,52 @@
 package dataStructures;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 /**
  * Implementation of a string builder that offers efficient operations for constructing a string.
+ *
+ * Like java.lang.String, the builder stores its characters compactly when it can: as long as every
+ * character appended so far is in the Latin-1 range (which includes all ASCII text), each
+ * character occupies a single byte. The first character outside that range inflates the buffer to
+ * UTF-16 chars, which are used from then on. Strings and character sequences are copied straight
+ * from their source, and numbers are formatted straight into the buffer, so appending does not
+ * allocate intermediate arrays or strings (other than to grow the buffer).
  */
 public class StringBuilder {
   private static final int SIZE_MULTIPLIER = 2, DEFAULT_CAPACITY = 16;
+  // The largest number of fractional digits that append(double) formats directly.
+  private static final int MAX_FRACTION_DIGITS = 8;
+  private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8};
+  // Exactly one of the buffers is in use: latin1 while every character fits in a byte, and buffer
+  // once the builder has been inflated to UTF-16.
+  private byte[] latin1;
   private char[] buffer;
   private int charCount;
 
   /**
    * Constructor for StringBuilder. Initializes the internal buffer with a default capacity (16).
    */
-  public StringBuilder() { buffer = new char[DEFAULT_CAPACITY]; }
+  public StringBuilder() { latin1 = new byte[DEFAULT_CAPACITY]; }
+
+  /**
+   * Constructor for StringBuilder. Initializes the internal buffer with the given capacity, so
+   * that a string of known length can be built without resizing.
+   * @param capacity the initial capacity of the internal buffer
+   */
+  public StringBuilder(int capacity) {
+    if (capacity < 0) throw new IllegalArgumentException("Invalid capacity");
+    latin1 = new byte[capacity];
+  }
 
   /**
    * Constructor for StringBuilder. Creates a StringBuilder from the given character array.
    * @param str the character array to convert into a StringBuilder
    */
   public StringBuilder(char[] str) {
-    buffer = str;
-    charCount = buffer.length;
+    if (str == null) throw new IllegalArgumentException("Argument cannot be null");
+    latin1 = new byte[Math.max(str.length, DEFAULT_CAPACITY)];
+    append(str);
   }
 
   /**
@@ -27,8 +54,9 @@ public class StringBuilder {
    * @param str the string to convert into a StringBuilder
    */
   public StringBuilder(String str) {
-    buffer = str.toCharArray();
-    charCount = buffer.length;
+    if (str == null) throw new IllegalArgumentException("Argument cannot be null");
+    latin1 = new byte[Math.max(str.length(), DEFAULT_CAPACITY)];
+    append(str);
   }
 
   /**
@@ -36,7 +64,14 @@ public class StringBuilder {
    * @param c the character to append
    */
   public void append(char c) {
-    if (charCount == buffer.length) resizeBuffer(charCount + 1);
+    if (charCount == capacity()) resizeBuffer(charCount + 1);
+    if (latin1 != null) {
+      if (c <= 0xFF) {
+        latin1[charCount++] = (byte) c;
+        return;
+      }
+      inflate();
+    }
     buffer[charCount++] = c;
   }
 
@@ -46,9 +81,28 @@ public class StringBuilder {
    */
   public void append(char[] str) {
     if (str == null) throw new IllegalArgumentException("Argument cannot be null");
-    if (charCount + str.length > buffer.length) resizeBuffer(charCount + str.length);
-    System.arraycopy(str, 0, buffer, charCount, str.length);
-    charCount += str.length;
+    append(str, 0, str.length);
+  }
+
+  /**
+   * Appends the given range of the given array of characters to the end of the StringBuilder.
+   * @param str the array containing the characters to append
+   * @param offset the index of the first character to append
+   * @param len the number of characters to append
+   */
+  public void append(char[] str, int offset, int len) {
+    if (str == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (offset < 0 || len < 0 || offset > str.length - len)
+      throw new IndexOutOfBoundsException("Invalid range");
+    ensureCapacity(charCount + len);
+    int i = offset, end = offset + len;
+    if (latin1 != null) {
+      for (; i < end && str[i] <= 0xFF; i++) latin1[charCount++] = (byte) str[i];
+      if (i == end) return;
+      inflate();
+    }
+    System.arraycopy(str, i, buffer, charCount, end - i);
+    charCount += end - i;
   }
 
   /**
@@ -57,7 +111,224 @@ public class StringBuilder {
    */
   public void append(String str) {
     if (str == null) throw new IllegalArgumentException("Argument cannot be null");
-    append(str.toCharArray());
+    appendChars(str, 0, str.length());
+  }
+
+  /**
+   * Appends the given range of the given character sequence to the end of the StringBuilder.
+   * @param s the character sequence containing the characters to append
+   * @param start the index of the first character to append (inclusive)
+   * @param end the index of the last character to append (exclusive)
+   */
+  public void append(CharSequence s, int start, int end) {
+    if (s == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (start < 0 || end > s.length() || start > end)
+      throw new IndexOutOfBoundsException("Invalid range");
+    appendChars(s, start, end);
+  }
+
+  /**
+   * Appends the decimal representation of the given int to the end of the StringBuilder.
+   * @param i the int to append
+   */
+  public void append(int i) { append((long) i); }
+
+  /**
+   * Appends the decimal representation of the given long to the end of the StringBuilder.
+   * @param l the long to append
+   */
+  public void append(long l) {
+    int length = (l < 0) ? 1 + digitCount(l) : digitCount(l);
+    ensureCapacity(charCount + length);
+    writeDigits(l, charCount + length);
+    charCount += length;
+  }
+
+  /**
+   * Appends the decimal representation of the given double to the end of the StringBuilder, in
+   * the same format as Double.toString. Values between 10^-3 and 10^7 in magnitude that can be
+   * written with at most 8 fractional digits (the common case for prices, measurements, and so
+   * on) are formatted straight into the buffer. Other values are formatted by Double.toString.
+   * @param d the double to append
+   */
+  public void append(double d) {
+    double abs = Math.abs(d);
+    if (abs >= 1e-3 && abs < 1e7) {
+      // Find the fewest fractional digits whose decimal value converts back to exactly the given
+      // double, which is the shortest representation of the double.
+      for (int fractionDigits = 0; fractionDigits <= MAX_FRACTION_DIGITS; fractionDigits++) {
+        long scaled = (long) Math.rint(abs * POWERS_OF_TEN[fractionDigits]);
+        if (scaled / POWERS_OF_TEN[fractionDigits] == abs) {
+          appendDecimal(d < 0, scaled, fractionDigits);
+          return;
+        }
+      }
+    }
+    append(Double.toString(d));
+  }
+
+  /**
+   * Sets the length of the StringBuilder. If the new length is shorter, the characters at the
+   * end are discarded. If it is longer, null characters are appended.
+   * @param newLength the new length of the StringBuilder
+   */
+  public void setLength(int newLength) {
+    if (newLength < 0) throw new IndexOutOfBoundsException("Invalid length");
+    ensureCapacity(newLength);
+    if (newLength > charCount) {
+      if (latin1 != null) Arrays.fill(latin1, charCount, newLength, (byte) 0);
+      else Arrays.fill(buffer, charCount, newLength, '\0');
+    }
+    charCount = newLength;
+  }
+
+  /**
+   * Discards all characters, so that the StringBuilder can be reused. The internal buffer (and its
+   * encoding) is kept, so building another string of similar length does not allocate.
+   */
+  public void reset() { charCount = 0; }
+
+  /**
+   * Gets the number of characters in the StringBuilder.
+   * @return the number of characters in the StringBuilder
+   */
+  public int length() { return charCount; }
+
+  /**
+   * Gets the character at the given index.
+   * @param idx the index of the character to get
+   * @return the character at the given index
+   */
+  public char charAt(int idx) {
+    if (idx < 0 || idx > (charCount - 1)) throw new IndexOutOfBoundsException("Invalid index");
+    return (latin1 != null) ? (char) (latin1[idx] & 0xFF) : buffer[idx];
+  }
+
+  /**
+   * Determines whether the characters are stored as Latin-1 bytes, for ChannelWriter, which
+   * encodes the buffer in place.
+   * @return true if latin1Buffer() is in use, false if utf16Buffer() is in use
+   */
+  boolean isLatin1() { return latin1 != null; }
+
+  /**
+   * Gets the Latin-1 buffer, whose first length() bytes are the characters of the StringBuilder.
+   * @return the Latin-1 buffer, or null if the StringBuilder has been inflated
+   */
+  byte[] latin1Buffer() { return latin1; }
+
+  /**
+   * Gets the UTF-16 buffer, whose first length() chars are the characters of the StringBuilder.
+   * @return the UTF-16 buffer, or null if the StringBuilder has not been inflated
+   */
+  char[] utf16Buffer() { return buffer; }
+
+  /**
+   * Appends the given range of the given character sequence, which has already been validated.
+   * Characters are stored as bytes until one does not fit, at which point the buffer is inflated
+   * and the remaining characters are copied as chars.
+   * @param s the character sequence containing the characters to append
+   * @param start the index of the first character to append (inclusive)
+   * @param end the index of the last character to append (exclusive)
+   */
+  private void appendChars(CharSequence s, int start, int end) {
+    ensureCapacity(charCount + end - start);
+    int i = start;
+    if (latin1 != null) {
+      for (char c; i < end && (c = s.charAt(i)) <= 0xFF; i++) latin1[charCount++] = (byte) c;
+      if (i == end) return;
+      inflate();
+    }
+    if (s instanceof String) ((String) s).getChars(i, end, buffer, charCount);
+    else for (int j = i; j < end; j++) buffer[charCount + j - i] = s.charAt(j);
+    charCount += end - i;
+  }
+
+  /**
+   * Appends a decimal number with the given digits, and the given number of digits after the
+   * decimal point (at least one, as in Double.toString).
+   * @param negative whether the number is negative
+   * @param scaled the digits of the number, as a non-negative long
+   * @param fractionDigits the number of digits after the decimal point
+   */
+  private void appendDecimal(boolean negative, long scaled, int fractionDigits) {
+    if (fractionDigits == 0) { // Write a single zero after the decimal point.
+      scaled *= 10;
+      fractionDigits = 1;
+    }
+    long divisor = (long) POWERS_OF_TEN[fractionDigits];
+    long intPart = scaled / divisor, fraction = scaled % divisor;
+    int intLength = digitCount(intPart), signLength = negative ? 1 : 0;
+    int length = signLength + intLength + 1 + fractionDigits;
+    ensureCapacity(charCount + length);
+    if (negative) setAscii(charCount, '-');
+    writeDigits(intPart, charCount + signLength + intLength);
+    setAscii(charCount + signLength + intLength, '.');
+    for (int idx = charCount + length - 1; idx > charCount + signLength + intLength; idx--) {
+      setAscii(idx, (char) ('0' + fraction % 10));
+      fraction /= 10;
+    }
+    charCount += length;
+  }
+
+  /**
+   * Counts the decimal digits in the given long, excluding any sign.
+   * @param l the long whose digits should be counted
+   * @return the number of digits in the long
+   */
+  private static int digitCount(long l) {
+    int count = 1;
+    for (long n = l / 10; n != 0; n /= 10) count++;
+    return count;
+  }
+
+  /**
+   * Writes the decimal representation of the given long (including any sign) into the buffer,
+   * ending just before the given index. The buffer must already have enough capacity.
+   * @param l the long to write
+   * @param endIdx the index after the last digit
+   */
+  private void writeDigits(long l, int endIdx) {
+    int idx = endIdx;
+    long n = l;
+    do { // Negative remainders are made positive, so that Long.MIN_VALUE is written correctly.
+      setAscii(--idx, (char) ('0' + Math.abs(n % 10)));
+      n /= 10;
+    } while (n != 0);
+    if (l < 0) setAscii(--idx, '-');
+  }
+
+  /**
+   * Stores the given ASCII character at the given index, in whichever buffer is in use.
+   * @param idx the index at which to store the character
+   * @param c the character to store
+   */
+  private void setAscii(int idx, char c) {
+    if (latin1 != null) latin1[idx] = (byte) c;
+    else buffer[idx] = c;
+  }
+
+  /**
+   * Gets the capacity of the buffer in use.
+   * @return the number of characters the buffer can hold
+   */
+  private int capacity() { return (latin1 != null) ? latin1.length : buffer.length; }
+
+  /**
+   * Ensures that the buffer in use can hold at least the given number of characters.
+   * @param minCapacity the number of characters to accommodate
+   */
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > capacity()) resizeBuffer(minCapacity);
+  }
+
+  /**
+   * Switches the builder from Latin-1 bytes to UTF-16 chars, keeping the same capacity.
+   */
+  private void inflate() {
+    buffer = new char[latin1.length];
+    for (int i = 0; i < charCount; i++) buffer[i] = (char) (latin1[i] & 0xFF);
+    latin1 = null;
   }
 
   /**
@@ -65,21 +336,22 @@ public class StringBuilder {
    * @param newCount the number of characters to accommodate
    */
   private void resizeBuffer(int newCount) {
-    int newCapacity = buffer.length;
-    while (newCapacity < newCount) newCapacity *= SIZE_MULTIPLIER;
-    char[] newBuffer = new char[newCapacity];
-    System.arraycopy(buffer, 0, newBuffer, 0, charCount);
-    buffer = newBuffer;
+    if (newCount < 0) throw new OutOfMemoryError("Required capacity too large");
+    int newCapacity = Math.max(capacity(), DEFAULT_CAPACITY);
+    while (newCapacity < newCount && newCapacity > 0) newCapacity *= SIZE_MULTIPLIER;
+    if (newCapacity < newCount) newCapacity = newCount; // Doubling overflowed.
+    if (latin1 != null) latin1 = Arrays.copyOf(latin1, newCapacity);
+    else buffer = Arrays.copyOf(buffer, newCapacity);
   }
 
   /**
-   * Gets the string represented by the StringBuilder.
+   * Gets the string represented by the StringBuilder. The characters are copied only once, into
+   * the new string.
    * @return the string represented by the StringBuilder
    */
   @Override
   public String toString() {
-    char[] currentString = new char[charCount];
-    System.arraycopy(buffer, 0, currentString, 0, charCount);
-    return new String(currentString);
+    if (latin1 != null) return new String(latin1, 0, charCount, StandardCharsets.ISO_8859_1);
+    return new String(buffer, 0, charCount);
   }
 }
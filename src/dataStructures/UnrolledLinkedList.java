@@ -0,0 +1,331 @@
+package dataStructures;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of an unrolled linked list, where each node holds a small array of elements
+ * rather than a single element. A LinkedList pays for a node object (with its header and pointers)
+ * for every element, and must follow one pointer per element to reach a given index. By storing
+ * up to nodeCapacity elements per node, an unrolled linked list spreads that overhead across many
+ * elements, and iterating over it mostly reads contiguous array slots. Nodes other than the last
+ * are kept at least half full where possible, so indexed access follows at most
+ * 2 * size / nodeCapacity pointers. In addition, the list remembers the node that was most
+ * recently accessed (the "finger"), so that a sequence of get(i) calls for consecutive indices
+ * takes amortized O(1) time per call.
+ * @param <E> the type of data contained in the list
+ */
+public class UnrolledLinkedList<E> implements Iterable<E> {
+  private static final int DEFAULT_NODE_CAPACITY = 32;
+  private final int nodeCapacity;
+  private ListNode head, tail;
+  private int size;
+  // The most recently accessed node, and the index in the list of its first element.
+  private ListNode finger;
+  private int fingerStart;
+
+  private class ListNode {
+    private final Object[] elements = new Object[nodeCapacity];
+    private int count;
+    private ListNode prev, next;
+  }
+
+  /**
+   * Constructor for UnrolledLinkedList, where each node holds up to 32 elements.
+   */
+  public UnrolledLinkedList() { this(DEFAULT_NODE_CAPACITY); }
+
+  /**
+   * Constructor for UnrolledLinkedList.
+   * @param nodeCapacity the maximum number of elements held by each node
+   */
+  public UnrolledLinkedList(int nodeCapacity) {
+    if (nodeCapacity < 2) throw new IllegalArgumentException("Node capacity must be at least 2");
+    this.nodeCapacity = nodeCapacity;
+    size = 0;
+  }
+
+  /**
+   * Adds an element containing the given data to the end of the list.
+   * @param data the data to add to the list
+   */
+  public void add(E data) {
+    if (tail == null || tail.count == nodeCapacity) appendNode();
+    tail.elements[tail.count++] = data;
+    size++;
+  }
+
+  /**
+   * Inserts an element containing the given data at the given index in the list, shifting the
+   * element currently at that index (if any) and all subsequent elements back by one.
+   * @param idx the index at which to insert the data
+   * @param data the data to insert
+   */
+  public void add(int idx, E data) {
+    if (idx < 0 || idx > size) throw new IndexOutOfBoundsException("Invalid index");
+    if (idx == size) {
+      add(data);
+      return;
+    }
+    ListNode node = locate(idx);
+    int offset = idx - fingerStart;
+    if (node.count == nodeCapacity) { // Split the full node in half to make room.
+      ListNode newNode = insertNodeAfter(node);
+      int half = nodeCapacity / 2;
+      System.arraycopy(node.elements, half, newNode.elements, 0, nodeCapacity - half);
+      for (int i = half; i < nodeCapacity; i++) node.elements[i] = null;
+      newNode.count = nodeCapacity - half;
+      node.count = half;
+      if (offset > half) {
+        fingerStart += half;
+        finger = node = newNode;
+        offset -= half;
+      }
+    }
+    System.arraycopy(node.elements, offset, node.elements, offset + 1, node.count - offset);
+    node.elements[offset] = data;
+    node.count++;
+    size++;
+  }
+
+  /**
+   * Gets the data at the given index in the list.
+   * @param idx the index of the data to get
+   * @return the data at the given index
+   */
+  @SuppressWarnings("unchecked")
+  public E get(int idx) {
+    if (idx < 0 || idx > (size - 1)) throw new IndexOutOfBoundsException("Invalid index");
+    ListNode node = locate(idx);
+    return (E) node.elements[idx - fingerStart];
+  }
+
+  /**
+   * Gets the data at the head of the list.
+   * @return the data at the head of the list
+   */
+  @SuppressWarnings("unchecked")
+  public E getFirst() {
+    if (size == 0) throw new NoSuchElementException("List empty");
+    return (E) head.elements[0];
+  }
+
+  /**
+   * Removes the given data from the list.
+   * @param data the data to remove
+   * @return true if data was removed from the list, false otherwise
+   */
+  public boolean remove(E data) {
+    int nodeStart = 0;
+    for (ListNode node = head; node != null; node = node.next) {
+      for (int i = 0; i < node.count; i++) {
+        if (node.elements[i].equals(data)) {
+          finger = node;
+          fingerStart = nodeStart;
+          removeFromNode(node, i);
+          return true;
+        }
+      }
+      nodeStart += node.count;
+    }
+    return false;
+  }
+
+  /**
+   * Removes the data at the given index.
+   * @param idx the index of the data to remove
+   * @return the data removed from the list
+   */
+  public E remove(int idx) {
+    if (idx < 0 || idx > (size - 1)) throw new IndexOutOfBoundsException("Invalid index");
+    ListNode node = locate(idx);
+    int offset = idx - fingerStart;
+    @SuppressWarnings("unchecked")
+    E retData = (E) node.elements[offset];
+    removeFromNode(node, offset);
+    return retData;
+  }
+
+  /**
+   * Moves all elements of the given list to the end of this list in O(1) time, by linking the
+   * nodes of the given list onto the tail of this list. The given list is left empty. Both lists
+   * must use the same node capacity.
+   * @param other the list whose elements should be moved to the end of this list
+   */
+  public void splice(UnrolledLinkedList<E> other) {
+    if (other == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (other == this) throw new IllegalArgumentException("Cannot splice a list onto itself");
+    if (other.nodeCapacity != nodeCapacity)
+      throw new IllegalArgumentException("Node capacities must match");
+    if (other.size == 0) return;
+    if (size == 0) head = other.head;
+    else {
+      tail.next = other.head;
+      other.head.prev = tail;
+    }
+    tail = other.tail;
+    size += other.size;
+    other.head = other.tail = other.finger = null;
+    other.size = other.fingerStart = 0;
+  }
+
+  /**
+   * Gets the size of the list.
+   * @return the number of elements in the list
+   */
+  public int size() { return size; }
+
+  /**
+   * Determines whether the list is empty
+   * @return true if the list contains no elements, false otherwise
+   */
+  public boolean isEmpty() { return size == 0; }
+
+  /**
+   * Finds the node containing the element at the given index, and moves the finger to it. The
+   * walk starts from whichever of the head, the tail, and the current finger is closest to the
+   * given index.
+   * @param idx a valid index in the list
+   * @return the node containing the element at the given index
+   */
+  private ListNode locate(int idx) {
+    ListNode node = finger;
+    int nodeStart = fingerStart;
+    if (node == null || idx < nodeStart / 2) {
+      node = head;
+      nodeStart = 0;
+    }
+    else if (idx >= nodeStart && idx - nodeStart > (size - idx) * 2) {
+      node = tail;
+      nodeStart = size - tail.count;
+    }
+    while (idx < nodeStart) {
+      node = node.prev;
+      nodeStart -= node.count;
+    }
+    while (idx >= nodeStart + node.count) {
+      nodeStart += node.count;
+      node = node.next;
+    }
+    finger = node;
+    fingerStart = nodeStart;
+    return node;
+  }
+
+  /**
+   * Removes the element at the given offset from the given node, which must be the finger. If the
+   * node is left less than half full, it borrows elements from or merges with the next node.
+   * @param node the node containing the element to remove
+   * @param offset the offset of the element within the node
+   */
+  private void removeFromNode(ListNode node, int offset) {
+    System.arraycopy(node.elements, offset + 1, node.elements, offset, node.count - offset - 1);
+    node.elements[--node.count] = null;
+    size--;
+    if (node.count == 0) {
+      unlinkNode(node);
+      return;
+    }
+    ListNode next = node.next;
+    int half = nodeCapacity / 2;
+    if (node.count >= half || next == null) return;
+    if (node.count + next.count <= nodeCapacity) { // Merge the next node into this node.
+      System.arraycopy(next.elements, 0, node.elements, node.count, next.count);
+      node.count += next.count;
+      unlinkNode(next);
+    }
+    else { // Borrow enough elements from the next node to make this node half full.
+      int borrowCount = half - node.count;
+      System.arraycopy(next.elements, 0, node.elements, node.count, borrowCount);
+      System.arraycopy(next.elements, borrowCount, next.elements, 0, next.count - borrowCount);
+      for (int i = next.count - borrowCount; i < next.count; i++) next.elements[i] = null;
+      next.count -= borrowCount;
+      node.count += borrowCount;
+    }
+  }
+
+  /**
+   * Adds a new, empty node to the end of the list.
+   */
+  private void appendNode() {
+    ListNode newNode = new ListNode();
+    if (tail == null) head = tail = newNode;
+    else {
+      tail.next = newNode;
+      newNode.prev = tail;
+      tail = newNode;
+    }
+  }
+
+  /**
+   * Inserts a new, empty node directly after the given node.
+   * @param node a node in the list
+   * @return the new node
+   */
+  private ListNode insertNodeAfter(ListNode node) {
+    ListNode newNode = new ListNode();
+    newNode.prev = node;
+    newNode.next = node.next;
+    if (node.next == null) tail = newNode;
+    else node.next.prev = newNode;
+    node.next = newNode;
+    return newNode;
+  }
+
+  /**
+   * Removes the given node from the chain of nodes. If the node is the finger, the finger is
+   * moved to the node that follows it, or reset to the head if there is none.
+   * @param node a node in the list
+   */
+  private void unlinkNode(ListNode node) {
+    if (node.prev == null) head = node.next;
+    else node.prev.next = node.next;
+    if (node.next == null) tail = node.prev;
+    else node.next.prev = node.prev;
+    if (finger == node) {
+      finger = node.next;
+      if (finger == null) {
+        finger = head;
+        fingerStart = 0;
+      }
+    }
+  }
+
+  /**
+   * Provides an iterator over the elements of the list.
+   * @return an iterator over the elements of the list
+   */
+  public Iterator<E> iterator() { return new UnrolledLinkedListIterator(); }
+
+  /**
+   * Implements an iterator over the elements of the list, which walks through the array in each
+   * node before following the pointer to the next node.
+   */
+  private class UnrolledLinkedListIterator implements Iterator<E> {
+    private ListNode nextNode = head;
+    private int nextOffset = 0;
+
+    /**
+     * Determines if the iterator has more elements to iterate over.
+     * @return true if there are more elements, false otherwise
+     */
+    @Override
+    public boolean hasNext() { return nextNode != null && nextOffset < nextNode.count; }
+
+    /**
+     * Gets the next element in the iteration.
+     * @return the next element
+     */
+    @Override
+    public E next() {
+      if (!hasNext()) throw new NoSuchElementException("No more elements");
+      @SuppressWarnings("unchecked")
+      E data = (E) nextNode.elements[nextOffset++];
+      if (nextOffset == nextNode.count) {
+        nextNode = nextNode.next;
+        nextOffset = 0;
+      }
+      return data;
+    }
+  }
+}
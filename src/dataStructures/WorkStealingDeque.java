@@ -0,0 +1,135 @@
+package dataStructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Implementation of a Chase-Lev work-stealing deque, as used by the workers of a work-stealing
+ * scheduler. The deque has a single owner thread, which pushes and pops elements at the bottom
+ * like a stack, while any number of other threads (thieves) may concurrently steal elements from
+ * the top. The owner only contends with thieves when a single element remains, so in the common
+ * case push and pop cost no more than a few plain and volatile memory accesses, with no
+ * compare-and-set.
+ *
+ * The elements are stored in a circular array whose length is a power of two, indexed by two
+ * ever-increasing positions: top (the next element to steal) and bottom (the next free slot). The
+ * owner grows the array by doubling when it fills up. Thieves that are still reading the old
+ * array are unaffected, since the owner never writes to an array after replacing it.
+ * @param <E> the type of data contained in the deque
+ */
+public class WorkStealingDeque<E> {
+  private static final VarHandle TOP;
+  private volatile long top = 0, bottom = 0;
+  private volatile Object[] elements;
+
+  static {
+    try {
+      TOP = MethodHandles.lookup().findVarHandle(WorkStealingDeque.class, "top", long.class);
+    }
+    catch (ReflectiveOperationException e) { throw new ExceptionInInitializerError(e); }
+  }
+
+  /**
+   * Constructor for a WorkStealingDeque initialized with the minimum capacity.
+   */
+  public WorkStealingDeque() { this(0); }
+
+  /**
+   * Constructor for a WorkStealingDeque initialized with the smallest power of two that is at
+   * least the given capacity, or the minimum capacity, whichever is greater.
+   * @param capacity the initial capacity of the deque
+   */
+  public WorkStealingDeque(int capacity) {
+    elements = new Object[ArrayDeque.roundUpCapacity(capacity)];
+  }
+
+  /**
+   * Adds the given data to the bottom of the deque. Must only be called by the owner thread.
+   * @param data the data to add to the deque
+   */
+  public void push(E data) {
+    if (data == null) throw new IllegalArgumentException("Data cannot be null");
+    long b = bottom, t = top;
+    Object[] arr = elements;
+    if (b - t >= arr.length) arr = grow(arr, t, b);
+    arr[(int) b & (arr.length - 1)] = data;
+    bottom = b + 1; // Publish the data to thieves.
+  }
+
+  /**
+   * Gets and removes the data at the bottom of the deque (the most recently pushed data). Must
+   * only be called by the owner thread.
+   * @return the data at the bottom of the deque, or null if the deque was empty
+   */
+  public E pop() {
+    long b = bottom - 1;
+    Object[] arr = elements;
+    // Claim the bottom slot before reading top. Since both fields are volatile, a thief that
+    // reads top after this point is guaranteed to see the new bottom.
+    bottom = b;
+    long t = top;
+    if (t > b) { // The deque was empty.
+      bottom = b + 1;
+      return null;
+    }
+    int slot = (int) b & (arr.length - 1);
+    @SuppressWarnings("unchecked")
+    E data = (E) arr[slot];
+    if (t == b) { // This is the last element, so race thieves for it by claiming it at the top.
+      if (!TOP.compareAndSet(this, t, t + 1)) data = null;
+      bottom = b + 1;
+    }
+    else arr[slot] = null; // No thief can reach this slot, so allow the data to be collected.
+    return data;
+  }
+
+  /**
+   * Gets and removes the data at the top of the deque (the least recently pushed data). May be
+   * called by any thread.
+   * @return the data at the top of the deque, or null if the deque was empty or another thread
+   * removed the data first
+   */
+  public E steal() {
+    long t = top, b = bottom; // Read top first, so that the deque cannot appear to be too long.
+    if (t >= b) return null;
+    Object[] arr = elements;
+    @SuppressWarnings("unchecked")
+    E data = (E) arr[(int) t & (arr.length - 1)];
+    // If another thief or the owner claimed this position first, the data may be stale.
+    return TOP.compareAndSet(this, t, t + 1) ? data : null;
+  }
+
+  /**
+   * Gets the number of elements in the deque. If other threads are modifying the deque, the
+   * result is only an estimate.
+   * @return the number of elements in the deque
+   */
+  public int size() {
+    long t = top, b = bottom;
+    return (int) Math.max(b - t, 0);
+  }
+
+  /**
+   * Determines whether the deque is empty. If other threads are modifying the deque, the result
+   * is only an estimate.
+   * @return true if the deque is empty, false otherwise
+   */
+  public boolean isEmpty() { return size() == 0; }
+
+  /**
+   * Copies the elements between the given positions into a new array of twice the length, and
+   * publishes the new array to thieves.
+   * @param arr the current array
+   * @param t the position of the top of the deque
+   * @param b the position of the bottom of the deque
+   * @return the new array
+   */
+  private Object[] grow(Object[] arr, long t, long b) {
+    if (arr.length == ArrayDeque.MAX_CAPACITY) throw new IllegalStateException("Deque full");
+    Object[] newArray = new Object[arr.length * 2];
+    for (long i = t; i < b; i++)
+      newArray[(int) i & (newArray.length - 1)] = arr[(int) i & (arr.length - 1)];
+    elements = newArray;
+    return newArray;
+  }
+}
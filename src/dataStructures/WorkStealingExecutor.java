@@ -0,0 +1,329 @@
+package dataStructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of a lightweight work-stealing executor for divide-and-conquer algorithms. Each
+ * worker thread owns a WorkStealingDeque. A task running on a worker can fork subtasks, which are
+ * pushed onto the worker's own deque, and then join them. A worker looks for work in its own deque
+ * first (newest task first, which keeps the data it is working on in its cache), then in the queue
+ * of tasks submitted from outside the executor, and finally steals from the deques of the other
+ * workers (oldest task first, which tends to be the largest remaining piece of work).
+ *
+ * Joining a task never blocks a worker: until the joined task has completed, the worker runs
+ * other tasks from its own deque or steals them from other workers. Since a forked task is only a
+ * small object pushed onto an array, forking costs less than creating a ForkJoinTask, but tasks
+ * should still do enough work (typically, at least a few thousand operations) to pay for it.
+ */
+public class WorkStealingExecutor implements AutoCloseable {
+  private static final int SUBMISSION_CAPACITY = 1024;
+  private final Worker[] workers;
+  private final ConcurrentRingQueue<Task<?>> submissions =
+      new ConcurrentRingQueue<>(SUBMISSION_CAPACITY);
+  private volatile boolean shutdown = false;
+
+  /**
+   * A handle to a computation that has been forked, which can be joined to get its result.
+   * @param <T> the type of the result of the computation
+   */
+  public static final class Task<T> {
+    private static final VarHandle CLAIMED;
+    private final WorkStealingExecutor executor;
+    private final Supplier<T> computation;
+    private T result;
+    private Throwable exception;
+    // Whether a thread has started running the task, or has rejected it because the executor was
+    // shut down. Only the thread that sets it completes the task.
+    private volatile boolean claimed = false;
+    private volatile boolean done = false;
+    // A thread outside the executor that is waiting for the task to complete, if any.
+    private volatile Thread externalWaiter;
+
+    static {
+      try { CLAIMED = MethodHandles.lookup().findVarHandle(Task.class, "claimed", boolean.class); }
+      catch (ReflectiveOperationException e) { throw new ExceptionInInitializerError(e); }
+    }
+
+    /**
+     * Constructor for Task.
+     * @param executor the executor that runs the task
+     * @param computation the computation to perform
+     */
+    private Task(WorkStealingExecutor executor, Supplier<T> computation) {
+      this.executor = executor;
+      this.computation = computation;
+    }
+
+    /**
+     * Determines whether the task has completed.
+     * @return true if the task has completed, false otherwise
+     */
+    public boolean isDone() { return done; }
+
+    /**
+     * Waits for the task to complete, and gets its result. If the computation threw an exception,
+     * the exception is rethrown. A worker thread that calls this runs other tasks while it waits.
+     * @return the result of the computation
+     */
+    public T join() {
+      if (!done) {
+        if (Thread.currentThread() instanceof Worker) ((Worker) Thread.currentThread()).help(this);
+        else awaitExternally();
+      }
+      if (exception instanceof RuntimeException) throw (RuntimeException) exception;
+      if (exception instanceof Error) throw (Error) exception;
+      return result;
+    }
+
+    /**
+     * Performs the computation, and records its result or exception, unless the task has already
+     * been rejected.
+     */
+    private void run() {
+      if (!CLAIMED.compareAndSet(this, false, true)) return;
+      try { result = computation.get(); }
+      catch (Throwable e) { exception = e; }
+      complete();
+    }
+
+    /**
+     * Completes the task with a RejectedExecutionException, unless a thread has already started
+     * running it.
+     */
+    private void reject() {
+      if (!CLAIMED.compareAndSet(this, false, true)) return;
+      exception = new RejectedExecutionException("Executor shut down");
+      complete();
+    }
+
+    /**
+     * Marks the task as done, and wakes the external thread waiting for it, if any.
+     */
+    private void complete() {
+      done = true; // Publish the result to joining threads.
+      Thread waiter = externalWaiter;
+      if (waiter != null) LockSupport.unpark(waiter);
+    }
+
+    /**
+     * Parks the current thread, which is not a worker, until the task has completed. Once the
+     * executor is shut down, a task that no worker has started will never run, so it is rejected.
+     */
+    private void awaitExternally() {
+      externalWaiter = Thread.currentThread();
+      while (!done) {
+        if (executor.shutdown) reject();
+        // The timeout guards against a second external thread replacing this one as the waiter.
+        if (!done) LockSupport.parkNanos(this, 1_000_000);
+      }
+    }
+  }
+
+  /**
+   * Constructor for a WorkStealingExecutor with one worker for each available processor.
+   */
+  public WorkStealingExecutor() { this(Runtime.getRuntime().availableProcessors()); }
+
+  /**
+   * Constructor for WorkStealingExecutor.
+   * @param parallelism the number of worker threads
+   */
+  public WorkStealingExecutor(int parallelism) {
+    if (parallelism < 1) throw new IllegalArgumentException("Invalid parallelism");
+    workers = new Worker[parallelism];
+    for (int i = 0; i < parallelism; i++) workers[i] = new Worker(i);
+    for (Worker worker : workers) worker.start();
+  }
+
+  /**
+   * Runs the given computation on the executor, and waits for its result. If called from a task
+   * running on one of this executor's workers, the computation is run directly.
+   * @param computation the computation to run
+   * @param <T> the type of the result of the computation
+   * @return the result of the computation
+   * @throws RejectedExecutionException if the executor is shut down before the computation starts
+   */
+  public <T> T invoke(Supplier<T> computation) {
+    if (computation == null) throw new IllegalArgumentException("Computation cannot be null");
+    if (currentWorker() != null) return computation.get();
+    if (shutdown) throw new RejectedExecutionException("Executor shut down");
+    Task<T> task = new Task<>(this, computation);
+    task.externalWaiter = Thread.currentThread();
+    while (!submissions.offer(task)) {
+      if (shutdown) throw new RejectedExecutionException("Executor shut down");
+      Thread.yield();
+    }
+    return task.join();
+  }
+
+  /**
+   * Runs the given action on the executor, and waits for it to complete. If called from a task
+   * running on one of this executor's workers, the action is run directly.
+   * @param action the action to run
+   */
+  public void invoke(Runnable action) {
+    if (action == null) throw new IllegalArgumentException("Action cannot be null");
+    invoke(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Forks the given computation, so that it may be run in parallel with the current task. Must
+   * be called from a task running on one of this executor's workers.
+   * @param computation the computation to fork
+   * @param <T> the type of the result of the computation
+   * @return a task that can be joined to get the result of the computation
+   */
+  public <T> Task<T> fork(Supplier<T> computation) {
+    if (computation == null) throw new IllegalArgumentException("Computation cannot be null");
+    Worker worker = currentWorker();
+    if (worker == null) throw new IllegalStateException("Tasks can only be forked by workers");
+    Task<T> task = new Task<>(this, computation);
+    worker.deque.push(task);
+    return task;
+  }
+
+  /**
+   * Forks the given action, so that it may be run in parallel with the current task. Must be
+   * called from a task running on one of this executor's workers.
+   * @param action the action to fork
+   * @return a task that can be joined to wait for the action to complete
+   */
+  public Task<Void> fork(Runnable action) {
+    if (action == null) throw new IllegalArgumentException("Action cannot be null");
+    return fork(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  /**
+   * Gets the number of worker threads.
+   * @return the number of worker threads
+   */
+  public int getParallelism() { return workers.length; }
+
+  /**
+   * Stops the worker threads once they finish their current tasks. Submitted tasks that have not
+   * started are completed with a RejectedExecutionException, which is thrown to the threads that
+   * invoked them, and so are forked tasks that have not started when they are joined from outside
+   * the executor.
+   */
+  @Override
+  public void close() {
+    shutdown = true;
+    for (Worker worker : workers) LockSupport.unpark(worker);
+    // A task submitted concurrently may be missed here, but its invoker sees the shutdown flag
+    // while waiting, and rejects the task itself.
+    for (Task<?> task = submissions.poll(); task != null; task = submissions.poll()) task.reject();
+  }
+
+  /**
+   * Gets the worker of this executor that is running the current thread.
+   * @return the current worker, or null if the current thread is not a worker of this executor
+   */
+  private Worker currentWorker() {
+    Thread current = Thread.currentThread();
+    return (current instanceof Worker && ((Worker) current).executor() == this) ?
+        (Worker) current : null;
+  }
+
+  /**
+   * A worker thread, which runs tasks from its own deque, the submission queue, and the deques
+   * of other workers.
+   */
+  private final class Worker extends Thread {
+    private final WorkStealingDeque<Task<?>> deque = new WorkStealingDeque<>();
+    private final int index;
+
+    /**
+     * Constructor for Worker.
+     * @param index the index of the worker in the executor's array of workers
+     */
+    private Worker(int index) {
+      super("WorkStealingExecutor-worker-" + index);
+      this.index = index;
+      setDaemon(true);
+    }
+
+    /**
+     * Gets the executor that owns this worker.
+     * @return the executor that owns this worker
+     */
+    private WorkStealingExecutor executor() { return WorkStealingExecutor.this; }
+
+    /**
+     * Runs tasks until the executor is shut down, waiting for work according to a backoff
+     * schedule when there is none.
+     */
+    @Override
+    public void run() {
+      int idleCount = 0;
+      while (!shutdown) {
+        Task<?> task = deque.pop();
+        if (task == null) task = submissions.poll();
+        if (task == null) task = stealTask();
+        if (task != null) {
+          task.run();
+          idleCount = 0;
+        }
+        else idle(idleCount++);
+      }
+    }
+
+    /**
+     * Runs other tasks until the given task has completed.
+     * @param joined the task being joined
+     */
+    private void help(Task<?> joined) {
+      int idleCount = 0;
+      while (!joined.done) {
+        // The joined task is usually still in this worker's deque, so pop it (or the tasks
+        // forked after it) before stealing.
+        Task<?> task = deque.pop();
+        if (task == null) task = stealTask();
+        if (task != null) {
+          task.run();
+          idleCount = 0;
+        }
+        else if (idleCount++ < 100) Thread.onSpinWait();
+        else Thread.yield();
+      }
+    }
+
+    /**
+     * Attempts to steal a task from each of the other workers in turn, starting from a random
+     * worker.
+     * @return a stolen task, or null if no task could be stolen
+     */
+    private Task<?> stealTask() {
+      int n = workers.length;
+      int start = ThreadLocalRandom.current().nextInt(n);
+      for (int i = 0; i < n; i++) {
+        int victim = (start + i) % n;
+        if (victim == index) continue;
+        Task<?> task = workers[victim].deque.steal();
+        if (task != null) return task;
+      }
+      return null;
+    }
+
+    /**
+     * Waits between attempts to find work: spins briefly, then yields, then parks for increasing
+     * lengths of time (up to a millisecond).
+     * @param idleCount the number of consecutive attempts that found no work
+     */
+    private void idle(int idleCount) {
+      if (idleCount < 100) Thread.onSpinWait();
+      else if (idleCount < 200) Thread.yield();
+      else LockSupport.parkNanos(1000L << Math.min(idleCount - 200, 10));
+    }
+  }
+}
@@ -1,13 +1,12 @@
 package searching;
 
+import dataStructures.ArrayDeque;
 import dataStructures.BinaryTree;
 import dataStructures.GraphAdjacencyListBetter;
 
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 
 /**
@@ -16,7 +15,8 @@ import java.util.Set;
  * implementations are optimized such that nodes are checked before they are added to the queue, as
  * opposed to after they are removed from the queue. This optimization will often reduce the
  * number of iterations needed to find the given node, since it avoids keeping the desired node
- * in the queue while the rest of the nodes in the previous level are examined.
+ * in the queue while the rest of the nodes in the previous level are examined. The queues are
+ * array-backed ArrayDeques, so enqueueing a node does not allocate a list node for it.
  * @param <E> the type of data contained in the graph and tree being searched
  */
 public class BFS<E> {
@@ -66,10 +66,10 @@ public class BFS<E> {
   private boolean startNewSearch(E searchVal, GraphAdjacencyListBetter<E>.Node root,
                                  Map<GraphAdjacencyListBetter<E>.Node,
                                          List<GraphAdjacencyListBetter<E>.Node>> adjMap) {
-    Queue<GraphAdjacencyListBetter<E>.Node> q = new LinkedList<>();
+    ArrayDeque<GraphAdjacencyListBetter<E>.Node> q = new ArrayDeque<>();
     q.add(root);
     while (!q.isEmpty()) {
-      GraphAdjacencyListBetter<E>.Node nextNode = q.poll();
+      GraphAdjacencyListBetter<E>.Node nextNode = q.remove();
       List<GraphAdjacencyListBetter<E>.Node> neighbors = adjMap.get(nextNode);
       for (GraphAdjacencyListBetter<E>.Node neighbor : neighbors) {
         if (!neighbor.seen()) {
@@ -117,10 +117,10 @@ public class BFS<E> {
                                  Map<GraphAdjacencyListBetter<E>.Node,
                                          List<GraphAdjacencyListBetter<E>.Node>> adjMap,
                                  Set<GraphAdjacencyListBetter<E>.Node> seenSet) {
-    Queue<GraphAdjacencyListBetter<E>.Node> q = new LinkedList<>();
+    ArrayDeque<GraphAdjacencyListBetter<E>.Node> q = new ArrayDeque<>();
     q.add(root);
     while (!q.isEmpty()) {
-      GraphAdjacencyListBetter<E>.Node nextNode = q.poll();
+      GraphAdjacencyListBetter<E>.Node nextNode = q.remove();
       List<GraphAdjacencyListBetter<E>.Node> neighbors = adjMap.get(nextNode);
       for (GraphAdjacencyListBetter<E>.Node neighbor : neighbors) {
         if (!seenSet.contains(neighbor)) {
@@ -140,13 +140,13 @@ public class BFS<E> {
    */
   public boolean bfsTree(E searchVal) {
     if (searchVal != null) {
-      Queue<BinaryTree<E>.Node> q = new LinkedList<>();
+      ArrayDeque<BinaryTree<E>.Node> q = new ArrayDeque<>();
       BinaryTree<E>.Node root = tree.getRoot();
       if (root == null) return false;
       if (root.getData().equals(searchVal)) return true;
       q.add(root);
       while(!q.isEmpty()) {
-        BinaryTree<E>.Node nextNode = q.poll();
+        BinaryTree<E>.Node nextNode = q.remove();
         if (nextNode.hasLeftChild()) {
           BinaryTree<E>.Node leftChild = nextNode.getLeftChild();
           if (leftChild.getData().equals(searchVal)) return true;
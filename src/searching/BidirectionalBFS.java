@@ -0,0 +1,172 @@
+package searching;
+
+import dataStructures.GraphAdjacencyListBetter;
+import dataStructures.GraphGeneric;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Implementation of a bidirectional breadth-first search that finds the shortest path between two
+ * nodes in an unweighted graph. Rather than exploring outward from the source until the target is
+ * reached, one search runs forward from the source and another runs backward from the target, and
+ * the path is found when the two frontiers meet. On each round, the smaller of the two frontiers is
+ * expanded by one full level. If the graph has a branching factor of b and the path has length d,
+ * a one-sided BFS examines on the order of b^d nodes, while a bidirectional BFS examines on the
+ * order of 2 * b^(d/2) nodes, which is a dramatic improvement on graphs with many short paths.
+ */
+public class BidirectionalBFS {
+
+  /**
+   * Finds a shortest path between the given nodes of a GraphAdjacencyListBetter.
+   * @param graph the graph to search
+   * @param source the node at which the path starts
+   * @param target the node at which the path ends
+   * @param <E> the type of data contained in the graph
+   * @return a list of nodes starting with the source and ending with the target, where each
+   * consecutive pair of nodes is connected by an edge, or an empty list if no path exists. The
+   * distance between the nodes is one less than the size of the list.
+   */
+  public static <E> List<GraphAdjacencyListBetter<E>.Node> shortestPath(
+          GraphAdjacencyListBetter<E> graph, GraphAdjacencyListBetter<E>.Node source,
+          GraphAdjacencyListBetter<E>.Node target) {
+    Map<GraphAdjacencyListBetter<E>.Node,
+            List<GraphAdjacencyListBetter<E>.Node>> adjMap = graph.getGraph();
+    if (!(adjMap.containsKey(source) && adjMap.containsKey(target)))
+      throw new IllegalArgumentException("Cannot search between nonexistent nodes");
+    // The graph is undirected, so the same neighbor lists serve both directions.
+    return search(source, target, adjMap::get, adjMap::get);
+  }
+
+  /**
+   * Finds a shortest path between the given nodes of a GraphGeneric, ignoring edge weights. If the
+   * graph is directed, the backward search must follow edges in reverse, so a map of incoming
+   * edges is built before the search begins.
+   * @param graph the graph to search
+   * @param source the node at which the path starts
+   * @param target the node at which the path ends
+   * @param <E> the type of data contained in the graph
+   * @return a list of nodes starting with the source and ending with the target, where each
+   * consecutive pair of nodes is connected by an edge, or an empty list if no path exists. The
+   * distance between the nodes is one less than the size of the list.
+   */
+  public static <E> List<GraphGeneric<E>.Node> shortestPath(GraphGeneric<E> graph,
+                                                            GraphGeneric<E>.Node source,
+                                                            GraphGeneric<E>.Node target) {
+    if (graph.getNeighbors(source) == null || graph.getNeighbors(target) == null)
+      throw new IllegalArgumentException("Cannot search between nonexistent nodes");
+    Function<GraphGeneric<E>.Node, Collection<GraphGeneric<E>.Node>> forward =
+            node -> graph.getNeighbors(node).keySet();
+    if (!graph.isDirected()) return search(source, target, forward, forward);
+    Map<GraphGeneric<E>.Node, List<GraphGeneric<E>.Node>> inEdges = new HashMap<>();
+    for (GraphGeneric<E>.Node node : graph.getNodes()) inEdges.put(node, new ArrayList<>());
+    for (GraphGeneric<E>.Node node : graph.getNodes())
+      for (GraphGeneric<E>.Node neighbor : graph.getNeighbors(node).keySet())
+        inEdges.get(neighbor).add(node);
+    return search(source, target, forward, inEdges::get);
+  }
+
+  /**
+   * Runs the bidirectional search on a graph described by the given neighbor functions.
+   * @param source the node at which the path starts
+   * @param target the node at which the path ends
+   * @param forward a function that gets the nodes reachable by following one edge out of a node
+   * @param backward a function that gets the nodes from which one edge leads into a node
+   * @param <N> the type of the nodes in the graph
+   * @return a shortest path from the source to the target, or an empty list if no path exists
+   */
+  private static <N> List<N> search(N source, N target, Function<N, Collection<N>> forward,
+                                    Function<N, Collection<N>> backward) {
+    List<N> path = new LinkedList<>();
+    if (source == target) {
+      path.add(source);
+      return path;
+    }
+    // Each map records, for every node reached by one side of the search, the node through which
+    // it was reached, along with that node's distance from the side's starting point.
+    Map<N, N> fwdParents = new HashMap<>(), bwdParents = new HashMap<>();
+    Map<N, Integer> fwdDepths = new HashMap<>(), bwdDepths = new HashMap<>();
+    fwdParents.put(source, null);
+    fwdDepths.put(source, 0);
+    bwdParents.put(target, null);
+    bwdDepths.put(target, 0);
+    List<N> fwdFrontier = new ArrayList<>(), bwdFrontier = new ArrayList<>();
+    fwdFrontier.add(source);
+    bwdFrontier.add(target);
+    N meetingNode = null;
+    while (meetingNode == null && !fwdFrontier.isEmpty() && !bwdFrontier.isEmpty()) {
+      if (fwdFrontier.size() <= bwdFrontier.size()) {
+        fwdFrontier = expandLevel(fwdFrontier, forward, fwdParents, fwdDepths, bwdDepths);
+        meetingNode = closestMeeting(fwdFrontier, fwdDepths, bwdDepths);
+      }
+      else {
+        bwdFrontier = expandLevel(bwdFrontier, backward, bwdParents, bwdDepths, fwdDepths);
+        meetingNode = closestMeeting(bwdFrontier, bwdDepths, fwdDepths);
+      }
+    }
+    if (meetingNode == null) return path;
+    for (N node = meetingNode; node != null; node = fwdParents.get(node)) path.add(0, node);
+    for (N node = bwdParents.get(meetingNode); node != null; node = bwdParents.get(node))
+      path.add(node);
+    return path;
+  }
+
+  /**
+   * Expands one side of the search by a full level. Expansion of the level is completed even after
+   * the other side's visited nodes are reached, so that the closest meeting point can be chosen.
+   * @param frontier the nodes at the deepest level reached so far by this side
+   * @param neighbors the function that gets the neighbors of a node for this side
+   * @param parents the node through which each node was reached by this side
+   * @param depths the distance of each node reached by this side from its starting point
+   * @param otherDepths the distance of each node reached by the other side from its starting point
+   * @param <N> the type of the nodes in the graph
+   * @return the nodes at the new deepest level, or only the nodes that were also reached by the
+   * other side if there are any
+   */
+  private static <N> List<N> expandLevel(List<N> frontier, Function<N, Collection<N>> neighbors,
+                                         Map<N, N> parents, Map<N, Integer> depths,
+                                         Map<N, Integer> otherDepths) {
+    List<N> nextFrontier = new ArrayList<>(), meetings = new ArrayList<>();
+    for (N node : frontier) {
+      int depth = depths.get(node);
+      for (N neighbor : neighbors.apply(node)) {
+        if (!parents.containsKey(neighbor)) {
+          parents.put(neighbor, node);
+          depths.put(neighbor, depth + 1);
+          if (otherDepths.containsKey(neighbor)) meetings.add(neighbor);
+          else nextFrontier.add(neighbor);
+        }
+      }
+    }
+    return meetings.isEmpty() ? nextFrontier : meetings;
+  }
+
+  /**
+   * Chooses, among the given nodes, the one reached by both sides of the search that lies on the
+   * shortest combined path.
+   * @param nodes the nodes returned by the most recent level expansion
+   * @param depths the distance of each node from the starting point of the side just expanded
+   * @param otherDepths the distance of each node from the starting point of the other side
+   * @param <N> the type of the nodes in the graph
+   * @return the best meeting node, or null if the two sides have not yet met
+   */
+  private static <N> N closestMeeting(List<N> nodes, Map<N, Integer> depths,
+                                      Map<N, Integer> otherDepths) {
+    N best = null;
+    int bestDistance = Integer.MAX_VALUE;
+    for (N node : nodes) {
+      if (!otherDepths.containsKey(node)) return null; // The sides have not met on this level.
+      int distance = depths.get(node) + otherDepths.get(node);
+      if (distance < bestDistance) {
+        bestDistance = distance;
+        best = node;
+      }
+    }
+    return best;
+  }
+}
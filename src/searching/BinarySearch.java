@@ -12,7 +12,23 @@ public class BinarySearch {
    * @return the index that contains the target number, or -1 if the target is not present
    */
   public static int binarySearch(int[] ints, int target) {
-    int l = 0, r = ints.length - 1;
+    return binarySearch(ints, 0, ints.length, target);
+  }
+
+  /**
+   * Runs a binary search on a sorted range of an array of numbers. Useful for searching the
+   * backing array of a partially-filled list in place.
+   * @param ints an array of numbers that is assumed to be sorted within the given range
+   * @param fromIdx the index of the first element to search (inclusive)
+   * @param toIdx the index of the last element to search (exclusive)
+   * @param target the number to search for
+   * @return the index that contains the target number, or -1 if the target is not present in the
+   * given range
+   */
+  public static int binarySearch(int[] ints, int fromIdx, int toIdx, int target) {
+    if (fromIdx < 0 || toIdx > ints.length || fromIdx > toIdx)
+      throw new IndexOutOfBoundsException("Invalid range");
+    int l = fromIdx, r = toIdx - 1;
     while (l <= r) {
       int mid = l + ((r - l) / 2); // To reduce the possibility of overflow, avoid "l + r".
       if (ints[mid] == target) return mid;
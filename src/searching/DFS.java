@@ -1,5 +1,6 @@
 package searching;
 
+import dataStructures.ArrayDeque;
 import dataStructures.BinaryTree;
 import dataStructures.GraphAdjacencyListBetter;
 
@@ -7,7 +8,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 /**
  * Implementations of depth-first search on a graph and a tree. The graph version is
@@ -58,8 +58,8 @@ public class DFS<E> {
                                           Map<GraphAdjacencyListBetter<E>.Node,
                                                   List<GraphAdjacencyListBetter<E>.Node>> adjMap,
                                           Set<GraphAdjacencyListBetter<E>.Node> seenSet) {
-    Stack<GraphAdjacencyListBetter<E>.Node> stack = new Stack<>();
-    stack.add(root);
+    ArrayDeque<GraphAdjacencyListBetter<E>.Node> stack = new ArrayDeque<>();
+    stack.push(root);
     while (!stack.isEmpty()) {
       GraphAdjacencyListBetter<E>.Node nextNode = stack.pop();
       if (nextNode.getData().equals(searchVal)) return true;
@@ -112,7 +112,7 @@ public class DFS<E> {
    */
   public boolean dfsTreeIterative(E searchVal) {
     if (searchVal != null) {
-      Stack<BinaryTree<E>.Node> stack = new Stack<>();
+      ArrayDeque<BinaryTree<E>.Node> stack = new ArrayDeque<>();
       stack.push(tree.getRoot());
       while (!stack.isEmpty()) {
         BinaryTree<E>.Node nextNode = stack.pop();
@@ -1,9 +1,14 @@
 package sorting;
 
+import dataStructures.WorkStealingExecutor;
+
 /**
  * Implementation of quicksort algorithm to sort an array of ints.
  */
 public class QuickSort {
+  // Ranges shorter than this are sorted sequentially by parallelSort, since forking a task to
+  // sort them would cost more than it saves.
+  private static final int PARALLEL_THRESHOLD = 4096;
 
   /**
    * Sorts the given array of ints using quicksort.
@@ -14,6 +19,20 @@ public class QuickSort {
     else sortHelper(ints, 0, ints.length - 1);
   }
 
+  /**
+   * Sorts the given range of the given array of ints using quicksort, leaving the rest of the
+   * array untouched. Useful for sorting the backing array of a partially-filled list in place.
+   * @param ints the array to sort
+   * @param fromIdx the index of the first element to sort (inclusive)
+   * @param toIdx the index of the last element to sort (exclusive)
+   */
+  public static void sort(int[] ints, int fromIdx, int toIdx) {
+    if (ints == null) throw new IllegalArgumentException("Argument cannot be null");
+    if (fromIdx < 0 || toIdx > ints.length || fromIdx > toIdx)
+      throw new IndexOutOfBoundsException("Invalid range");
+    sortHelper(ints, fromIdx, toIdx - 1);
+  }
+
   /**
    * Helper method to perform the recursion for quicksort.
    * @param ints the array to sort
@@ -22,14 +41,59 @@ public class QuickSort {
    */
   private static void sortHelper(int[] ints, int lowIdx, int highIdx) {
     if (lowIdx < highIdx) {
-      int pivot = ints[highIdx], pivIdx = lowIdx;
-      for (int i = lowIdx; i < highIdx; i++) if (ints[i] < pivot) swap(ints, pivIdx++, i);
-      swap(ints, pivIdx, highIdx);
+      int pivIdx = partition(ints, lowIdx, highIdx);
       sortHelper(ints, lowIdx, pivIdx - 1);
       sortHelper(ints, pivIdx + 1, highIdx);
     }
   }
 
+  /**
+   * Sorts the given array of ints using quicksort, sorting the two partitions of each large
+   * range in parallel on the given executor.
+   * @param ints the array to sort
+   * @param executor the executor on which to run the sort
+   */
+  public static void parallelSort(int[] ints, WorkStealingExecutor executor) {
+    if (ints == null || executor == null)
+      throw new IllegalArgumentException("Arguments cannot be null");
+    executor.invoke(() -> parallelSortHelper(ints, 0, ints.length - 1, executor));
+  }
+
+  /**
+   * Helper method to perform the recursion for parallel quicksort. The lower partition is forked
+   * while the current task sorts the upper partition.
+   * @param ints the array to sort
+   * @param lowIdx the lower bound of the current range of indices to sort
+   * @param highIdx the upper bound of the current range of indices to sort
+   * @param executor the executor on which to fork tasks
+   */
+  private static void parallelSortHelper(int[] ints, int lowIdx, int highIdx,
+                                         WorkStealingExecutor executor) {
+    if (highIdx - lowIdx < PARALLEL_THRESHOLD) sortHelper(ints, lowIdx, highIdx);
+    else {
+      int pivIdx = partition(ints, lowIdx, highIdx);
+      WorkStealingExecutor.Task<Void> lower =
+          executor.fork(() -> parallelSortHelper(ints, lowIdx, pivIdx - 1, executor));
+      parallelSortHelper(ints, pivIdx + 1, highIdx, executor);
+      lower.join();
+    }
+  }
+
+  /**
+   * Partitions the given range of the given array around its last element, so that smaller
+   * elements precede it and the remaining elements follow it.
+   * @param ints the array to partition
+   * @param lowIdx the lower bound of the range of indices to partition
+   * @param highIdx the upper bound of the range of indices to partition
+   * @return the final index of the pivot
+   */
+  private static int partition(int[] ints, int lowIdx, int highIdx) {
+    int pivot = ints[highIdx], pivIdx = lowIdx;
+    for (int i = lowIdx; i < highIdx; i++) if (ints[i] < pivot) swap(ints, pivIdx++, i);
+    swap(ints, pivIdx, highIdx);
+    return pivIdx;
+  }
+
   /**
    * Swaps the elements at the given indices in the given array.
    * @param ints the array containing the elements to swap
@@ -55,6 +55,9 @@ public class BitManipulationTests {
     assertTrue(BitMethods.getBit(6, 1));
     assertFalse(BitMethods.getBit(64, 3));
     assertTrue(BitMethods.getBit(64, 6));
+    assertTrue(BitMethods.getBit(1L << 40, 40));
+    assertFalse(BitMethods.getBit(1L << 40, 8));
+    assertTrue(BitMethods.getBit(Long.MIN_VALUE, 63));
   }
 
   @Test
@@ -64,6 +67,8 @@ public class BitManipulationTests {
     assertEquals(7, BitMethods.setBit(5, 1));
     assertEquals(68, BitMethods.setBit(64, 2));
     assertEquals(12, BitMethods.setBit(4, 3));
+    assertEquals((1L << 40) | 1, BitMethods.setBit(1L, 40));
+    assertEquals(Long.MIN_VALUE, BitMethods.setBit(0L, 63));
   }
 
   @Test
@@ -104,6 +109,8 @@ public class BitManipulationTests {
     assertEquals(0, BitMethods.clearLSB(128));
     assertEquals(6, BitMethods.clearLSB(7));
     assertEquals(16, BitMethods.clearLSB(20));
+    assertEquals(1L << 40, BitMethods.clearLSB((1L << 40) | (1L << 3)));
+    assertEquals(Long.MIN_VALUE, BitMethods.clearLSB(Long.MIN_VALUE | 1));
   }
 
   @Test
@@ -143,4 +150,51 @@ public class BitManipulationTests {
     assertEquals(1, BitMethods.lowestBit(-5));
     assertEquals(4, BitMethods.lowestBit(-28));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testBroadcastByte() {
+    assertEquals(0L, BitMethods.broadcastByte(0));
+    assertEquals(0x0101010101010101L, BitMethods.broadcastByte(1));
+    assertEquals(0x7F7F7F7F7F7F7F7FL, BitMethods.broadcastByte(0x7F));
+    assertEquals(-1L, BitMethods.broadcastByte(0xFF));
+    assertEquals(0x8080808080808080L, BitMethods.broadcastByte((byte) 0x80));
+  }
+
+  @Test
+  public void testZeroBytes() {
+    assertEquals(0x8080808080808080L, BitMethods.zeroBytes(0L));
+    assertEquals(0L, BitMethods.zeroBytes(-1L));
+    assertEquals(0L, BitMethods.zeroBytes(0x0101010101010101L));
+    assertEquals(0x0000800000000080L, BitMethods.zeroBytes(0x1122003344556600L));
+    // A zero byte next to a 0x01 byte must not be reported twice, as a borrow would cause.
+    assertEquals(0x0000000000008000L, BitMethods.zeroBytes(0x0101010101010001L));
+    assertEquals(0x0080000000000000L, BitMethods.zeroBytes(0x8000808080808080L));
+  }
+
+  @Test
+  public void testMatchBytes() {
+    long word = 0x12345612FF801200L;
+    assertEquals(0x8000008000008000L, BitMethods.matchBytes(word, 0x12));
+    assertEquals(0x0000000080000000L, BitMethods.matchBytes(word, 0xFF));
+    assertEquals(0x0000000080000000L, BitMethods.matchBytes(word, -1));
+    assertEquals(0x0000000000800000L, BitMethods.matchBytes(word, 0x80));
+    assertEquals(0x0000000000000080L, BitMethods.matchBytes(word, 0));
+    assertEquals(0L, BitMethods.matchBytes(word, 0x13));
+  }
+
+  @Test
+  public void testHighBitBytes() {
+    assertEquals(0L, BitMethods.highBitBytes(0x7F7F7F7F7F7F7F7FL));
+    assertEquals(0x8080808080808080L, BitMethods.highBitBytes(-1L));
+    assertEquals(0x8000000000008080L, BitMethods.highBitBytes(0xFE000000007F80FEL));
+  }
+
+  @Test
+  public void testFirstMarkedByte() {
+    assertEquals(0, BitMethods.firstMarkedByte(0x8080808080808080L));
+    assertEquals(1, BitMethods.firstMarkedByte(0x8000008000008000L));
+    assertEquals(7, BitMethods.firstMarkedByte(0x8000000000000000L));
+    assertEquals(8, BitMethods.firstMarkedByte(0L));
+    assertEquals(2, BitMethods.firstMarkedByte(BitMethods.clearLSB(0x0000000000808000L)));
+  }
+}
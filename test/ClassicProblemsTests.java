@@ -3,11 +3,13 @@ import org.junit.jupiter.api.Test;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.Stack;
 
 import classicProblems.*;
 import dataStructures.GraphGeneric;
+import dataStructures.WorkStealingExecutor;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -146,6 +148,15 @@ public class ClassicProblemsTests {
     assertEquals(27, Knapsack.bruteForceSolution(weightLim4, weights2, values2));
     assertEquals(45, Knapsack.bruteForceSolution(weightLim5, weights2, values2));
     assertEquals(64, Knapsack.bruteForceSolution(weightLim6, weights2, values2));
+    // Test the parallel solution, on problems both smaller and larger than the sequential cutoff.
+    try (WorkStealingExecutor executor = new WorkStealingExecutor(4)) {
+      assertEquals(64,
+          Knapsack.parallelBruteForceSolution(weightLim6, weights2, values2, executor));
+      Random rand = new Random(7);
+      int[] weights = rand.ints(22, 1, 30).toArray(), values = rand.ints(22, 1, 50).toArray();
+      assertEquals(Knapsack.dynamicProgrammingSolution(100, weights, values),
+              Knapsack.parallelBruteForceSolution(100, weights, values, executor));
+    }
   }
 
   @Test
@@ -264,6 +275,15 @@ public class ClassicProblemsTests {
     assertEquals(new LinkedList<>(), n3SolutionsSpaceEfficient);
     assertEquals(2, n4SolutionsSpaceEfficient.size());
     assertEquals(10, n5SolutionsSpaceEfficient.size());
+    try (WorkStealingExecutor executor = new WorkStealingExecutor(4)) {
+      assertEquals(new LinkedList<>(), NQueens.parallelSolve(3, executor));
+      assertEquals('Q', NQueens.parallelSolve(1, executor).get(0)[0][0]);
+      List<char[][]> n8Solutions = NQueens.solve(8), n8ParallelSolutions =
+          NQueens.parallelSolve(8, executor);
+      assertEquals(92, n8ParallelSolutions.size());
+      for (int i = 0; i < n8Solutions.size(); i++)
+        assertArrayEquals(n8Solutions.get(i), n8ParallelSolutions.get(i));
+    }
   }
 
   @Test
@@ -458,8 +478,16 @@ public class ClassicProblemsTests {
   @Test
   public void testSudoku() {
     // Test valid Sudoku board.
+    char[][] parallelBoard = new char[9][];
+    for (int row = 0; row < 9; row++) parallelBoard[row] = inputBoard[row].clone();
     Sudoku.solveSudoku(inputBoard);
     assertArrayEquals(inputBoard, outputBoard);
+    try (WorkStealingExecutor executor = new WorkStealingExecutor(4)) {
+      Sudoku.parallelSolveSudoku(parallelBoard, executor);
+      assertArrayEquals(outputBoard, parallelBoard);
+      assertThrows(IllegalArgumentException.class,
+          () -> Sudoku.parallelSolveSudoku(new char[1][1], executor));
+    }
     // Test invalid Sudoku board.
     assertThrows(IllegalArgumentException.class, () -> Sudoku.solveSudoku(new char[1][1]));
   }
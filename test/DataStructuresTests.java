@@ -8,9 +8,40 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import dataStructures.*;
 import dataStructures.StringBuilder; // Must explicitly import this class to resolve ambiguity.
 import org.junit.jupiter.api.Test;
+import searching.BinarySearch;
+import sorting.QuickSort;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 public class DataStructuresTests {
 
@@ -78,6 +109,29 @@ public class DataStructuresTests {
     assertThrows(IllegalArgumentException.class, () -> b.delete(null));
   }
 
+  @Test
+  public void testBinaryTreeParallelSearch() {
+    BinaryTree<Integer> b = new BinaryTree<>();
+    assertFalse(b.parallelFind(1));
+    assertNull(b.parallelSearch(i -> i > 0));
+    assertThrows(IllegalArgumentException.class, () -> b.parallelFind(null));
+    assertThrows(IllegalArgumentException.class, () -> b.parallelSearch(null));
+    // Insert enough nodes that the search is split across multiple tasks.
+    for (int i = 0; i < 5000; i++) b.insert(i);
+    assertTrue(b.parallelFind(0));
+    assertTrue(b.parallelFind(2500));
+    assertTrue(b.parallelFind(4999));
+    assertFalse(b.parallelFind(5000));
+    assertFalse(b.parallelFind(-1));
+    assertEquals(3141, b.parallelSearch(i -> i == 3141));
+    assertNull(b.parallelSearch(i -> i < 0));
+    int match = b.parallelSearch(i -> i % 1000 == 999);
+    assertEquals(999, match % 1000);
+    b.delete(2500);
+    assertFalse(b.parallelFind(2500));
+    assertTrue(b.parallelFind(4999));
+  }
+
   @Test
   public void testBinarySearchTree() {
     BinarySearchTree<Integer> b = new BinarySearchTree<>();
@@ -408,6 +462,32 @@ public class DataStructuresTests {
     assertArrayEquals(new Integer[] {40, 25, 70, 20, 30}, rbt.levelOrderTraversal());
     assertEquals(new Integer(70), rbt.getMax());
     assertEquals(new Integer(20), rbt.getMin());
+    // The in-order successor of 70 is 80, two levels below its right child 130.
+    RedBlackTree<Integer> deep = new RedBlackTree<>();
+    for (int i : new int[] {110, 20, 70, 150, 130, 80}) deep.insert(i);
+    assertArrayEquals(new Integer[] {70, 20, 130, 110, 150, 80}, deep.levelOrderTraversal());
+    deep.delete(70);
+    assertArrayEquals(new Integer[] {80, 20, 130, 110, 150}, deep.levelOrderTraversal());
+    assertFalse(deep.search(70));
+    assertEquals(5, deep.size());
+    // Deleting a root with one child promotes the child, which must work as a root afterwards.
+    RedBlackTree<Integer> rooted = new RedBlackTree<>();
+    rooted.insert(10);
+    rooted.insert(20);
+    rooted.delete(10);
+    assertArrayEquals(new Integer[] {20}, rooted.levelOrderTraversal());
+    rooted.insert(5);
+    rooted.insert(30);
+    assertArrayEquals(new Integer[] {20, 5, 30}, rooted.levelOrderTraversal());
+    rooted.delete(20);
+    assertArrayEquals(new Integer[] {30, 5}, rooted.levelOrderTraversal());
+    rooted.delete(5);
+    rooted.delete(30);
+    assertArrayEquals(new Integer[] {}, rooted.levelOrderTraversal());
+    assertEquals(0, rooted.size());
+    rooted.insert(1);
+    assertArrayEquals(new Integer[] {1}, rooted.levelOrderTraversal());
+    assertEquals(new Integer(1), rooted.getMin());
   }
 
   @Test
@@ -706,6 +786,96 @@ public class DataStructuresTests {
     assertFalse(h.containsKey("yes"));
     assertFalse(h.containsKey("hello"));
     assertTrue(h.containsKey(15));
+    // Integer.MIN_VALUE is its own hash code, and Math.abs of it is negative.
+    assertNull(h.put(Integer.MIN_VALUE, 1));
+    assertEquals(1, h.get(Integer.MIN_VALUE));
+  }
+
+  @Test
+  public void testHashTableOpenTreeify() {
+    HashTableOpen h = new HashTableOpen();
+    // Strings built from the blocks "Aa" and "BB" all have the same hash code, so they all land in
+    // one bucket, which is converted to a tree ordered by compareTo.
+    String[] flood = new String[256];
+    for (int i = 0; i < flood.length; i++) {
+      java.lang.StringBuilder sb = new java.lang.StringBuilder();
+      for (int bit = 0; bit < 8; bit++) sb.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+      flood[i] = sb.toString();
+      assertEquals(flood[0].hashCode(), flood[i].hashCode());
+      assertNull(h.put(flood[i], i));
+    }
+    // Keys that are not Comparable and share a hash code are chained within one tree node.
+    for (int i = 0; i < 20; i++) assertNull(h.put(new CollidingKey(i), -i));
+    for (int i = 0; i < flood.length; i++) assertEquals(i, h.get(flood[i]));
+    for (int i = 0; i < 20; i++) assertEquals(-i, h.get(new CollidingKey(i)));
+    assertEquals(5, h.put(flood[5], 500));
+    assertNull(h.get("AaAaAaAaAaAaAaAb"));
+    // Delete enough keys that the buckets are converted back to lists.
+    for (int i = 0; i < flood.length; i += 2) assertEquals((i == 4) ? 4 : i, h.delete(flood[i]));
+    for (int i = 0; i < 20; i += 3) assertEquals(-i, h.delete(new CollidingKey(i)));
+    for (int i = 1; i < flood.length; i += 2) assertEquals((i == 5) ? 500 : i, h.get(flood[i]));
+    for (int i = 0; i < 20; i++)
+      assertEquals((i % 3 == 0) ? null : -i, h.get(new CollidingKey(i)));
+    for (int i = 1; i < flood.length; i += 2) assertEquals((i == 5) ? 500 : i, h.delete(flood[i]));
+    for (int i = 0; i < 20; i++) if (i % 3 != 0) assertEquals(-i, h.delete(new CollidingKey(i)));
+    assertFalse(h.containsKey(flood[1]));
+    // Compare against HashMap under a random mix of colliding keys.
+    HashTableOpen r = new HashTableOpen();
+    HashMap<Object, Integer> expected = new HashMap<>();
+    Random rand = new Random(9);
+    for (int i = 0; i < 20000; i++) {
+      int k = rand.nextInt(300);
+      Object key = (k < 256) ? flood[k] : new CollidingKey(k);
+      if (rand.nextInt(3) != 0) assertEquals(expected.put(key, i), r.put(key, i));
+      else assertEquals(expected.remove(key), r.delete(key));
+    }
+    for (Object key : expected.keySet()) assertEquals(expected.get(key), r.get(key));
+  }
+
+  @Test
+  public void testHashTableOpenMixedKeys() {
+    // An Integer with the same hash code as the "Aa"/"BB" strings must not compare equal to all
+    // of them, or the tree loses it when the strings around it are deleted.
+    String[] strings = new String[12];
+    for (int i = 0; i < strings.length; i++) {
+      java.lang.StringBuilder sb = new java.lang.StringBuilder();
+      for (int bit = 0; bit < 4; bit++) sb.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+      strings[i] = sb.toString();
+    }
+    int hash = strings[0].hashCode();
+    HashTableOpen h = new HashTableOpen();
+    for (String s : strings) assertNull(h.put(s, s));
+    assertNull(h.put(Integer.valueOf(hash), "int"));
+    assertEquals("AaAaAaAa", h.delete("AaAaAaAa"));
+    assertEquals("BBAaAaAa", h.delete("BBAaAaAa"));
+    assertEquals("int", h.get(hash));
+    assertTrue(h.containsKey(hash));
+    // Compare against HashMap under random mixes of Strings, Integers, and keys that
+    // are not Comparable, all with the same hash code, in both resize modes.
+    Object[] keys = new Object[40];
+    for (int i = 0; i < 32; i++) {
+      java.lang.StringBuilder sb = new java.lang.StringBuilder();
+      for (int bit = 0; bit < 5; bit++) sb.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+      keys[i] = sb.toString();
+    }
+    for (int i = 32; i < 40; i++) keys[i] = new CollidingKey(i);
+    for (int seed = 0; seed < 50; seed++) {
+      Random rand = new Random(seed);
+      HashTableOpen r = new HashTableOpen(seed % 2 == 0);
+      HashMap<Object, Integer> expected = new HashMap<>();
+      int sharedHash = keys[0].hashCode();
+      for (int i = 0; i < 2000; i++) {
+        int k = rand.nextInt(keys.length + 4);
+        // Integers with the same hash code as the Strings, and Longs whose hash code is 42, like
+        // the CollidingKeys.
+        Object key = (k < keys.length) ? keys[k]
+            : (k % 2 == 0) ? (Object) Integer.valueOf(sharedHash) : (Object) 42L;
+        if (rand.nextInt(3) != 0) assertEquals(expected.put(key, i), r.put(key, i));
+        else assertEquals(expected.remove(key), r.delete(key));
+      }
+      for (Object key : expected.keySet()) assertEquals(expected.get(key), r.get(key));
+      assertEquals(expected.containsKey(42L), r.containsKey(42L));
+    }
   }
 
   @Test
@@ -747,6 +917,611 @@ public class DataStructuresTests {
     assertEquals(999, h.delete(99));
     assertEquals(false, h.delete(22));
     assertNull(h.put(642, -612));
+    assertNull(h.put(Integer.MIN_VALUE, 1));
+    assertEquals(1, h.delete(Integer.MIN_VALUE));
+  }
+
+  @Test
+  public void testHashTableClosedRobinHood() {
+    HashTableClosed h = new HashTableClosed(true);
+    assertThrows(IllegalArgumentException.class, () -> h.put(null, 5));
+    assertNull(h.put(15, 16));
+    assertNull(h.put("hello", "ok"));
+    assertEquals(16, h.put(15, 17));
+    assertEquals(17, h.get(15));
+    assertEquals("ok", h.delete("hello"));
+    assertNull(h.delete("hello"));
+    assertFalse(h.containsKey("hello"));
+    assertEquals(17, h.delete(15));
+    // Multiples of the initial capacity share a home slot, so they form one long run that
+    // deletions must shift back.
+    for (int i = 0; i < 6; i++) assertNull(h.put(i * 10, i));
+    assertEquals(3, h.delete(30));
+    assertEquals(0, h.delete(0));
+    for (int i = 1; i < 6; i++) if (i != 3) assertEquals(i, h.get(i * 10));
+    // Compare against HashMap under a delete-heavy random workload, which would fill a
+    // tombstone table with tombstones.
+    HashTableClosed r = new HashTableClosed(true);
+    HashMap<Integer, Integer> expected = new HashMap<>();
+    Random rand = new Random(3);
+    for (int i = 0; i < 20000; i++) {
+      int key = rand.nextInt(300);
+      if (rand.nextInt(3) == 0) assertEquals(expected.put(key, i), r.put(key, i));
+      else assertEquals(expected.remove(key), r.delete(key));
+      assertEquals(expected.containsKey(key + 1), r.containsKey(key + 1));
+    }
+    for (int key = 0; key < 300; key++) assertEquals(expected.get(key), r.get(key));
+  }
+
+  @Test
+  public void testHashTableIncrementalResize() {
+    HashTableOpen open = new HashTableOpen(true);
+    checkHashTable(open::put, open::get, open::delete, open::containsKey);
+    HashTableClosed closed = new HashTableClosed(false, true);
+    checkHashTable(closed::put, closed::get, closed::delete, closed::containsKey);
+    HashTableClosed robinHood = new HashTableClosed(true, true);
+    checkHashTable(robinHood::put, robinHood::get, robinHood::delete, robinHood::containsKey);
+    // The resize policy is shared with the tables that resize all at once.
+    HashTableOpen openAtOnce = new HashTableOpen();
+    checkHashTable(openAtOnce::put, openAtOnce::get, openAtOnce::delete, openAtOnce::containsKey);
+    HashTableClosed closedAtOnce = new HashTableClosed();
+    checkHashTable(closedAtOnce::put, closedAtOnce::get, closedAtOnce::delete,
+            closedAtOnce::containsKey);
+  }
+
+  /**
+   * Compares a hash table against HashMap while it grows to thousands of keys, churns
+   * at a steady size (crossing resize thresholds in both directions), and shrinks back down, so
+   * that lookups and deletions happen while a resize is in progress.
+   * @param put the hash table's put method
+   * @param get the hash table's get method
+   * @param delete the hash table's delete method
+   * @param containsKey the hash table's containsKey method
+   */
+  private static void checkHashTable(BiFunction<Object, Object, Object> put,
+          Function<Object, Object> get,
+          Function<Object, Object> delete,
+          Predicate<Object> containsKey) {
+    HashMap<Object, Object> expected = new HashMap<>();
+    Random rand = new Random(13);
+    for (int i = 0; i < 5000; i++) assertEquals(expected.put(i, i), put.apply(i, i));
+    for (int i = 0; i < 30000; i++) {
+      int key = rand.nextInt(6000);
+      switch (rand.nextInt(3)) {
+        case 0 -> assertEquals(expected.put(key, i), put.apply(key, i));
+        case 1 -> assertEquals(expected.remove(key), delete.apply(key));
+        default -> assertEquals(expected.containsKey(key), containsKey.test(key));
+      }
+      assertEquals(expected.get(key + 1), get.apply(key + 1));
+    }
+    for (int key = 0; key < 6000; key++) {
+      assertEquals(expected.get(key), get.apply(key));
+      assertEquals(expected.remove(key), delete.apply(key));
+    }
+    assertNull(put.apply(1, 1));
+  }
+
+  /**
+   * Runs checkHashTable on a hash table whose keys and values are byte arrays, encoding each
+   * Integer key and value as its decimal digits, so that replacing a value can change its length.
+   * @param put the hash table's put method
+   * @param get the hash table's get method
+   * @param delete the hash table's delete method
+   * @param containsKey the hash table's containsKey method
+   */
+  private static void checkBinaryHashTable(BiPredicate<byte[], byte[]> put,
+          Function<byte[], byte[]> get,
+          Predicate<byte[]> delete,
+          Predicate<byte[]> containsKey) {
+    Function<Object, byte[]> encode =
+        o -> o.toString().getBytes(StandardCharsets.UTF_8);
+    Function<byte[], Object> decode =
+        b -> (b == null) ? null : Integer.valueOf(new String(b, StandardCharsets.UTF_8));
+    checkHashTable((k, v) -> {
+      Object oldValue = decode.apply(get.apply(encode.apply(k)));
+      assertEquals(oldValue != null, put.test(encode.apply(k), encode.apply(v)));
+      return oldValue;
+    }, k -> decode.apply(get.apply(encode.apply(k))), k -> {
+      Object oldValue = decode.apply(get.apply(encode.apply(k)));
+      assertEquals(oldValue != null, delete.test(encode.apply(k)));
+      return oldValue;
+    }, k -> containsKey.test(encode.apply(k)));
+  }
+
+  @Test
+  public void testHashTableSwiss() {
+    HashTableSwiss h = new HashTableSwiss();
+    assertThrows(IllegalArgumentException.class, () -> h.put(null, null));
+    assertThrows(IllegalArgumentException.class, () -> h.put(12, null));
+    assertThrows(IllegalArgumentException.class, () -> h.get(null));
+    assertThrows(IllegalArgumentException.class, () -> h.delete(null));
+    assertThrows(IllegalArgumentException.class, () -> h.containsKey(null));
+    assertNull(h.put(15, 16));
+    assertNull(h.put("hello", "ok"));
+    assertNull(h.put(Integer.MIN_VALUE, 1));
+    assertEquals(16, h.put(15, 17));
+    assertEquals(3, h.size());
+    assertEquals(17, h.get(15));
+    assertEquals(1, h.get(Integer.MIN_VALUE));
+    assertNull(h.get(84));
+    assertEquals("ok", h.delete("hello"));
+    assertNull(h.delete("hello"));
+    assertFalse(h.containsKey("hello"));
+    assertTrue(h.containsKey(15));
+    // Keys with equal hash codes always have equal tags, so equals must tell them apart.
+    for (int i = 0; i < 100; i++) assertNull(h.put(new CollidingKey(i), i));
+    for (int i = 0; i < 100; i += 2) assertEquals(i, h.delete(new CollidingKey(i)));
+    for (int i = 0; i < 100; i++)
+      assertEquals((i % 2 == 0) ? null : i, h.get(new CollidingKey(i)));
+    assertEquals(52, h.size());
+    // Compare against HashMap under a random mix of insertions and deletions, which
+    // leaves DELETED slots behind and forces rehashes in both directions.
+    HashTableSwiss r = new HashTableSwiss();
+    HashMap<Integer, Integer> expected = new HashMap<>();
+    Random rand = new Random(5);
+    for (int i = 0; i < 50000; i++) {
+      int key = rand.nextInt((i < 25000) ? 4000 : 400);
+      if (rand.nextInt(3) != 0) assertEquals(expected.put(key, i), r.put(key, i));
+      else assertEquals(expected.remove(key), r.delete(key));
+    }
+    assertEquals(expected.size(), r.size());
+    for (int key = 0; key < 4000; key++) assertEquals(expected.get(key), r.get(key));
+    // Churning a few keys fills the table with DELETED slots. Reclaiming them must not double the
+    // capacity so far that the table drops below the minimum load and the next delete halves it.
+    HashTableSwiss churned = new HashTableSwiss();
+    Random churn = new Random(2);
+    for (int i = 0; i < 5000; i++) {
+      int key = churn.nextInt(40);
+      if (churn.nextInt(2) == 0) churned.put(key, i);
+      else churned.delete(key);
+      assertTrue(churned.capacity() == 16 || churned.size() >= churned.capacity() / 4);
+    }
+  }
+
+  @Test
+  public void testHashTableCuckoo() {
+    HashTableCuckoo h = new HashTableCuckoo();
+    assertThrows(IllegalArgumentException.class, () -> h.put(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> h.put(1, null));
+    assertThrows(IllegalArgumentException.class, () -> h.get(null));
+    assertThrows(IllegalArgumentException.class, () -> h.delete(null));
+    assertThrows(IllegalArgumentException.class, () -> h.containsKey(null));
+    // Keys with equal hash codes share the same two buckets of 4 slots, so the ninth and later
+    // keys go in the stash.
+    for (int i = 0; i < 12; i++) assertNull(h.put(new CollidingKey(i), i));
+    assertEquals(16, h.capacity());
+    assertEquals(4, h.stashSize());
+    // The stash is full, so the next key forces a rehash at twice the size with new hash
+    // functions, although the table is below its maximum load factor.
+    assertNull(h.put(new CollidingKey(12), 12));
+    assertEquals(32, h.capacity());
+    // The keys still share two buckets after the rehash, so the stash grows instead of the table
+    // rehashing again.
+    assertEquals(5, h.stashSize());
+    for (int i = 13; i < 20; i++) assertNull(h.put(new CollidingKey(i), i));
+    assertEquals(32, h.capacity());
+    assertEquals(12, h.stashSize());
+    for (int i = 0; i < 20; i++) assertEquals(i, h.put(new CollidingKey(i), -i));
+    for (int i = 0; i < 20; i++) assertTrue(h.containsKey(new CollidingKey(i)));
+    // A deletion from the buckets frees a slot, which a stashed record moves back into, so the
+    // buckets stay full until the stash is empty.
+    for (int i = 0; i < 20; i++) {
+      assertEquals(-i, h.delete(new CollidingKey(i)));
+      assertEquals(Math.max(0, h.size() - 8), h.stashSize());
+    }
+    assertNull(h.get(new CollidingKey(0)));
+    assertEquals(0, h.size());
+    // The stash empties once the colliding keys are gone, so a later overflow rehashes again.
+    assertEquals(16, h.capacity());
+    for (int i = 0; i < 13; i++) assertNull(h.put(new CollidingKey(i), i));
+    assertEquals(32, h.capacity());
+    assertEquals(5, h.stashSize());
+    HashTableCuckoo r = new HashTableCuckoo();
+    checkHashTable(r::put, r::get, r::delete, r::containsKey);
+  }
+
+  @Test
+  public void testHashTableStats() throws IOException {
+    HashTableClosed c = new HashTableClosed();
+    assertThrows(IllegalStateException.class, c::stats);
+    c.enableStats();
+    for (int i = 0; i < 100; i++) c.put(i, i);
+    for (int i = 0; i < 200; i++) c.get(i);
+    for (int i = 0; i < 50; i++) c.delete(i);
+    c.containsKey(99);
+    HashTableStats.Snapshot s = c.stats();
+    assertEquals(50, s.size());
+    assertEquals(100, s.operations(HashTableStats.Operation.PUT));
+    assertEquals(201, s.operations(HashTableStats.Operation.GET));
+    assertEquals(50, s.operations(HashTableStats.Operation.DELETE));
+    assertEquals(50, s.tombstones());
+    assertEquals((double) s.size() / s.capacity(), s.loadFactor());
+    assertEquals((double) s.tombstones() / s.capacity(), s.tombstoneRatio());
+    assertTrue(s.rehashes() > 0);
+    assertTrue(s.recordsMoved() > 0);
+    assertTrue(s.meanProbes(HashTableStats.Operation.GET) >= 0.5);
+    long[] histogram = s.probeHistogram(HashTableStats.Operation.GET);
+    assertEquals(HashTableStats.MAX_EXACT_PROBES + 2, histogram.length);
+    histogram[0] = -1; // Snapshots cannot be modified.
+    assertEquals(s.operations(HashTableStats.Operation.GET),
+        Arrays.stream(s.probeHistogram(HashTableStats.Operation.GET)).sum());
+    // Keys with equal hash codes make every lookup probe past all of the keys inserted before.
+    HashTableClosed colliding = new HashTableClosed();
+    colliding.enableStats();
+    for (int i = 0; i < 40; i++) colliding.put(new CollidingKey(i), i);
+    colliding.get(new CollidingKey(39));
+    HashTableStats.Snapshot cs = colliding.stats();
+    assertEquals(40, cs.maxProbes(HashTableStats.Operation.GET));
+    assertEquals(1, cs.probeHistogram(HashTableStats.Operation.GET)[
+        HashTableStats.MAX_EXACT_PROBES + 1]);
+    // The same statistics are collected for open hashing, where probes count records compared.
+    HashTableOpen o = new HashTableOpen(true);
+    o.enableStats();
+    for (int i = 0; i < 5; i++) o.put(new CollidingKey(i), i);
+    assertEquals(4, o.get(new CollidingKey(4)));
+    assertNull(o.get(new CollidingKey(5)));
+    for (int i = 0; i < 1000; i++) o.put(i, i);
+    HashTableStats.Snapshot os = o.stats();
+    assertEquals(1005, os.size());
+    assertEquals(0, os.tombstones());
+    assertEquals(5, os.maxProbes(HashTableStats.Operation.GET));
+    assertEquals(2, os.operations(HashTableStats.Operation.GET));
+    assertTrue(os.rehashes() > 0);
+    assertTrue(os.recordsMoved() > 0);
+    assertTrue(os.rehashNanos() > 0);
+    assertTrue(os.toString().startsWith("size=1005 "));
+    // The JFR event of an incremental rehash is committed once its migration is complete, with
+    // the records moved by all of its steps.
+    Path jfrFile = Files.createTempFile("rehash", ".jfr");
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable("dataStructures.Rehash");
+      recording.start();
+      HashTableClosed incremental = new HashTableClosed(false, true);
+      incremental.enableStats();
+      for (int i = 0; i < 1000; i++) incremental.put(i, i);
+      recording.stop();
+      recording.dump(jfrFile);
+      events = RecordingFile.readAllEvents(jfrFile);
+    } finally {
+      Files.delete(jfrFile);
+    }
+    assertFalse(events.isEmpty());
+    for (RecordedEvent event : events) {
+      assertEquals("HashTableClosed", event.getString("tableClass"));
+      assertEquals(2 * event.getInt("oldCapacity"), event.getInt("newCapacity"));
+      assertTrue(event.getLong("recordsMoved") > 0);
+    }
+  }
+
+  /**
+   * Key whose instances all have the same hash code, for testing collision handling.
+   */
+  private static final class CollidingKey {
+    private final int id;
+
+    private CollidingKey(int id) { this.id = id; }
+
+    @Override
+    public boolean equals(Object o) {
+      return (o instanceof CollidingKey) && ((CollidingKey) o).id == id;
+    }
+
+    @Override
+    public int hashCode() { return 42; }
+  }
+
+  @Test
+  public void testConcurrentHashTable() throws InterruptedException {
+    ConcurrentHashTable<Object, String> h = new ConcurrentHashTable<>();
+    assertThrows(IllegalArgumentException.class, () -> h.put(null, "a"));
+    assertThrows(IllegalArgumentException.class, () -> h.put(1, null));
+    assertThrows(IllegalArgumentException.class, () -> h.get(null));
+    assertThrows(IllegalArgumentException.class, () -> h.delete(null));
+    assertTrue(h.isEmpty());
+    assertNull(h.put(15, "a"));
+    assertEquals("a", h.put(15, "b"));
+    assertEquals("b", h.putIfAbsent(15, "c"));
+    assertNull(h.putIfAbsent(Integer.MIN_VALUE, "d"));
+    assertEquals("d", h.get(Integer.MIN_VALUE));
+    assertEquals("b", h.computeIfAbsent(15, k -> "e"));
+    assertEquals("f", h.computeIfAbsent(16, k -> "f"));
+    assertNull(h.computeIfAbsent(17, k -> null));
+    assertFalse(h.containsKey(17));
+    assertEquals(3, h.size());
+    assertEquals("b", h.delete(15));
+    assertNull(h.delete(15));
+    assertNull(h.get(15));
+    for (int i = 0; i < 100; i++) assertNull(h.put(new CollidingKey(i), "" + i));
+    for (int i = 0; i < 100; i += 2) assertEquals("" + i, h.delete(new CollidingKey(i)));
+    for (int i = 0; i < 100; i++)
+      assertEquals((i % 2 == 0) ? null : "" + i, h.get(new CollidingKey(i)));
+    assertEquals(52, h.size());
+    // Insert disjoint keys from several threads at once, which forces many cooperative resizes,
+    // while every thread also computes the same shared keys, and check that no insertion is lost
+    // and that each shared key's value is computed exactly once.
+    ConcurrentHashTable<Integer, Integer> shared = new ConcurrentHashTable<>();
+    int threadCount = 4, perThread = 20000, sharedKeys = 1000;
+    AtomicInteger computed = new AtomicInteger();
+    List<Thread> threads = new java.util.ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      int threadId = t;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          int key = sharedKeys + threadId * perThread + i;
+          shared.put(key, key);
+          if (i % 3 == 0) shared.put(key, -key);
+          shared.computeIfAbsent(i % sharedKeys, k -> {
+            computed.incrementAndGet();
+            return k;
+          });
+        }
+      }));
+    }
+    for (Thread thread : threads) thread.start();
+    for (Thread thread : threads) thread.join();
+    assertEquals(sharedKeys, computed.get());
+    assertEquals(sharedKeys + threadCount * perThread, shared.size());
+    for (int key = 0; key < sharedKeys; key++) assertEquals(key, shared.get(key));
+    for (int t = 0; t < threadCount; t++) {
+      for (int i = 0; i < perThread; i++) {
+        int key = sharedKeys + t * perThread + i;
+        assertEquals((i % 3 == 0) ? -key : key, shared.get(key));
+      }
+    }
+    // Flood one bucket with thousands of keys sharing a hash code, both Comparable ones (kept in
+    // a tree ordered by compareTo) and others (chained in one tree node), and replace and delete
+    // the oldest, which is at the end of its chain.
+    ConcurrentHashTable<Object, Integer> flooded = new ConcurrentHashTable<>();
+    int floodSize = 20000;
+    String[] flood = new String[floodSize];
+    for (int i = 0; i < floodSize; i++) {
+      java.lang.StringBuilder sb = new java.lang.StringBuilder();
+      for (int bit = 0; bit < 15; bit++) sb.append(((i >> bit) & 1) == 0 ? "Aa" : "BB");
+      flood[i] = sb.toString();
+      assertNull(flooded.put(flood[i], i));
+    }
+    for (int i = 0; i < 5000; i++) assertNull(flooded.put(new CollidingKey(i), -i));
+    assertEquals(0, flooded.put(flood[0], 1));
+    assertEquals(0, flooded.put(new CollidingKey(0), 1));
+    assertEquals(1, flooded.delete(flood[0]));
+    assertEquals(1, flooded.delete(new CollidingKey(0)));
+    assertNull(flooded.get(flood[0]));
+    assertNull(flooded.get(new CollidingKey(0)));
+    assertEquals(floodSize + 5000 - 2, flooded.size());
+    for (int i = 1; i < floodSize; i++) assertEquals(i, flooded.get(flood[i]));
+    for (int i = 1; i < 5000; i++) assertEquals(-i, flooded.get(new CollidingKey(i)));
+    // Delete down to a few keys, so the tree is converted back to a chain.
+    for (int i = 1; i < floodSize - 3; i++) assertEquals(i, flooded.delete(flood[i]));
+    for (int i = 1; i < 5000; i++) assertEquals(-i, flooded.delete(new CollidingKey(i)));
+    assertEquals(3, flooded.size());
+    for (int i = floodSize - 3; i < floodSize; i++) assertEquals(i, flooded.get(flood[i]));
+    // Write colliding keys from several threads at once, while other keys force resizes that move
+    // the tree.
+    ConcurrentHashTable<Object, Integer> contended = new ConcurrentHashTable<>();
+    threads.clear();
+    for (int t = 0; t < threadCount; t++) {
+      int threadId = t;
+      threads.add(new Thread(() -> {
+        for (int i = threadId; i < 4000; i += threadCount) {
+          contended.put(flood[i], i);
+          contended.put(i + 1000000 * (threadId + 1), i);
+          if (i % 2 == 0) contended.delete(flood[i]);
+        }
+      }));
+    }
+    for (Thread thread : threads) thread.start();
+    for (Thread thread : threads) thread.join();
+    assertEquals(6000, contended.size());
+    for (int i = 0; i < 4000; i++) assertEquals((i % 2 == 0) ? null : i, contended.get(flood[i]));
+  }
+
+  @Test
+  public void testOffHeapHashTable() {
+    assertThrows(IllegalArgumentException.class, () -> new OffHeapHashTable(100));
+    OffHeapHashTable h = new OffHeapHashTable(1 << 20);
+    byte[] hello = "hello".getBytes(StandardCharsets.UTF_8);
+    assertThrows(IllegalArgumentException.class, () -> h.put(null, hello));
+    assertThrows(IllegalArgumentException.class, () -> h.put(hello, null));
+    assertThrows(IllegalArgumentException.class, () -> h.get(null));
+    assertFalse(h.put(hello, new byte[] {1, 2}));
+    assertTrue(h.put(hello, new byte[] {3, 4})); // Same length, so overwritten in place.
+    assertArrayEquals(new byte[] {3, 4}, h.get(hello));
+    assertTrue(h.put(hello, new byte[] {5}));
+    assertArrayEquals(new byte[] {5}, h.get(hello));
+    assertFalse(h.put(new byte[0], new byte[0]));
+    assertArrayEquals(new byte[0], h.get(new byte[0]));
+    assertNull(h.get(new byte[] {1}));
+    assertEquals(2, h.size());
+    assertTrue(h.delete(hello));
+    assertFalse(h.delete(hello));
+    assertFalse(h.containsKey(hello));
+    // Replacements with values of different lengths, and deletions, leave garbage that is
+    // compacted, while the index resizes in both directions.
+    checkBinaryHashTable(h::put, h::get, h::delete, h::containsKey);
+    assertEquals(2, h.size());
+    assertArrayEquals(new byte[0], h.get(new byte[0]));
+    assertTrue(h.memoryBytes() <= 1 << 20);
+    // Filling the table past its byte limit fails without corrupting it.
+    OffHeapHashTable small = new OffHeapHashTable(8192);
+    byte[] big = new byte[1000];
+    assertThrows(IllegalStateException.class, () -> {
+      for (int i = 0; ; i++) small.put(new byte[] {(byte) i}, big);
+    });
+    assertTrue(small.memoryBytes() <= 8192);
+    for (int i = 0; i < small.size(); i++) assertArrayEquals(big, small.get(new byte[] {(byte) i}));
+    small.close();
+    assertThrows(IllegalStateException.class, () -> small.get(hello));
+  }
+
+  @Test
+  public void testMappedHashTable() throws IOException {
+    Path dir = Files.createTempDirectory("mapped");
+    Path file = dir.resolve("table");
+    try {
+      assertThrows(IOException.class, () -> new MappedHashTable(file, true)); // No file yet.
+      MappedHashTable h = new MappedHashTable(file, false);
+      byte[] hello = "hello".getBytes(StandardCharsets.UTF_8);
+      assertThrows(IllegalArgumentException.class, () -> h.put(null, hello));
+      assertThrows(IllegalArgumentException.class, () -> h.get(null));
+      assertFalse(h.put(hello, new byte[] {1, 2}));
+      assertTrue(h.put(hello, new byte[] {3}));
+      assertArrayEquals(new byte[] {3}, h.get(hello));
+      assertTrue(h.delete(hello));
+      assertFalse(h.delete(hello));
+      assertNull(h.get(hello));
+      // The workload extends the file, and rehashes it both to grow and to reclaim garbage.
+      checkBinaryHashTable((key, value) -> {
+        try { return h.put(key, value); }
+        catch (IOException e) { throw new UncheckedIOException(e); }
+      }, h::get, h::delete, h::containsKey);
+      // Leave a known set of records in the file, including the one the workload left behind.
+      HashMap<Integer, byte[]> expected = new HashMap<>();
+      expected.put(1, "1".getBytes(StandardCharsets.UTF_8));
+      for (int k = 3; k < 2000; k += 3) {
+        byte[] value = Integer.toString(k * k).getBytes(StandardCharsets.UTF_8);
+        expected.put(k, value);
+        assertFalse(h.put(Integer.toString(k).getBytes(StandardCharsets.UTF_8), value));
+      }
+      h.close();
+      h.close();
+      assertThrows(IllegalStateException.class, () -> h.get(hello));
+      // Reopen the file read-only, twice at once, and check that every record survived.
+      try (MappedHashTable r1 = new MappedHashTable(file, true);
+          MappedHashTable r2 = new MappedHashTable(file, true)) {
+        assertEquals(expected.size(), r1.size());
+        for (int k = 0; k < 2000; k++) {
+          byte[] key = Integer.toString(k).getBytes(StandardCharsets.UTF_8);
+          assertArrayEquals(expected.get(k), r1.get(key));
+          assertArrayEquals(expected.get(k), r2.get(key));
+        }
+        assertThrows(IllegalStateException.class, () -> r1.put(hello, hello));
+        assertThrows(IllegalStateException.class, () -> r1.delete(hello));
+      }
+      // A file whose header was damaged is rejected.
+      byte[] bytes = Files.readAllBytes(file);
+      bytes[20] ^= 1;
+      Files.write(file, bytes);
+      assertThrows(IOException.class, () -> new MappedHashTable(file, false));
+    }
+    finally {
+      Files.deleteIfExists(file);
+      Files.delete(dir);
+    }
+  }
+
+  @Test
+  public void testCache() {
+    assertThrows(IllegalArgumentException.class, () -> new Cache<String, String>(0));
+    Cache<String, Integer> lru = new Cache<>(3);
+    assertThrows(IllegalArgumentException.class, () -> lru.put(null, 1));
+    assertThrows(IllegalArgumentException.class, () -> lru.get(null));
+    lru.put("a", 1);
+    lru.put("b", 2);
+    lru.put("c", 3);
+    assertEquals(1, lru.get("a")); // Now "b" is the least recently used.
+    lru.put("d", 4);
+    assertNull(lru.get("b"));
+    assertEquals(3, lru.size());
+    assertEquals(1, lru.evictionCount());
+    assertEquals(1, lru.hitCount());
+    assertEquals(1, lru.missCount());
+    assertEquals(0.5, lru.hitRate());
+    lru.put("c", 30);
+    assertEquals(30, lru.get("c"));
+    assertEquals(4, lru.invalidate("d"));
+    assertNull(lru.invalidate("d"));
+    assertEquals(2, lru.size());
+    // The loader is only called for keys that are not cached.
+    AtomicInteger loads = new AtomicInteger();
+    for (int i = 0; i < 3; i++) {
+      assertEquals(5, lru.computeIfAbsent("e", k -> {
+        loads.incrementAndGet();
+        return 5;
+      }));
+    }
+    assertEquals(1, loads.get());
+    assertNull(lru.computeIfAbsent("f", k -> null));
+    assertFalse(lru.size() > 3);
+    // Entries are weighed, and an entry heavier than the maximum weight is not cached.
+    Cache<String, String> weighted =
+        new Cache<>(10, (k, v) -> v.length(), Cache.Policy.LRU, 0, System::nanoTime);
+    weighted.put("a", "12345");
+    weighted.put("b", "1234");
+    assertEquals(9, weighted.weight());
+    weighted.put("c", "12");
+    assertNull(weighted.get("a"));
+    assertEquals(6, weighted.weight());
+    weighted.put("d", "12345678901");
+    assertNull(weighted.get("d"));
+    // Entries expire a fixed time after they were written.
+    AtomicLong now = new AtomicLong();
+    Cache<String, Integer> expiring = new Cache<>(10, null, Cache.Policy.LRU, 100, now::get);
+    expiring.put("a", 1);
+    now.set(50);
+    expiring.put("b", 2);
+    assertEquals(1, expiring.get("a"));
+    now.set(100);
+    assertNull(expiring.get("a"));
+    assertEquals(2, expiring.get("b"));
+    now.set(150);
+    assertNull(expiring.get("b"));
+    assertEquals(0, expiring.size());
+    // Under TinyLFU, a scan over many keys that are each requested once does not flush keys that
+    // are requested often, whereas under LRU it does.
+    for (Cache.Policy policy : Cache.Policy.values()) {
+      Cache<Integer, Integer> c = new Cache<>(100, policy);
+      for (int round = 0; round < 20; round++) {
+        for (int hot = 0; hot < 50; hot++) c.computeIfAbsent(hot, k -> k);
+      }
+      for (int i = 1000; i < 2000; i++) c.computeIfAbsent(i, k -> k);
+      int hotCached = 0;
+      for (int hot = 0; hot < 50; hot++) if (c.get(hot) != null) hotCached++;
+      if (policy == Cache.Policy.TINY_LFU) assertTrue(hotCached >= 45);
+      else assertEquals(0, hotCached);
+      assertTrue(c.size() <= 100);
+      assertEquals(c.size(), c.weight());
+    }
+  }
+
+  @Test
+  public void testBloomFilter() {
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    BloomFilter sized = new BloomFilter(1000, 0.01);
+    assertEquals(9600, sized.bitSize()); // 9585 bits, rounded up to a whole number of longs.
+    assertEquals(7, sized.hashCount());
+    for (boolean blocked : new boolean[] {false, true}) {
+      int n = 10000;
+      BloomFilter f = new BloomFilter(n, 0.01, blocked);
+      assertThrows(IllegalArgumentException.class, () -> f.add(null));
+      assertFalse(f.mightContain("absent"));
+      for (int i = 0; i < n; i++) f.add("key" + i);
+      // No false negatives, and about the requested rate of false positives.
+      for (int i = 0; i < n; i++) assertTrue(f.mightContain("key" + i));
+      int falsePositives = 0;
+      for (int i = n; i < 11 * n; i++) if (f.mightContain("key" + i)) falsePositives++;
+      assertTrue(falsePositives < 0.02 * 10 * n);
+      assertTrue(f.estimatedFalsePositiveRate() < 0.02);
+      // Merging two filters gives the filter of the union of their keys.
+      BloomFilter a = new BloomFilter(n, 0.01, blocked), b = new BloomFilter(n, 0.01, blocked);
+      for (int i = 0; i < n / 2; i++) a.add("key" + i);
+      for (int i = n / 2; i < n; i++) b.add("key" + i);
+      a.merge(b);
+      for (int i = 0; i < n; i++) assertTrue(a.mightContain("key" + i));
+      assertEquals(f.estimatedFalsePositiveRate(), a.estimatedFalsePositiveRate());
+      assertThrows(IllegalArgumentException.class, () -> a.merge(new BloomFilter(n, 0.1)));
+      // At a low rate, where many hashes make a blocked filter sensitive to uneven blocks, the
+      // measured rate and the estimate must both stay near the requested rate. Integer keys
+      // with distinct hash codes keep hash code collisions out of the measurement.
+      BloomFilter low = new BloomFilter(n, 0.001, blocked);
+      for (int i = 0; i < n; i++) low.add(i * 2);
+      falsePositives = 0;
+      for (int i = 0; i < 100 * n; i++) if (low.mightContain(i * 2 + 1)) falsePositives++;
+      assertTrue(falsePositives < 0.0015 * 100 * n);
+      assertTrue(low.estimatedFalsePositiveRate() < 0.0015);
+      assertTrue(low.estimatedFalsePositiveRate() > 0.0005);
+    }
   }
 
   @Test
@@ -777,6 +1552,322 @@ public class DataStructuresTests {
     assertThrows(NoSuchElementException.class, q::remove);
   }
 
+  @Test
+  public void testArrayDeque() {
+    ArrayDeque<String> d = new ArrayDeque<>();
+    assertTrue(d.isEmpty());
+    assertThrows(NoSuchElementException.class, d::peek);
+    assertThrows(NoSuchElementException.class, d::pop);
+    assertThrows(NoSuchElementException.class, d::remove);
+    assertThrows(NoSuchElementException.class, d::removeLast);
+    assertThrows(NoSuchElementException.class, d::peekLast);
+    // Test usage as a stack.
+    d.push("hello");
+    assertFalse(d.isEmpty());
+    d.push("hi");
+    assertEquals("hi", d.peek());
+    assertEquals("hi", d.pop());
+    assertEquals("hello", d.pop());
+    assertTrue(d.isEmpty());
+    // Test usage as a queue.
+    d.add("hello");
+    d.add("hi");
+    assertEquals("hello", d.peek());
+    assertEquals("hi", d.peekLast());
+    assertEquals("hello", d.remove());
+    assertEquals("hi", d.remove());
+    // Wrap around the end of the backing array, then force it to grow.
+    ArrayDeque<Integer> q = new ArrayDeque<>(3);
+    for (int i = 0; i < 10; i++) q.add(i);
+    for (int i = 0; i < 10; i++) assertEquals(i, q.remove());
+    for (int i = 0; i < 12; i++) q.add(i);
+    for (int i = -1; i >= -12; i--) q.addFirst(i);
+    assertEquals(24, q.size());
+    int expected = -12;
+    for (int i : q) assertEquals(expected++, i);
+    assertEquals(11, q.removeLast());
+    assertEquals(-12, q.removeFirst());
+    assertEquals(22, q.size());
+    Iterator<Integer> it = q.iterator();
+    q.add(99);
+    assertThrows(ConcurrentModificationException.class, it::next);
+    q.clear();
+    assertTrue(q.isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> new ArrayDeque<>(Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testIntDeque() {
+    IntDeque d = new IntDeque();
+    assertTrue(d.isEmpty());
+    assertThrows(NoSuchElementException.class, d::peek);
+    assertThrows(NoSuchElementException.class, d::pop);
+    assertThrows(NoSuchElementException.class, d::remove);
+    d.push(1);
+    d.push(2);
+    assertEquals(2, d.peek());
+    assertEquals(2, d.pop());
+    assertEquals(1, d.pop());
+    for (int i = 0; i < 40; i++) d.add(i);
+    for (int i = 0; i < 20; i++) assertEquals(i, d.remove());
+    for (int i = 40; i < 70; i++) d.addLast(i);
+    assertEquals(50, d.size());
+    assertEquals(20, d.peekFirst());
+    assertEquals(69, d.peekLast());
+    assertEquals(69, d.removeLast());
+    for (int i = 20; i < 69; i++) assertEquals(i, d.removeFirst());
+    assertTrue(d.isEmpty());
+  }
+
+  @Test
+  public void testLongDeque() {
+    LongDeque d = new LongDeque(100);
+    long big = 1L << 50;
+    assertThrows(NoSuchElementException.class, d::peekLast);
+    d.push(big);
+    d.push(big + 1);
+    assertEquals(big + 1, d.pop());
+    assertEquals(big, d.pop());
+    for (int i = 0; i < 300; i++) d.addFirst(big + i);
+    assertEquals(300, d.size());
+    assertEquals(big, d.peekLast());
+    for (int i = 299; i >= 0; i--) assertEquals(big + i, d.remove());
+    d.add(7);
+    d.clear();
+    assertTrue(d.isEmpty());
+  }
+
+  @Test
+  public void testConcurrentRingQueue() throws InterruptedException {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrentRingQueue<String>(0));
+    ConcurrentRingQueue<String> q = new ConcurrentRingQueue<>(3);
+    assertEquals(4, q.capacity());
+    assertTrue(q.isEmpty());
+    assertNull(q.poll());
+    assertThrows(IllegalArgumentException.class, () -> q.offer(null));
+    assertTrue(q.offer("a"));
+    assertTrue(q.offer("b"));
+    assertTrue(q.offer("c"));
+    assertTrue(q.offer("d"));
+    assertFalse(q.offer("e"));
+    assertEquals(4, q.size());
+    assertEquals("a", q.poll());
+    assertTrue(q.offer("e"));
+    List<String> drained = new java.util.ArrayList<>();
+    assertEquals(3, q.drainTo(drained::add, 3));
+    assertEquals(List.of("b", "c", "d"), drained);
+    assertEquals("e", q.take());
+    assertEquals(0, q.drainTo(drained::add, 10));
+    // Hand off elements between several producers and consumers, and check that every element
+    // is received exactly once.
+    for (ConcurrentRingQueue.WaitStrategy strategy : ConcurrentRingQueue.WaitStrategy.values()) {
+      ConcurrentRingQueue<Integer> mpmc = new ConcurrentRingQueue<>(64, strategy);
+      int threadCount = 4, perProducer = 2000;
+      AtomicLong sum = new AtomicLong();
+      AtomicInteger received = new AtomicInteger();
+      List<Thread> threads = new java.util.ArrayList<>();
+      for (int t = 0; t < threadCount; t++) {
+        int producerId = t;
+        threads.add(new Thread(() -> {
+          try {
+            for (int i = 0; i < perProducer; i++) mpmc.put(producerId * perProducer + i);
+          }
+          catch (InterruptedException e) { throw new RuntimeException(e); }
+        }));
+        threads.add(new Thread(() -> {
+          try {
+            for (int i = 0; i < perProducer; i++) {
+              sum.addAndGet(mpmc.take());
+              received.incrementAndGet();
+            }
+          }
+          catch (InterruptedException e) { throw new RuntimeException(e); }
+        }));
+      }
+      for (Thread thread : threads) thread.start();
+      for (Thread thread : threads) thread.join();
+      long n = (long) threadCount * perProducer;
+      assertEquals(n, received.get());
+      assertEquals(n * (n - 1) / 2, sum.get());
+      assertTrue(mpmc.isEmpty());
+    }
+  }
+
+  @Test
+  public void testConcurrentStack() throws InterruptedException {
+    assertThrows(IllegalArgumentException.class, () -> new ConcurrentStack<String>(0));
+    ConcurrentStack<String> s = new ConcurrentStack<>();
+    assertTrue(s.isEmpty());
+    assertThrows(NoSuchElementException.class, s::pop);
+    assertThrows(NoSuchElementException.class, s::peek);
+    s.push("a");
+    s.push("b");
+    assertEquals("b", s.peek());
+    assertEquals("b", s.pop());
+    assertEquals("a", s.pop());
+    assertTrue(s.isEmpty());
+    // Push and pop from several threads at once, and check that every pushed element is popped
+    // exactly once, whether through the top of the stack or through the elimination array.
+    ConcurrentStack<Integer> shared = new ConcurrentStack<>(2);
+    int threadCount = 4, perThread = 5000;
+    AtomicLong sum = new AtomicLong();
+    List<Thread> threads = new java.util.ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      int threadId = t;
+      threads.add(new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          shared.push(threadId * perThread + i);
+          sum.addAndGet(shared.pop()); // Never empty, since this thread has just pushed.
+        }
+      }));
+    }
+    for (Thread thread : threads) thread.start();
+    for (Thread thread : threads) thread.join();
+    long n = (long) threadCount * perThread;
+    assertEquals(n * (n - 1) / 2, sum.get());
+    assertTrue(shared.isEmpty());
+  }
+
+  @Test
+  public void testWorkStealingDeque() throws InterruptedException {
+    WorkStealingDeque<Integer> d = new WorkStealingDeque<>();
+    assertTrue(d.isEmpty());
+    assertNull(d.pop());
+    assertNull(d.steal());
+    assertThrows(IllegalArgumentException.class, () -> d.push(null));
+    for (int i = 0; i < 40; i++) d.push(i); // Forces the array to grow twice.
+    assertEquals(40, d.size());
+    assertEquals(39, d.pop());
+    assertEquals(0, d.steal());
+    assertEquals(1, d.steal());
+    assertEquals(38, d.pop());
+    assertEquals(36, d.size());
+    while (d.pop() != null);
+    assertTrue(d.isEmpty());
+    // Have the owner push and pop while several thieves steal, and check that every element is
+    // removed exactly once.
+    WorkStealingDeque<Integer> shared = new WorkStealingDeque<>();
+    int n = 20000, thiefCount = 3;
+    AtomicLong sum = new AtomicLong();
+    AtomicInteger removed = new AtomicInteger();
+    List<Thread> thieves = new java.util.ArrayList<>();
+    for (int t = 0; t < thiefCount; t++) {
+      thieves.add(new Thread(() -> {
+        while (removed.get() < n) {
+          Integer stolen = shared.steal();
+          if (stolen != null) {
+            sum.addAndGet(stolen);
+            removed.incrementAndGet();
+          }
+        }
+      }));
+    }
+    for (Thread thief : thieves) thief.start();
+    for (int i = 0; i < n; i++) {
+      shared.push(i);
+      if (i % 3 == 0) {
+        Integer popped = shared.pop();
+        if (popped != null) {
+          sum.addAndGet(popped);
+          removed.incrementAndGet();
+        }
+      }
+    }
+    Integer popped;
+    while ((popped = shared.pop()) != null) {
+      sum.addAndGet(popped);
+      removed.incrementAndGet();
+    }
+    for (Thread thief : thieves) thief.join();
+    assertEquals(n, removed.get());
+    assertEquals((long) n * (n - 1) / 2, sum.get());
+  }
+
+  @Test
+  public void testWorkStealingExecutor() {
+    assertThrows(IllegalArgumentException.class, () -> new WorkStealingExecutor(0));
+    try (WorkStealingExecutor executor = new WorkStealingExecutor(3)) {
+      assertEquals(3, executor.getParallelism());
+      assertThrows(IllegalStateException.class, () -> executor.fork(() -> 1));
+      assertEquals(42, executor.invoke(() -> 42));
+      // Sum a range of numbers by recursively forking the lower half of the range.
+      assertEquals(499999500000L, executor.invoke(() -> forkJoinSum(executor, 0, 1000000)));
+      // An invocation from inside a task runs directly on the current worker.
+      assertEquals(7, executor.invoke(() -> executor.invoke(() -> 7)));
+      // Exceptions thrown by tasks are rethrown when they are joined.
+      assertThrows(IllegalStateException.class, () -> executor.invoke(() -> {
+        WorkStealingExecutor.Task<Void> failing = executor.fork(() -> {
+          throw new IllegalStateException("Task failed");
+        });
+        failing.join();
+      }));
+      AtomicInteger counter = new AtomicInteger();
+      executor.invoke(() -> {
+        List<WorkStealingExecutor.Task<Void>> tasks = new java.util.ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+          tasks.add(executor.fork(() -> { counter.incrementAndGet(); }));
+        }
+        for (WorkStealingExecutor.Task<Void> task : tasks) task.join();
+        assertTrue(tasks.get(0).isDone());
+      });
+      assertEquals(100, counter.get());
+    }
+  }
+
+  @Test
+  public void testWorkStealingExecutorClose() throws InterruptedException {
+    // Closing the executor lets the running task finish, and rejects submitted tasks that have not
+    // started, rather than leaving their invokers waiting forever.
+    WorkStealingExecutor executor = new WorkStealingExecutor(1);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger result = new AtomicInteger();
+    Thread running = new Thread(() -> result.set(executor.invoke(() -> {
+      started.countDown();
+      try { release.await(); }
+      catch (InterruptedException e) { throw new IllegalStateException(e); }
+      return 1;
+    })));
+    running.start();
+    started.await();
+    AtomicReference<Throwable> error =
+        new AtomicReference<>();
+    Thread pending = new Thread(() -> {
+      try { executor.invoke(() -> 2); }
+      catch (Throwable e) { error.set(e); }
+    });
+    pending.start();
+    // Wait until the second task is queued behind the first, and its invoker is parked.
+    while (pending.getState() != Thread.State.TIMED_WAITING) Thread.yield();
+    executor.close();
+    pending.join(5000);
+    assertFalse(pending.isAlive());
+    assertTrue(error.get() instanceof RejectedExecutionException);
+    release.countDown();
+    running.join(5000);
+    assertEquals(1, result.get());
+    assertThrows(RejectedExecutionException.class,
+        () -> executor.invoke(() -> 3));
+  }
+
+  /**
+   * Sums the given range of numbers on the given executor, forking tasks for large ranges.
+   * @param executor the executor on which to fork tasks
+   * @param from the first number in the range (inclusive)
+   * @param to the last number in the range (exclusive)
+   * @return the sum of the numbers in the range
+   */
+  private static long forkJoinSum(WorkStealingExecutor executor, long from, long to) {
+    if (to - from <= 10000) {
+      long sum = 0;
+      for (long i = from; i < to; i++) sum += i;
+      return sum;
+    }
+    long mid = (from + to) >>> 1;
+    WorkStealingExecutor.Task<Long> lower = executor.fork(() -> forkJoinSum(executor, from, mid));
+    return forkJoinSum(executor, mid, to) + lower.join();
+  }
+
   @Test
   public void testLinkedList() {
     LinkedList<String> l = new LinkedList<>();
@@ -818,6 +1909,163 @@ public class DataStructuresTests {
     assertEquals("goodbye", l.remove(0));
   }
 
+  @Test
+  public void testDoublyLinkedList() {
+    DoublyLinkedList<String> l = new DoublyLinkedList<>();
+    assertThrows(IllegalArgumentException.class, () -> new DoublyLinkedList<String>(-1));
+    assertThrows(NoSuchElementException.class, l::getFirst);
+    assertThrows(NoSuchElementException.class, l::getLast);
+    assertThrows(NoSuchElementException.class, l::removeFirst);
+    assertThrows(IndexOutOfBoundsException.class, () -> l.get(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> l.remove(0));
+    assertFalse(l.remove("the"));
+    l.add("hello");
+    l.add("goodbye");
+    l.addFirst("hi");
+    l.add(3, "bye");
+    l.add(1, "ok");
+    assertEquals(5, l.size());
+    assertEquals("hi", l.get(0));
+    assertEquals("ok", l.get(1));
+    assertEquals("hello", l.get(2));
+    assertEquals("goodbye", l.get(3));
+    assertEquals("bye", l.get(4));
+    assertEquals("bye", l.getLast());
+    assertTrue(l.remove("hello"));
+    assertEquals("goodbye", l.remove(2));
+    assertEquals("hi", l.removeFirst());
+    assertEquals("bye", l.removeLast());
+    assertEquals("ok", l.remove(0));
+    assertTrue(l.isEmpty());
+    // Test filtering through the iterator.
+    DoublyLinkedList<Integer> d = new DoublyLinkedList<>(8);
+    for (int i = 0; i < 20; i++) d.add(i);
+    Iterator<Integer> it = d.iterator();
+    while (it.hasNext()) if (it.next() % 3 != 0) it.remove();
+    assertThrows(IllegalStateException.class, it::remove);
+    assertEquals(7, d.size());
+    for (int i = 0; i < 7; i++) assertEquals(i * 3, d.get(i));
+    // Test insertion, replacement, and reverse traversal through a list iterator.
+    ListIterator<Integer> li = d.listIterator(1);
+    li.add(1);
+    li.add(2);
+    assertEquals(3, li.next());
+    li.set(-3);
+    assertEquals(4, li.nextIndex());
+    assertEquals(-3, li.previous());
+    li.remove();
+    assertEquals(2, li.previous());
+    assertEquals(1, li.previousIndex());
+    ListIterator<Integer> stale = d.listIterator();
+    d.add(100);
+    assertThrows(ConcurrentModificationException.class, stale::next);
+    Integer[] expected = {0, 1, 2, 6, 9, 12, 15, 18, 100};
+    ListIterator<Integer> back = d.listIterator(d.size());
+    for (int i = expected.length - 1; i >= 0; i--) assertEquals(expected[i], back.previous());
+    assertFalse(back.hasPrevious());
+    // Test splicing.
+    DoublyLinkedList<Integer> e = new DoublyLinkedList<>();
+    e.add(3);
+    e.add(4);
+    d.splice(3, e);
+    assertTrue(e.isEmpty());
+    DoublyLinkedList<Integer> f = new DoublyLinkedList<>();
+    f.add(-1);
+    d.splice(0, f);
+    DoublyLinkedList<Integer> g = new DoublyLinkedList<>();
+    g.add(200);
+    g.add(300);
+    d.concat(g);
+    expected = new Integer[]{-1, 0, 1, 2, 3, 4, 6, 9, 12, 15, 18, 100, 200, 300};
+    assertEquals(expected.length, d.size());
+    int idx = 0;
+    for (int i : d) assertEquals(expected[idx++], i);
+    assertEquals(300, d.getLast());
+    assertEquals(300, d.removeLast());
+    assertThrows(IllegalArgumentException.class, () -> d.concat(d));
+    assertThrows(IndexOutOfBoundsException.class, () -> d.splice(99, g));
+    // Recycled nodes should behave like new ones.
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 10; i++) g.add(i);
+      for (int i = 0; i < 10; i++) assertEquals(i, g.removeFirst());
+    }
+    assertTrue(g.isEmpty());
+  }
+
+  @Test
+  public void testUnrolledLinkedList() {
+    UnrolledLinkedList<String> l = new UnrolledLinkedList<>();
+    assertThrows(IllegalArgumentException.class, () -> new UnrolledLinkedList<String>(1));
+    assertThrows(NoSuchElementException.class, l::getFirst);
+    assertThrows(IndexOutOfBoundsException.class, () -> l.get(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> l.get(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> l.remove(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> l.add(1, "no"));
+    assertFalse(l.remove("the"));
+    assertTrue(l.isEmpty());
+    l.add("hello");
+    l.add("goodbye");
+    l.add(1, "hi");
+    l.add(0, "bye");
+    assertEquals(4, l.size());
+    assertEquals("bye", l.getFirst());
+    Iterator<String> it = l.iterator();
+    assertEquals("bye", it.next());
+    assertEquals("hello", it.next());
+    assertEquals("hi", it.next());
+    assertEquals("goodbye", it.next());
+    assertFalse(it.hasNext());
+    assertThrows(NoSuchElementException.class, it::next);
+    assertTrue(l.remove("hi"));
+    assertEquals("goodbye", l.remove(2));
+    assertEquals("bye", l.remove(0));
+    assertEquals("hello", l.remove(0));
+    assertTrue(l.isEmpty());
+    // Compare against java.util.ArrayList across many node splits, merges, and borrows.
+    UnrolledLinkedList<Integer> u = new UnrolledLinkedList<>(4);
+    List<Integer> expected = new java.util.ArrayList<>();
+    Random rand = new Random(42);
+    for (int i = 0; i < 2000; i++) {
+      int op = rand.nextInt(4);
+      if (op < 2 || expected.isEmpty()) {
+        int idx = rand.nextInt(expected.size() + 1);
+        u.add(idx, i);
+        expected.add(idx, i);
+      }
+      else if (op == 2) {
+        int idx = rand.nextInt(expected.size());
+        assertEquals(expected.remove(idx), u.remove(idx));
+      }
+      else {
+        int idx = rand.nextInt(expected.size());
+        assertEquals(expected.get(idx), u.get(idx));
+      }
+    }
+    assertEquals(expected.size(), u.size());
+    for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i), u.get(i));
+    for (int i = expected.size() - 1; i >= 0; i--) assertEquals(expected.get(i), u.get(i));
+    int idx = 0;
+    for (int i : u) assertEquals(expected.get(idx++), i);
+    // Test splicing.
+    UnrolledLinkedList<Integer> a = new UnrolledLinkedList<>(4), b = new UnrolledLinkedList<>(4);
+    for (int i = 0; i < 5; i++) a.add(i);
+    for (int i = 5; i < 12; i++) b.add(i);
+    a.splice(b);
+    assertTrue(b.isEmpty());
+    assertEquals(12, a.size());
+    for (int i = 0; i < 12; i++) assertEquals(i, a.get(i));
+    a.add(12);
+    assertEquals(12, a.get(12));
+    b.add(100);
+    assertEquals(100, b.getFirst());
+    assertThrows(IllegalArgumentException.class, () -> a.splice(a));
+    assertThrows(IllegalArgumentException.class, () -> a.splice(new UnrolledLinkedList<>(8)));
+    UnrolledLinkedList<Integer> c = new UnrolledLinkedList<>(4);
+    c.splice(a);
+    assertEquals(13, c.size());
+    assertEquals(0, c.getFirst());
+  }
+
   @Test
   public void testArrayList() {
     ArrayList<String> a = new ArrayList<>();
@@ -907,6 +2155,261 @@ public class DataStructuresTests {
     b.remove(0);
   }
 
+  @Test
+  public void testArrayListBulkOperations() {
+    ArrayList<Integer> a = new ArrayList<>();
+    assertThrows(IllegalArgumentException.class, () -> a.addAll((ArrayList<Integer>) null));
+    assertThrows(IllegalArgumentException.class, () -> a.removeIf(null));
+    for (int i = 0; i < 100; i++) a.add(i);
+    // Remove every element not divisible by 10 in a single pass.
+    assertTrue(a.removeIf(i -> i % 10 != 0));
+    assertFalse(a.removeIf(i -> i < 0));
+    assertEquals(10, a.size());
+    for (int i = 0; i < 10; i++) assertEquals(i * 10, a.get(i));
+    assertTrue(a.retainAll(Set.of(0, 30, 60, 90, 1000)));
+    assertArrayEquals(new Integer[]{0, 30, 60, 90}, a.stream().toArray());
+    // A predicate that throws partway through must leave the list unchanged.
+    ArrayList<Integer> t = new ArrayList<>();
+    for (int i = 0; i < 6; i++) t.add(i);
+    assertThrows(IllegalStateException.class, () -> t.removeIf(i -> {
+      if (i == 4) throw new IllegalStateException();
+      return i % 2 == 0;
+    }));
+    assertArrayEquals(new Integer[]{0, 1, 2, 3, 4, 5}, t.stream().toArray());
+    assertTrue(t.retainAll(Set.of(1, 3)));
+    assertArrayEquals(new Integer[]{1, 3}, t.stream().toArray());
+    // Removals spanning several words of the bit mask.
+    ArrayList<Integer> u = new ArrayList<>();
+    for (int i = 0; i < 200; i++) u.add(i);
+    assertTrue(u.removeIf(i -> i % 3 != 0));
+    assertEquals(67, u.size());
+    for (int i = 0; i < 67; i++) assertEquals(i * 3, u.get(i));
+    ArrayList<Integer> b = new ArrayList<>();
+    b.add(1);
+    b.add(2);
+    a.addAll(b);
+    a.addAll(List.of(3, 4));
+    a.addAll(a);
+    assertArrayEquals(new Integer[]{0, 30, 60, 90, 1, 2, 3, 4, 0, 30, 60, 90, 1, 2, 3, 4},
+            a.stream().toArray());
+    a.trimToSize();
+    a.add(5);
+    assertEquals(17, a.size());
+    assertEquals(5, a.get(16));
+    a.ensureCapacity(1000);
+    assertEquals(17, a.size());
+    // Test fail-fast iteration.
+    Iterator<Integer> it = a.iterator();
+    it.next();
+    a.add(6);
+    assertThrows(ConcurrentModificationException.class, it::next);
+    Iterator<Integer> it2 = a.iterator();
+    a.remove(0);
+    assertThrows(ConcurrentModificationException.class, it2::next);
+    Iterator<Integer> it3 = b.iterator();
+    it3.next();
+    it3.next();
+    assertThrows(NoSuchElementException.class, it3::next);
+    // Test the spliterator.
+    ArrayList<Integer> c = new ArrayList<>();
+    for (int i = 1; i <= 10000; i++) c.add(i);
+    Spliterator<Integer> split = c.spliterator();
+    assertTrue(split.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+    Spliterator<Integer> prefix = split.trySplit();
+    assertEquals(5000, prefix.estimateSize());
+    assertEquals(5000, split.estimateSize());
+    assertEquals(50005000L, c.parallelStream().mapToLong(Integer::longValue).sum());
+    assertEquals(10000, c.stream().count());
+    assertThrows(ConcurrentModificationException.class,
+            () -> c.stream().forEach(i -> { if (i == 1) c.add(0); }));
+  }
+
+  @Test
+  public void testIntArrayList() {
+    IntArrayList a = new IntArrayList();
+    assertTrue(a.isEmpty());
+    assertThrows(NoSuchElementException.class, a::getFirst);
+    assertThrows(IndexOutOfBoundsException.class, () -> a.get(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> a.remove(-1));
+    assertThrows(IllegalArgumentException.class, () -> a.addAll(null, 0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> a.addAll(new int[3], 2, 2));
+    // Add elements so that resize() is called.
+    for (int i = 0; i < 20; i++) a.add(20 - i);
+    assertEquals(20, a.size());
+    assertEquals(20, a.getFirst());
+    assertEquals(1, a.get(19));
+    assertEquals(18, a.set(2, 99));
+    assertEquals(99, a.remove(2));
+    assertEquals(19, a.size());
+    assertEquals(17, a.get(2));
+    a.addAll(new int[]{-5, -6, -7, -8}, 1, 2);
+    assertEquals(21, a.size());
+    assertEquals(-6, a.get(19));
+    assertEquals(-7, a.get(20));
+    a.sort();
+    assertArrayEquals(new int[]{-7, -6, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17,
+            19, 20}, a.toArray());
+    assertEquals(1, a.binarySearch(-6));
+    assertEquals(20, a.binarySearch(20));
+    assertEquals(-20, a.binarySearch(18));
+    // Test primitive iteration.
+    int[] sum = new int[1];
+    a.forEach(i -> sum[0] += i);
+    assertEquals(179, sum[0]);
+    PrimitiveIterator.OfInt it = a.iterator();
+    for (int i = 0; i < a.size(); i++) assertEquals(a.get(i), it.nextInt());
+    assertFalse(it.hasNext());
+    assertThrows(NoSuchElementException.class, it::nextInt);
+    // Test zero-copy handoff of the backing array.
+    IntArrayList b = new IntArrayList();
+    b.addAll(new int[]{9, 3, 7, 1, 5}, 0, 5);
+    assertTrue(b.elements().length > b.size());
+    QuickSort.sort(b.elements(), 0, b.size());
+    assertArrayEquals(new int[]{1, 3, 5, 7, 9}, b.toArray());
+    assertEquals(3, BinarySearch.binarySearch(b.elements(), 0, b.size(), 7));
+    b.trimToSize();
+    assertEquals(5, b.elements().length);
+    assertEquals(1, BinarySearch.binarySearch(b.elements(), 3));
+    b.add(11);
+    assertEquals(11, b.get(5));
+    // Remove elements so that resize() is called.
+    while (!a.isEmpty()) a.remove(0);
+    b.clear();
+    assertEquals(0, b.size());
+  }
+
+  @Test
+  public void testLongArrayList() {
+    LongArrayList a = new LongArrayList();
+    assertTrue(a.isEmpty());
+    assertThrows(NoSuchElementException.class, a::getFirst);
+    assertThrows(IndexOutOfBoundsException.class, () -> a.get(0));
+    long big = 1L << 40;
+    for (int i = 0; i < 20; i++) a.add(big - i);
+    assertEquals(20, a.size());
+    assertEquals(big, a.getFirst());
+    assertEquals(big - 19, a.remove(19));
+    a.addAll(new long[]{-big, big * 2}, 0, 2);
+    assertEquals(21, a.size());
+    a.sort();
+    assertEquals(-big, a.get(0));
+    assertEquals(big * 2, a.get(20));
+    assertEquals(19, a.binarySearch(big));
+    long[] sum = new long[1];
+    a.forEach(l -> sum[0] += l);
+    long expected = 0;
+    for (long l : a.toArray()) expected += l;
+    assertEquals(expected, sum[0]);
+    PrimitiveIterator.OfLong it = a.iterator();
+    for (int i = 0; i < a.size(); i++) assertEquals(a.get(i), it.nextLong());
+    assertFalse(it.hasNext());
+    a.trimToSize();
+    assertEquals(21, a.elements().length);
+    while (!a.isEmpty()) a.remove(a.size() - 1);
+  }
+
+  @Test
+  public void testIntIntHashMap() {
+    IntIntHashMap m = new IntIntHashMap();
+    assertTrue(m.isEmpty());
+    assertEquals(-1, m.getOrDefault(0, -1));
+    assertFalse(m.remove(0));
+    assertThrows(IllegalArgumentException.class, () -> new IntIntHashMap(-1));
+    assertThrows(IllegalArgumentException.class, () -> m.computeIfAbsent(1, null));
+    // The zero key is stored separately from the table.
+    assertEquals(0, m.put(0, 7));
+    assertTrue(m.containsKey(0));
+    assertEquals(7, m.put(0, 8));
+    assertEquals(10, m.addTo(0, 2));
+    assertEquals(1, m.size());
+    // Add enough keys that the table is resized.
+    for (int i = 1; i <= 100; i++) assertEquals(0, m.put(i * 16, i));
+    assertEquals(101, m.size());
+    assertEquals(50, m.getOrDefault(800, -1));
+    assertEquals(-1, m.getOrDefault(801, -1));
+    assertEquals(55, m.addTo(800, 5));
+    assertEquals(3, m.addTo(-3, 3));
+    assertEquals(42, m.computeIfAbsent(5, k -> 42));
+    assertEquals(42, m.computeIfAbsent(5, k -> 0));
+    long[] sum = new long[1];
+    m.forEach((k, v) -> sum[0] += k + v);
+    assertEquals(10 + 80800 + 5055 + (-3 + 3) + (5 + 42), sum[0]);
+    // Remove keys so that later keys in the same runs are shifted back, and the table shrinks.
+    assertTrue(m.remove(0));
+    assertFalse(m.containsKey(0));
+    for (int i = 1; i <= 100; i += 2) assertTrue(m.remove(i * 16));
+    for (int i = 2; i <= 100; i += 2) assertEquals((i == 50) ? 55 : i, m.getOrDefault(i * 16, -1));
+    assertFalse(m.remove(16));
+    m.clear();
+    assertTrue(m.isEmpty());
+    // A mapping function that adds the key itself has its result overwrite the value it added.
+    assertEquals(2, m.computeIfAbsent(5, k -> {
+      m.put(5, 1);
+      return 2;
+    }));
+    assertEquals(2, m.computeIfAbsent(0, k -> {
+      m.put(0, 1);
+      return 2;
+    }));
+    assertEquals(2, m.getOrDefault(5, -1));
+    assertEquals(2, m.size());
+    // Compare against HashMap under a random mix of operations on colliding keys.
+    IntIntHashMap r = new IntIntHashMap(10);
+    HashMap<Integer, Integer> expected = new HashMap<>();
+    Random rand = new Random(7);
+    for (int i = 0; i < 20000; i++) {
+      int key = rand.nextInt(512) << rand.nextInt(20);
+      if (rand.nextBoolean()) assertEquals((int) expected.getOrDefault(key, 0), r.put(key, i));
+      else assertEquals(expected.remove(key) != null, r.remove(key));
+      if (r.containsKey(key)) expected.put(key, i);
+    }
+    assertEquals(expected.size(), r.size());
+    r.forEach((k, v) -> assertEquals((int) expected.get(k), v));
+  }
+
+  @Test
+  public void testLongLongHashMap() {
+    LongLongHashMap m = new LongLongHashMap();
+    assertTrue(m.isEmpty());
+    assertEquals(-1, m.getOrDefault(0, -1));
+    assertEquals(0, m.put(0, 1L << 40));
+    assertEquals(1L << 40, m.addTo(0, 0));
+    // Keys differing only in their high bits must not collide.
+    long big = 1L << 40;
+    for (long i = 1; i <= 100; i++) assertEquals(0, m.put(i * big, i * big));
+    assertEquals(101, m.size());
+    assertEquals(50 * big, m.getOrDefault(50 * big, -1));
+    assertEquals(-1, m.getOrDefault(50, -1));
+    assertEquals(big + 1, m.addTo(-big, big + 1));
+    assertEquals(9, m.computeIfAbsent(Long.MIN_VALUE, k -> 9));
+    LongLongHashMap n = new LongLongHashMap();
+    assertEquals(2, n.computeIfAbsent(big, k -> {
+      n.put(big, 1);
+      return 2;
+    }));
+    assertEquals(2, n.getOrDefault(big, -1));
+    assertEquals(1, n.size());
+    long[] count = new long[1];
+    m.forEach((k, v) -> count[0]++);
+    assertEquals(103, count[0]);
+    for (long i = 1; i <= 100; i++) assertTrue(m.remove(i * big));
+    assertEquals(3, m.size());
+    assertEquals(9, m.getOrDefault(Long.MIN_VALUE, -1));
+    // Compare against HashMap under a random mix of operations.
+    LongLongHashMap r = new LongLongHashMap();
+    HashMap<Long, Long> expected = new HashMap<>();
+    Random rand = new Random(11);
+    for (int i = 0; i < 20000; i++) {
+      long key = (long) rand.nextInt(512) << rand.nextInt(60);
+      if (rand.nextBoolean())
+        assertEquals((long) expected.getOrDefault(key, 0L), r.addTo(key, i) - i);
+      else assertEquals(expected.remove(key) != null, r.remove(key));
+      if (r.containsKey(key)) expected.put(key, r.getOrDefault(key, 0));
+    }
+    assertEquals(expected.size(), r.size());
+    r.forEach((k, v) -> assertEquals((long) expected.get(k), v));
+  }
+
   @Test
   public void testStringBuilder() {
     StringBuilder s1 = new StringBuilder();
@@ -931,6 +2434,161 @@ public class DataStructuresTests {
     s1.append('n');
     s1.append('o');
     assertEquals("hiokabcdefghijklmno", s1.toString());
+    // Test appending characters outside the Latin-1 range, which inflates the buffer.
+    StringBuilder s4 = new StringBuilder("caf\u00e9");
+    s4.append(" \u03bb");
+    s4.append(new char[]{'\u2192', 'x'});
+    s4.append('\u00ff');
+    assertEquals("caf\u00e9 \u03bb\u2192x\u00ff", s4.toString());
+    assertEquals('\u00e9', s4.charAt(3));
+    assertEquals('\u03bb', s4.charAt(5));
+    assertThrows(IndexOutOfBoundsException.class, () -> s4.charAt(9));
+    // Test appending ranges of character sequences.
+    StringBuilder s5 = new StringBuilder("");
+    s5.append("abcdef", 1, 4);
+    s5.append(new java.lang.StringBuilder("ghij"), 2, 4);
+    s5.append("\u03b1\u03b2\u03b3", 1, 2);
+    assertEquals("bcdij\u03b2", s5.toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> s5.append("abc", 2, 4));
+    assertThrows(IndexOutOfBoundsException.class, () -> s5.append("abc", 2, 1));
+    assertThrows(IllegalArgumentException.class, () -> s5.append((CharSequence) null, 0, 0));
+    // Test appending numbers, which are formatted straight into the buffer.
+    StringBuilder s6 = new StringBuilder();
+    s6.append(0);
+    s6.append(',');
+    s6.append(-42);
+    s6.append(',');
+    s6.append(Integer.MIN_VALUE);
+    s6.append(',');
+    s6.append(Long.MAX_VALUE);
+    s6.append(',');
+    s6.append(Long.MIN_VALUE);
+    assertEquals("0,-42,-2147483648,9223372036854775807,-9223372036854775808", s6.toString());
+    assertEquals(58, s6.length());
+    s6.reset();
+    assertEquals(0, s6.length());
+    assertEquals("", s6.toString());
+    double[] doubles = {0.0, -0.0, 1.0, -2.5, 0.001, 0.1, 19.99, 1234567.875, 9999999.0, 1e7, 1e-4,
+        Math.PI, -Math.E, 1.0 / 3, Double.NaN, Double.NEGATIVE_INFINITY, Double.MIN_VALUE};
+    for (double d : doubles) {
+      s6.reset();
+      s6.append(d);
+      assertEquals(Double.toString(d), s6.toString());
+    }
+    Random rand = new Random(11);
+    double[] powersOfTen = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6};
+    for (int i = 0; i < 1000; i++) {
+      double d = rand.nextInt(2000000000) / powersOfTen[rand.nextInt(powersOfTen.length)];
+      s6.reset();
+      s6.append(d);
+      assertEquals(Double.toString(d), s6.toString());
+    }
+    // Test changing the length.
+    StringBuilder s7 = new StringBuilder("truncate me");
+    s7.setLength(8);
+    assertEquals("truncate", s7.toString());
+    s7.setLength(10);
+    assertEquals("truncate\0\0", s7.toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> s7.setLength(-1));
+  }
+
+  @Test
+  public void testChannelWriter() throws IOException {
+    // Write far more output than the buffer holds, in several charsets, and check that the bytes
+    // written match the encoding of the equivalent string.
+    String[] pieces = {"plain ascii, ", "caf\u00e9 ", "\u03bb\u2192 ", "\ud83d\ude00"};
+    for (Charset charset : new Charset[]
+        {StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      java.lang.StringBuilder expected = new java.lang.StringBuilder();
+      ChannelWriter w = new ChannelWriter(Channels.newChannel(out), charset, 64);
+      for (int i = 0; i < 500; i++) {
+        String piece = pieces[i % pieces.length];
+        w.append(piece);
+        expected.append(piece);
+        w.append(i);
+        expected.append(i);
+        w.append(' ');
+        expected.append(' ');
+        w.append(i / 4.0);
+        expected.append(i / 4.0);
+        w.append(new char[]{',', '\n'});
+        expected.append(",\n");
+      }
+      String longString = "x".repeat(1000);
+      w.append(longString, 1, 999);
+      expected.append(longString, 1, 999);
+      w.flush();
+      w.append(-7L);
+      expected.append(-7L);
+      w.close();
+      w.close();
+      assertArrayEquals(expected.toString().getBytes(charset), out.toByteArray());
+      assertThrows(IOException.class, () -> w.append('x'));
+    }
+    assertThrows(IllegalArgumentException.class,
+        () -> new ChannelWriter(Channels.newChannel(new ByteArrayOutputStream()),
+            StandardCharsets.UTF_8, 10));
+    assertThrows(IllegalArgumentException.class, () -> new ChannelWriter(null));
+  }
+
+  @Test
+  public void testRope() {
+    Rope empty = new Rope();
+    assertTrue(empty.isEmpty());
+    assertEquals(0, empty.length());
+    assertEquals("", empty.toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> empty.charAt(0));
+    assertThrows(IllegalArgumentException.class, () -> new Rope(null));
+    Rope r = new Rope("hello world");
+    assertEquals('w', r.charAt(6));
+    assertEquals("hello, world", r.insert(5, ",").toString());
+    assertEquals("hello", r.delete(5, 11).toString());
+    assertEquals("lo wo", r.substring(3, 8).toString());
+    assertEquals("hello world!", r.concat(new Rope("!")).toString());
+    assertEquals("hello world", r.toString()); // Ropes are immutable.
+    assertThrows(IndexOutOfBoundsException.class, () -> r.insert(12, "x"));
+    assertThrows(IndexOutOfBoundsException.class, () -> r.delete(4, 3));
+    assertThrows(IndexOutOfBoundsException.class, () -> r.substring(0, 12));
+    assertThrows(IllegalArgumentException.class, () -> r.concat(null));
+    // Build a large document, apply many scattered edits to both a rope and a reference builder,
+    // and check that they agree and that the tree stays balanced.
+    Random rand = new Random(5);
+    java.lang.StringBuilder expected = new java.lang.StringBuilder();
+    for (int i = 0; i < 200000; i++) expected.append((char) ('a' + rand.nextInt(26)));
+    Rope doc = new Rope(expected);
+    for (int i = 0; i < 2000; i++) {
+      int idx = rand.nextInt(expected.length() + 1);
+      if (rand.nextBoolean()) {
+        String s = "edit" + i;
+        doc = doc.insert(idx, s);
+        expected.insert(idx, s);
+      }
+      else {
+        int end = Math.min(expected.length(), idx + rand.nextInt(100));
+        doc = doc.delete(idx, end);
+        expected.delete(idx, end);
+      }
+      int probe = rand.nextInt(expected.length());
+      assertEquals(expected.charAt(probe), doc.charAt(probe));
+    }
+    assertEquals(expected.length(), doc.length());
+    assertEquals(expected.toString(), doc.toString());
+    int chunkCount = 0;
+    java.lang.StringBuilder fromChunks = new java.lang.StringBuilder();
+    for (String chunk : doc.chunks()) {
+      fromChunks.append(chunk);
+      chunkCount++;
+    }
+    assertEquals(expected.toString(), fromChunks.toString());
+    // An AVL tree with n leaves has height less than 1.45 * log2(n + 2).
+    assertTrue(doc.height() < 1.45 * Math.log(chunkCount + 2) / Math.log(2));
+    assertEquals(expected.substring(1000, 50000), doc.substring(1000, 50000).toString());
+    Rope doubled = doc.concat(doc);
+    assertEquals(expected.toString() + expected, doubled.toString());
+    StringBuilder flattened = new StringBuilder();
+    doubled.substring(10, 20).appendTo(flattened);
+    assertEquals(expected.substring(10, 20), flattened.toString());
   }
 
   @Test
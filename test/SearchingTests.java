@@ -1,13 +1,17 @@
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import dataStructures.BinaryTree;
 import dataStructures.GraphAdjacencyListBetter;
+import dataStructures.GraphGeneric;
 import searching.*;
 
 public class SearchingTests {
@@ -161,6 +165,64 @@ public class SearchingTests {
     assertFalse(dfs.dfsTreeRecursive(17));
   }
 
+  @Test
+  public void testBidirectionalBFS() {
+    // Test a GraphAdjacencyListBetter.
+    List<GraphAdjacencyListBetter<Integer>.Node> path =
+            BidirectionalBFS.shortestPath(graph, findNode(15), findNode(74));
+    assertArrayEquals(new Integer[]{15, 11, 74}, path.stream().map(n -> n.getData()).toArray());
+    path = BidirectionalBFS.shortestPath(graph, findNode(88), findNode(1));
+    assertArrayEquals(new Integer[]{88, 3, 1}, path.stream().map(n -> n.getData()).toArray());
+    path = BidirectionalBFS.shortestPath(graph, findNode(15), findNode(15));
+    assertArrayEquals(new Integer[]{15}, path.stream().map(n -> n.getData()).toArray());
+    path = BidirectionalBFS.shortestPath(graph, findNode(19), findNode(29));
+    assertEquals(4, path.size());
+    assertEquals(19, path.get(0).getData());
+    assertEquals(29, path.get(3).getData());
+    for (int i = 0; i < path.size() - 1; i++)
+      assertTrue(graph.checkEdge(path.get(i), path.get(i + 1)));
+    assertTrue(BidirectionalBFS.shortestPath(graph, findNode(15), findNode(3)).isEmpty());
+    GraphAdjacencyListBetter<Integer>.Node outsider =
+            new GraphAdjacencyListBetter<Integer>().addNode(5);
+    assertThrows(IllegalArgumentException.class,
+            () -> BidirectionalBFS.shortestPath(graph, findNode(15), outsider));
+    // Test a directed GraphGeneric.
+    GraphGeneric<String> g = new GraphGeneric<>(true);
+    GraphGeneric<String>.Node a = g.addNode("a"), b = g.addNode("b"), c = g.addNode("c"),
+            d = g.addNode("d"), e = g.addNode("e");
+    g.addEdge(a, b);
+    g.addEdge(b, c);
+    g.addEdge(c, d);
+    g.addEdge(a, e, 10);
+    g.addEdge(e, d, 10);
+    g.addEdge(d, a);
+    List<GraphGeneric<String>.Node> gPath = BidirectionalBFS.shortestPath(g, a, d);
+    assertArrayEquals(new String[]{"a", "e", "d"}, gPath.stream().map(n -> n.getData()).toArray());
+    gPath = BidirectionalBFS.shortestPath(g, c, b);
+    assertArrayEquals(new String[]{"c", "d", "a", "b"},
+            gPath.stream().map(n -> n.getData()).toArray());
+    g.removeEdge(d, a);
+    assertTrue(BidirectionalBFS.shortestPath(g, d, a).isEmpty());
+    // Test an undirected GraphGeneric.
+    GraphGeneric<String> ug = new GraphGeneric<>(false);
+    GraphGeneric<String>.Node x = ug.addNode("x"), y = ug.addNode("y"), z = ug.addNode("z");
+    ug.addEdge(x, y);
+    ug.addEdge(y, z);
+    gPath = BidirectionalBFS.shortestPath(ug, z, x);
+    assertArrayEquals(new String[]{"z", "y", "x"}, gPath.stream().map(n -> n.getData()).toArray());
+  }
+
+  /**
+   * Finds the node in the test graph that contains the given data.
+   * @param data the data to search for
+   * @return the node containing the given data
+   */
+  private GraphAdjacencyListBetter<Integer>.Node findNode(int data) {
+    for (GraphAdjacencyListBetter<Integer>.Node node : graph.getGraph().keySet())
+      if (node.getData() == data) return node;
+    return null;
+  }
+
   @Test
   public void testBinarySearch() {
     assertEquals(-1, BinarySearch.binarySearch(new int[]{}, 1));
@@ -172,5 +234,10 @@ public class SearchingTests {
     assertEquals(-1, BinarySearch.binarySearch(new int[]{9,22,35,67,80}, 86));
     assertEquals(4, BinarySearch.binarySearch(new int[]{9,22,35,67,80}, 80));
     assertEquals(0, BinarySearch.binarySearch(new int[]{9,22,35,67,80}, 9));
+    assertEquals(3, BinarySearch.binarySearch(new int[]{9,22,35,67,80,0,0}, 0, 5, 67));
+    assertEquals(-1, BinarySearch.binarySearch(new int[]{9,22,35,67,80,0,0}, 0, 5, 0));
+    assertEquals(-1, BinarySearch.binarySearch(new int[]{9,22,35,67,80}, 1, 3, 9));
+    assertThrows(IndexOutOfBoundsException.class,
+            () -> BinarySearch.binarySearch(new int[]{9,22,35}, 0, 4, 9));
   }
 }
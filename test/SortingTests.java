@@ -6,10 +6,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 import dataStructures.GraphGeneric;
+import dataStructures.WorkStealingExecutor;
 import sorting.*;
 
 public class SortingTests {
@@ -69,6 +72,26 @@ public class SortingTests {
     assertArrayEquals(s6, l6);
     assertArrayEquals(s7, l7);
     assertArrayEquals(s8, l8);
+    // Test sorting a range of an array.
+    int[] partial = new int[] {5, 4, 3, 2, 1, 0};
+    QuickSort.sort(partial, 1, 4);
+    assertArrayEquals(new int[] {5, 2, 3, 4, 1, 0}, partial);
+    QuickSort.sort(partial, 2, 2);
+    assertArrayEquals(new int[] {5, 2, 3, 4, 1, 0}, partial);
+    assertThrows(IndexOutOfBoundsException.class, () -> QuickSort.sort(partial, 3, 7));
+    assertThrows(IndexOutOfBoundsException.class, () -> QuickSort.sort(partial, 3, 2));
+    assertThrows(IllegalArgumentException.class, () -> QuickSort.sort(l7, 0, 0));
+    // Test sorting in parallel, on arrays both smaller and larger than the parallel threshold.
+    try (WorkStealingExecutor executor = new WorkStealingExecutor(4)) {
+      QuickSort.parallelSort(l3, executor);
+      assertArrayEquals(s3, l3);
+      int[] large = new Random(42).ints(100000).toArray(), expected = large.clone();
+      Arrays.sort(expected);
+      QuickSort.parallelSort(large, executor);
+      assertArrayEquals(expected, large);
+      assertThrows(IllegalArgumentException.class, () -> QuickSort.parallelSort(l7, executor));
+      assertThrows(IllegalArgumentException.class, () -> QuickSort.parallelSort(l1, null));
+    }
   }
 
   @Test